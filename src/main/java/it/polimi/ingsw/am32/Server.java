@@ -1,8 +1,14 @@
 package it.polimi.ingsw.am32;
 
+import it.polimi.ingsw.am32.controller.GamesManager;
+import it.polimi.ingsw.am32.metrics.ManagementBeans;
+import it.polimi.ingsw.am32.metrics.MetricsHttpServer;
 import it.polimi.ingsw.am32.utilities.Configuration;
 import it.polimi.ingsw.am32.network.ClientAcceptor.RMIClientAcceptor;
+import it.polimi.ingsw.am32.network.ClientAcceptor.NIOClientAcceptor;
 import it.polimi.ingsw.am32.network.ClientAcceptor.SKClientAcceptor;
+import it.polimi.ingsw.am32.network.ClientAcceptor.SocketTransport;
+import it.polimi.ingsw.am32.network.ClientAcceptor.UDSClientAcceptor;
 import it.polimi.ingsw.am32.network.ServerNode.RMIServerNode;
 import it.polimi.ingsw.am32.network.ServerNode.SKServerNode;
 import it.polimi.ingsw.am32.utilities.Log4J2ConfiguratorWrapper;
@@ -10,10 +16,16 @@ import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.rmi.AlreadyBoundException;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
 
 /**
  * The game server is started through the method {@link Server#main} included in this class.
@@ -51,6 +63,12 @@ public class Server {
 
     private static final Logger logger = LogManager.getLogger(Server.class);
 
+    /**
+     * Variables used to tell whether the server is accepting connections
+     */
+    private BooleanSupplier socketAccepting;
+    private Registry registry;
+
     //---------------------------------------------------------------------------------------------
     // Static Main
 
@@ -63,7 +81,11 @@ public class Server {
         // Configure log4j2 logger to log only info and above
         Log4J2ConfiguratorWrapper.setLogLevelAndConfigure(Level.INFO);
         logger.info("The server is now starting");
-        new Server(args).start();
+        Server server = new Server(args);
+        // Once the configuration is loaded, the logs are written asynchronously and routed to the files of the games
+        Log4J2ConfiguratorWrapper.setLogLevelAndConfigure(Level.INFO, Configuration.getInstance().getAsyncLogBufferSize(),
+                Configuration.getInstance().getGameLogDirectory());
+        server.start();
     }
 
     //---------------------------------------------------------------------------------------------
@@ -89,19 +111,63 @@ public class Server {
      * {@link RMIClientAcceptor} used for handling new connections
      */
     public void start() {
+        registerManagementBeans();
+        recoverGames();
         startSocketServer();
         startRMIServer();
+        startMetricsServer();
         logger.info("Networking stack started. Server is now ready to accept connections");
     }
 
+    /**
+     * This method is used to register the MBeans of the server in the platform MBean server.
+     * <br>
+     * The {@code GamesManager} and the transports can then be monitored with standard JMX tools, and each game, whose
+     * MBean is registered when it is created, can be dumped or ended by an operator.
+     */
+    private void registerManagementBeans() {
+        logger.debug("Registering the management beans");
+        GamesManager.getInstance();
+        ManagementBeans.registerTransports();
+    }
+
+    /**
+     * This method is used to rebuild the games interrupted by a previous crash of the server, replaying their journals.
+     * <br>
+     * It has to be invoked before accepting connections, so that the players of those games can reconnect to them.
+     */
+    private void recoverGames() {
+        logger.debug("Recovering the games from their journals");
+        int recoveredGames = GamesManager.getInstance().recoverGames();
+        if (recoveredGames > 0)
+            logger.info("{} games recovered from their journals", recoveredGames);
+    }
+
     /**
      * This method is used to expose to the outside a socket to accept incoming connections.
      * <br>
-     * Create an instance of {@link SKClientAcceptor} and submit it to the server {@link java.util.concurrent.ExecutorService}
+     * Create an instance of {@link SKClientAcceptor}, or of {@link NIOClientAcceptor} if the NIO transport is configured,
+     * and submit it to the server {@link java.util.concurrent.ExecutorService}. <br>
+     * If a Unix domain socket path is configured, an instance of {@link UDSClientAcceptor} is submitted as well, for the
+     * clients running on the same host.
      */
     private void startSocketServer() {
         logger.debug("Starting the Socket listener");
-        Configuration.getInstance().getExecutorService().submit(new SKClientAcceptor());
+        if (Configuration.getInstance().getSocketTransport() == SocketTransport.NIO) {
+            NIOClientAcceptor nioClientAcceptor = new NIOClientAcceptor();
+            socketAccepting = nioClientAcceptor::isAccepting;
+            Configuration.getInstance().getExecutorService().submit(nioClientAcceptor);
+        } else {
+            SKClientAcceptor skClientAcceptor = new SKClientAcceptor();
+            socketAccepting = skClientAcceptor::isAccepting;
+            Configuration.getInstance().getExecutorService().submit(skClientAcceptor);
+        }
+
+        if (!Configuration.getInstance().getUnixSocketPath().isEmpty()) {
+            logger.debug("Starting the Unix domain socket listener");
+            Configuration.getInstance().getExecutorService().submit(
+                    new UDSClientAcceptor(Path.of(Configuration.getInstance().getUnixSocketPath())));
+        }
     }
 
     /**
@@ -113,7 +179,7 @@ public class Server {
         logger.debug("Starting the RMI listener");
         try {
             System.setProperty("java.rmi.server.hostname", Configuration.getInstance().getServerIp());
-            Registry registry = LocateRegistry.createRegistry(Configuration.getInstance().getRmiPort());
+            registry = LocateRegistry.createRegistry(Configuration.getInstance().getRmiPort());
             RMIClientAcceptor rmiClientAcceptor = new RMIClientAcceptor();
             registry.bind("Server-CodexNaturalis", rmiClientAcceptor);
             logger.debug("RMI Client Acceptor created");
@@ -126,4 +192,45 @@ public class Server {
             logger.fatal("RMI communications not available. Not listed error", e);
         }
     }
+
+    /**
+     * This method is used to expose to the outside the metrics of the server and its liveness and readiness over HTTP,
+     * if a port is configured for them.
+     * <br>
+     * The server is ready when the socket acceptor is accepting connections and the RMI registry answers to lookups.
+     */
+    private void startMetricsServer() {
+        if (Configuration.getInstance().getMetricsPort() == 0)
+            return;
+
+        logger.debug("Starting the metrics HTTP listener");
+        Map<String, BooleanSupplier> readinessChecks = new LinkedHashMap<>();
+        readinessChecks.put("socket", socketAccepting);
+        readinessChecks.put("rmi", this::isRMIRegistryAccepting);
+        try {
+            new MetricsHttpServer(new InetSocketAddress(Configuration.getInstance().getServerIp(),
+                    Configuration.getInstance().getMetricsPort()), GamesManager.getInstance().getMonitor(),
+                    readinessChecks, Configuration.getInstance().getExecutorService()).start();
+        } catch (IOException e) {
+            logger.error("Metrics not available over HTTP. Metrics HTTP listener creation failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Return whether the RMI registry has been created and answers to lookups through its port, as a client would
+     * reach it.
+     *
+     * @return true if the RMI registry is accepting connections
+     */
+    private boolean isRMIRegistryAccepting() {
+        if (registry == null)
+            return false;
+        try {
+            LocateRegistry.getRegistry(Configuration.getInstance().getServerIp(), Configuration.getInstance().getRmiPort())
+                    .lookup("Server-CodexNaturalis");
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
 }
@@ -6,12 +6,15 @@ import it.polimi.ingsw.am32.utilities.IsValid;
 import it.polimi.ingsw.am32.client.listener.AskListener;
 import it.polimi.ingsw.am32.message.ClientToServer.CtoSLobbyMessage;
 import it.polimi.ingsw.am32.message.ClientToServer.CtoSMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.MessagePriority;
 import it.polimi.ingsw.am32.network.ClientNode.ClientNodeInterface;
+import it.polimi.ingsw.am32.network.ClientNode.LoopbackClientNode;
 import it.polimi.ingsw.am32.network.ClientNode.RMIClientNode;
 import it.polimi.ingsw.am32.network.ClientNode.SKClientNode;
 
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -137,6 +140,19 @@ public abstract class View{
      * The List of ChatMessage objects that stores the chat history of the player.
      */
     protected List<ChatMessage>chatHistory;
+    /**
+     * The epoch of the event log of the game the sequence numbers received refer to.
+     */
+    private long sequenceEpoch;
+    /**
+     * The last sequence number applied for each priority class, indexed by the ordinal of the {@link MessagePriority}.
+     */
+    private final long[] lastAppliedSequences;
+    /**
+     * The round trip time and the jitter of the connection of each player to the server, in microseconds, as last
+     * reported by the server.
+     */
+    private final HashMap<String, long[]> linkQuality;
 
     /**
      * The constructor of the class that initializes the view with the default values.
@@ -153,9 +169,82 @@ public abstract class View{
         this.hand = new ArrayList<>();
         this.publicInfo = new HashMap<>();
         this.chatHistory = Collections.synchronizedList(new ArrayList<>());
+        this.sequenceEpoch = 0;
+        this.lastAppliedSequences = new long[MessagePriority.values().length];
+        this.linkQuality = new HashMap<>();
         isValid = new IsValid();
     }
 
+    /**
+     * Records the sequence number of a message received from the server, and tells whether the message has to be
+     * applied. Messages already applied, which can be received again when the server replays the missed messages after
+     * a reconnection, are skipped. If the message contains the full status of the game, all the previous messages are
+     * considered applied.
+     * @param epoch the epoch of the event log that assigned the sequence number
+     * @param priority the priority class of the message
+     * @param sequence the sequence number of the message
+     * @param snapshot true if the message contains the full status of the game
+     * @return true if the message has to be applied, false if it has already been applied
+     */
+    public synchronized boolean acknowledgeSequence(long epoch, MessagePriority priority, long sequence, boolean snapshot) {
+        if (epoch != sequenceEpoch) { // Messages of a new game, or of a game restored by the server
+            sequenceEpoch = epoch;
+            Arrays.fill(lastAppliedSequences, 0);
+        }
+        if (sequence <= lastAppliedSequences[priority.ordinal()]) {
+            return false;
+        }
+        if (snapshot) {
+            for (int i = 0; i < lastAppliedSequences.length; i++) {
+                lastAppliedSequences[i] = Math.max(lastAppliedSequences[i], sequence);
+            }
+        } else {
+            lastAppliedSequences[priority.ordinal()] = sequence;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the epoch of the event log the last applied sequence numbers refer to.
+     * @return the epoch of the event log, or 0 if no sequenced message has been received yet
+     */
+    public synchronized long getSequenceEpoch() {
+        return sequenceEpoch;
+    }
+
+    /**
+     * Returns the last sequence number applied for each priority class. They can be sent to the server when
+     * reconnecting to receive only the missed messages. Only a client that resumes from the state it had before the
+     * disconnection can use them: the text and graphical UIs rebuild their state from the full status of the game.
+     * @return a copy of the last applied sequence numbers, indexed by the ordinal of the {@link MessagePriority}
+     */
+    public synchronized long[] getLastAppliedSequences() {
+        return lastAppliedSequences.clone();
+    }
+
+    /**
+     * Records the quality of the connections of the players to the server, reported periodically by the server.
+     * @param playerNicknames the nicknames of the players
+     * @param roundTripMicros the round trip time of the connection of each player, in microseconds, or -1 if unknown
+     * @param jitterMicros the jitter of the connection of each player, in microseconds, or -1 if unknown
+     */
+    public synchronized void updateLinkQuality(ArrayList<String> playerNicknames, long[] roundTripMicros, long[] jitterMicros) {
+        linkQuality.clear();
+        for (int i = 0; i < playerNicknames.size(); i++) {
+            linkQuality.put(playerNicknames.get(i), new long[]{roundTripMicros[i], jitterMicros[i]});
+        }
+    }
+
+    /**
+     * Returns the quality of the connection of a player to the server, as last reported by the server.
+     * @param playerNickname the nickname of the player
+     * @return the round trip time and the jitter of the connection, in microseconds, or null if not reported
+     */
+    public synchronized long[] getLinkQuality(String playerNickname) {
+        long[] quality = linkQuality.get(playerNickname);
+        return quality == null ? null : quality.clone();
+    }
+
     /**
      * This abstract method is used to display the welcome message to the player.
      */
@@ -202,6 +291,24 @@ public abstract class View{
             throw new ConnectionSetupFailedException();
         }
     }
+
+    /**
+     * This method is used to set up a client connected through in-memory queues to the server running in the same JVM,
+     * for tests and benchmarks.
+     * Also, it creates a new thread to listen for messages from the client.
+     * @param useCodec true if the messages are exchanged encoded by the binary codec, as on a real connection.
+     * @return the client node, which can be used to simulate the loss of the connection.
+     */
+    public LoopbackClientNode setLoopbackClient(boolean useCodec) {
+        LoopbackClientNode clientNode = new LoopbackClientNode(this, useCodec);
+        this.clientNode = clientNode;
+        clientNode.startConnection();
+
+        this.askListener = new AskListener(clientNode);
+        Thread askListenerThread = new Thread(this.askListener);
+        askListenerThread.start();
+        return clientNode;
+    }
     /**
      * This abstract method is used to ask the player to select the game mode.
      */
@@ -2220,7 +2220,7 @@ public class TextUI extends View{
      * Method to use to return the TUI in a state where the user can attempt to reconnect to the match.
      * @implSpec NON-BLOCKING, NO-SIDE-EFFECT, NON-ALTER-STATUS
      */
-    private void askIfWantToReconnect() {
+    void askIfWantToReconnect() {
         // If the readInputThread is running stop it to avoid conflicts.
         if(service != null) { service.interrupt(); }
 
@@ -0,0 +1,129 @@
+package it.polimi.ingsw.am32.controller;
+
+import it.polimi.ingsw.am32.message.ServerToClient.MessagePriority;
+import it.polimi.ingsw.am32.message.ServerToClient.PlayerGameStatusMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.SequencedMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+
+import java.util.*;
+
+/**
+ * The log of the messages delivered to the players of a game.
+ * Every message is assigned a monotonically increasing sequence number, and the most recent messages are retained so
+ * that a player reconnecting after a brief disconnection can receive only the messages they missed.
+ * When the log is full, the oldest messages are evicted: a player that missed an evicted message needs the full status
+ * of the game instead.
+ *
+ * @author Anto
+ */
+public class EventLog {
+    /**
+     * epoch: The identifier of the log. Sequence numbers of different logs cannot be compared
+     */
+    private final long epoch;
+    /**
+     * capacity: The maximum number of messages retained by the log
+     */
+    private final int capacity;
+    /**
+     * entries: The retained messages, in sequence order
+     */
+    private final ArrayDeque<SequencedMessage> entries;
+    /**
+     * evictedUpTo: For each player, the highest sequence number evicted from the log for each priority class
+     */
+    private final HashMap<String, long[]> evictedUpTo;
+    /**
+     * lastSequence: The sequence number assigned to the last message
+     */
+    private long lastSequence;
+
+    /**
+     * Constructor for the EventLog class.
+     *
+     * @param capacity The maximum number of messages retained by the log
+     */
+    public EventLog(int capacity) {
+        this.epoch = new Random().nextLong(1, Long.MAX_VALUE);
+        this.capacity = capacity;
+        this.entries = new ArrayDeque<>();
+        this.evictedUpTo = new HashMap<>();
+        this.lastSequence = 0;
+    }
+
+    /**
+     * Assigns the next sequence number to a message and records it in the log, evicting the oldest message if the log is full.
+     *
+     * @param message The message to be recorded
+     * @return The sequenced message, to be delivered to the recipient
+     */
+    public synchronized SequencedMessage append(StoCMessage message) {
+        SequencedMessage sequencedMessage = new SequencedMessage(epoch, ++lastSequence, message instanceof PlayerGameStatusMessage, message);
+        entries.addLast(sequencedMessage);
+        if (entries.size() > capacity) {
+            SequencedMessage evicted = entries.removeFirst();
+            long[] playerEvictedUpTo = evictedUpTo.computeIfAbsent(evicted.getRecipientNickname(), k -> new long[MessagePriority.values().length]);
+            playerEvictedUpTo[laneOf(evicted)] = evicted.getSequence();
+        }
+        return sequencedMessage;
+    }
+
+    /**
+     * Returns the messages delivered to a player after the given sequence numbers, in sequence order.
+     * The messages can be replayed only if the client refers to this log and none of the messages it missed has been evicted.
+     *
+     * @param nickname The nickname of the player
+     * @param clientEpoch The epoch of the log the client's sequence numbers refer to
+     * @param lastAppliedSequences The last sequence number applied by the client for each priority class
+     * @return The missed messages, or an empty Optional if the full status of the game has to be sent instead
+     */
+    public synchronized Optional<List<SequencedMessage>> getMissedMessages(String nickname, long clientEpoch, long[] lastAppliedSequences) {
+        if (clientEpoch != epoch || lastAppliedSequences == null || lastAppliedSequences.length != MessagePriority.values().length) {
+            return Optional.empty();
+        }
+        long[] playerEvictedUpTo = evictedUpTo.get(nickname);
+        if (playerEvictedUpTo != null) {
+            for (int i = 0; i < lastAppliedSequences.length; i++) {
+                if (playerEvictedUpTo[i] > lastAppliedSequences[i]) { // The client missed a message that is no longer available
+                    return Optional.empty();
+                }
+            }
+        }
+        List<SequencedMessage> missedMessages = new ArrayList<>();
+        for (SequencedMessage entry : entries) {
+            if (entry.getRecipientNickname().equals(nickname) && entry.getSequence() > lastAppliedSequences[laneOf(entry)]) {
+                missedMessages.add(entry);
+            }
+        }
+        return Optional.of(missedMessages);
+    }
+
+    /**
+     * Getter for the epoch of the log.
+     *
+     * @return The identifier of the log
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Getter for the sequence number assigned to the last message.
+     *
+     * @return The last sequence number, or 0 if no message has been recorded yet
+     */
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Returns the index of the priority class of a message.
+     *
+     * @param message The message
+     * @return The ordinal of the priority class of the message
+     */
+    private static int laneOf(SequencedMessage message) {
+        MessagePriority priority = message.getPriority();
+        return (priority != null ? priority : MessagePriority.GAME_CRITICAL).ordinal();
+    }
+}
@@ -1,18 +1,26 @@
 package it.polimi.ingsw.am32.controller;
 
+import java.io.*;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import it.polimi.ingsw.am32.network.ServerNode.ServerNodeInterface;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import it.polimi.ingsw.am32.metrics.LatencyStage;
 import it.polimi.ingsw.am32.utilities.Configuration;
+import it.polimi.ingsw.am32.utilities.Log4J2ConfiguratorWrapper;
 import it.polimi.ingsw.am32.chat.Chat;
 import it.polimi.ingsw.am32.chat.ChatMessage;
 import it.polimi.ingsw.am32.controller.exceptions.*;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSMessage;
 import it.polimi.ingsw.am32.message.ServerToClient.*;
 import it.polimi.ingsw.am32.model.exceptions.*;
 import it.polimi.ingsw.am32.model.match.Match;
 import it.polimi.ingsw.am32.model.match.MatchStatus;
 import it.polimi.ingsw.am32.model.ModelInterface;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
  * Represents a controller for a single game.
@@ -21,6 +29,10 @@ import it.polimi.ingsw.am32.model.ModelInterface;
  * @author Anto
  */
 public class GameController {
+    /**
+     * Logger object of the class
+     */
+    private static final Logger logger = LogManager.getLogger(GameController.class);
     /**
      * nodeList: A list of all the nodes that are currently connected to the game (RMI or Socket)
      */
@@ -65,47 +77,437 @@ public class GameController {
      * stuckTurnFlag: A flag that indicates whether the game is stuck due to a player being lonely in the game and having terminated his turn
      */
     private boolean stuckTurnFlag;
+    /**
+     * eventLog: The log of the messages delivered to the players, used to resynchronize players that reconnect
+     */
+    private final EventLog eventLog;
+
+    /**
+     * journal: The journal the commands applied to the model are recorded in, or null if journaling is disabled
+     */
+    private final MatchJournal journal;
+    /**
+     * journalGroupCommitTimerTask: The timer task that periodically commits the journal to disk, or null if journaling is disabled
+     */
+    private final JournalGroupCommitTimerTask journalGroupCommitTimerTask;
+    /**
+     * match: The match of the game, of which snapshots are taken to trim the journal
+     */
+    private final Match match;
+    /**
+     * snapshotTimerTask: The timer task that periodically takes a snapshot of the game, or null if journaling is disabled
+     */
+    private final SnapshotTimerTask snapshotTimerTask;
+    /**
+     * linkQualityTimerTask: The timer task that periodically reports the quality of the connections of the players to all the players
+     */
+    private final LinkQualityTimerTask linkQualityTimerTask;
+    /**
+     * lastSnapshotRecordCount: The number of journal records covered by the last snapshot of the game
+     */
+    private long lastSnapshotRecordCount;
+    /**
+     * coalescedBroadcasts: The broadcast messages held back while a compound turn is applied, delivered to the players as a single message; null when broadcasts are delivered immediately
+     */
+    private ArrayList<StoCMessage> coalescedBroadcasts;
+    /**
+     * correlatedRequester: The nickname of the player whose correlated request is being elaborated, until the response to the request is sent; null otherwise
+     */
+    private String correlatedRequester;
+    /**
+     * correlatedRequestId: The id of the correlated request being elaborated
+     */
+    private int correlatedRequestId;
+    /**
+     * lastActivityTime: The time, in milliseconds since the epoch, at which the last message was submitted to a player of the game
+     */
+    private long lastActivityTime;
+    /**
+     * gameStatusCache: The last game status message generated for each player, along with the state of the game it was generated from; it is sent again until the state changes
+     */
+    private final HashMap<String, CachedResponse> gameStatusCache;
+    /**
+     * playerFieldCache: The last player field message generated for each requester and requested player, along with the version of the field it was generated from
+     */
+    private final HashMap<List<String>, CachedResponse> playerFieldCache;
 
     /**
      * Constructor for the GameController class. Initializes the game controller with the given id and game size.
      * The game controller is initialized in the lobby phase. There is one GameController instance for each game.
+     * If journaling is enabled, every command applied to the model is recorded so that the game can be recovered after a crash.
      *
      * @param id The id of the game
      * @param gameSize The number of players in the game at fully capacity
      */
     public GameController(int id, int gameSize) {
+        this(id, gameSize, new Match());
+    }
+
+    /**
+     * Constructor for the GameController class. Initializes a new game in the lobby phase using the given match.
+     *
+     * @param id The id of the game
+     * @param gameSize The number of players in the game at fully capacity
+     * @param match The match of the game
+     */
+    private GameController(int id, int gameSize, Match match) {
+        this(id, gameSize, match, createJournal(id, gameSize, match.getSeed()));
+
+        // Enter lobby phase immediately
+        model.enterLobbyPhase();
+        status = GameControllerStatus.LOBBY;
+    }
+
+    /**
+     * Constructor for the GameController class. Initializes the game controller with the given match and journal,
+     * without changing the phase of the match.
+     *
+     * @param id The id of the game
+     * @param gameSize The number of players in the game at fully capacity
+     * @param match The match of the game
+     * @param journal The journal the commands applied to the match are recorded in, or null if journaling is disabled
+     */
+    private GameController(int id, int gameSize, Match match, MatchJournal journal) {
         this.nodeList = new ArrayList<>();
-        this.model = new Match();
+        this.match = match;
+        this.model = journal == null ? match : new JournalingModel(match, journal);
+        this.journal = journal;
         this.chat = new Chat();
         this.timer = new Timer();
         this.id = id;
         this.gameSize = gameSize;
         this.endMatchDueToDisconnectionTimerTask = null;
         this.alreadyEnteredTerminatingPhase = false;
+        this.eventLog = new EventLog(Configuration.getInstance().getEventLogCapacity());
+        this.lastActivityTime = System.currentTimeMillis();
+        this.gameStatusCache = new HashMap<>();
+        this.playerFieldCache = new HashMap<>();
+
+        this.journalGroupCommitTimerTask = journal == null ? null : new JournalGroupCommitTimerTask(journal);
+        this.snapshotTimerTask = journal == null ? null : new SnapshotTimerTask(this);
+        this.linkQualityTimerTask = new LinkQualityTimerTask(this);
+
+        if (journal != null) { // Periodically commit the recorded commands to disk, and trim them behind a snapshot of the game
+            int groupCommitInterval = Configuration.getInstance().getJournalGroupCommitInterval();
+            timer.scheduleAtFixedRate(journalGroupCommitTimerTask, groupCommitInterval, groupCommitInterval);
+            int snapshotInterval = Configuration.getInstance().getSnapshotInterval();
+            timer.scheduleAtFixedRate(snapshotTimerTask, snapshotInterval, snapshotInterval);
+        }
+        int linkQualityInterval = Configuration.getInstance().getLinkQualityInterval();
+        timer.scheduleAtFixedRate(linkQualityTimerTask, linkQualityInterval, linkQualityInterval);
+    }
 
-        // Enter lobby phase immediately
-        model.enterLobbyPhase();
-        status = GameControllerStatus.LOBBY;
+    /**
+     * Creates the journal of a new game, if journaling is enabled.
+     * A game whose journal cannot be created is played anyway, but it cannot be recovered after a crash.
+     *
+     * @param id The id of the game
+     * @param gameSize The number of players in the game at fully capacity
+     * @param seed The seed of the match of the game
+     * @return The journal of the game, or null if journaling is disabled or the journal could not be created
+     */
+    private static MatchJournal createJournal(int id, int gameSize, long seed) {
+        String journalDirectory = Configuration.getInstance().getJournalDirectory();
+        if (journalDirectory.isEmpty()) return null;
+
+        try {
+            return MatchJournal.create(Path.of(journalDirectory), id, gameSize, seed);
+        } catch (IOException e) {
+            logger.error("Could not create the journal of game {}, the game will not be recoverable: {}", id, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Rebuilds a game from its journal after a crash of the server.
+     * The game is restored from its last snapshot, if any, and the commands recorded after the snapshot are replayed on it.
+     * Without a snapshot, all the recorded commands are replayed on a new match built with the recorded seed.
+     * All the players are considered disconnected: they can rejoin the game through {@link GamesManager#reconnectToGame}. As when the current player disconnects,
+     * a card placed by the current player but not followed by a draw is rolled back.
+     * Games that were still in the lobby, or that had already ended, cannot be resumed: their journal is deleted.
+     *
+     * @param journal The journal of the game, opened with {@link MatchJournal#open(Path)}
+     * @param snapshot The last snapshot of the game, if any
+     * @return The recovered game, or an empty optional if the game cannot be resumed
+     * @throws IOException If the snapshot cannot be read, or the journal was trimmed behind a snapshot that is missing
+     */
+    protected static Optional<GameController> recover(MatchJournal journal, Optional<SnapshotStore.Snapshot> snapshot) throws IOException {
+        Match match;
+        ArrayList<ChatMessage> chatHistory = new ArrayList<>();
+        long firstRecord = 0;
+        if (snapshot.isPresent() && snapshot.get().getSeed() == journal.getSeed() && snapshot.get().getCoveredRecords() >= journal.getBaseRecord()) {
+            try (DataInputStream in = snapshot.get().open()) {
+                match = Match.readSnapshot(in);
+                int messages = in.readInt();
+                for (int i = 0; i < messages; i++) {
+                    String sender = in.readUTF();
+                    String recipient = in.readBoolean() ? in.readUTF() : null;
+                    chatHistory.add(new ChatMessage(sender, recipient, in.readBoolean(), in.readUTF()));
+                }
+            }
+            firstRecord = snapshot.get().getCoveredRecords();
+        } else {
+            match = new Match(journal.getSeed());
+        }
+
+        GameController game = new GameController(journal.getGameId(), journal.getGameSize(), match, journal);
+        chatHistory.forEach(game.chat::addMessage);
+        game.lastSnapshotRecordCount = firstRecord;
+        int replayedCommands;
+        try {
+            replayedCommands = journal.replay(match, game.chat, firstRecord);
+        } catch (IOException e) {
+            game.timer.cancel();
+            journal.close();
+            throw e;
+        }
+        logger.info("Replayed {} commands of game {} from record {}", replayedCommands, journal.getGameId(), firstRecord);
+
+        synchronized (game) {
+            int matchStatus = game.model.getMatchStatus();
+            if (matchStatus == MatchStatus.LOBBY.getValue() || matchStatus == MatchStatus.TERMINATED.getValue()) {
+                game.timer.cancel();
+                game.discardJournal();
+                return Optional.empty();
+            }
+            game.resumeWithDisconnectedPlayers();
+        }
+        return Optional.of(game);
+    }
+
+    /**
+     * Restores the state of the controller of a game whose match has just been rebuilt from its journal.
+     * Every player gets a VirtualView that holds the messages addressed to him until he reconnects.
+     */
+    private void resumeWithDisconnectedPlayers() {
+        for (String nickname : model.getPlayersNicknames()) {
+            ServerNodeInterface node = new RecoveredPlayerNode();
+            VirtualView virtualView = new VirtualView(node);
+            nodeList.add(new PlayerQuadruple(node, nickname, false, virtualView));
+            Configuration.getInstance().getExecutorService().submit(Log4J2ConfiguratorWrapper.routedToGame(id, virtualView));
+        }
+
+        int matchStatus = model.getMatchStatus();
+        if (matchStatus == MatchStatus.PREPARATION.getValue()) { // The common objectives are picked once all the starter card sides have been chosen
+            status = model.getCommonObjectives().isEmpty() ? GameControllerStatus.WAITING_STARTER_CARD_CHOICE : GameControllerStatus.WAITING_SECRET_OBJECTIVE_CARD_CHOICE;
+            return;
+        }
+
+        // We are in the playing phase
+        status = GameControllerStatus.WAITING_CARD_PLACEMENT;
+        alreadyEnteredTerminatingPhase = matchStatus == MatchStatus.TERMINATING.getValue() || matchStatus == MatchStatus.LAST_TURN.getValue();
+        stuckTurnFlag = true; // No player is connected: the turn passes to the first player that reconnects
+
+        try {
+            String currentPlayer = model.getCurrentPlayerNickname();
+            if (matchStatus != MatchStatus.LAST_TURN.getValue() && model.getPlayerHand(currentPlayer).size() < 3) { // The current player placed a card but did not draw
+                model.rollbackPlacement();
+            }
+        } catch (RollbackException e) {
+            throw new CriticalFailureException("RollbackException when rolling back placement of recovered game " + id);
+        } catch (PlayerNotFoundException e) {
+            throw new CriticalFailureException("Current player not found when recovering game " + id);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the game and trims the journal behind it, so that the game can be recovered without replaying
+     * all the commands received since its creation.
+     * The snapshot contains the match and the chat, and is stored before the journal is trimmed: a crash in between leaves
+     * a snapshot and a journal that still agree.
+     * Games in the lobby, games that have ended, and games that did not change since the last snapshot are skipped.
+     */
+    protected synchronized void takeSnapshot() {
+        if (journal == null || status == GameControllerStatus.LOBBY || status == GameControllerStatus.GAME_ENDED) return;
+
+        long coveredRecords = journal.getRecordCount();
+        if (coveredRecords == lastSnapshotRecordCount) return;
+
+        try {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(payload);
+            match.writeSnapshot(out);
+            out.writeInt(chat.getHistory().size());
+            for (ChatMessage message : chat.getHistory()) {
+                out.writeUTF(message.getSenderNickname());
+                out.writeBoolean(message.getRecipientNickname() != null);
+                if (message.getRecipientNickname() != null) out.writeUTF(message.getRecipientNickname());
+                out.writeBoolean(message.isMulticastFlag());
+                out.writeUTF(message.getMessageContent());
+            }
+            out.flush();
+
+            SnapshotStore.getInstance(journal.getFile().getParent()).write(id, match.getSeed(), coveredRecords, payload.toByteArray());
+            journal.compact(coveredRecords);
+            lastSnapshotRecordCount = coveredRecords;
+            logger.debug("Snapshot of game {} taken, {} records trimmed", id, coveredRecords);
+        } catch (IOException e) {
+            logger.error("Could not take the snapshot of game {}: {}", id, e.getMessage());
+        }
+    }
+
+    /**
+     * Reports to the connected players the round trip time and the jitter of the connection of each player, as measured
+     * by the heartbeats of the connections.
+     * The report is not recorded in the event log, since it is only informative and a newer one follows periodically.
+     * Nothing is reported in games that have ended, or while no connection has been measured yet.
+     */
+    protected synchronized void reportLinkQuality() {
+        if (status == GameControllerStatus.GAME_ENDED) {
+            linkQualityTimerTask.cancel();
+            return;
+        }
+
+        ArrayList<String> players = new ArrayList<>();
+        long[] roundTrips = new long[nodeList.size()];
+        long[] jitters = new long[nodeList.size()];
+        boolean measured = false;
+        for (int i = 0; i < nodeList.size(); i++) {
+            PlayerQuadruple playerQuadruple = nodeList.get(i);
+            ServerNodeInterface node = playerQuadruple.getNode();
+            players.add(playerQuadruple.getNickname());
+            roundTrips[i] = playerQuadruple.isConnected() && node != null ? node.getRoundTripMicros() : -1;
+            jitters[i] = playerQuadruple.isConnected() && node != null ? node.getJitterMicros() : -1;
+            measured |= roundTrips[i] >= 0;
+        }
+        if (!measured) return;
+
+        BroadcastEnvelopeMessage envelope = encodeBroadcast(new LinkQualityMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, players, roundTrips, jitters));
+        for (PlayerQuadruple playerQuadruple : nodeList) {
+            if (playerQuadruple.isConnected()) {
+                playerQuadruple.getVirtualView().addMessage(envelope.addressedTo(playerQuadruple.getNickname()));
+            }
+        }
+    }
+
+    /**
+     * Returns the quality of the connection of a player, as measured by the heartbeats of the connection.
+     *
+     * @param nickname The nickname of the player
+     * @return The round trip time and the jitter of the connection in microseconds, each -1 if the player is not connected or the connection has not been measured yet
+     */
+    public synchronized long[] getLinkQuality(String nickname) {
+        for (PlayerQuadruple playerQuadruple : nodeList) {
+            if (playerQuadruple.getNickname().equals(nickname) && playerQuadruple.isConnected()) {
+                ServerNodeInterface node = playerQuadruple.getNode();
+                return new long[]{node.getRoundTripMicros(), node.getJitterMicros()};
+            }
+        }
+        return new long[]{-1, -1};
+    }
+
+    /**
+     * Stops recording the commands of a game that has ended, and deletes its journal and its snapshot.
+     */
+    private void discardJournal() {
+        if (journal != null) {
+            journalGroupCommitTimerTask.cancel();
+            snapshotTimerTask.cancel();
+            journal.delete();
+            try {
+                SnapshotStore.getInstance(journal.getFile().getParent()).remove(id);
+            } catch (IOException e) {
+                logger.error("Could not remove the snapshot of game {}: {}", id, e.getMessage());
+            }
+        }
     }
 
     /**
      * Assigns a new message to be delivered to the VirtualView of a given client.
      * This method is the primary way through which clients are notified of events. In exceptional cases, such as when joining a non-existent game,
      * this method is not used.
+     * The message is recorded in the event log of the game, so that it can be replayed if the player reconnects after missing it.
      *
      * @param message The message object to be delivered
      * @throws VirtualViewNotFoundException If the recipient's VirtualView could not be found among the listeners
      */
     protected synchronized void submitVirtualViewMessage(StoCMessage message) throws VirtualViewNotFoundException {
+        flushCoalescedBroadcasts(); // Messages held back must be delivered first, to preserve the order of the messages
+        if (correlatedRequester != null && correlatedRequester.equals(message.getRecipientNickname())) { // The response to a correlated request
+            message = new CorrelatedResponseMessage(correlatedRequester, correlatedRequestId, message);
+            correlatedRequester = null; // Only the first message sent to the requester echoes the request id
+        }
+        lastActivityTime = System.currentTimeMillis();
         for (PlayerQuadruple playerQuadruple : nodeList) { // Look through list of all connected players
             if (playerQuadruple.getNickname().equals((message.getRecipientNickname()))) { // If the correct recipient is found
-                playerQuadruple.getVirtualView().addMessage(message); // Add the message to the recipient's VirtualView
+                playerQuadruple.getVirtualView().addMessage(eventLog.append(message)); // Record the message and add it to the recipient's VirtualView
                 return;
             }
         }
         throw new VirtualViewNotFoundException("VirtualView for player " + message.getRecipientNickname() + " not found");
     }
 
+    /**
+     * Delivers a message with the same content to all the players in the game.
+     *
+     * @param template The message to be delivered, built with {@link BroadcastEnvelopeMessage#TEMPLATE_RECIPIENT} as recipient
+     * @throws VirtualViewNotFoundException If the VirtualView of one of the players could not be found among the listeners
+     * @see #submitBroadcastVirtualViewMessage(StoCMessage, String)
+     */
+    protected synchronized void submitBroadcastVirtualViewMessage(StoCMessage template) throws VirtualViewNotFoundException {
+        submitBroadcastVirtualViewMessage(template, null);
+    }
+
+    /**
+     * Delivers a message with the same content to all the players in the game, except for the given one.
+     * The message is serialized only once: the VirtualView of each recipient receives a {@link BroadcastEnvelopeMessage}
+     * pointing to the shared payload, so the cost of a broadcast does not grow with the number of players times the size of the message.
+     *
+     * @param template The message to be delivered, built with {@link BroadcastEnvelopeMessage#TEMPLATE_RECIPIENT} as recipient
+     * @param excludedNickname The nickname of the player that should not receive the message, or null if all players should receive it
+     * @throws VirtualViewNotFoundException If the VirtualView of one of the players could not be found among the listeners
+     */
+    protected synchronized void submitBroadcastVirtualViewMessage(StoCMessage template, String excludedNickname) throws VirtualViewNotFoundException {
+        if (coalescedBroadcasts != null && excludedNickname == null) { // A compound turn is being applied
+            coalescedBroadcasts.add(template);
+            return;
+        }
+        flushCoalescedBroadcasts();
+        long startTime = System.nanoTime();
+        BroadcastEnvelopeMessage envelope = encodeBroadcast(template);
+        for (PlayerQuadruple playerQuadruple : nodeList) {
+            if (!playerQuadruple.getNickname().equals(excludedNickname)) {
+                submitVirtualViewMessage(envelope.addressedTo(playerQuadruple.getNickname()));
+            }
+        }
+        LatencyMetrics.getInstance().record(LatencyStage.FAN_OUT, LatencyMetrics.typeOf(template), System.nanoTime() - startTime);
+    }
+
+    /**
+     * Delivers to all the players the broadcast messages held back while a compound turn is applied, and stops holding
+     * back the following ones.
+     * Several messages are delivered as a single {@link TurnCompletedMessage}, so that each player receives a single
+     * message and the broadcast is serialized only once.
+     *
+     * @throws VirtualViewNotFoundException If the VirtualView of one of the players could not be found among the listeners
+     */
+    private void flushCoalescedBroadcasts() throws VirtualViewNotFoundException {
+        if (coalescedBroadcasts == null) return;
+
+        ArrayList<StoCMessage> messages = coalescedBroadcasts;
+        coalescedBroadcasts = null;
+        if (messages.size() == 1) {
+            submitBroadcastVirtualViewMessage(messages.getFirst());
+        } else if (messages.size() > 1) {
+            submitBroadcastVirtualViewMessage(new TurnCompletedMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, messages));
+        }
+    }
+
+    /**
+     * Serializes a message that has to be delivered, with the same content, to several players.
+     * The envelope of each recipient can be obtained with {@link BroadcastEnvelopeMessage#addressedTo(String)}.
+     *
+     * @param template The message to be serialized, built with {@link BroadcastEnvelopeMessage#TEMPLATE_RECIPIENT} as recipient
+     * @return The envelope containing the serialized message
+     */
+    private BroadcastEnvelopeMessage encodeBroadcast(StoCMessage template) {
+        try {
+            return BroadcastEnvelopeMessage.encode(template);
+        } catch (IOException e) {
+            throw new CriticalFailureException("IOException when encoding broadcast message " + template.getClass().getSimpleName());
+        }
+    }
+
     /**
      * Submits a chat message to the chat history.
      * If the message is a broadcast message, it is sent to all players in the game.
@@ -121,15 +523,11 @@ public class GameController {
 
         // Message sender does exist
         if (message.isMulticastFlag()) { // Broadcast message
-            for (PlayerQuadruple playerQuadruple : nodeList) { // Notify all players
-                if (!playerQuadruple.getNickname().equals(message.getSenderNickname())) { // Do not send broadcast message to sender
-                    try {
-                        submitVirtualViewMessage(new OutboundChatMessage(playerQuadruple.getNickname(), message.getSenderNickname(), message.getMessageContent()));
-                    } catch (
-                            VirtualViewNotFoundException e) { // The recipient's VirtualView could not be found when attempting to notify players in the game
-                        throw new CriticalFailureException("VirtualViewNotFoundException when broadcasting chat message");
-                    }
-                }
+            try {
+                // Notify all players, but do not send broadcast message to sender
+                submitBroadcastVirtualViewMessage(new OutboundChatMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, message.getSenderNickname(), message.getMessageContent()), message.getSenderNickname());
+            } catch (VirtualViewNotFoundException e) { // The recipient's VirtualView could not be found when attempting to notify players in the game
+                throw new CriticalFailureException("VirtualViewNotFoundException when broadcasting chat message");
             }
         } else { // Direct message
             boolean found = false; // Flag indicating whether the recipient of the message appears in the list of players
@@ -155,6 +553,9 @@ public class GameController {
         }
         // Add the message to the chat history, regardless of whether it was broadcast or direct
         chat.addMessage(message); // Adds the message to the chat history
+        if (journal != null) {
+            journal.record(MatchJournal.Command.CHAT_MESSAGE, message.getSenderNickname(), message.getRecipientNickname(), message.isMulticastFlag(), message.getMessageContent());
+        }
     }
 
     /*
@@ -224,10 +625,12 @@ public class GameController {
         ArrayList<String> allPlayerNicknames = getNodeList().stream()
                 .map(PlayerQuadruple::getNickname)
                 .collect(Collectors.toCollection(ArrayList::new));
+        BroadcastEnvelopeMessage lobbyPlayerListEnvelope = encodeBroadcast(new LobbyPlayerListMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, allPlayerNicknames));
+        BroadcastEnvelopeMessage playerDisconnectEnvelope = encodeBroadcast(new PlayerDisconnectMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, playerQuadruple.getNickname()));
         for (PlayerQuadruple playerQuadruple1 : nodeList) {
             try {
-                submitVirtualViewMessage(new LobbyPlayerListMessage(playerQuadruple1.getNickname(), allPlayerNicknames));
-                submitVirtualViewMessage(new PlayerDisconnectMessage(playerQuadruple1.getNickname(), playerQuadruple.getNickname()));
+                submitVirtualViewMessage(lobbyPlayerListEnvelope.addressedTo(playerQuadruple1.getNickname()));
+                submitVirtualViewMessage(playerDisconnectEnvelope.addressedTo(playerQuadruple1.getNickname()));
             } catch (VirtualViewNotFoundException e) {
                 throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that a player has left the lobby");
             }
@@ -246,12 +649,10 @@ public class GameController {
         playerQuadruple.setConnected(false);
 
         // Notify all players that a player has left the game
-        for (PlayerQuadruple playerQuadruple1 : nodeList) {
-            try {
-                submitVirtualViewMessage(new PlayerDisconnectMessage(playerQuadruple1.getNickname(), playerQuadruple.getNickname()));
-            } catch (VirtualViewNotFoundException e) {
-                throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that a player has left the game");
-            }
+        try {
+            submitBroadcastVirtualViewMessage(new PlayerDisconnectMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, playerQuadruple.getNickname()));
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that a player has left the game");
         }
     }
 
@@ -268,12 +669,10 @@ public class GameController {
         playerQuadruple.setConnected(false);
 
         // Notify all players that a player has left the game
-        for (PlayerQuadruple playerQuadruple1 : nodeList) {
-            try {
-                submitVirtualViewMessage(new PlayerDisconnectMessage(playerQuadruple1.getNickname(), playerQuadruple.getNickname()));
-            } catch (VirtualViewNotFoundException e) {
-                throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that a player has left the game");
-            }
+        try {
+            submitBroadcastVirtualViewMessage(new PlayerDisconnectMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, playerQuadruple.getNickname()));
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that a player has left the game");
         }
 
         // Start the timer for winner declaration if only one player remains connected
@@ -305,29 +704,25 @@ public class GameController {
         }
 
         // Notify all players that the current player has rolled back his placement
-        for (PlayerQuadruple pq : nodeList) {
-            try {
-                submitVirtualViewMessage(new PlaceCardRollbackMessage(
-                        pq.getNickname(),
-                        playerQuadruple.getNickname(),
-                        model.getPlayerHand(playerQuadruple.getNickname()).getFirst(),
-                        model.getPlayerPoints(playerQuadruple.getNickname()),
-                        model.getPlayerResources(playerQuadruple.getNickname())
-                ));
-            } catch (VirtualViewNotFoundException e) {
-                throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that the current player has rolled back his placement");
-            } catch (PlayerNotFoundException e) {
-                throw new CriticalFailureException("Player " + playerQuadruple.getNickname() + " not found when notifying players that the current player has rolled back his placement");
-            }
+        try {
+            submitBroadcastVirtualViewMessage(new PlaceCardRollbackMessage(
+                    BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT,
+                    playerQuadruple.getNickname(),
+                    model.getPlayerHand(playerQuadruple.getNickname()).getFirst(),
+                    model.getPlayerPoints(playerQuadruple.getNickname()),
+                    model.getPlayerResources(playerQuadruple.getNickname())
+            ));
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that the current player has rolled back his placement");
+        } catch (PlayerNotFoundException e) {
+            throw new CriticalFailureException("Player " + playerQuadruple.getNickname() + " not found when notifying players that the current player has rolled back his placement");
         }
 
         // Notify all players that a player has left the game
-        for (PlayerQuadruple playerQuadruple1 : nodeList) {
-            try {
-                submitVirtualViewMessage(new PlayerDisconnectMessage(playerQuadruple1.getNickname(), playerQuadruple.getNickname()));
-            } catch (VirtualViewNotFoundException e) {
-                throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that a player has left the game");
-            }
+        try {
+            submitBroadcastVirtualViewMessage(new PlayerDisconnectMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, playerQuadruple.getNickname()));
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that a player has left the game");
         }
 
         // Update the new current player. The notification is handled internally
@@ -349,12 +744,10 @@ public class GameController {
         playerQuadruple.setConnected(false);
 
         // Notify all players that a player has left the game
-        for (PlayerQuadruple playerQuadruple1 : nodeList) {
-            try {
-                submitVirtualViewMessage(new PlayerDisconnectMessage(playerQuadruple1.getNickname(), playerQuadruple.getNickname()));
-            } catch (VirtualViewNotFoundException e) {
-                throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that a player has left the game");
-            }
+        try {
+            submitBroadcastVirtualViewMessage(new PlayerDisconnectMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, playerQuadruple.getNickname()));
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that a player has left the game");
         }
 
         // Update the new current player
@@ -391,6 +784,8 @@ public class GameController {
         status = GameControllerStatus.GAME_ENDED;
         // Set model status to TERMINATED
         model.enterTerminatedPhase();
+        // The game is over, there is nothing left to recover
+        discardJournal();
 
         // Notify all players that the game was won by the remaining player
         ArrayList<String> players = new ArrayList<>();
@@ -415,28 +810,98 @@ public class GameController {
         winners.add(lastOnlinePlayer);
 
         // Notify all players of the new match status and of the winners
+        BroadcastEnvelopeMessage matchStatusEnvelope = encodeBroadcast(new MatchStatusMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getMatchStatus()));
+        BroadcastEnvelopeMessage matchWinnersEnvelope = encodeBroadcast(new MatchWinnersMessage(
+                BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT,
+                players,
+                points,
+                secrets,
+                pointsGainedFromSecrets,
+                winners
+        ));
         for (PlayerQuadruple playerQuadruple : nodeList) {
             try {
                 // Notify the player of the status of the match
-                submitVirtualViewMessage(new MatchStatusMessage(playerQuadruple.getNickname(), model.getMatchStatus()));
+                submitVirtualViewMessage(matchStatusEnvelope.addressedTo(playerQuadruple.getNickname()));
                 // Notify the player of the winners
-                submitVirtualViewMessage(new MatchWinnersMessage(
-                        playerQuadruple.getNickname(),
-                        players,
-                        points,
-                        secrets,
-                        pointsGainedFromSecrets,
-                        winners
-                ));
+                submitVirtualViewMessage(matchWinnersEnvelope.addressedTo(playerQuadruple.getNickname()));
+            } catch (VirtualViewNotFoundException e) {
+                throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that the game has ended");
+            }
+        }
+    }
+
+    /**
+     * Ends the game on request of an operator, whatever its phase.
+     * A game in which the players are already placing and drawing cards ends as it would normally, and its winners are
+     * determined by the points scored so far. A game that has not yet started its turns ends without winners: the players
+     * are only notified of the new status of the match.
+     *
+     * @return True if the game has been ended, false if it had already ended
+     */
+    protected synchronized boolean forceEnd() {
+        if (status == GameControllerStatus.GAME_ENDED) return false;
+
+        if (endMatchDueToDisconnectionTimerTask != null) {
+            endMatchDueToDisconnectionTimerTask.cancel();
+            endMatchDueToDisconnectionTimerTask = null;
+        }
+        try {
+            flushCoalescedBroadcasts();
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualViewNotFoundException when ending the game");
+        }
+
+        if (status == GameControllerStatus.WAITING_CARD_PLACEMENT || status == GameControllerStatus.WAITING_CARD_DRAW) {
+            enterEndPhase();
+        } else {
+            status = GameControllerStatus.GAME_ENDED;
+            model.enterTerminatedPhase();
+            discardJournal(); // The game is over, there is nothing left to recover
+            try {
+                submitBroadcastVirtualViewMessage(new MatchStatusMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getMatchStatus()));
             } catch (VirtualViewNotFoundException e) {
                 throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that the game has ended");
             }
         }
+        logger.warn("Game {} ended by an operator", id);
+        return true;
+    }
+
+    /**
+     * Describes the state of the game, for the operators of the server: its phase, the turn being played, and the
+     * connection, score and outbound queue of each player.
+     *
+     * @return A textual description of the state of the game, a line for each item
+     */
+    public synchronized String dumpState() {
+        StringBuilder dump = new StringBuilder();
+        dump.append(String.format("Game %d: %s, %d/%d players, match status %d%n", id, status, nodeList.size(), gameSize, model.getMatchStatus()));
+        dump.append(String.format("Turn %d, current player %s%n", model.getCurrentTurnNumber(), model.getCurrentPlayerNickname()));
+        dump.append(String.format("Last activity %s (%d ms ago)%n", new Date(lastActivityTime), System.currentTimeMillis() - lastActivityTime));
+        dump.append(String.format("Event log epoch %d, last sequence %d; journal %s; chat %d messages%n", eventLog.getEpoch(),
+                eventLog.getLastSequence(), journal == null ? "disabled" : journal.getRecordCount() + " records", chat.getHistory().size()));
+        for (PlayerQuadruple playerQuadruple : nodeList) {
+            String points;
+            try {
+                points = String.valueOf(model.getPlayerPoints(playerQuadruple.getNickname()));
+            } catch (PlayerNotFoundException e) {
+                points = "-";
+            }
+            ServerNodeInterface node = playerQuadruple.getNode();
+            VirtualView virtualView = playerQuadruple.getVirtualView();
+            dump.append(String.format("Player %s: %s, %s points, queue %d (peak %d, dropped %d), rtt %d us, jitter %d us%n",
+                    playerQuadruple.getNickname(), playerQuadruple.isConnected() ? "connected" : "disconnected", points,
+                    virtualView.getQueueDepth(), virtualView.getPeakQueueDepth(), virtualView.getDroppedMessageCount(),
+                    playerQuadruple.isConnected() && node != null ? node.getRoundTripMicros() : -1,
+                    playerQuadruple.isConnected() && node != null ? node.getJitterMicros() : -1));
+        }
+        return dump.toString();
     }
 
     /**
      * Method called when a player reconnects to the game.
-     * Reconnects the player to the game, and sends all necessary messages to the player to bring him up to speed with the current game state.
+     * Reconnects the player to the game, and sends the player the full status of the game.
      *
      * @param nickname The nickname of the player that has reconnected
      * @param node The node of the player that has reconnected
@@ -444,6 +909,23 @@ public class GameController {
      * @throws PlayerAlreadyConnectedException If the player is already connected when attempting to reconnect
      */
     public synchronized void reconnect(String nickname, ServerNodeInterface node) throws PlayerNotFoundException, PlayerAlreadyConnectedException {
+        reconnect(nickname, node, 0, null);
+    }
+
+    /**
+     * Method called when a player reconnects to the game.
+     * Reconnects the player to the game, and sends all necessary messages to the player to bring him up to speed with the current game state.
+     * If the player acknowledged the last messages it applied, and the messages it missed are still in the event log, only the
+     * missed messages are sent. Otherwise, the player receives the full status of the game.
+     *
+     * @param nickname The nickname of the player that has reconnected
+     * @param node The node of the player that has reconnected
+     * @param epoch The epoch of the event log the player's sequence numbers refer to
+     * @param lastAppliedSequences The last sequence number applied by the player for each priority class, or null if unknown
+     * @throws PlayerNotFoundException If the player could not be found in the list of players
+     * @throws PlayerAlreadyConnectedException If the player is already connected when attempting to reconnect
+     */
+    public synchronized void reconnect(String nickname, ServerNodeInterface node, long epoch, long[] lastAppliedSequences) throws PlayerNotFoundException, PlayerAlreadyConnectedException {
         // Throw exception if nickname is not present in the list of players
         if (nodeList.stream().noneMatch(pq -> pq.getNickname().equals(nickname))) {
             throw new PlayerNotFoundException("Player " + nickname + " not found when reconnecting");
@@ -490,9 +972,16 @@ public class GameController {
         }
 
         try {
-            submitVirtualViewMessage(new ReconnectGameConfirmMessage(nickname)); // Notify the player that he has joined the game
+            VirtualView virtualView = nodeList.stream().filter(pq -> pq.getNickname().equals(nickname)).findFirst().orElseThrow().getVirtualView();
+            // Notify the player that he has joined the game. The confirmation concerns the connection, not the game, so it is not recorded in the event log
+            virtualView.addMessage(new ReconnectGameConfirmMessage(nickname));
             if(status != GameControllerStatus.GAME_ENDED) {
-                submitVirtualViewMessage(generateResponseGameStatusMessage(nickname)); // Send the player the large message containing all the information about the current game state
+                Optional<List<SequencedMessage>> missedMessages = eventLog.getMissedMessages(nickname, epoch, lastAppliedSequences);
+                if (missedMessages.isPresent()) {
+                    missedMessages.get().forEach(virtualView::addMessage); // Replay only the messages the player missed
+                } else {
+                    submitVirtualViewMessage(getResponseGameStatusMessage(nickname)); // Send the player the large message containing all the information about the current game state
+                }
             }
         } catch (VirtualViewNotFoundException e) {
             throw new CriticalFailureException("VirtualViewNotFoundException when reconnecting player");
@@ -515,7 +1004,7 @@ public class GameController {
         VirtualView virtualView = new VirtualView(node); // Create new virtual view and link it to the client server node
         PlayerQuadruple newPlayerQuadruple = new PlayerQuadruple(node, nickname, true, virtualView);
         nodeList.add(newPlayerQuadruple);
-        Configuration.getInstance().getExecutorService().submit(virtualView); // Start virtualView thread so that it can start listening for messages to send to the client
+        Configuration.getInstance().getExecutorService().submit(Log4J2ConfiguratorWrapper.routedToGame(id, virtualView)); // Start virtualView thread so that it can start listening for messages to send to the client
     }
 
     /**
@@ -523,22 +1012,21 @@ public class GameController {
      * Enters the preparation phase of the game, assigns colours and starting cards to players, and notifies all players of the game start.
      */
     protected synchronized void enterPreparationPhase() {
-        for (PlayerQuadruple playerQuadruple : nodeList) { // Notify all players that the game has started
-            try {
-                submitVirtualViewMessage(new GameStartedMessage(playerQuadruple.getNickname()));
-            } catch (VirtualViewNotFoundException e) {
-                throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that the game has started");
-            }
+        try { // Notify all players that the game has started
+            submitBroadcastVirtualViewMessage(new GameStartedMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT));
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualViewNotFoundException when notifying players that the game has started");
         }
 
         model.enterPreparationPhase();
         model.assignRandomColoursToPlayers();
         model.assignRandomStartingInitialCardsToPlayers();
 
+        BroadcastEnvelopeMessage matchStatusEnvelope = encodeBroadcast(new MatchStatusMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getMatchStatus()));
         for (PlayerQuadruple playerQuadruple : nodeList) { // Notify all players of the new match status and of their assigned starting card
             try {
                 // Notify the player of the status of the match
-                submitVirtualViewMessage(new MatchStatusMessage(playerQuadruple.getNickname(), model.getMatchStatus()));
+                submitVirtualViewMessage(matchStatusEnvelope.addressedTo(playerQuadruple.getNickname()));
                 // Notify the player of the assigned starting card
                 submitVirtualViewMessage(new AssignedStarterCardMessage(playerQuadruple.getNickname(), model.getPlayerHand(playerQuadruple.getNickname()).getFirst()));
             } catch (VirtualViewNotFoundException e) {
@@ -557,6 +1045,7 @@ public class GameController {
     protected synchronized void enterEndPhase() {
         status = GameControllerStatus.GAME_ENDED;
         model.enterTerminatedPhase();
+        discardJournal(); // The game is over, there is nothing left to recover
 
         try {
             model.addObjectivePoints();
@@ -580,18 +1069,20 @@ public class GameController {
                 }
             }
 
+            BroadcastEnvelopeMessage matchStatusEnvelope = encodeBroadcast(new MatchStatusMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getMatchStatus()));
+            BroadcastEnvelopeMessage matchWinnersEnvelope = encodeBroadcast(new MatchWinnersMessage(
+                    BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT,
+                    players,
+                    points,
+                    secrets,
+                    pointsGainedFromSecrets,
+                    winners
+            ));
             for (PlayerQuadruple playerQuadruple : nodeList) {
                 // Notify the player of the status of the match
-                submitVirtualViewMessage(new MatchStatusMessage(playerQuadruple.getNickname(), model.getMatchStatus()));
+                submitVirtualViewMessage(matchStatusEnvelope.addressedTo(playerQuadruple.getNickname()));
                 // Notify the player of the winners
-                submitVirtualViewMessage(new MatchWinnersMessage(
-                        playerQuadruple.getNickname(),
-                        players,
-                        points,
-                        secrets,
-                        pointsGainedFromSecrets,
-                        winners
-                ));
+                submitVirtualViewMessage(matchWinnersEnvelope.addressedTo(playerQuadruple.getNickname()));
             }
         } catch (AlreadyComputedPointsException e) {
             throw new CriticalFailureException("Points have already been computed");
@@ -716,14 +1207,16 @@ public class GameController {
 
                 status = GameControllerStatus.WAITING_CARD_PLACEMENT;
 
+                BroadcastEnvelopeMessage matchStatusEnvelope = encodeBroadcast(new MatchStatusMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getMatchStatus()));
+                BroadcastEnvelopeMessage playerTurnEnvelope = encodeBroadcast(new PlayerTurnMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getCurrentPlayerNickname()));
                 for (PlayerQuadruple playerQuadruple : nodeList) {
                     // Notify the player of the status of the match
-                    submitVirtualViewMessage(new MatchStatusMessage(playerQuadruple.getNickname(), model.getMatchStatus()));
+                    submitVirtualViewMessage(matchStatusEnvelope.addressedTo(playerQuadruple.getNickname()));
                     // Notify the player of his current game status
-                    submitVirtualViewMessage(generateResponseGameStatusMessage(playerQuadruple.getNickname()));
+                    submitVirtualViewMessage(getResponseGameStatusMessage(playerQuadruple.getNickname()));
                     // Keep this message in order to keep coherency with the client build-in controller
                     // Notify the players of the current player
-                    submitVirtualViewMessage(new PlayerTurnMessage(playerQuadruple.getNickname(), model.getCurrentPlayerNickname()));
+                    submitVirtualViewMessage(playerTurnEnvelope.addressedTo(playerQuadruple.getNickname()));
                     // PlayerTurnMessage is still needed in order to keep the event order in the client even if the current player is already known thanks to the previous message
                 }
             }
@@ -774,18 +1267,16 @@ public class GameController {
             model.placeCard(id, x, y, side); // Try to place card
 
             // Notify all the players that the current contender has successfully placed the card
-            for (PlayerQuadruple playerQuadruple : nodeList) {
-                submitVirtualViewMessage(new PlaceCardConfirmationMessage(
-                        playerQuadruple.getNickname(),
-                        nickname, // The player that placed the card
-                        id,
-                        new int[]{x, y},
-                        side,
-                        model.getPlayerPoints(nickname), // The points of the player that placed the card
-                        model.getPlayerResources(nickname), // The resources of the player that placed the card
-                        model.getAvailableSpacesPlayer(nickname) // The available spaces of the player that placed the card
-                ));
-            }
+            submitBroadcastVirtualViewMessage(new PlaceCardConfirmationMessage(
+                    BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT,
+                    nickname, // The player that placed the card
+                    id,
+                    new int[]{x, y},
+                    side,
+                    model.getPlayerPoints(nickname), // The points of the player that placed the card
+                    model.getPlayerResources(nickname), // The resources of the player that placed the card
+                    model.getAvailableSpacesPlayer(nickname) // The available spaces of the player that placed the card
+            ));
 
             if (model.getMatchStatus() != MatchStatus.LAST_TURN.getValue()) { // We are not in the last turn; the player should draw a card
                 status = GameControllerStatus.WAITING_CARD_DRAW; // Update game status
@@ -841,22 +1332,18 @@ public class GameController {
             submitVirtualViewMessage(new DrawCardConfirmationMessage(nickname, model.getPlayerHand(nickname)));
 
             // Notify to all the players that the deck size has changed
-            for (PlayerQuadruple playerQuadruple : nodeList) {
-                submitVirtualViewMessage(new DeckSizeUpdateMessage(
-                        playerQuadruple.getNickname(),
-                        model.getResourceCardDeckSize(),
-                        model.getGoldCardDeckSize(),
-                        model.getCurrentResourcesCards().stream().mapToInt(Integer::intValue).toArray(),
-                        model.getCurrentGoldCards().stream().mapToInt(Integer::intValue).toArray(),
-                        model.getNextResourceCardKingdom().orElse(-1),
-                        model.getNextGoldCardKingdom().orElse(-1)
-                ));
-            }
+            submitBroadcastVirtualViewMessage(new DeckSizeUpdateMessage(
+                    BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT,
+                    model.getResourceCardDeckSize(),
+                    model.getGoldCardDeckSize(),
+                    model.getCurrentResourcesCards().stream().mapToInt(Integer::intValue).toArray(),
+                    model.getCurrentGoldCards().stream().mapToInt(Integer::intValue).toArray(),
+                    model.getNextResourceCardKingdom().orElse(-1),
+                    model.getNextGoldCardKingdom().orElse(-1)
+            ));
 
             if (!alreadyEnteredTerminatingPhase && model.getMatchStatus() == MatchStatus.TERMINATING.getValue()) {
-                for (PlayerQuadruple playerQuadruple : nodeList) {
-                    submitVirtualViewMessage(new MatchStatusMessage(playerQuadruple.getNickname(), model.getMatchStatus()));
-                }
+                submitBroadcastVirtualViewMessage(new MatchStatusMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getMatchStatus()));
                 alreadyEnteredTerminatingPhase = true;
             }
 
@@ -875,6 +1362,127 @@ public class GameController {
         }
     }
 
+    /**
+     * Method called when a correlated request is received.
+     * Elaborates the contained message; the first message sent to the requester while elaborating it is the response
+     * to the request, and echoes the request id. If the elaboration sends no message to the requester, an empty response
+     * echoing the request id is sent, so that every correlated request receives exactly one response.
+     *
+     * @param nickname The nickname of the player that sent the request
+     * @param requestId The id of the request
+     * @param message The message to elaborate
+     */
+    public synchronized void elaborateCorrelatedRequest(String nickname, int requestId, CtoSMessage message) {
+        String previousRequester = correlatedRequester;
+        int previousRequestId = correlatedRequestId;
+        correlatedRequester = nickname;
+        correlatedRequestId = requestId;
+        try {
+            message.elaborateMessage(this);
+            if (correlatedRequester != null) { // The request was accepted without a reply
+                correlatedRequester = null;
+                submitVirtualViewMessage(new CorrelatedResponseMessage(nickname, requestId, null));
+            }
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualView for player " + nickname + " not found");
+        } finally {
+            correlatedRequester = previousRequester;
+            correlatedRequestId = previousRequestId;
+        }
+    }
+
+    /**
+     * Method called when a message of type place and draw card is received.
+     * Places the selected card and draws the selected card as a single turn: if the placement fails nothing is applied,
+     * and if the draw fails the placement is rolled back, so the player can try again.
+     * If both succeed, the updates of the turn are delivered to all the players as a single message, followed by the
+     * confirmation of the draw for the player.
+     * In the last turn of the match no card is drawn, and the draw choice is ignored.
+     *
+     * @param nickname The nickname of the player that sent the message
+     * @param id The id of the card to place
+     * @param x X coordinate of the card
+     * @param y Y coordinate of the card
+     * @param side Side of the card to place
+     * @param deckType The type of deck to draw from
+     * @param drawnCardId The id of the card to draw
+     */
+    public synchronized void placeAndDrawCard(String nickname, int id, int x, int y, boolean side, int deckType, int drawnCardId) {
+        try {
+            if (status != GameControllerStatus.WAITING_CARD_PLACEMENT) { // The controller is not waiting for a card placement
+                submitVirtualViewMessage(new PlaceCardFailedMessage(nickname, "You cannot place a card at this time"));
+                return;
+            }
+            if (!nickname.equals(model.getCurrentPlayerNickname())) { // The player doesn't have the playing rights
+                submitVirtualViewMessage(new PlaceCardFailedMessage(nickname, "It's not your turn to play. The current player is: " + model.getCurrentPlayerNickname()));
+                return;
+            }
+            boolean drawing = model.getMatchStatus() != MatchStatus.LAST_TURN.getValue();
+            if (drawing && (deckType < 0 || deckType > 3)) { // Reject the draw before applying the placement
+                submitVirtualViewMessage(new DrawCardFailedMessage(nickname, "Invalid deck type: " + deckType));
+                return;
+            }
+
+            try {
+                model.placeCard(id, x, y, side);
+            } catch (InvalidSelectionException | InvalidPositionException | MissingRequirementsException e) {
+                submitVirtualViewMessage(new PlaceCardFailedMessage(nickname, e.getMessage()));
+                return;
+            }
+            if (drawing) {
+                try {
+                    model.drawCard(deckType, drawnCardId);
+                } catch (DrawException e) { // The draw failed: undo the placement, nothing has been notified yet
+                    model.rollbackPlacement();
+                    submitVirtualViewMessage(new DrawCardFailedMessage(nickname, e.getMessage()));
+                    return;
+                }
+            }
+
+            // Hold back the broadcasts of the turn, so that they are delivered as a single message
+            coalescedBroadcasts = new ArrayList<>();
+            submitBroadcastVirtualViewMessage(new PlaceCardConfirmationMessage(
+                    BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT,
+                    nickname,
+                    id,
+                    new int[]{x, y},
+                    side,
+                    model.getPlayerPoints(nickname),
+                    model.getPlayerResources(nickname),
+                    model.getAvailableSpacesPlayer(nickname)
+            ));
+            if (drawing) {
+                submitBroadcastVirtualViewMessage(new DeckSizeUpdateMessage(
+                        BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT,
+                        model.getResourceCardDeckSize(),
+                        model.getGoldCardDeckSize(),
+                        model.getCurrentResourcesCards().stream().mapToInt(Integer::intValue).toArray(),
+                        model.getCurrentGoldCards().stream().mapToInt(Integer::intValue).toArray(),
+                        model.getNextResourceCardKingdom().orElse(-1),
+                        model.getNextGoldCardKingdom().orElse(-1)
+                ));
+                if (!alreadyEnteredTerminatingPhase && model.getMatchStatus() == MatchStatus.TERMINATING.getValue()) {
+                    submitBroadcastVirtualViewMessage(new MatchStatusMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getMatchStatus()));
+                    alreadyEnteredTerminatingPhase = true;
+                }
+            }
+            setNextPlayer(Optional.empty());
+            flushCoalescedBroadcasts();
+
+            if (drawing) {
+                submitVirtualViewMessage(new DrawCardConfirmationMessage(nickname, model.getPlayerHand(nickname)));
+            }
+        } catch (RollbackException e) {
+            throw new CriticalFailureException("RollbackException when rolling back placement of player " + nickname);
+        } catch (PlayerNotFoundException e) {
+            throw new CriticalFailureException("Player " + nickname + " not found");
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualView for player " + nickname + " not found");
+        } finally {
+            coalescedBroadcasts = null;
+        }
+    }
+
     /**
      * Sets the current player, skipping over any disconnected players.
      * Updates the current game status.
@@ -913,16 +1521,11 @@ public class GameController {
                 if (model.areWeTerminating()) { // We are in the terminating phase
                     model.setLastTurn();
 
-                    // Notify all players of the new match status
-                    for (PlayerQuadruple playerQuadruple : nodeList) {
-                        try {
-                            // Send the message only if the player in this iteration is not the one that we don't want to notify
-                            if (doNotSendMessagesToThisPlayer.isEmpty() || !doNotSendMessagesToThisPlayer.get().equals(playerQuadruple.getNickname())) {
-                                submitVirtualViewMessage(new MatchStatusMessage(playerQuadruple.getNickname(), model.getMatchStatus()));
-                            }
-                        } catch (VirtualViewNotFoundException e) {
-                            throw new CriticalFailureException("VirtualView for player " + playerQuadruple.getNickname() + " not found");
-                        }
+                    // Notify all players of the new match status, except the one that we don't want to notify
+                    try {
+                        submitBroadcastVirtualViewMessage(new MatchStatusMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getMatchStatus()), doNotSendMessagesToThisPlayer.orElse(null));
+                    } catch (VirtualViewNotFoundException e) {
+                        throw new CriticalFailureException("VirtualViewNotFoundException when notifying players of the new match status");
                     }
                 }
                 else if (model.getMatchStatus() == MatchStatus.LAST_TURN.getValue()) {
@@ -933,16 +1536,11 @@ public class GameController {
         } while (!isCurrentPlayerConnected());
 
         // Found the next player that is currently connected
-        // Notify the players of the current player
-        for (PlayerQuadruple playerQuadruple : nodeList) {
-            try {
-                // Send the message only if the player in this iteration is not the one that we don't want to notify
-                if (doNotSendMessagesToThisPlayer.isEmpty() || !doNotSendMessagesToThisPlayer.get().equals(playerQuadruple.getNickname())) {
-                    submitVirtualViewMessage(new PlayerTurnMessage(playerQuadruple.getNickname(), model.getCurrentPlayerNickname()));
-                }
-            } catch (VirtualViewNotFoundException e) {
-                throw new CriticalFailureException("VirtualView for player " + playerQuadruple.getNickname() + " not found");
-            }
+        // Notify the players of the current player, except the one that we don't want to notify
+        try {
+            submitBroadcastVirtualViewMessage(new PlayerTurnMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, model.getCurrentPlayerNickname()), doNotSendMessagesToThisPlayer.orElse(null));
+        } catch (VirtualViewNotFoundException e) {
+            throw new CriticalFailureException("VirtualViewNotFoundException when notifying players of the current player");
         }
     }
 
@@ -968,7 +1566,7 @@ public class GameController {
     // We need to keep this method since the client knows that it is reconnecting (and not just accessing a new game) and therefore it will ask for the updated game information
     public synchronized void sendGameStatus(String requesterNickname) {
         try {
-            submitVirtualViewMessage(generateResponseGameStatusMessage(requesterNickname));
+            submitVirtualViewMessage(getResponseGameStatusMessage(requesterNickname));
         } catch (VirtualViewNotFoundException e) {
             throw new CriticalFailureException("VirtualView for player " + requesterNickname + " not found");
         }
@@ -977,6 +1575,7 @@ public class GameController {
     /**
      * Method called when a message of type request player field is received.
      * The method fetches the field of the player whose field is requested, and sends a response player field message to the requester.
+     * The message is generated again only if the field has changed since the last request of the same requester for the same player.
      *
      * @param requesterNickname The nickname of the player that sent the request message
      * @param playerNickname The nickname of the player whose field is requested
@@ -985,7 +1584,15 @@ public class GameController {
     // However, we keep this method in order to allow easier debugging and testing
     public synchronized void sendPlayerField(String requesterNickname, String playerNickname) {
         try {
-            submitVirtualViewMessage(new ResponsePlayerFieldMessage(requesterNickname, playerNickname, model.getPlayerField(playerNickname), model.getPlayerResources(playerNickname)));
+            long fieldVersion = model.getPlayerFieldVersion(playerNickname);
+            List<String> cacheKey = List.of(requesterNickname, playerNickname);
+            CachedResponse cachedResponse = playerFieldCache.get(cacheKey);
+            if (cachedResponse == null || !cachedResponse.state().equals(fieldVersion)) {
+                cachedResponse = new CachedResponse(fieldVersion, new ResponsePlayerFieldMessage(requesterNickname, playerNickname,
+                        model.getPlayerField(playerNickname), model.getPlayerResources(playerNickname)));
+                playerFieldCache.put(cacheKey, cachedResponse);
+            }
+            submitVirtualViewMessage(cachedResponse.message());
         } catch (PlayerNotFoundException e) { // The player whose field is requested could not be found
             try {
                 submitVirtualViewMessage(new NegativeResponsePlayerFieldMessage(requesterNickname, playerNickname));
@@ -997,6 +1604,25 @@ public class GameController {
         }
     }
 
+    /**
+     * Returns the response game status message for a given player.
+     * The message generated for the previous request of the player is returned again if, since then, no command has been applied to the model,
+     * no chat message has been sent and no player has connected or disconnected; otherwise a new message is generated.
+     *
+     * @param nickname The nickname of the player to return the message for
+     * @return The response game status message, reflecting the current state of the game
+     */
+    protected synchronized PlayerGameStatusMessage getResponseGameStatusMessage(String nickname) {
+        List<Object> state = List.of(model.getVersion(), chat.getHistory().size(),
+                nodeList.stream().map(PlayerQuadruple::isConnected).toList());
+        CachedResponse cachedResponse = gameStatusCache.get(nickname);
+        if (cachedResponse == null || !cachedResponse.state().equals(state)) {
+            cachedResponse = new CachedResponse(state, generateResponseGameStatusMessage(nickname));
+            gameStatusCache.put(nickname, cachedResponse);
+        }
+        return (PlayerGameStatusMessage) cachedResponse.message();
+    }
+
     /**
      * Generates a response game status message for a given player.
      *
@@ -1155,6 +1781,28 @@ public class GameController {
         return timer;
     }
 
+    /**
+     * Getter for the number of messages waiting to be delivered to each player of the game.
+     *
+     * @return A map associating the nickname of each player with the depth of the outbound queue of their VirtualView
+     */
+    public synchronized Map<String, Integer> getOutboundQueueDepths() {
+        Map<String, Integer> queueDepths = new LinkedHashMap<>();
+        for (PlayerQuadruple playerQuadruple : nodeList) {
+            queueDepths.put(playerQuadruple.getNickname(), playerQuadruple.getVirtualView().getQueueDepth());
+        }
+        return queueDepths;
+    }
+
+    /**
+     * Getter for the time at which the last message was submitted to a player of the game.
+     *
+     * @return The time of the last activity of the game, in milliseconds since the epoch
+     */
+    public synchronized long getLastActivityTime() {
+        return lastActivityTime;
+    }
+
     protected synchronized ArrayList<PlayerQuadruple> getNodeList() {
         return nodeList;
     }
@@ -1178,4 +1826,12 @@ public class GameController {
     protected synchronized Chat getChat(){
         return chat;
     }
+
+    /**
+     * A message generated in response to a request, along with the state of the game it was generated from.
+     *
+     * @param state The state of the game the message reflects, compared with the current one to decide whether the message is still valid
+     * @param message The message
+     */
+    private record CachedResponse(Object state, StoCMessage message) {}
 }
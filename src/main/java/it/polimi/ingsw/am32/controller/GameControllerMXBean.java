@@ -0,0 +1,96 @@
+package it.polimi.ingsw.am32.controller;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The GameControllerMXBean interface is the management interface of a game, through which operators can monitor it
+ * with JMX tools, dump its state and end it.
+ *
+ * @author Anto
+ */
+public interface GameControllerMXBean {
+    /**
+     * Returns the id of the game.
+     *
+     * @return The id of the game
+     */
+    int getId();
+
+    /**
+     * Returns the phase of the game.
+     *
+     * @return The name of the {@link GameControllerStatus} of the game
+     */
+    String getStatus();
+
+    /**
+     * Returns the number of players of the game at full capacity.
+     *
+     * @return The size of the game
+     */
+    int getGameSize();
+
+    /**
+     * Returns the players of the game.
+     *
+     * @return The nicknames of the players that joined the game
+     */
+    List<String> getPlayers();
+
+    /**
+     * Returns the number of players currently connected to the game.
+     *
+     * @return The number of connected players
+     */
+    int getConnectedPlayers();
+
+    /**
+     * Returns the number of messages waiting to be delivered to each player.
+     *
+     * @return A map associating the nickname of each player with the depth of their outbound queue
+     */
+    Map<String, Integer> getOutboundQueueDepths();
+
+    /**
+     * Returns the number of the turn being played.
+     *
+     * @return The turn number of the match
+     */
+    int getTurnNumber();
+
+    /**
+     * Returns the player whose turn it is.
+     *
+     * @return The nickname of the current player, or null if the turns have not started yet
+     */
+    String getCurrentPlayer();
+
+    /**
+     * Returns the time at which the last message was submitted to a player of the game.
+     *
+     * @return The time of the last activity, in milliseconds since the epoch
+     */
+    long getLastActivityTime();
+
+    /**
+     * Returns the time elapsed since the last message was submitted to a player of the game.
+     *
+     * @return The time since the last activity, in milliseconds
+     */
+    long getIdleMillis();
+
+    /**
+     * Describes the state of the game.
+     *
+     * @return A textual description of the state of the game
+     */
+    String dumpState();
+
+    /**
+     * Ends the game, whatever its phase.
+     *
+     * @return True if the game has been ended, false if it had already ended
+     */
+    boolean forceEnd();
+}
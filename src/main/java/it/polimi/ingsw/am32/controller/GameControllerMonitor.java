@@ -0,0 +1,94 @@
+package it.polimi.ingsw.am32.controller;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The GameControllerMonitor class exposes a {@link GameController} to JMX tools, through the {@link GameControllerMXBean}
+ * interface. Each call acquires the lock of the game, so the values read are consistent with each other.
+ *
+ * @author Anto
+ */
+public class GameControllerMonitor implements GameControllerMXBean {
+    /**
+     * game: The game exposed by the MBean
+     */
+    private final GameController game;
+
+    /**
+     * Constructor of the GameControllerMonitor class.
+     *
+     * @param game The game exposed by the MBean
+     */
+    protected GameControllerMonitor(GameController game) {
+        this.game = game;
+    }
+
+    @Override
+    public int getId() {
+        return game.getId();
+    }
+
+    @Override
+    public String getStatus() {
+        return game.getStatus().name();
+    }
+
+    @Override
+    public int getGameSize() {
+        return game.getGameSize();
+    }
+
+    @Override
+    public List<String> getPlayers() {
+        synchronized (game) {
+            return game.getNodeList().stream().map(PlayerQuadruple::getNickname).toList();
+        }
+    }
+
+    @Override
+    public int getConnectedPlayers() {
+        synchronized (game) {
+            return (int) game.getNodeList().stream().filter(PlayerQuadruple::isConnected).count();
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getOutboundQueueDepths() {
+        return game.getOutboundQueueDepths();
+    }
+
+    @Override
+    public int getTurnNumber() {
+        synchronized (game) {
+            return game.getModel().getCurrentTurnNumber();
+        }
+    }
+
+    @Override
+    public String getCurrentPlayer() {
+        synchronized (game) {
+            return game.getModel().getCurrentPlayerNickname();
+        }
+    }
+
+    @Override
+    public long getLastActivityTime() {
+        return game.getLastActivityTime();
+    }
+
+    @Override
+    public long getIdleMillis() {
+        return System.currentTimeMillis() - game.getLastActivityTime();
+    }
+
+    @Override
+    public String dumpState() {
+        return game.dumpState();
+    }
+
+    @Override
+    public boolean forceEnd() {
+        return game.forceEnd();
+    }
+}
@@ -2,13 +2,18 @@ package it.polimi.ingsw.am32.controller;
 
 import it.polimi.ingsw.am32.controller.exceptions.*;
 import it.polimi.ingsw.am32.message.ServerToClient.*;
+import it.polimi.ingsw.am32.metrics.ManagementBeans;
 import it.polimi.ingsw.am32.model.exceptions.DuplicateNicknameException;
 import it.polimi.ingsw.am32.model.exceptions.PlayerNotFoundException;
 import it.polimi.ingsw.am32.network.ServerNode.ServerNodeInterface;
+import it.polimi.ingsw.am32.utilities.Configuration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Optional;
 import java.util.Random;
 import java.util.stream.Collectors;
 
@@ -37,18 +42,79 @@ public class GamesManager {
     }
 
     /**
-     * Returns the only instance of the class
+     * Returns the only instance of the class.
+     * When the instance is created, its MBean is registered, so that the games can be monitored with JMX tools.
      *
      * @return The only instance of the class
      */
     public static synchronized GamesManager getInstance() {
         if (instance == null) {
             instance = new GamesManager();
+            ManagementBeans.register("GamesManager", null, new GamesManagerMonitor(instance));
             logger.debug("Instance of GamesManager created");
         }
         return instance;
     }
 
+    /**
+     * Returns a monitor of the games, through which their number, their phases and their players can be read, as
+     * through the MBean of the class.
+     *
+     * @return The monitor of the games
+     */
+    public GamesManagerMXBean getMonitor() {
+        return new GamesManagerMonitor(this);
+    }
+
+    /**
+     * Rebuilds the games that were being played when the server stopped, from their last snapshot and their journal.
+     * Must be called at startup, before accepting connections. The players of the recovered games are disconnected,
+     * and can rejoin their game through {@link #reconnectToGame}. Does nothing if journaling is disabled.
+     *
+     * @return The number of recovered games
+     */
+    public synchronized int recoverGames() {
+        String journalDirectory = Configuration.getInstance().getJournalDirectory();
+        if (journalDirectory.isEmpty()) return 0;
+
+        Optional<SnapshotStore> snapshotStore;
+        try {
+            snapshotStore = Optional.of(SnapshotStore.getInstance(Path.of(journalDirectory)));
+        } catch (IOException e) {
+            logger.error("Could not open the snapshot store, games will be recovered from their whole journal: {}", e.getMessage());
+            snapshotStore = Optional.empty();
+        }
+
+        int recoveredGames = 0;
+        try {
+            for (Path file : MatchJournal.listJournals(Path.of(journalDirectory))) {
+                try {
+                    MatchJournal journal = MatchJournal.open(file);
+                    if (games.stream().anyMatch(game -> game.getId() == journal.getGameId())) { // Should never happen, ids are unique among journals
+                        logger.error("Journal {} belongs to game {}, which already exists", file, journal.getGameId());
+                        journal.close();
+                        continue;
+                    }
+
+                    Optional<SnapshotStore.Snapshot> snapshot = snapshotStore.flatMap(store -> store.get(journal.getGameId()));
+                    Optional<GameController> game = GameController.recover(journal, snapshot);
+                    if (game.isPresent()) {
+                        addGame(game.get());
+                        recoveredGames++;
+                        logger.info("Recovered game {} from journal {}", journal.getGameId(), file);
+                    } else {
+                        logger.info("Game {} could not be resumed, its journal has been discarded", journal.getGameId());
+                    }
+                } catch (IOException e) {
+                    logger.error("Could not recover the game of journal {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not read the journal directory {}: {}", journalDirectory, e.getMessage());
+        }
+        return recoveredGames;
+    }
+
     /**
      * Creates a new game with the given creator name and player count
      *
@@ -100,10 +166,20 @@ public class GamesManager {
             throw new CriticalFailureException("DuplicateNicknameException when creator joined the game");
         }
 
-        games.add(game); // Add game to the list of all games
+        addGame(game); // Add game to the list of all games
         return game;
     }
 
+    /**
+     * Adds a game to the list of all games, and registers its MBean.
+     *
+     * @param game The game to be added
+     */
+    private void addGame(GameController game) {
+        games.add(game);
+        ManagementBeans.register("GameController", String.valueOf(game.getId()), new GameControllerMonitor(game));
+    }
+
     /**
      * Adds the player with the given nickname to the game with the given code
      *
@@ -179,6 +255,29 @@ public class GamesManager {
     public synchronized GameController reconnectToGame(String nickname, int gameCode, ServerNodeInterface node) throws
             GameAlreadyEndedException, CTRPlayerNotFoundException, GameNotFoundException, PlayerAlreadyConnectedException,
             GameNotYetStartedException
+    {
+        return reconnectToGame(nickname, gameCode, node, 0, null);
+    }
+
+    /**
+     * Reconnects the player with the given nickname to the game with the given code.
+     * If the messages the player missed are still in the event log of the game, only those are sent to the player.
+     *
+     * @param nickname The nickname of the player to be reconnected
+     * @param gameCode The code of the game to be accessed
+     * @param node The server node associated with the given player
+     * @param epoch The epoch of the event log the player's sequence numbers refer to
+     * @param lastAppliedSequences The last sequence number applied by the player for each priority class, or null if unknown
+     * @return The GameController of the game with the given code
+     * @throws GameAlreadyEndedException If the game has already ended
+     * @throws CTRPlayerNotFoundException If the player with the given nickname is not found in the game
+     * @throws GameNotFoundException If no game with the given code is found
+     * @throws PlayerAlreadyConnectedException If the player with the given nickname is already connected to the game
+     * @throws GameNotYetStartedException If the game has not yet started
+     */
+    public synchronized GameController reconnectToGame(String nickname, int gameCode, ServerNodeInterface node, long epoch,
+            long[] lastAppliedSequences) throws GameAlreadyEndedException, CTRPlayerNotFoundException, GameNotFoundException,
+            PlayerAlreadyConnectedException, GameNotYetStartedException
     {
         logger.debug("Received request to reconnect to game. Nickname: {}, game code: {}, node: {}", nickname, gameCode, node);
         if (nickname == null || nickname.isBlank()) {
@@ -199,7 +298,12 @@ public class GamesManager {
 
                 // Game has not yet ended
                 try {
-                    game.reconnect(nickname, node); // Attempt to reconnect the player
+                    // Attempt to reconnect the player
+                    if (lastAppliedSequences == null) {
+                        game.reconnect(nickname, node); // The player needs the full status of the game
+                    } else {
+                        game.reconnect(nickname, node, epoch, lastAppliedSequences);
+                    }
 
                     for (PlayerQuadruple playerQuadruple : game.getNodeList()) {
                         // Also notify all players except player that has just reconnected, that a player has reconnected
@@ -232,6 +336,9 @@ public class GamesManager {
      * Clear the instance of the class. Used for testing purposes only.
      */
     protected synchronized void clearInstance() {
+        for (GameController game : games) {
+            ManagementBeans.unregister("GameController", String.valueOf(game.getId()));
+        }
         instance = null;
         logger.debug("Instance of GamesManager cleared");
     }
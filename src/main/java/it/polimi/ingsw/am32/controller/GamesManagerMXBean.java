@@ -0,0 +1,63 @@
+package it.polimi.ingsw.am32.controller;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The GamesManagerMXBean interface is the management interface of the {@link GamesManager}, through which operators can
+ * monitor all the games of the server with JMX tools, dump the state of a game and end it.
+ *
+ * @author Anto
+ */
+public interface GamesManagerMXBean {
+    /**
+     * Returns the number of games handled by the server, including the ended ones.
+     *
+     * @return The number of games
+     */
+    int getGameCount();
+
+    /**
+     * Returns the ids of the games handled by the server.
+     *
+     * @return The ids of the games
+     */
+    List<Integer> getGameIds();
+
+    /**
+     * Returns the number of games in each phase.
+     *
+     * @return A map associating the name of each {@link GameControllerStatus} with the number of games in that phase
+     */
+    Map<String, Integer> getGamesByStatus();
+
+    /**
+     * Returns the number of players connected to the games that have not ended.
+     *
+     * @return The number of connected players
+     */
+    int getConnectedPlayers();
+
+    /**
+     * Returns the number of players disconnected from the games that have not ended, who can still reconnect.
+     *
+     * @return The number of disconnected players
+     */
+    int getDisconnectedPlayers();
+
+    /**
+     * Describes the state of a game.
+     *
+     * @param gameId The id of the game
+     * @return A textual description of the state of the game, or a message saying that the game does not exist
+     */
+    String dumpGame(int gameId);
+
+    /**
+     * Ends a game, whatever its phase.
+     *
+     * @param gameId The id of the game
+     * @return True if the game has been ended, false if it does not exist or had already ended
+     */
+    boolean forceEndGame(int gameId);
+}
@@ -0,0 +1,113 @@
+package it.polimi.ingsw.am32.controller;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The GamesManagerMonitor class exposes the {@link GamesManager} to JMX tools, through the {@link GamesManagerMXBean}
+ * interface.
+ * The games are read from the list of the GamesManager while holding its lock, and then queried one at a time, so that
+ * the lock of the GamesManager is never held while waiting for the lock of a game.
+ *
+ * @author Anto
+ */
+public class GamesManagerMonitor implements GamesManagerMXBean {
+    /**
+     * gamesManager: The GamesManager exposed by the MBean
+     */
+    private final GamesManager gamesManager;
+
+    /**
+     * Constructor of the GamesManagerMonitor class.
+     *
+     * @param gamesManager The GamesManager exposed by the MBean
+     */
+    protected GamesManagerMonitor(GamesManager gamesManager) {
+        this.gamesManager = gamesManager;
+    }
+
+    /**
+     * Returns a copy of the list of the games, taken while holding the lock of the GamesManager.
+     *
+     * @return The games handled by the server
+     */
+    private List<GameController> games() {
+        synchronized (gamesManager) {
+            return new ArrayList<>(gamesManager.getGames());
+        }
+    }
+
+    /**
+     * Returns the game with the given id.
+     *
+     * @param gameId The id of the game
+     * @return The game, or an empty optional if no game has the given id
+     */
+    private Optional<GameController> game(int gameId) {
+        return games().stream().filter(game -> game.getId() == gameId).findFirst();
+    }
+
+    /**
+     * Counts the players of the games that have not ended.
+     *
+     * @param connected True to count the connected players, false to count the disconnected ones
+     * @return The number of players
+     */
+    private int countPlayers(boolean connected) {
+        int count = 0;
+        for (GameController game : games()) {
+            synchronized (game) {
+                if (game.getStatus() == GameControllerStatus.GAME_ENDED) continue;
+                for (PlayerQuadruple playerQuadruple : game.getNodeList()) {
+                    if (playerQuadruple.isConnected() == connected) count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int getGameCount() {
+        return games().size();
+    }
+
+    @Override
+    public List<Integer> getGameIds() {
+        return games().stream().map(GameController::getId).toList();
+    }
+
+    @Override
+    public Map<String, Integer> getGamesByStatus() {
+        Map<String, Integer> gamesByStatus = new LinkedHashMap<>();
+        for (GameControllerStatus status : GameControllerStatus.values()) {
+            gamesByStatus.put(status.name(), 0);
+        }
+        for (GameController game : games()) {
+            gamesByStatus.merge(game.getStatus().name(), 1, Integer::sum);
+        }
+        return gamesByStatus;
+    }
+
+    @Override
+    public int getConnectedPlayers() {
+        return countPlayers(true);
+    }
+
+    @Override
+    public int getDisconnectedPlayers() {
+        return countPlayers(false);
+    }
+
+    @Override
+    public String dumpGame(int gameId) {
+        return game(gameId).map(GameController::dumpState).orElse("No game found with code " + gameId);
+    }
+
+    @Override
+    public boolean forceEndGame(int gameId) {
+        return game(gameId).map(GameController::forceEnd).orElse(false);
+    }
+}
@@ -0,0 +1,32 @@
+package it.polimi.ingsw.am32.controller;
+
+import java.util.TimerTask;
+
+/**
+ * This class is a timer task that is used to commit the journal of a match to disk.
+ * The timer task is scheduled at a fixed rate when a journaled game is created, so that all the commands received during
+ * an interval are written and synchronized together.
+ */
+public class JournalGroupCommitTimerTask extends TimerTask {
+    /**
+     * The journal that will be committed by the timer task.
+     */
+    private final MatchJournal journal;
+
+    /**
+     * Constructor.
+     *
+     * @param journal the journal that will be committed by the timer task.
+     */
+    public JournalGroupCommitTimerTask(MatchJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * This method is called when the timer task is executed.
+     */
+    @Override
+    public void run() {
+        journal.flush();
+    }
+}
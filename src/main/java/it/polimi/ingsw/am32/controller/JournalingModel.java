@@ -0,0 +1,379 @@
+package it.polimi.ingsw.am32.controller;
+
+import it.polimi.ingsw.am32.model.ModelInterface;
+import it.polimi.ingsw.am32.model.exceptions.*;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * Model that records in a {@link MatchJournal} every command applied to the match it wraps.
+ * Queries are forwarded to the match without being recorded. <br>
+ * Commands are recorded before being applied, even if the match then rejects them: a rejected command may still have
+ * changed part of the state of the match, and replaying it reproduces exactly the same effect.
+ *
+ * @author Anto
+ */
+public class JournalingModel implements ModelInterface {
+    /**
+     * model: The match the commands are applied to
+     */
+    private final ModelInterface model;
+    /**
+     * journal: The journal the commands are recorded in
+     */
+    private final MatchJournal journal;
+
+    /**
+     * Constructor for the JournalingModel class.
+     *
+     * @param model The match the commands are applied to
+     * @param journal The journal the commands are recorded in
+     */
+    public JournalingModel(ModelInterface model, MatchJournal journal) {
+        this.model = model;
+        this.journal = journal;
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ENTER_LOBBY_PHASE} in the journal, then applies it to the match.
+     */
+    @Override
+    public void enterLobbyPhase() {
+        journal.record(MatchJournal.Command.ENTER_LOBBY_PHASE);
+        model.enterLobbyPhase();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ADD_PLAYER} in the journal, then applies it to the match.
+     */
+    @Override
+    public void addPlayer(String nickname) throws DuplicateNicknameException {
+        journal.record(MatchJournal.Command.ADD_PLAYER, nickname);
+        model.addPlayer(nickname);
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#DELETE_PLAYER} in the journal, then applies it to the match.
+     */
+    @Override
+    public void deletePlayer(String nickname) throws PlayerNotFoundException {
+        journal.record(MatchJournal.Command.DELETE_PLAYER, nickname);
+        model.deletePlayer(nickname);
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ENTER_PREPARATION_PHASE} in the journal, then applies it to the match.
+     */
+    @Override
+    public void enterPreparationPhase() {
+        journal.record(MatchJournal.Command.ENTER_PREPARATION_PHASE);
+        model.enterPreparationPhase();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ASSIGN_COLOURS} in the journal, then applies it to the match.
+     */
+    @Override
+    public void assignRandomColoursToPlayers() {
+        journal.record(MatchJournal.Command.ASSIGN_COLOURS);
+        model.assignRandomColoursToPlayers();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ASSIGN_STARTER_CARDS} in the journal, then applies it to the match.
+     */
+    @Override
+    public void assignRandomStartingInitialCardsToPlayers() {
+        journal.record(MatchJournal.Command.ASSIGN_STARTER_CARDS);
+        model.assignRandomStartingInitialCardsToPlayers();
+    }
+
+    @Override
+    public int getInitialCardPlayer(String nickname) throws PlayerNotFoundException {
+        return model.getInitialCardPlayer(nickname);
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#CREATE_FIELD} in the journal, then applies it to the match.
+     */
+    @Override
+    public void createFieldPlayer(String nickname, boolean side) throws PlayerNotFoundException {
+        journal.record(MatchJournal.Command.CREATE_FIELD, nickname, side);
+        model.createFieldPlayer(nickname, side);
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ASSIGN_RESOURCE_CARDS} in the journal, then applies it to the match.
+     */
+    @Override
+    public void assignRandomStartingResourceCardsToPlayers() {
+        journal.record(MatchJournal.Command.ASSIGN_RESOURCE_CARDS);
+        model.assignRandomStartingResourceCardsToPlayers();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ASSIGN_GOLD_CARDS} in the journal, then applies it to the match.
+     */
+    @Override
+    public void assignRandomStartingGoldCardsToPlayers() {
+        journal.record(MatchJournal.Command.ASSIGN_GOLD_CARDS);
+        model.assignRandomStartingGoldCardsToPlayers();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#PICK_COMMON_OBJECTIVES} in the journal, then applies it to the match.
+     */
+    @Override
+    public void pickRandomCommonObjectives() {
+        journal.record(MatchJournal.Command.PICK_COMMON_OBJECTIVES);
+        model.pickRandomCommonObjectives();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ASSIGN_SECRET_OBJECTIVES} in the journal, then applies it to the match.
+     */
+    @Override
+    public void assignRandomStartingSecretObjectivesToPlayers() {
+        journal.record(MatchJournal.Command.ASSIGN_SECRET_OBJECTIVES);
+        model.assignRandomStartingSecretObjectivesToPlayers();
+    }
+
+    @Override
+    public ArrayList<Integer> getSecretObjectiveCardsPlayer(String nickname) {
+        return model.getSecretObjectiveCardsPlayer(nickname);
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#CHOOSE_SECRET_OBJECTIVE} in the journal, then applies it to the match.
+     */
+    @Override
+    public void receiveSecretObjectiveChoiceFromPlayer(String nickname, int id) throws InvalidSelectionException, PlayerNotFoundException {
+        journal.record(MatchJournal.Command.CHOOSE_SECRET_OBJECTIVE, nickname, id);
+        model.receiveSecretObjectiveChoiceFromPlayer(nickname, id);
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#RANDOMIZE_PLAYERS_ORDER} in the journal, then applies it to the match.
+     */
+    @Override
+    public void randomizePlayersOrder() {
+        journal.record(MatchJournal.Command.RANDOMIZE_PLAYERS_ORDER);
+        model.randomizePlayersOrder();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ENTER_PLAYING_PHASE} in the journal, then applies it to the match.
+     */
+    @Override
+    public void enterPlayingPhase() {
+        journal.record(MatchJournal.Command.ENTER_PLAYING_PHASE);
+        model.enterPlayingPhase();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#START_TURNS} in the journal, then applies it to the match.
+     */
+    @Override
+    public void startTurns() {
+        journal.record(MatchJournal.Command.START_TURNS);
+        model.startTurns();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#PLACE_CARD} in the journal, then applies it to the match.
+     */
+    @Override
+    public void placeCard(int id, int x, int y, boolean side) throws InvalidSelectionException, MissingRequirementsException, InvalidPositionException, PlayerNotFoundException {
+        journal.record(MatchJournal.Command.PLACE_CARD, id, x, y, side);
+        model.placeCard(id, x, y, side);
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#DRAW_CARD} in the journal, then applies it to the match.
+     */
+    @Override
+    public void drawCard(int deckType, int id) throws DrawException, PlayerNotFoundException {
+        journal.record(MatchJournal.Command.DRAW_CARD, deckType, id);
+        model.drawCard(deckType, id);
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#NEXT_TURN} in the journal, then applies it to the match.
+     */
+    @Override
+    public void nextTurn() {
+        journal.record(MatchJournal.Command.NEXT_TURN);
+        model.nextTurn();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#SET_TERMINATING} in the journal, then applies it to the match.
+     */
+    @Override
+    public void setTerminating() {
+        journal.record(MatchJournal.Command.SET_TERMINATING);
+        model.setTerminating();
+    }
+
+    @Override
+    public boolean areWeTerminating() {
+        return model.areWeTerminating();
+    }
+
+    @Override
+    public boolean isFirstPlayer() {
+        return model.isFirstPlayer();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#SET_LAST_TURN} in the journal, then applies it to the match.
+     */
+    @Override
+    public void setLastTurn() {
+        journal.record(MatchJournal.Command.SET_LAST_TURN);
+        model.setLastTurn();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ENTER_TERMINATED_PHASE} in the journal, then applies it to the match.
+     */
+    @Override
+    public void enterTerminatedPhase() {
+        journal.record(MatchJournal.Command.ENTER_TERMINATED_PHASE);
+        model.enterTerminatedPhase();
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ADD_OBJECTIVE_POINTS} in the journal, then applies it to the match.
+     */
+    @Override
+    public void addObjectivePoints() throws AlreadyComputedPointsException {
+        journal.record(MatchJournal.Command.ADD_OBJECTIVE_POINTS);
+        model.addObjectivePoints();
+    }
+
+    @Override
+    public ArrayList<String> getWinners() {
+        return model.getWinners();
+    }
+
+    @Override
+    public ArrayList<String> getPlayersNicknames() {
+        return model.getPlayersNicknames();
+    }
+
+    @Override
+    public ArrayList<Integer> getCurrentResourcesCards() {
+        return model.getCurrentResourcesCards();
+    }
+
+    @Override
+    public ArrayList<Integer> getCurrentGoldCards() {
+        return model.getCurrentGoldCards();
+    }
+
+    @Override
+    public ArrayList<Integer> getCommonObjectives() {
+        return model.getCommonObjectives();
+    }
+
+    @Override
+    public int[] getPlayerResources(String nickname) throws PlayerNotFoundException {
+        return model.getPlayerResources(nickname);
+    }
+
+    @Override
+    public int getPlayerSecretObjective(String nickname) throws PlayerNotFoundException {
+        return model.getPlayerSecretObjective(nickname);
+    }
+
+    @Override
+    public ArrayList<Integer> getPlayerHand(String nickname) throws PlayerNotFoundException {
+        return model.getPlayerHand(nickname);
+    }
+
+    @Override
+    public ArrayList<int[]> getPlayerField(String nickname) throws PlayerNotFoundException {
+        return model.getPlayerField(nickname);
+    }
+
+    @Override
+    public int getMatchStatus() {
+        return model.getMatchStatus();
+    }
+
+    @Override
+    public int getCurrentTurnNumber() {
+        return model.getCurrentTurnNumber();
+    }
+
+    @Override
+    public int getPlayerColour(String nickname) throws PlayerNotFoundException, NullColourException {
+        return model.getPlayerColour(nickname);
+    }
+
+    @Override
+    public String getCurrentPlayerNickname() {
+        return model.getCurrentPlayerNickname();
+    }
+
+    @Override
+    public int getPlayerPoints(String nickname) throws PlayerNotFoundException {
+        return model.getPlayerPoints(nickname);
+    }
+
+    /**
+     * Records {@link MatchJournal.Command#ROLLBACK_PLACEMENT} in the journal, then applies it to the match.
+     */
+    @Override
+    public void rollbackPlacement() throws RollbackException, PlayerNotFoundException {
+        journal.record(MatchJournal.Command.ROLLBACK_PLACEMENT);
+        model.rollbackPlacement();
+    }
+
+    @Override
+    public int getResourceCardDeckSize() {
+        return model.getResourceCardDeckSize();
+    }
+
+    @Override
+    public int getGoldCardDeckSize() {
+        return model.getGoldCardDeckSize();
+    }
+
+    @Override
+    public ArrayList<int[]> getAvailableSpacesPlayer(String nickname) throws PlayerNotFoundException {
+        return model.getAvailableSpacesPlayer(nickname);
+    }
+
+    @Override
+    public int getPointsGainedFromObjectives(String nickname) throws PlayerNotFoundException {
+        return model.getPointsGainedFromObjectives(nickname);
+    }
+
+    @Override
+    public Optional<Integer> getNextResourceCardKingdom() {
+        return model.getNextResourceCardKingdom();
+    }
+
+    @Override
+    public Optional<Integer> getNextGoldCardKingdom() {
+        return model.getNextGoldCardKingdom();
+    }
+
+    @Override
+    public long getSeed() {
+        return model.getSeed();
+    }
+
+    @Override
+    public long getVersion() {
+        return model.getVersion();
+    }
+
+    @Override
+    public long getPlayerFieldVersion(String nickname) throws PlayerNotFoundException {
+        return model.getPlayerFieldVersion(nickname);
+    }
+}
@@ -0,0 +1,32 @@
+package it.polimi.ingsw.am32.controller;
+
+import java.util.TimerTask;
+
+/**
+ * This class is a timer task that is used to report periodically to the players of a game the round trip time and the
+ * jitter of the connection of each player.
+ * The timer task is scheduled at a fixed rate when the game is created.
+ */
+public class LinkQualityTimerTask extends TimerTask {
+    /**
+     * The gameController on which the timer task will be executed.
+     */
+    private final GameController gameController;
+
+    /**
+     * Constructor.
+     *
+     * @param gameController the gameController on which the timer task will be executed.
+     */
+    public LinkQualityTimerTask(GameController gameController) {
+        this.gameController = gameController;
+    }
+
+    /**
+     * This method is called when the timer task is executed.
+     */
+    @Override
+    public void run() {
+        gameController.reportLinkQuality();
+    }
+}
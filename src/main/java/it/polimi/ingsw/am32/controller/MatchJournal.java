@@ -0,0 +1,554 @@
+package it.polimi.ingsw.am32.controller;
+
+import it.polimi.ingsw.am32.chat.Chat;
+import it.polimi.ingsw.am32.chat.ChatMessage;
+import it.polimi.ingsw.am32.controller.exceptions.CriticalFailureException;
+import it.polimi.ingsw.am32.model.ModelInterface;
+import it.polimi.ingsw.am32.model.exceptions.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only journal of the commands applied to the model of a single game.
+ * The journal starts with a header containing the id and the size of the game, together with the seed of the source of
+ * randomness of the match. Every command applied to the model is then appended as a record, so that a new match built
+ * with the same seed, and receiving the same commands, ends up in exactly the same state. <br>
+ * Records are buffered in memory and written to disk in batches by {@link #flush()} (group commit), so that a single
+ * synchronization of the file covers all the commands received during a group commit interval.
+ * If the server crashes, at most the commands of the last interval are lost. <br>
+ * Records are numbered from the creation of the journal. When a snapshot of the game has been stored, the records it covers
+ * are trimmed by {@link #compact(long)}: the header keeps the number of the first record still in the journal.
+ *
+ * @author Anto
+ */
+public class MatchJournal {
+    /**
+     * Logger object of the class
+     */
+    private static final Logger logger = LogManager.getLogger(MatchJournal.class);
+    /**
+     * The value that identifies a journal file
+     */
+    private static final int MAGIC = 0x414D3332;
+    /**
+     * The version of the format of the journal
+     */
+    private static final int VERSION = 2;
+    /**
+     * The length of the header of the journal, and the position of the number of the first record in the header
+     */
+    private static final int HEADER_LENGTH = 32, BASE_RECORD_POSITION = 24;
+    /**
+     * The extension of the journal files
+     */
+    private static final String EXTENSION = ".journal";
+    /**
+     * The type tags used to encode the arguments of a record
+     */
+    private static final byte INT_TAG = 'I', BOOLEAN_TAG = 'Z', STRING_TAG = 'S', NULL_TAG = 'N';
+    /**
+     * file: The file the journal is stored in
+     */
+    private final Path file;
+    /**
+     * gameId: The id of the game the journal belongs to
+     */
+    private final int gameId;
+    /**
+     * gameSize: The number of players in the game at fully capacity
+     */
+    private final int gameSize;
+    /**
+     * seed: The seed of the source of randomness of the match
+     */
+    private final long seed;
+    /**
+     * channel: The channel used to append the records to the file
+     */
+    private final FileChannel channel;
+    /**
+     * baseRecord: The number of the first record still contained in the journal
+     */
+    private long baseRecord;
+    /**
+     * recordCount: The number of records appended since the creation of the journal, including trimmed and pending ones
+     */
+    private long recordCount;
+    /**
+     * pendingBytes: The records that have been appended but not yet written to disk
+     */
+    private ByteArrayOutputStream pendingBytes;
+    /**
+     * recoveredRecords: The records read from an existing journal, waiting to be replayed
+     */
+    private List<Record> recoveredRecords;
+    /**
+     * closed: A flag that indicates whether the journal has been closed
+     */
+    private boolean closed;
+
+    /**
+     * The commands that can be recorded in the journal. Each command has a fixed code that is written to disk.
+     */
+    public enum Command {
+        ENTER_LOBBY_PHASE(0),
+        ADD_PLAYER(1),
+        DELETE_PLAYER(2),
+        ENTER_PREPARATION_PHASE(3),
+        ASSIGN_COLOURS(4),
+        ASSIGN_STARTER_CARDS(5),
+        CREATE_FIELD(6),
+        ASSIGN_RESOURCE_CARDS(7),
+        ASSIGN_GOLD_CARDS(8),
+        PICK_COMMON_OBJECTIVES(9),
+        ASSIGN_SECRET_OBJECTIVES(10),
+        CHOOSE_SECRET_OBJECTIVE(11),
+        RANDOMIZE_PLAYERS_ORDER(12),
+        ENTER_PLAYING_PHASE(13),
+        START_TURNS(14),
+        PLACE_CARD(15),
+        DRAW_CARD(16),
+        NEXT_TURN(17),
+        SET_TERMINATING(18),
+        SET_LAST_TURN(19),
+        ENTER_TERMINATED_PHASE(20),
+        ADD_OBJECTIVE_POINTS(21),
+        ROLLBACK_PLACEMENT(22),
+        CHAT_MESSAGE(23);
+
+        /**
+         * The code of the command written to disk
+         */
+        private final int code;
+
+        Command(int code) {
+            this.code = code;
+        }
+
+        /**
+         * Returns the command with the given code
+         *
+         * @param code The code of the command
+         * @return The command with the given code
+         * @throws IOException If no command has the given code
+         */
+        private static Command fromCode(int code) throws IOException {
+            for (Command command : values()) {
+                if (command.code == code) return command;
+            }
+            throw new IOException("Unknown journal command code: " + code);
+        }
+    }
+
+    /**
+     * A single command read from a journal, together with its arguments.
+     */
+    private static class Record {
+        /**
+         * The recorded command
+         */
+        private final Command command;
+        /**
+         * The arguments of the command
+         */
+        private final Object[] arguments;
+
+        private Record(Command command, Object[] arguments) {
+            this.command = command;
+            this.arguments = arguments;
+        }
+
+        private String string(int index) {
+            return (String) arguments[index];
+        }
+
+        private int integer(int index) {
+            return (Integer) arguments[index];
+        }
+
+        private boolean bool(int index) {
+            return (Boolean) arguments[index];
+        }
+    }
+
+    /**
+     * Constructor for the MatchJournal class.
+     *
+     * @param file The file the journal is stored in
+     * @param gameId The id of the game the journal belongs to
+     * @param gameSize The number of players in the game at fully capacity
+     * @param seed The seed of the source of randomness of the match
+     * @param channel The channel used to append the records to the file
+     * @param baseRecord The number of the first record contained in the journal
+     */
+    private MatchJournal(Path file, int gameId, int gameSize, long seed, FileChannel channel, long baseRecord) {
+        this.file = file;
+        this.gameId = gameId;
+        this.gameSize = gameSize;
+        this.seed = seed;
+        this.channel = channel;
+        this.baseRecord = baseRecord;
+        this.recordCount = baseRecord;
+        this.pendingBytes = new ByteArrayOutputStream();
+        this.recoveredRecords = new ArrayList<>();
+        this.closed = false;
+    }
+
+    /**
+     * Creates a new journal for a game, replacing any previous journal of a game with the same id.
+     * The header of the journal is written to disk immediately.
+     *
+     * @param directory The directory where the journal is stored
+     * @param gameId The id of the game
+     * @param gameSize The number of players in the game at fully capacity
+     * @param seed The seed of the source of randomness of the match
+     * @return The new journal
+     * @throws IOException If the journal could not be created
+     */
+    public static MatchJournal create(Path directory, int gameId, int gameSize, long seed) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve("game-" + gameId + EXTENSION);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(gameId);
+        header.writeInt(gameSize);
+        header.writeLong(seed);
+        header.writeLong(0); // No record has been trimmed yet
+        channel.write(ByteBuffer.wrap(headerBytes.toByteArray()));
+        channel.force(false);
+
+        return new MatchJournal(file, gameId, gameSize, seed, channel, 0);
+    }
+
+    /**
+     * Opens an existing journal. The records contained in the journal are loaded so that they can be replayed with
+     * {@link #replay(ModelInterface, Chat)}, and new records are appended after them.
+     * A record that was only partially written before a crash is discarded, together with everything after it. A
+     * record that cannot be decoded, for instance because the file was corrupted, is treated in the same way.
+     *
+     * @param file The file the journal is stored in
+     * @return The opened journal
+     * @throws IOException If the file could not be read, or it is not a valid journal
+     */
+    public static MatchJournal open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)));
+            if (input.readInt() != MAGIC) throw new IOException("File " + file + " is not a journal");
+            if (input.readInt() != VERSION) throw new IOException("Unsupported version of journal " + file);
+            MatchJournal journal = new MatchJournal(file, input.readInt(), input.readInt(), input.readLong(), channel, input.readLong());
+
+            long validLength = HEADER_LENGTH;
+            while (input.available() > 0) {
+                try {
+                    int recordLength = input.readInt();
+                    if (recordLength <= 0 || recordLength > input.available()) // Checked before allocating the record
+                        throw new EOFException("Record of " + recordLength + " bytes, " + input.available() + " available");
+                    byte[] recordBytes = new byte[recordLength];
+                    input.readFully(recordBytes);
+                    journal.recoveredRecords.add(decode(recordBytes));
+                    journal.recordCount++;
+                    validLength += 4 + recordLength;
+                } catch (IOException | RuntimeException e) { // A record that was only partially written, or corrupted
+                    logger.warn("Journal {} is truncated after record {}: {}", file, journal.recordCount, e.getMessage());
+                    break;
+                }
+            }
+
+            channel.truncate(validLength); // Drop the partially written or corrupted record, if any
+            channel.position(validLength);
+            return journal;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns all the journals contained in the given directory.
+     *
+     * @param directory The directory where the journals are stored
+     * @return The list of the journal files, empty if the directory does not exist
+     * @throws IOException If the directory could not be read
+     */
+    public static List<Path> listJournals(Path directory) throws IOException {
+        List<Path> journals = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return journals;
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            stream.forEach(journals::add);
+        }
+        return journals;
+    }
+
+    /**
+     * Appends a command to the journal. The command is written to disk by the next {@link #flush()}.
+     *
+     * @param command The command to append
+     * @param arguments The arguments of the command. Only integers, booleans, strings and null values are supported
+     */
+    public synchronized void record(Command command, Object... arguments) {
+        if (closed) return;
+
+        try {
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(recordBytes);
+            output.writeByte(command.code);
+            output.writeByte(arguments.length);
+            for (Object argument : arguments) {
+                switch (argument) {
+                    case null -> output.writeByte(NULL_TAG);
+                    case Integer value -> {
+                        output.writeByte(INT_TAG);
+                        output.writeInt(value);
+                    }
+                    case Boolean value -> {
+                        output.writeByte(BOOLEAN_TAG);
+                        output.writeBoolean(value);
+                    }
+                    case String value -> {
+                        output.writeByte(STRING_TAG);
+                        output.writeUTF(value);
+                    }
+                    default -> throw new IllegalArgumentException("Unsupported journal argument: " + argument);
+                }
+            }
+
+            DataOutputStream pending = new DataOutputStream(pendingBytes);
+            pending.writeInt(recordBytes.size());
+            recordBytes.writeTo(pending);
+            recordCount++;
+        } catch (IOException e) { // Cannot happen when writing to memory
+            throw new CriticalFailureException("Could not encode journal record: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the pending records to disk and synchronizes the file, so that all of them are committed together.
+     * Called periodically by the {@link JournalGroupCommitTimerTask}, and when the journal is closed.
+     */
+    public void flush() {
+        // The channel lock is acquired first, so that batches are committed in the same order they are swapped out
+        synchronized (channel) {
+            ByteArrayOutputStream batch;
+            synchronized (this) {
+                if (closed || pendingBytes.size() == 0) return;
+                batch = pendingBytes;
+                pendingBytes = new ByteArrayOutputStream();
+            }
+
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                logger.error("Could not commit the journal of game {}: {}", gameId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Trims all the records of the journal, because a snapshot covering them has been durably stored.
+     * Must be called while no command can be recorded, so that no record is appended after the snapshot was taken.
+     * The records are removed before the header is updated: if the server crashes in between, the journal contains no
+     * record, and the snapshot is still enough to recover the game.
+     *
+     * @param coveredRecords The number of records covered by the snapshot; it must be equal to {@link #getRecordCount()}
+     * @throws IOException If the journal could not be trimmed
+     */
+    public void compact(long coveredRecords) throws IOException {
+        synchronized (channel) {
+            synchronized (this) {
+                if (closed) return;
+                if (coveredRecords != recordCount) throw new IllegalStateException("The snapshot does not cover all the records of the journal");
+                pendingBytes = new ByteArrayOutputStream(); // The pending records are covered by the snapshot
+                baseRecord = coveredRecords;
+            }
+
+            channel.truncate(HEADER_LENGTH);
+            channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, coveredRecords), BASE_RECORD_POSITION);
+            channel.position(HEADER_LENGTH);
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Commits the pending records and closes the journal. Records appended after closing are ignored.
+     */
+    public void close() {
+        flush();
+        synchronized (this) {
+            closed = true;
+        }
+        synchronized (channel) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.error("Could not close the journal of game {}: {}", gameId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Closes the journal and deletes its file. Used when the game ended, as there is nothing left to recover.
+     */
+    public void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.error("Could not delete the journal of game {}: {}", gameId, e.getMessage());
+        }
+    }
+
+    /**
+     * Applies the records loaded by {@link #open(Path)} to the given model and chat, starting from the given record.
+     * The model must be in the state it had before the first replayed record: either a new match built with the seed
+     * of the journal, or a match restored from a snapshot covering the previous records. Commands that were rejected by
+     * the model when they were first applied are rejected again in the same way, and are therefore ignored.
+     *
+     * @param model The model to apply the commands to
+     * @param chat The chat the chat messages are added to
+     * @param firstRecord The number of the first record to replay; previous records are skipped
+     * @return The number of replayed records
+     * @throws IOException If the records preceding the first replayed one have been trimmed
+     */
+    public int replay(ModelInterface model, Chat chat, long firstRecord) throws IOException {
+        if (firstRecord < baseRecord) throw new IOException("Records of game " + gameId + " before " + baseRecord + " have been trimmed");
+
+        int replayed = 0;
+        for (int i = (int) (firstRecord - baseRecord); i < recoveredRecords.size(); i++) {
+            Record record = recoveredRecords.get(i);
+            try {
+                switch (record.command) {
+                    case ENTER_LOBBY_PHASE -> model.enterLobbyPhase();
+                    case ADD_PLAYER -> model.addPlayer(record.string(0));
+                    case DELETE_PLAYER -> model.deletePlayer(record.string(0));
+                    case ENTER_PREPARATION_PHASE -> model.enterPreparationPhase();
+                    case ASSIGN_COLOURS -> model.assignRandomColoursToPlayers();
+                    case ASSIGN_STARTER_CARDS -> model.assignRandomStartingInitialCardsToPlayers();
+                    case CREATE_FIELD -> model.createFieldPlayer(record.string(0), record.bool(1));
+                    case ASSIGN_RESOURCE_CARDS -> model.assignRandomStartingResourceCardsToPlayers();
+                    case ASSIGN_GOLD_CARDS -> model.assignRandomStartingGoldCardsToPlayers();
+                    case PICK_COMMON_OBJECTIVES -> model.pickRandomCommonObjectives();
+                    case ASSIGN_SECRET_OBJECTIVES -> model.assignRandomStartingSecretObjectivesToPlayers();
+                    case CHOOSE_SECRET_OBJECTIVE -> model.receiveSecretObjectiveChoiceFromPlayer(record.string(0), record.integer(1));
+                    case RANDOMIZE_PLAYERS_ORDER -> model.randomizePlayersOrder();
+                    case ENTER_PLAYING_PHASE -> model.enterPlayingPhase();
+                    case START_TURNS -> model.startTurns();
+                    case PLACE_CARD -> model.placeCard(record.integer(0), record.integer(1), record.integer(2), record.bool(3));
+                    case DRAW_CARD -> model.drawCard(record.integer(0), record.integer(1));
+                    case NEXT_TURN -> model.nextTurn();
+                    case SET_TERMINATING -> model.setTerminating();
+                    case SET_LAST_TURN -> model.setLastTurn();
+                    case ENTER_TERMINATED_PHASE -> model.enterTerminatedPhase();
+                    case ADD_OBJECTIVE_POINTS -> model.addObjectivePoints();
+                    case ROLLBACK_PLACEMENT -> model.rollbackPlacement();
+                    case CHAT_MESSAGE -> chat.addMessage(new ChatMessage(record.string(0), record.string(1), record.bool(2), record.string(3)));
+                }
+            } catch (DuplicateNicknameException | PlayerNotFoundException | InvalidSelectionException |
+                     MissingRequirementsException | InvalidPositionException | DrawException |
+                     AlreadyComputedPointsException | RollbackException e) {
+                logger.debug("Replayed command {} of game {} was rejected again: {}", record.command, gameId, e.getMessage());
+            }
+            replayed++;
+        }
+        recoveredRecords = new ArrayList<>(); // The records are no longer needed
+        return replayed;
+    }
+
+    /**
+     * Decodes a single record.
+     *
+     * @param recordBytes The bytes of the record, without the length prefix
+     * @return The decoded record
+     * @throws IOException If the record is malformed
+     */
+    private static Record decode(byte[] recordBytes) throws IOException {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(recordBytes));
+        Command command = Command.fromCode(input.readUnsignedByte());
+        Object[] arguments = new Object[input.readUnsignedByte()];
+        for (int i = 0; i < arguments.length; i++) {
+            byte tag = input.readByte();
+            arguments[i] = switch (tag) {
+                case INT_TAG -> input.readInt();
+                case BOOLEAN_TAG -> input.readBoolean();
+                case STRING_TAG -> input.readUTF();
+                case NULL_TAG -> null;
+                default -> throw new IOException("Unknown journal argument tag: " + tag);
+            };
+        }
+        if (input.available() > 0) throw new IOException("Unexpected bytes at the end of a journal record");
+        return new Record(command, arguments);
+    }
+
+    /**
+     * Getter
+     *
+     * @return The id of the game the journal belongs to
+     */
+    public int getGameId() {
+        return gameId;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The number of players in the game at fully capacity
+     */
+    public int getGameSize() {
+        return gameSize;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The seed of the source of randomness of the match
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The number of the first record still contained in the journal
+     */
+    public synchronized long getBaseRecord() {
+        return baseRecord;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The number of records appended since the creation of the journal
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The file the journal is stored in
+     */
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,24 @@
+package it.polimi.ingsw.am32.controller;
+
+/**
+ * The OverflowPolicy enum represents the different strategies a VirtualView can adopt when its bounded outbound
+ * queue is full and a new message has to be delivered to the client.
+ * Whatever the policy, if no room can be made in the queue the slow client is disconnected: it will receive a full
+ * status of the game when it reconnects.
+ *
+ * @author Anto
+ */
+public enum OverflowPolicy {
+    /**
+     * Queued messages carrying the same piece of state as the new message are replaced by the new message.
+     */
+    COALESCE,
+    /**
+     * The client is disconnected as soon as its queue is full.
+     */
+    DISCONNECT_SLOW_CONSUMER,
+    /**
+     * Chat messages are dropped, starting from the oldest queued one, to make room for game messages.
+     */
+    DROP_CHAT_FIRST
+}
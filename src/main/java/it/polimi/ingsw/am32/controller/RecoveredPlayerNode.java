@@ -0,0 +1,42 @@
+package it.polimi.ingsw.am32.controller;
+
+import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.network.ServerNode.ServerNodeInterface;
+import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+
+/**
+ * Placeholder node assigned to the players of a game recovered from its journal, until they reconnect.
+ * The player is not connected, so every upload fails and the messages stay in the VirtualView of the player,
+ * exactly as it happens when the connection of a player is lost.
+ */
+public class RecoveredPlayerNode implements ServerNodeInterface {
+
+    /**
+     * Always fails, as the player has not reconnected yet.
+     *
+     * @param message is the message that the server wants to send
+     * @throws UploadFailureException always
+     */
+    @Override
+    public void uploadToClient(StoCMessage message) throws UploadFailureException {
+        throw new UploadFailureException();
+    }
+
+    /**
+     * Does nothing, as there is no connection to check.
+     */
+    @Override
+    public void pingTimeOverdue() {}
+
+    /**
+     * Does nothing, as there is no connection to check.
+     */
+    @Override
+    public void resetTimeCounter() {}
+
+    /**
+     * Does nothing, as there is no connection to close.
+     */
+    @Override
+    public void destroy() {}
+}
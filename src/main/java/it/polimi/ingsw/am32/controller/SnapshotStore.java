@@ -0,0 +1,311 @@
+package it.polimi.ingsw.am32.controller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * Stores the snapshots of the games in a single memory-mapped segment file. <br>
+ * Snapshots are appended to the segment, and the last snapshot of each game replaces the previous ones. When the segment
+ * is full, it is compacted by copying only the last snapshot of each game into a new segment. <br>
+ * At startup the segment is mapped and scanned once, so that the games can be restored from their snapshot without
+ * replaying their whole journal. Each entry is protected by a checksum: the scan stops at the first entry that was
+ * not completely written.
+ * There is a single instance of the class for each journal directory.
+ *
+ * @author Anto
+ */
+public class SnapshotStore {
+    /**
+     * Logger object of the class
+     */
+    private static final Logger logger = LogManager.getLogger(SnapshotStore.class);
+    /**
+     * The name of the segment file, stored in the journal directory
+     */
+    private static final String FILE_NAME = "snapshots.segment";
+    /**
+     * The value that marks the beginning of an entry
+     */
+    private static final int ENTRY_MAGIC = 0x534E4150;
+    /**
+     * The length of the header of an entry: magic, game id, seed, covered records and payload length
+     */
+    private static final int ENTRY_HEADER_LENGTH = 28;
+    /**
+     * The minimum capacity of a segment
+     */
+    private static final int MIN_SEGMENT_CAPACITY = 4 * 1024 * 1024;
+    /**
+     * instances: The instance of the class of each journal directory.
+     */
+    private static final Map<Path, SnapshotStore> instances = new HashMap<>();
+    /**
+     * file: The segment file
+     */
+    private final Path file;
+    /**
+     * channel: The channel of the segment file
+     */
+    private FileChannel channel;
+    /**
+     * segment: The mapped content of the segment file
+     */
+    private MappedByteBuffer segment;
+    /**
+     * writePosition: The position in the segment where the next entry will be written
+     */
+    private int writePosition;
+    /**
+     * snapshots: The last snapshot of each game, indexed by game id
+     */
+    private final Map<Integer, Snapshot> snapshots;
+
+    /**
+     * The last snapshot of a game. Its payload is a read-only view of the mapped segment.
+     */
+    public static class Snapshot {
+        /**
+         * The id of the game
+         */
+        private final int gameId;
+        /**
+         * The seed of the match of the game, used to tell apart games that had the same id
+         */
+        private final long seed;
+        /**
+         * The number of journal records covered by the snapshot
+         */
+        private final long coveredRecords;
+        /**
+         * The serialized state of the game
+         */
+        private final ByteBuffer payload;
+
+        private Snapshot(int gameId, long seed, long coveredRecords, ByteBuffer payload) {
+            this.gameId = gameId;
+            this.seed = seed;
+            this.coveredRecords = coveredRecords;
+            this.payload = payload;
+        }
+
+        /**
+         * Returns a stream that reads the serialized state of the game.
+         *
+         * @return A stream reading the payload of the snapshot
+         */
+        public DataInputStream open() {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.duplicate().get(bytes);
+            return new DataInputStream(new ByteArrayInputStream(bytes));
+        }
+
+        /**
+         * Getter
+         *
+         * @return The id of the game
+         */
+        public int getGameId() {
+            return gameId;
+        }
+
+        /**
+         * Getter
+         *
+         * @return The seed of the match of the game
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Getter
+         *
+         * @return The number of journal records covered by the snapshot
+         */
+        public long getCoveredRecords() {
+            return coveredRecords;
+        }
+    }
+
+    /**
+     * Opens the segment file, creating it if needed, and loads the last snapshot of each game.
+     *
+     * @param file The segment file
+     * @throws IOException If the segment could not be opened or mapped
+     */
+    public SnapshotStore(Path file) throws IOException {
+        this.file = file;
+        this.snapshots = new HashMap<>();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), MIN_SEGMENT_CAPACITY));
+        writePosition = scan(segment, snapshots);
+        logger.info("Loaded the snapshots of {} games from {}", snapshots.size(), file);
+    }
+
+    /**
+     * Returns the instance of the class storing the snapshots of the games journaled in the given directory.
+     *
+     * @param journalDirectory The directory containing the journals of the games
+     * @return The instance of the class of the directory
+     * @throws IOException If the segment could not be opened or mapped
+     */
+    public static synchronized SnapshotStore getInstance(Path journalDirectory) throws IOException {
+        Path directory = journalDirectory.toAbsolutePath().normalize();
+        SnapshotStore instance = instances.get(directory);
+        if (instance == null) {
+            instance = new SnapshotStore(directory.resolve(FILE_NAME));
+            instances.put(directory, instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Scans the entries of a segment, keeping the last snapshot of each game.
+     *
+     * @param segment The segment to scan
+     * @param snapshots The map filled with the last snapshot of each game
+     * @return The position following the last valid entry
+     */
+    private static int scan(ByteBuffer segment, Map<Integer, Snapshot> snapshots) {
+        int position = 0;
+        while (position + ENTRY_HEADER_LENGTH + Long.BYTES <= segment.capacity() && segment.getInt(position) == ENTRY_MAGIC) {
+            int gameId = segment.getInt(position + 4);
+            long seed = segment.getLong(position + 8);
+            long coveredRecords = segment.getLong(position + 16);
+            int payloadLength = segment.getInt(position + 24);
+            int entryLength = ENTRY_HEADER_LENGTH + payloadLength + Long.BYTES;
+            if (payloadLength < 0 || position + entryLength > segment.capacity()) break;
+
+            CRC32 checksum = new CRC32();
+            checksum.update(segment.slice(position, ENTRY_HEADER_LENGTH + payloadLength));
+            if (checksum.getValue() != segment.getLong(position + ENTRY_HEADER_LENGTH + payloadLength)) break; // Entry not completely written
+
+            if (payloadLength == 0) { // The game ended
+                snapshots.remove(gameId);
+            } else {
+                ByteBuffer payload = segment.slice(position + ENTRY_HEADER_LENGTH, payloadLength).asReadOnlyBuffer();
+                snapshots.put(gameId, new Snapshot(gameId, seed, coveredRecords, payload));
+            }
+            position += entryLength;
+        }
+        return position;
+    }
+
+    /**
+     * Stores the snapshot of a game, replacing the previous one. The snapshot is durable when the method returns.
+     *
+     * @param gameId The id of the game
+     * @param seed The seed of the match of the game
+     * @param coveredRecords The number of journal records covered by the snapshot
+     * @param payload The serialized state of the game
+     * @throws IOException If the snapshot could not be stored
+     */
+    public synchronized void write(int gameId, long seed, long coveredRecords, byte[] payload) throws IOException {
+        int entryLength = ENTRY_HEADER_LENGTH + payload.length + Long.BYTES;
+        if (writePosition + entryLength > segment.capacity()) {
+            compact(entryLength);
+        }
+
+        int position = writePosition;
+        segment.putInt(position, ENTRY_MAGIC);
+        segment.putInt(position + 4, gameId);
+        segment.putLong(position + 8, seed);
+        segment.putLong(position + 16, coveredRecords);
+        segment.putInt(position + 24, payload.length);
+        segment.put(position + ENTRY_HEADER_LENGTH, payload);
+        CRC32 checksum = new CRC32();
+        checksum.update(segment.slice(position, ENTRY_HEADER_LENGTH + payload.length));
+        segment.putLong(position + ENTRY_HEADER_LENGTH + payload.length, checksum.getValue());
+        segment.force(position, entryLength);
+        writePosition += entryLength;
+
+        if (payload.length == 0) {
+            snapshots.remove(gameId);
+        } else {
+            ByteBuffer storedPayload = segment.slice(position + ENTRY_HEADER_LENGTH, payload.length).asReadOnlyBuffer();
+            snapshots.put(gameId, new Snapshot(gameId, seed, coveredRecords, storedPayload));
+        }
+    }
+
+    /**
+     * Removes the snapshot of a game that ended, so that it will not be restored.
+     *
+     * @param gameId The id of the game
+     * @throws IOException If the removal could not be stored
+     */
+    public synchronized void remove(int gameId) throws IOException {
+        if (snapshots.containsKey(gameId)) {
+            write(gameId, 0, 0, new byte[0]);
+        }
+    }
+
+    /**
+     * Returns the last snapshot of a game.
+     *
+     * @param gameId The id of the game
+     * @return The last snapshot of the game, or an empty optional if the game has no snapshot
+     */
+    public synchronized Optional<Snapshot> get(int gameId) {
+        return Optional.ofNullable(snapshots.get(gameId));
+    }
+
+    /**
+     * Copies the last snapshot of each game into a new segment, large enough to also contain an entry of the given length.
+     * The new segment is written to a temporary file that atomically replaces the current one.
+     *
+     * @param requiredLength The length of the entry that has to fit in the new segment
+     * @throws IOException If the new segment could not be written
+     */
+    private void compact(int requiredLength) throws IOException {
+        int liveLength = 0;
+        for (Snapshot snapshot : snapshots.values()) {
+            liveLength += ENTRY_HEADER_LENGTH + snapshot.payload.remaining() + Long.BYTES;
+        }
+        int capacity = Math.max(MIN_SEGMENT_CAPACITY, 2 * (liveLength + requiredLength));
+
+        Path temporaryFile = file.resolveSibling(FILE_NAME + ".tmp");
+        FileChannel newChannel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        MappedByteBuffer newSegment = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        int position = 0;
+        for (Snapshot snapshot : snapshots.values()) {
+            int payloadLength = snapshot.payload.remaining();
+            newSegment.putInt(position, ENTRY_MAGIC);
+            newSegment.putInt(position + 4, snapshot.gameId);
+            newSegment.putLong(position + 8, snapshot.seed);
+            newSegment.putLong(position + 16, snapshot.coveredRecords);
+            newSegment.putInt(position + 24, payloadLength);
+            newSegment.put(position + ENTRY_HEADER_LENGTH, snapshot.payload.duplicate(), 0, payloadLength);
+            CRC32 checksum = new CRC32();
+            checksum.update(newSegment.slice(position, ENTRY_HEADER_LENGTH + payloadLength));
+            newSegment.putLong(position + ENTRY_HEADER_LENGTH + payloadLength, checksum.getValue());
+            position += ENTRY_HEADER_LENGTH + payloadLength + Long.BYTES;
+        }
+        newSegment.force();
+        Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        channel.close();
+        channel = newChannel;
+        segment = newSegment;
+        snapshots.clear();
+        writePosition = scan(segment, snapshots);
+        logger.debug("Snapshot segment compacted, {} games kept", snapshots.size());
+    }
+}
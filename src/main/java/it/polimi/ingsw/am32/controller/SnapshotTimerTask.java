@@ -0,0 +1,32 @@
+package it.polimi.ingsw.am32.controller;
+
+import java.util.TimerTask;
+
+/**
+ * This class is a timer task that is used to take periodic snapshots of a game.
+ * The timer task is scheduled at a fixed rate when a journaled game is created, so that the journal of the game never
+ * grows beyond the commands received during an interval.
+ */
+public class SnapshotTimerTask extends TimerTask {
+    /**
+     * The gameController on which the timer task will be executed.
+     */
+    private final GameController gameController;
+
+    /**
+     * Constructor.
+     *
+     * @param gameController the gameController on which the timer task will be executed.
+     */
+    public SnapshotTimerTask(GameController gameController) {
+        this.gameController = gameController;
+    }
+
+    /**
+     * This method is called when the timer task is executed.
+     */
+    @Override
+    public void run() {
+        gameController.takeSnapshot();
+    }
+}
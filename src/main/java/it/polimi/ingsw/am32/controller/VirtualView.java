@@ -1,18 +1,29 @@
 package it.polimi.ingsw.am32.controller;
 
 import it.polimi.ingsw.am32.controller.exceptions.CriticalFailureException;
+import it.polimi.ingsw.am32.message.ServerToClient.MessagePriority;
 import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
 import it.polimi.ingsw.am32.network.ServerNode.ServerNodeInterface;
 import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import it.polimi.ingsw.am32.utilities.Configuration;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.function.Predicate;
 
 /**
  * Used to manage the messages that are sent to the client.
  * Stays in a loop and waits for messages to be added to the queue.
  * When a new message is added, it sends it to the client through the connection node.
+ * Messages are queued in one lane for each {@link MessagePriority}: lanes are served with weighted fairness, while
+ * the messages of each lane are delivered in order.
+ * The queue is bounded: when it is full, room is made according to the configured {@link OverflowPolicy}.
  *
  * @author Antony, Lorenzo
  */
@@ -26,9 +37,32 @@ public class VirtualView implements VirtualViewInterface, Runnable {
      */
     private ServerNodeInterface connectionNode;
     /**
-     * The queue of messages that are to be sent to the client.
+     * The queues of messages that are to be sent to the client, one for each priority class.
+     * The map is also used as the lock for all the attributes related to the queued messages.
      */
-    private final ArrayList<StoCMessage> messageQueue;
+    private final EnumMap<MessagePriority, ArrayDeque<StoCMessage>> messageLanes;
+    /**
+     * The latency stamps of the queued messages, used to measure their wait in the queue and their delivery.
+     * Empty if the latency metrics are disabled.
+     */
+    private final IdentityHashMap<StoCMessage, LatencyMetrics.Stamp> messageStamps;
+    /**
+     * The number of messages queued in all the lanes.
+     */
+    private int queuedMessageCount;
+    /**
+     * The message that is being delivered to the client, or null if no message is being delivered.
+     * It is never removed from its lane by the overflow policy.
+     */
+    private StoCMessage inFlightMessage;
+    /**
+     * The lane that is currently being served.
+     */
+    private MessagePriority currentLane;
+    /**
+     * The number of messages that can still be delivered from the current lane before moving to the next one.
+     */
+    private int remainingLaneCredits;
     /**
      * A boolean that indicates if the VirtualView is terminating.
      * The attribute is volatile because it is accessed by multiple threads.
@@ -38,21 +72,71 @@ public class VirtualView implements VirtualViewInterface, Runnable {
      * An object used as a lock for the non-final attribute connectionNode.
      */
     private final Object connectionNodeLock;
+    /**
+     * The maximum number of messages that can be queued.
+     */
+    private final int queueCapacity;
+    /**
+     * The policy adopted when the queue is full.
+     */
+    private final OverflowPolicy overflowPolicy;
+    /**
+     * The highest number of messages that have been queued at the same time.
+     */
+    private int peakQueueDepth;
+    /**
+     * The number of messages that have been coalesced or dropped because the queue was full.
+     */
+    private int droppedMessageCount;
+    /**
+     * A boolean that indicates if the current connection node has already been disconnected because the queue was full.
+     * Used to avoid destroying the same connection node more than once.
+     */
+    private boolean slowConsumerDisconnected;
 
     /**
      * Constructor for the VirtualView class.
+     * The capacity of the queue and the overflow policy are taken from the server configuration.
      *
      * @param connectionNode The connection node associated with the VirtualView.
      */
     public VirtualView(ServerNodeInterface connectionNode) {
+        this(connectionNode, Configuration.getInstance().getOutboundQueueCapacity(), Configuration.getInstance().getOutboundQueueOverflowPolicy());
+    }
+
+    /**
+     * Constructor for the VirtualView class.
+     *
+     * @param connectionNode The connection node associated with the VirtualView.
+     * @param queueCapacity The maximum number of messages that can be queued.
+     * @param overflowPolicy The policy adopted when the queue is full.
+     */
+    public VirtualView(ServerNodeInterface connectionNode, int queueCapacity, OverflowPolicy overflowPolicy) {
         this.connectionNode = connectionNode;
         // Connection node cannot be null
         if (connectionNode == null) {
             throw new CriticalFailureException("Connection node cannot be null");
         }
-        this.messageQueue = new ArrayList<>();
+        // The queue must be able to hold at least one message
+        if (queueCapacity <= 0) {
+            throw new CriticalFailureException("Queue capacity must be positive");
+        }
+        this.messageLanes = new EnumMap<>(MessagePriority.class);
+        for (MessagePriority priority : MessagePriority.values()) {
+            messageLanes.put(priority, new ArrayDeque<>());
+        }
+        this.messageStamps = new IdentityHashMap<>();
+        this.queuedMessageCount = 0;
+        this.inFlightMessage = null;
+        this.currentLane = MessagePriority.values()[0];
+        this.remainingLaneCredits = currentLane.getWeight();
         this.terminating = false;
         this.connectionNodeLock = new Object();
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.peakQueueDepth = 0;
+        this.droppedMessageCount = 0;
+        this.slowConsumerDisconnected = false;
     }
 
     /**
@@ -76,6 +160,9 @@ public class VirtualView implements VirtualViewInterface, Runnable {
         synchronized (connectionNodeLock) {
             connectionNode = node;
         }
+        synchronized (messageLanes) {
+            slowConsumerDisconnected = false; // The new connection node has never been disconnected
+        }
         logger.debug("connectionNode changed");
     }
 
@@ -89,10 +176,157 @@ public class VirtualView implements VirtualViewInterface, Runnable {
         if (message == null) {
             throw new CriticalFailureException("Message cannot be null");
         }
-        synchronized (messageQueue) {
-            messageQueue.add(message);
+        synchronized (messageLanes) {
+            // If the queue is full, try to make room for the new message
+            if (queuedMessageCount >= queueCapacity && !makeRoomFor(message)) {
+                return;
+            }
+            messageLanes.get(laneOf(message)).addLast(message);
+            LatencyMetrics.Stamp stamp = LatencyMetrics.getInstance().stampOutbound();
+            if (stamp != null) {
+                messageStamps.put(message, stamp);
+            }
+            queuedMessageCount++;
+            peakQueueDepth = Math.max(peakQueueDepth, queuedMessageCount);
             logger.debug("Message added to the VirtualView queue: {}", message.getClass());
-            messageQueue.notifyAll(); // Notify the processing thread that a message has been added to the queue
+            messageLanes.notifyAll(); // Notify the processing thread that a message has been added to the queue
+        }
+    }
+
+    /**
+     * Makes room in the full queue for a new message, according to the overflow policy.
+     * The message that is being delivered is never removed.
+     * If no room can be made, the queue is emptied and the client is disconnected: it will receive the full status of
+     * the game when it reconnects.
+     * Must be called while holding the lock on the message queue.
+     *
+     * @param message The message that has to be added to the queue.
+     * @return True if the message should be added to the queue, false if it has been discarded.
+     */
+    private boolean makeRoomFor(StoCMessage message) {
+        switch (overflowPolicy) {
+            case COALESCE -> {
+                // Replace the queued messages carrying the same piece of state as the new message
+                String coalescingKey = message.getCoalescingKey();
+                if (coalescingKey != null && removeQueuedMessages(queued -> coalescingKey.equals(queued.getCoalescingKey()), false)) {
+                    return true;
+                }
+            }
+            case DROP_CHAT_FIRST -> {
+                // Drop the new message if it is a chat message, otherwise drop the oldest queued chat message
+                if (message.isDiscardable()) {
+                    droppedMessageCount++;
+                    logger.debug("Outbound queue full, chat message dropped: {}", message.getClass());
+                    return false;
+                }
+                if (removeQueuedMessages(StoCMessage::isDiscardable, true)) {
+                    return true;
+                }
+            }
+            case DISCONNECT_SLOW_CONSUMER -> {}
+        }
+        disconnectSlowConsumer();
+        return false;
+    }
+
+    /**
+     * Removes from the queue the messages matching the given condition, without touching the message that is being
+     * delivered. Lanes are visited in priority order, and the messages of each lane from the oldest one.
+     * Must be called while holding the lock on the message queue.
+     *
+     * @param condition The condition a message has to satisfy to be removed.
+     * @param onlyFirst True if only the oldest matching message has to be removed, false if all of them have to be removed.
+     * @return True if at least one message has been removed, false otherwise.
+     */
+    private boolean removeQueuedMessages(Predicate<StoCMessage> condition, boolean onlyFirst) {
+        boolean removed = false;
+        for (ArrayDeque<StoCMessage> lane : messageLanes.values()) {
+            Iterator<StoCMessage> iterator = lane.iterator();
+            while (iterator.hasNext()) {
+                StoCMessage queuedMessage = iterator.next();
+                if (queuedMessage != inFlightMessage && condition.test(queuedMessage)) {
+                    iterator.remove();
+                    messageStamps.remove(queuedMessage);
+                    queuedMessageCount--;
+                    droppedMessageCount++;
+                    removed = true;
+                    if (onlyFirst) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Empties the queue, except for the message that is being delivered, and destroys the connection node of the client.
+     * The connection node is destroyed asynchronously, as this method is invoked while the GameController is locked.
+     * Must be called while holding the lock on the message queue.
+     */
+    private void disconnectSlowConsumer() {
+        removeQueuedMessages(queuedMessage -> true, false);
+        droppedMessageCount++; // The new message is lost too
+        if (slowConsumerDisconnected) {
+            return;
+        }
+        slowConsumerDisconnected = true;
+        logger.warn("Outbound queue full with policy {}, disconnecting slow client", overflowPolicy);
+        ServerNodeInterface nodeToDestroy;
+        synchronized (connectionNodeLock) {
+            nodeToDestroy = connectionNode;
+        }
+        Configuration.getInstance().getExecutorService().submit(nodeToDestroy::destroy);
+    }
+
+    /**
+     * Returns the lane a message is queued in.
+     *
+     * @param message The message whose lane has to be determined.
+     * @return The priority class of the message, or {@link MessagePriority#GAME_CRITICAL} if the message has none.
+     */
+    private static MessagePriority laneOf(StoCMessage message) {
+        MessagePriority priority = message.getPriority();
+        return priority != null ? priority : MessagePriority.GAME_CRITICAL;
+    }
+
+    /**
+     * Returns the next message to be delivered, without removing it from its lane.
+     * Lanes are served in a weighted round-robin fashion: up to {@link MessagePriority#getWeight()} messages are
+     * delivered from a lane before moving to the next non-empty one.
+     * Must be called while holding the lock on the message queue.
+     *
+     * @return The next message to be delivered, or null if the queue is empty.
+     */
+    private StoCMessage peekNextMessage() {
+        MessagePriority[] priorities = MessagePriority.values();
+        // A full round over the lanes, plus the current one, is enough to find a message if there is any
+        for (int i = 0; i <= priorities.length && queuedMessageCount > 0; i++) {
+            ArrayDeque<StoCMessage> lane = messageLanes.get(currentLane);
+            if (remainingLaneCredits > 0 && !lane.isEmpty()) {
+                return lane.getFirst();
+            }
+            currentLane = priorities[(currentLane.ordinal() + 1) % priorities.length];
+            remainingLaneCredits = currentLane.getWeight();
+        }
+        return null;
+    }
+
+    /**
+     * Removes a message that has been delivered from the head of its lane.
+     * If the queue has been flushed while the message was being delivered, nothing is removed.
+     * Must be called while holding the lock on the message queue.
+     *
+     * @param message The message that has been delivered.
+     */
+    private void removeDeliveredMessage(StoCMessage message) {
+        ArrayDeque<StoCMessage> lane = messageLanes.get(laneOf(message));
+        if (!lane.isEmpty() && lane.getFirst() == message) {
+            lane.removeFirst();
+            queuedMessageCount--;
+            if (laneOf(message) == currentLane) {
+                remainingLaneCredits--;
+            }
         }
     }
 
@@ -105,11 +339,11 @@ public class VirtualView implements VirtualViewInterface, Runnable {
         // If there are no messages to be delivered to the client, the thread goes to sleep.
         // It will be woken up when a message is added to the queue or when the VirtualView is being shut down.
 
-        synchronized (messageQueue) {
+        synchronized (messageLanes) {
             // Keep waiting until there are messages to be delivered to the client or a termination signal is received
-            while(messageQueue.isEmpty() && !isTerminating()) {
+            while(queuedMessageCount == 0 && !isTerminating()) {
                 try {
-                    messageQueue.wait();
+                    messageLanes.wait();
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
                     logger.error("VirtualView thread interrupted while waiting for messages");
@@ -131,23 +365,30 @@ public class VirtualView implements VirtualViewInterface, Runnable {
             // Acquire the lock on the message queue to retrieve the next message to be delivered
             // If the queue is empty, return early so the run() method of the class will relaunch
             // the processMessage() method putting the thread back to sleep until a new message is added
-            synchronized (messageQueue){
-                if(messageQueue.isEmpty()){
+            synchronized (messageLanes){
+                currentMessage = peekNextMessage();
+                if(currentMessage == null){
                     return;
                 }
-                currentMessage = messageQueue.getFirst();
+                inFlightMessage = currentMessage;
             }
 
             // We have a message, let's try to send it to the client
             try {
+                long writeStartTime = System.nanoTime();
                 // Acquire the lock on the connection node and try to send the message
                 synchronized (connectionNodeLock) {
                     connectionNode.uploadToClient(currentMessage);
                 }
+                long writeEndTime = System.nanoTime();
                 // If we successfully sent the message, remove it from the queue
-                synchronized (messageQueue) {
-                    messageQueue.removeFirst();
+                LatencyMetrics.Stamp stamp;
+                synchronized (messageLanes) {
+                    inFlightMessage = null;
+                    removeDeliveredMessage(currentMessage);
+                    stamp = messageStamps.remove(currentMessage);
                 }
+                LatencyMetrics.getInstance().recordDelivered(stamp, LatencyMetrics.typeOf(currentMessage), writeStartTime, writeEndTime);
                 logger.debug("Message sent to the client: {}", currentMessage.getClass());
             } catch (UploadFailureException e) {
                 logger.error("Failed to send message to the client: {}", e.getMessage());
@@ -157,9 +398,10 @@ public class VirtualView implements VirtualViewInterface, Runnable {
                 // sending outdated messages to the client. We just need to wait until a new message is added
                 // to the queue (or until the VirtualView is being shut down) as it will represent a signal
                 // that we are ready to start working again.
-                synchronized (messageQueue) {
+                synchronized (messageLanes) {
+                    inFlightMessage = null;
                     try {
-                        messageQueue.wait();
+                        messageLanes.wait();
                     } catch (InterruptedException ex) {
                         Thread.currentThread().interrupt();
                         logger.error("VirtualView thread interrupted while awaiting a wake-up signal after a failed message upload");
@@ -180,18 +422,59 @@ public class VirtualView implements VirtualViewInterface, Runnable {
      * Flushes the message queue.
      */
     public void flushMessages() {
-        synchronized (messageQueue) {
-            messageQueue.clear();
+        synchronized (messageLanes) {
+            for (ArrayDeque<StoCMessage> lane : messageLanes.values()) {
+                lane.clear();
+            }
+            messageStamps.clear();
+            queuedMessageCount = 0;
+        }
+    }
+
+    /**
+     * Returns the number of messages waiting to be delivered to the client.
+     *
+     * @return The current depth of the message queue.
+     */
+    public int getQueueDepth() {
+        synchronized (messageLanes) {
+            return queuedMessageCount;
+        }
+    }
+
+    /**
+     * Returns the highest number of messages that have been waiting to be delivered to the client at the same time.
+     *
+     * @return The peak depth of the message queue.
+     */
+    public int getPeakQueueDepth() {
+        synchronized (messageLanes) {
+            return peakQueueDepth;
+        }
+    }
+
+    /**
+     * Returns the number of messages that have been coalesced or dropped because the queue was full.
+     *
+     * @return The number of messages that have not been delivered because of the overflow policy.
+     */
+    public int getDroppedMessageCount() {
+        synchronized (messageLanes) {
+            return droppedMessageCount;
         }
     }
 
     /**
      * Method used to retrieve the message queue. Used for testing purposes only.
      *
-     * @return The message queue associated with the VirtualView.
+     * @return A copy of the messages queued in the VirtualView, lane after lane in priority order.
      */
     protected ArrayList<StoCMessage> getMessageQueue() {
-        synchronized (messageQueue) {
+        synchronized (messageLanes) {
+            ArrayList<StoCMessage> messageQueue = new ArrayList<>(queuedMessageCount);
+            for (ArrayDeque<StoCMessage> lane : messageLanes.values()) {
+                messageQueue.addAll(lane);
+            }
             return messageQueue;
         }
     }
@@ -214,8 +497,8 @@ public class VirtualView implements VirtualViewInterface, Runnable {
     protected void setTerminating() {
         terminating = true;
         logger.debug("VirtualView thread is being shut down");
-        synchronized (messageQueue) { // Needs to be executed in a synchronized block to avoid race conditions
-            messageQueue.notifyAll(); // Notify the processing thread that the VirtualView is being shut down
+        synchronized (messageLanes) { // Needs to be executed in a synchronized block to avoid race conditions
+            messageLanes.notifyAll(); // Notify the processing thread that the VirtualView is being shut down
         }
     }
 
@@ -0,0 +1,150 @@
+package it.polimi.ingsw.am32.loadgen;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The class {@code LatencyRecorder} collects the latencies measured by the scripted clients of the
+ * {@link LoadGenerator}, grouped by the type of the message that started the measurement, and the failures reported by
+ * the server. <br>
+ * Every sample is kept, so that the percentiles reported are exact. A single instance is shared by all the clients.
+ *
+ * @author Matteo
+ */
+public class LatencyRecorder {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Constants used in the class
+     */
+    private static final int INITIALCAPACITY = 1024;
+
+    /**
+     * Variables used to store the samples
+     */
+    private final Map<String, long[]> samples;
+    private final Map<String, Integer> sampleCounts;
+    private final Map<String, Integer> failureCounts;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     */
+    public LatencyRecorder() {
+        samples = new TreeMap<>();
+        sampleCounts = new TreeMap<>();
+        failureCounts = new TreeMap<>();
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Record a latency.
+     *
+     * @param type the type of the message the latency refers to
+     * @param nanos the latency, in nanoseconds
+     */
+    public synchronized void record(String type, long nanos) {
+        long[] typeSamples = samples.get(type);
+        int count = sampleCounts.getOrDefault(type, 0);
+
+        if (typeSamples == null)
+            typeSamples = new long[INITIALCAPACITY];
+        else if (count == typeSamples.length)
+            typeSamples = Arrays.copyOf(typeSamples, count * 2);
+
+        typeSamples[count] = nanos;
+        samples.put(type, typeSamples);
+        sampleCounts.put(type, count + 1);
+    }
+
+    /**
+     * Record a failure reported by the server, or by the connection.
+     *
+     * @param type the type of the failure
+     */
+    public synchronized void recordFailure(String type) {
+        failureCounts.merge(type, 1, Integer::sum);
+    }
+
+    /**
+     * Return the number of latencies recorded for a type of message.
+     *
+     * @param type the type of the message
+     * @return the number of latencies recorded
+     */
+    public synchronized int getCount(String type) {
+        return sampleCounts.getOrDefault(type, 0);
+    }
+
+    /**
+     * Return the number of failures recorded of a type.
+     *
+     * @param type the type of the failure
+     * @return the number of failures recorded
+     */
+    public synchronized int getFailureCount(String type) {
+        return failureCounts.getOrDefault(type, 0);
+    }
+
+    /**
+     * Return a percentile of the latencies recorded for a type of message, computed with the nearest-rank method.
+     *
+     * @param type the type of the message
+     * @param percentile the percentile, between 0 (excluded) and 100
+     * @return the latency in nanoseconds, or -1 if no latency has been recorded for the type
+     */
+    public synchronized long getPercentile(String type, double percentile) {
+        int count = sampleCounts.getOrDefault(type, 0);
+        if (count == 0)
+            return -1;
+
+        long[] sorted = Arrays.copyOf(samples.get(type), count);
+        Arrays.sort(sorted);
+        return sorted[rank(count, percentile)];
+    }
+
+    /**
+     * Print a line for each type of message, with the number of latencies recorded and their p50, p99, p999 and
+     * maximum, followed by the failures recorded.
+     *
+     * @param out the stream the report is printed on
+     */
+    public synchronized void printReport(PrintStream out) {
+        out.printf("%-36s %10s %10s %10s %10s %10s%n", "Message type", "count", "p50 ms", "p99 ms", "p999 ms", "max ms");
+
+        for (Map.Entry<String, Integer> entry : sampleCounts.entrySet()) {
+            int count = entry.getValue();
+            long[] sorted = Arrays.copyOf(samples.get(entry.getKey()), count);
+            Arrays.sort(sorted);
+
+            out.printf("%-36s %10d %10.3f %10.3f %10.3f %10.3f%n", entry.getKey(), count,
+                    sorted[rank(count, 50)] / 1e6, sorted[rank(count, 99)] / 1e6,
+                    sorted[rank(count, 99.9)] / 1e6, sorted[count - 1] / 1e6);
+        }
+
+        for (Map.Entry<String, Integer> entry : failureCounts.entrySet())
+            out.printf("Failures %-27s %10d%n", entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * Return the index of a percentile in an array of sorted samples, with the nearest-rank method.
+     *
+     * @param count the number of samples
+     * @param percentile the percentile, between 0 (excluded) and 100
+     * @return the index of the sample
+     */
+    private static int rank(int count, double percentile) {
+        // The small tolerance keeps the rounding errors of the product from moving the rank up by one
+        return Math.max(0, Math.min(count - 1, (int) Math.ceil(percentile * count / 100 - 1e-9) - 1));
+    }
+}
@@ -0,0 +1,285 @@
+package it.polimi.ingsw.am32.loadgen;
+
+import it.polimi.ingsw.am32.Server;
+import it.polimi.ingsw.am32.network.exceptions.ConnectionSetupFailedException;
+import it.polimi.ingsw.am32.utilities.Configuration;
+import it.polimi.ingsw.am32.utilities.Log4J2ConfiguratorWrapper;
+import org.apache.logging.log4j.Level;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The load generator is started through the method {@link LoadGenerator#main} included in this class.
+ * <br>
+ * It measures how many concurrent games a server can hold before the latency of the turns degrades: it spawns many
+ * headless clients, each made of a {@link ScriptedView} and of the real client node of the chosen transport, which
+ * create and join games, play whole matches with legal moves and chat at a configurable rate. <br>
+ * At the end of the run it prints the p50, p99 and p999 latency of each type of request, and while running it prints
+ * the CPU load, the number of threads and the heap of the server, read through JMX.
+ * <p>
+ * The parameters are given as pairs of a switch and a value: <br>
+ * -t transport: socket, rmi or loopback (default socket) <br>
+ * -h host of the server (default 127.0.0.1) <br>
+ * -sp, -rp socket and RMI port of the server (default 30000 and 30001) <br>
+ * -g number of games (default 10) <br>
+ * -ppg number of players of each game, between 2 and 4 (default 4) <br>
+ * -ci interval between the chat messages of each player in milliseconds, or 0 to disable the chat (default 5000) <br>
+ * -d maximum duration of the run in seconds (default 600) <br>
+ * -si interval between the samples of the server in milliseconds (default 1000) <br>
+ * -jmx host:port of the JMX agent of a remote server, to sample it <br>
+ * -e true to start the server in this JVM (default false). The loopback transport needs no server, since its clients
+ * reach the games of this JVM directly. In both cases the samples include the load of the clients.
+ * </p>
+ *
+ * @author Matteo
+ */
+public class LoadGenerator {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Constants used in the class
+     */
+    private static final int GAMECREATIONTIMEOUT = 30;
+
+    /**
+     * Variables used to reach the server
+     */
+    private String transport;
+    private String host;
+    private int socketPort;
+    private int rmiPort;
+    private String jmxAddress;
+    private boolean embedded;
+
+    /**
+     * Variables used to shape the load
+     */
+    private int games;
+    private int playersPerGame;
+    private long chatIntervalMillis;
+    private long durationSeconds;
+    private long sampleIntervalMillis;
+
+    /**
+     * Variables used to record the measurements
+     */
+    private final LatencyRecorder recorder;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class. The parameters not given, or not valid, keep their default value.
+     *
+     * @param args are the parameters of the run, described in the documentation of the class
+     */
+    public LoadGenerator(String[] args) {
+        transport = "socket";
+        host = "127.0.0.1";
+        socketPort = 30000;
+        rmiPort = 30001;
+        jmxAddress = "";
+        embedded = false;
+        games = 10;
+        playersPerGame = 4;
+        chatIntervalMillis = 5000;
+        durationSeconds = 600;
+        sampleIntervalMillis = 1000;
+        recorder = new LatencyRecorder();
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            try {
+                switch (args[i].toLowerCase()) {
+                    case "-t" -> transport = args[i + 1].toLowerCase();
+                    case "-h" -> host = args[i + 1];
+                    case "-sp" -> socketPort = Integer.parseInt(args[i + 1]);
+                    case "-rp" -> rmiPort = Integer.parseInt(args[i + 1]);
+                    case "-g" -> games = Math.max(1, Integer.parseInt(args[i + 1]));
+                    case "-ppg" -> playersPerGame = Math.min(4, Math.max(2, Integer.parseInt(args[i + 1])));
+                    case "-ci" -> chatIntervalMillis = Math.max(0, Long.parseLong(args[i + 1]));
+                    case "-d" -> durationSeconds = Math.max(1, Long.parseLong(args[i + 1]));
+                    case "-si" -> sampleIntervalMillis = Math.max(100, Long.parseLong(args[i + 1]));
+                    case "-jmx" -> jmxAddress = args[i + 1].trim();
+                    case "-e" -> embedded = Boolean.parseBoolean(args[i + 1]);
+                }
+            } catch (NumberFormatException ignored) {}
+        }
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Static Main
+
+    /**
+     * A new {@link LoadGenerator} is created and run, then the program exits, closing the connections of the clients.
+     *
+     * @param args are the parameters of the run, described in the documentation of the class
+     */
+    public static void main(String[] args) {
+        Log4J2ConfiguratorWrapper.setLogLevelAndConfigure(Level.WARN);
+        new LoadGenerator(args).run(System.out);
+        System.exit(0);
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Run the load: connect the clients game by game, wait until all the matches end or the maximum duration expires,
+     * and print the report.
+     *
+     * @param out the stream the progress and the report are printed on
+     * @return the number of matches played to the end
+     */
+    public int run(PrintStream out) {
+        if (embedded && !transport.equals("loopback"))
+            startEmbeddedServer();
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "loadgen-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ServerSampler sampler = createSampler(out);
+        if (sampler != null)
+            scheduler.scheduleAtFixedRate(sampler, 0, sampleIntervalMillis, TimeUnit.MILLISECONDS);
+
+        out.printf("Starting %d games of %d players over %s%n", games, playersPerGame, transport);
+        long startTime = System.nanoTime();
+        List<CompletableFuture<Void>> matchesEnded = new ArrayList<>();
+
+        for (int game = 0; game < games; game++) {
+            try {
+                matchesEnded.add(startGame(game, scheduler));
+            } catch (ConnectionSetupFailedException | Exception e) {
+                recorder.recordFailure("GameSetup");
+                out.printf("Failed to start game %d: %s%n", game, e);
+            }
+        }
+
+        long remainingNanos = TimeUnit.SECONDS.toNanos(durationSeconds) - (System.nanoTime() - startTime);
+        try {
+            CompletableFuture.allOf(matchesEnded.toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            out.println("Maximum duration reached before the end of all the matches");
+        } catch (Exception e) {
+            out.println("Interrupted while waiting for the end of the matches: " + e);
+        }
+
+        int matchesPlayed = (int) matchesEnded.stream().filter(CompletableFuture::isDone).count();
+        scheduler.shutdownNow();
+
+        out.printf("%d of %d matches played to the end in %.1f s%n", matchesPlayed, games,
+                (System.nanoTime() - startTime) / 1e9);
+        recorder.printReport(out);
+        if (sampler != null)
+            sampler.printReport();
+
+        return matchesPlayed;
+    }
+
+    /**
+     * Connect the players of a game: the first one creates it, and the others join it once it has been created.
+     *
+     * @param game the index of the game, used to build the nicknames of the players
+     * @param scheduler the executor sending the chat messages
+     * @return the future completed when all the players are notified of the end of the match
+     * @throws ConnectionSetupFailedException if a client could not connect
+     * @throws Exception if the game was not created in time
+     */
+    private CompletableFuture<Void> startGame(int game, ScheduledExecutorService scheduler)
+            throws ConnectionSetupFailedException, Exception {
+        List<CompletableFuture<Void>> matchEnded = new ArrayList<>();
+
+        ScriptedView creator = new ScriptedView("g" + game + "p0", recorder, scheduler, chatIntervalMillis);
+        connect(creator);
+        creator.createGame(playersPerGame);
+        int gameID = creator.getGameCreated().get(GAMECREATIONTIMEOUT, TimeUnit.SECONDS);
+        matchEnded.add(creator.getMatchEnded());
+
+        for (int player = 1; player < playersPerGame; player++) {
+            ScriptedView joiner = new ScriptedView("g" + game + "p" + player, recorder, scheduler,
+                    chatIntervalMillis);
+            connect(joiner);
+            joiner.joinGame(gameID);
+            matchEnded.add(joiner.getMatchEnded());
+        }
+        return CompletableFuture.allOf(matchEnded.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Set up the client node of the chosen transport for a view.
+     *
+     * @param view the view of the client
+     * @throws ConnectionSetupFailedException if the connection could not be set up
+     */
+    private void connect(ScriptedView view) throws ConnectionSetupFailedException {
+        switch (transport) {
+            case "rmi" -> view.setRMIClient(host, rmiPort);
+            case "loopback" -> view.setLoopbackClient(true);
+            default -> view.setSocketClient(host, socketPort);
+        }
+    }
+
+    /**
+     * Start the server in this JVM, on the configured ports. If the {@link Configuration} of this JVM already exists,
+     * the server uses its ports instead, and the clients connect to them.
+     */
+    private void startEmbeddedServer() {
+        new Server(new String[]{"-sp", String.valueOf(socketPort), "-rp", String.valueOf(rmiPort)}).start();
+        socketPort = Configuration.getInstance().getSocketPort();
+        rmiPort = Configuration.getInstance().getRmiPort();
+    }
+
+    /**
+     * Create the sampler of the server: it reads the MXBeans of this JVM if the server is embedded, or those of the
+     * remote server if the address of its JMX agent is given.
+     *
+     * @param out the stream the samples are printed on
+     * @return the sampler, or null if the server cannot be sampled
+     */
+    private ServerSampler createSampler(PrintStream out) {
+        try {
+            MBeanServerConnection connection;
+            if (embedded || transport.equals("loopback"))
+                connection = ManagementFactory.getPlatformMBeanServer();
+            else if (!jmxAddress.isEmpty())
+                connection = JMXConnectorFactory.connect(new JMXServiceURL(
+                        "service:jmx:rmi:///jndi/rmi://" + jmxAddress + "/jmxrmi")).getMBeanServerConnection();
+            else {
+                out.println("The server is not sampled: give the address of its JMX agent with -jmx host:port");
+                return null;
+            }
+            return new ServerSampler(connection, out);
+        } catch (Exception e) {
+            out.println("The server cannot be sampled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Return the recorder of the latencies measured by the clients.
+     *
+     * @return the recorder of the latencies
+     */
+    public LatencyRecorder getRecorder() {
+        return recorder;
+    }
+}
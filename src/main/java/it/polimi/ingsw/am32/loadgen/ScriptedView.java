@@ -0,0 +1,499 @@
+package it.polimi.ingsw.am32.loadgen;
+
+import it.polimi.ingsw.am32.client.ChatMessage;
+import it.polimi.ingsw.am32.client.Event;
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.ClientToServer.AccessGameMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSLobbyMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.DrawCardMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.InboundChatMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.NewGameMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.PlaceCardMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.SelectedSecretObjectiveCardMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.SelectedStarterCardSideMessage;
+import it.polimi.ingsw.am32.model.match.MatchStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@code ScriptedView} is a {@link View} without user interface, used by the {@link LoadGenerator} to play
+ * whole matches through the real client nodes. <br>
+ * It reacts to the messages of the server with legal moves: it selects the face up side of the starter card and the
+ * first secret objective card, places the first card of its hand on a random available space, face up and again face
+ * down if the requirements are not met, and draws from the decks, or from the visible cards when they are empty. While
+ * the match is in progress it sends a chat message to all the players at a configurable rate. <br>
+ * For each request sent, the time until the server confirms or rejects it is recorded in a {@link LatencyRecorder},
+ * under the name of the request message. The chat messages carry the time they were sent, so that the players receiving
+ * them record the delivery latency: all the clients run in the same JVM, so the clocks agree.
+ *
+ * @author Matteo
+ */
+public class ScriptedView extends View {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Constants used in the class
+     */
+    private static final String CHATPREFIX = "loadgen ";
+    private static final int RESOURCEDECK = 0;
+    private static final int GOLDDECK = 1;
+    private static final int VISIBLERESOURCECARDS = 2;
+    private static final int VISIBLEGOLDCARDS = 3;
+
+    /**
+     * Variables used to record the measurements
+     */
+    private final LatencyRecorder recorder;
+    private final Map<String, Long> pendingRequests;
+
+    /**
+     * Variables used to send the chat messages
+     */
+    private final ScheduledExecutorService chatScheduler;
+    private final long chatIntervalMillis;
+    private ScheduledFuture<?> chatTask;
+
+    /**
+     * Variables used to play the match
+     */
+    private volatile int matchStatus;
+    private int placedCard;
+    private int[] placedCoordinates;
+    private boolean placedUp;
+    private final List<int[]> drawCandidates;
+
+    /**
+     * Variables used to notify the {@link LoadGenerator} of the progress of the match
+     */
+    private final CompletableFuture<Integer> gameCreated;
+    private final CompletableFuture<Void> matchEnded;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class. <br>
+     * The view does not communicate with the server until a client node is set up, by one of the methods of
+     * {@link View}, and {@link #createGame(int)} or {@link #joinGame(int)} is invoked.
+     *
+     * @param nickname the nickname of the player
+     * @param recorder the recorder of the latencies, shared by the clients
+     * @param chatScheduler the executor sending the chat messages, shared by the clients
+     * @param chatIntervalMillis the interval between the chat messages of the player, or 0 to disable the chat
+     */
+    public ScriptedView(String nickname, LatencyRecorder recorder, ScheduledExecutorService chatScheduler,
+                        long chatIntervalMillis) {
+        super();
+        this.thisPlayerNickname = nickname;
+        this.recorder = recorder;
+        this.chatScheduler = chatScheduler;
+        this.chatIntervalMillis = chatIntervalMillis;
+        pendingRequests = new ConcurrentHashMap<>();
+        drawCandidates = new ArrayList<>();
+        availableSpaces = new ArrayList<>();
+        currentResourceCards = new ArrayList<>();
+        currentGoldCards = new ArrayList<>();
+        resourceDeckSize = -1; // Unknown until the server sends the status of the game
+        goldDeckSize = -1;
+        matchStatus = MatchStatus.LOBBY.getValue();
+        gameCreated = new CompletableFuture<>();
+        matchEnded = new CompletableFuture<>();
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Create a new game.
+     *
+     * @param playerNum the number of players of the game
+     */
+    public void createGame(int playerNum) {
+        send(new NewGameMessage(thisPlayerNickname, playerNum));
+    }
+
+    /**
+     * Join an existing game.
+     *
+     * @param gameID the id of the game
+     */
+    public void joinGame(int gameID) {
+        this.gameID = gameID;
+        send(new AccessGameMessage(gameID, thisPlayerNickname));
+    }
+
+    /**
+     * Return the future completed with the id of the game, once the server confirms its creation.
+     *
+     * @return the future of the id of the game created
+     */
+    public CompletableFuture<Integer> getGameCreated() {
+        return gameCreated;
+    }
+
+    /**
+     * Return the future completed when the server announces the winners of the match.
+     *
+     * @return the future of the end of the match
+     */
+    public CompletableFuture<Void> getMatchEnded() {
+        return matchEnded;
+    }
+
+    /**
+     * Send a request to the server, and start measuring its latency.
+     *
+     * @param message the request
+     */
+    private void send(CtoSMessage message) {
+        pendingRequests.put(message.getClass().getSimpleName(), System.nanoTime());
+        notifyAskListener(message);
+    }
+
+    /**
+     * Send a lobby request to the server, and start measuring its latency.
+     *
+     * @param message the request
+     */
+    private void send(CtoSLobbyMessage message) {
+        pendingRequests.put(message.getClass().getSimpleName(), System.nanoTime());
+        notifyAskListener(message);
+    }
+
+    /**
+     * Stop measuring the latency of a request, and record it.
+     *
+     * @param requestClass the class of the request
+     * @return true if the request was pending
+     */
+    private boolean complete(Class<?> requestClass) {
+        Long sendTime = pendingRequests.remove(requestClass.getSimpleName());
+        if (sendTime == null)
+            return false;
+        recorder.record(requestClass.getSimpleName(), System.nanoTime() - sendTime);
+        return true;
+    }
+
+    /**
+     * Place the first card of the hand on a random available space.
+     *
+     * @param isUp the side of the card
+     */
+    private void placeCard(boolean isUp) {
+        if (hand.isEmpty() || availableSpaces.isEmpty()) {
+            recorder.recordFailure("NoLegalPlacement");
+            return;
+        }
+        placedCard = hand.getFirst();
+        placedCoordinates = availableSpaces.get(ThreadLocalRandom.current().nextInt(availableSpaces.size()));
+        placedUp = isUp;
+        send(new PlaceCardMessage(thisPlayerNickname, placedCard, placedCoordinates[0], placedCoordinates[1], isUp));
+    }
+
+    /**
+     * Draw a card, trying the sources in order: the decks first, then the visible cards.
+     */
+    private void drawCard() {
+        drawCandidates.clear();
+        if (resourceDeckSize != 0)
+            drawCandidates.add(new int[]{RESOURCEDECK, -1});
+        if (goldDeckSize != 0)
+            drawCandidates.add(new int[]{GOLDDECK, -1});
+        for (int cardId : currentResourceCards)
+            drawCandidates.add(new int[]{VISIBLERESOURCECARDS, cardId});
+        for (int cardId : currentGoldCards)
+            drawCandidates.add(new int[]{VISIBLEGOLDCARDS, cardId});
+        drawNextCandidate();
+    }
+
+    /**
+     * Draw a card from the next source not tried yet.
+     */
+    private void drawNextCandidate() {
+        if (drawCandidates.isEmpty()) {
+            recorder.recordFailure("NoLegalDraw");
+            return;
+        }
+        int[] candidate = drawCandidates.removeFirst();
+        send(new DrawCardMessage(thisPlayerNickname, candidate[0], candidate[1]));
+    }
+
+    /**
+     * Start sending the chat messages, at a random offset to spread them over the interval.
+     *
+     * @param intervalMillis the interval between the chat messages, or 0 to disable the chat
+     */
+    private synchronized void scheduleChat(long intervalMillis) {
+        if (intervalMillis <= 0 || chatTask != null || matchEnded.isDone())
+            return;
+        chatTask = chatScheduler.scheduleAtFixedRate(
+                () -> notifyAskListener(new InboundChatMessage(thisPlayerNickname, "ALL", true,
+                        CHATPREFIX + System.nanoTime())),
+                ThreadLocalRandom.current().nextLong(intervalMillis), intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop sending the chat messages.
+     */
+    private synchronized void stopChatting() {
+        if (chatTask != null)
+            chatTask.cancel(false);
+    }
+
+    @Override
+    public void updateNewGameConfirm(int gameID, String recipientNickname) {
+        complete(NewGameMessage.class);
+        this.gameID = gameID;
+        gameCreated.complete(gameID);
+    }
+
+    @Override
+    public void updateCurrentEvent(Event event) {
+        super.updateCurrentEvent(event);
+        switch (event) {
+            case GAME_JOINED -> complete(AccessGameMessage.class);
+            case GAME_START -> scheduleChat(chatIntervalMillis);
+            case SELECT_STARTER_CARD_SIDE -> send(new SelectedStarterCardSideMessage(thisPlayerNickname, true));
+            case SELECT_SECRET_OBJ_CARD -> send(new SelectedSecretObjectiveCardMessage(thisPlayerNickname,
+                    secretObjCards.getFirst()));
+            default -> {}
+        }
+    }
+
+    @Override
+    public void updateConfirmStarterCard(int colour, int cardID, boolean isUp, ArrayList<int[]> availablePos,
+                                         int[] resources) {
+        complete(SelectedStarterCardSideMessage.class);
+        availableSpaces = availablePos;
+    }
+
+    @Override
+    public void setCardsReceived(ArrayList<Integer> secrets, ArrayList<Integer> common, ArrayList<Integer> hand) {
+        secretObjCards = secrets;
+        commonObjCards = common;
+        this.hand = hand;
+    }
+
+    @Override
+    public void updateConfirmSelectedSecretCard(int chosenSecretObjectiveCard) {
+        complete(SelectedSecretObjectiveCardMessage.class);
+        secretObjCardSelected = chosenSecretObjectiveCard;
+    }
+
+    @Override
+    public void updatePlayerTurn(String playerNickname) {
+        currentPlayer = playerNickname;
+        if (thisPlayerNickname.equals(playerNickname))
+            placeCard(true);
+    }
+
+    @Override
+    public void updatePlacedCardConfirm(String playerNickname, int placedCard, int[] placedCardCoordinates,
+                                        boolean placedSide, int playerPoints, int[] playerResources,
+                                        ArrayList<int[]> newAvailableFieldSpaces) {
+        if (!thisPlayerNickname.equals(playerNickname))
+            return;
+
+        complete(PlaceCardMessage.class);
+        hand.remove(Integer.valueOf(placedCard));
+        availableSpaces = newAvailableFieldSpaces;
+        if (matchStatus != MatchStatus.LAST_TURN.getValue())
+            drawCard();
+    }
+
+    @Override
+    public void updateAfterDrawCard(ArrayList<Integer> hand) {
+        complete(DrawCardMessage.class);
+        this.hand = hand;
+    }
+
+    @Override
+    public void updateDeck(int resourceDeckSize, int goldDeckSize, int[] currentResourceCards, int[] currentGoldCards,
+                           int resourceDeckFace, int goldDeckFace) {
+        this.resourceDeckSize = resourceDeckSize;
+        this.goldDeckSize = goldDeckSize;
+        this.currentResourceCards = new ArrayList<>();
+        for (int cardId : currentResourceCards)
+            this.currentResourceCards.add(cardId);
+        this.currentGoldCards = new ArrayList<>();
+        for (int cardId : currentGoldCards)
+            this.currentGoldCards.add(cardId);
+    }
+
+    @Override
+    public void updateMatchStatus(int matchStatus) {
+        this.matchStatus = matchStatus;
+    }
+
+    @Override
+    public void handleFailureCase(Event event, String reason) {
+        switch (event) {
+            case PLACE_CARD_FAILURE -> {
+                if (!complete(PlaceCardMessage.class))
+                    return;
+                recorder.recordFailure("PlaceCardFailed");
+                // The requirements of a gold card are only checked on its front
+                if (placedUp) {
+                    placedUp = false;
+                    send(new PlaceCardMessage(thisPlayerNickname, placedCard, placedCoordinates[0],
+                            placedCoordinates[1], false));
+                }
+            }
+            case DRAW_CARD_FAILURE -> {
+                if (!complete(DrawCardMessage.class))
+                    return;
+                recorder.recordFailure("DrawCardFailed");
+                drawNextCandidate();
+            }
+            default -> recorder.recordFailure(event.name());
+        }
+    }
+
+    @Override
+    public void showMatchWinners(ArrayList<String> players, ArrayList<Integer> points, ArrayList<Integer> secrets,
+                                 ArrayList<Integer> pointsGainedFromSecrets, ArrayList<String> winners) {
+        matchStatus = MatchStatus.TERMINATED.getValue();
+        stopChatting();
+        matchEnded.complete(null);
+    }
+
+    @Override
+    public void updateChat(String recipientString, String senderNickname, String content) {
+        if (!content.startsWith(CHATPREFIX))
+            return;
+        try {
+            recorder.record(InboundChatMessage.class.getSimpleName(),
+                    System.nanoTime() - Long.parseLong(content.substring(CHATPREFIX.length())));
+        } catch (NumberFormatException ignored) {}
+    }
+
+    @Override
+    public void updatePlayerData(ArrayList<String> playerNicknames, ArrayList<Boolean> playerConnected,
+                                 ArrayList<Integer> playerColours, ArrayList<Integer> playerHand,
+                                 int playerSecretObjective, int[] playerPoints, ArrayList<ArrayList<int[]>> playerFields,
+                                 int[] playerResources, ArrayList<Integer> gameCommonObjectives,
+                                 ArrayList<Integer> gameCurrentResourceCards, ArrayList<Integer> gameCurrentGoldCards,
+                                 int gameResourcesDeckSize, int gameGoldDeckSize, int matchStatus,
+                                 ArrayList<String[]> chatHistory, String currentPlayer,
+                                 ArrayList<int[]> newAvailableFieldSpaces, int resourceCardDeckFacingKingdom,
+                                 int goldCardDeckFacingKingdom, ArrayList<int[]> playersResourcesSummary,
+                                 ArrayList<Integer> playerAssignedSecretObjectiveCards, int playerStartingCard) {
+        players = playerNicknames;
+        hand = playerHand;
+        currentResourceCards = gameCurrentResourceCards;
+        currentGoldCards = gameCurrentGoldCards;
+        resourceDeckSize = gameResourcesDeckSize;
+        goldDeckSize = gameGoldDeckSize;
+        this.matchStatus = matchStatus;
+        if (newAvailableFieldSpaces != null)
+            availableSpaces = newAvailableFieldSpaces;
+    }
+
+    @Override
+    public void nodeDisconnected() {
+        recorder.recordFailure("NodeDisconnected");
+    }
+
+    @Override
+    public void nodeReconnected() {}
+
+    @Override
+    public void updatePlayerList(ArrayList<String> players) {
+        this.players = players;
+    }
+
+    @Override
+    public void setStarterCard(int cardId) {
+        startCard = cardId;
+    }
+
+    @Override
+    public void updateRollback(String playerNickname, int removedCard, int playerPoints, int[] playerResources) {}
+
+    @Override
+    public void updateAfterPlacedCard(String playerNickname, int cardID, int x, int y, boolean isUp,
+                                      ArrayList<int[]> availablePos, int[] resources, int points) {}
+
+    @Override
+    public void handleEvent(Event event, String nickname) {}
+
+    @Override
+    public String convertToColour(int colour) {
+        return String.valueOf(colour);
+    }
+
+    // The methods interacting with the user have nothing to do in a scripted client
+
+    @Override
+    public void showWelcome() {}
+
+    @Override
+    public void chooseConnection() {}
+
+    @Override
+    public void askSelectGameMode() {}
+
+    @Override
+    public void askCreateGame() {}
+
+    @Override
+    public void askJoinGame() {}
+
+    @Override
+    public void askReconnectGame() {}
+
+    @Override
+    public void setUpPlayersData() {}
+
+    @Override
+    public void requestSelectStarterCardSide(int ID) {}
+
+    @Override
+    public void requestDrawCard() {}
+
+    @Override
+    public void startChatting() {}
+
+    @Override
+    public void showDeck() {}
+
+    @Override
+    public void showHelpInfo() {}
+
+    @Override
+    public void requestSelectSecretObjectiveCard() {}
+
+    @Override
+    public void requestPlaceCard() {}
+
+    @Override
+    public void launch() {}
+
+    @Override
+    public void showPlayersField(String playerNickname) {}
+
+    @Override
+    public void showPointsAndResource(String playerNickname) {}
+
+    @Override
+    public void showHand() {}
+
+    @Override
+    public void showCard(int ID, boolean isUp) {}
+
+    @Override
+    public void showChatHistory(List<ChatMessage> chatHistory) {}
+}
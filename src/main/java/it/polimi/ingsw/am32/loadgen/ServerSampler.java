@@ -0,0 +1,115 @@
+package it.polimi.ingsw.am32.loadgen;
+
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * The class {@code ServerSampler} periodically samples the CPU load, the number of threads and the heap of the server
+ * while the {@link LoadGenerator} is running, through its platform MXBeans. <br>
+ * The MXBeans are read through a {@link MBeanServerConnection}: the platform MBean server of this JVM when the server
+ * is embedded in the load generator, or a JMX connection to a remote server otherwise. A line is printed for each
+ * sample, and the peaks are printed at the end of the run.
+ *
+ * @author Matteo
+ */
+public class ServerSampler implements Runnable {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Variables used to read the MXBeans of the server
+     */
+    private final MBeanServerConnection connection;
+    private final ObjectName operatingSystemName;
+    private final ThreadMXBean threadMXBean;
+    private final MemoryMXBean memoryMXBean;
+
+    /**
+     * Variables used to print the samples
+     */
+    private final PrintStream out;
+    private final long startTime;
+
+    /**
+     * Variables used to store the peaks of the samples
+     */
+    private double peakCpuLoad;
+    private int peakThreadCount;
+    private long peakHeapUsed;
+    private int samples;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     *
+     * @param connection the connection to the MBean server of the server
+     * @param out the stream the samples are printed on
+     * @throws IOException if the MXBeans of the server cannot be reached
+     */
+    public ServerSampler(MBeanServerConnection connection, PrintStream out) throws IOException {
+        this.connection = connection;
+        this.out = out;
+        try {
+            operatingSystemName = new ObjectName(ManagementFactory.OPERATING_SYSTEM_MXBEAN_NAME);
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+        threadMXBean = ManagementFactory.newPlatformMXBeanProxy(connection, ManagementFactory.THREAD_MXBEAN_NAME,
+                ThreadMXBean.class);
+        memoryMXBean = ManagementFactory.newPlatformMXBeanProxy(connection, ManagementFactory.MEMORY_MXBEAN_NAME,
+                MemoryMXBean.class);
+        startTime = System.nanoTime();
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Take a sample and print it.
+     */
+    @Override
+    public void run() {
+        double cpuLoad = -1;
+        try {
+            // The attribute belongs to the extension of the MXBean of the JDK, read by name not to depend on it
+            cpuLoad = ((Number) connection.getAttribute(operatingSystemName, "ProcessCpuLoad")).doubleValue();
+        } catch (Exception ignored) {}
+
+        try {
+            int threadCount = threadMXBean.getThreadCount();
+            MemoryUsage heap = memoryMXBean.getHeapMemoryUsage();
+
+            synchronized (this) {
+                peakCpuLoad = Math.max(peakCpuLoad, cpuLoad);
+                peakThreadCount = Math.max(peakThreadCount, threadCount);
+                peakHeapUsed = Math.max(peakHeapUsed, heap.getUsed());
+                samples++;
+            }
+
+            out.printf("[%6.1f s] server cpu %5.1f%%  threads %5d  heap %7.1f / %7.1f MB%n",
+                    (System.nanoTime() - startTime) / 1e9, cpuLoad * 100, threadCount,
+                    heap.getUsed() / 1048576.0, heap.getCommitted() / 1048576.0);
+        } catch (Exception e) {
+            out.println("Failed to sample the server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Print the peaks of the samples taken.
+     */
+    public synchronized void printReport() {
+        out.printf("Server peaks over %d samples: cpu %.1f%%  threads %d  heap %.1f MB%n", samples,
+                peakCpuLoad * 100, peakThreadCount, peakHeapUsed / 1048576.0);
+    }
+}
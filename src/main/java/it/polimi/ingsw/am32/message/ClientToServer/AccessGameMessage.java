@@ -7,11 +7,17 @@ import it.polimi.ingsw.am32.controller.exceptions.FullLobbyException;
 import it.polimi.ingsw.am32.controller.exceptions.GameAlreadyStartedException;
 import it.polimi.ingsw.am32.controller.exceptions.GameNotFoundException;
 import it.polimi.ingsw.am32.network.ServerNode.ServerNodeInterface;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the client when he wants to join a game.
  */
-public class AccessGameMessage implements CtoSLobbyMessage {
+public class AccessGameMessage implements CtoSLobbyMessage, WireMessage {
     /**
      * The id of the game the player wants to join
      */
@@ -46,6 +52,29 @@ public class AccessGameMessage implements CtoSLobbyMessage {
         return GamesManager.getInstance().accessGame(senderNickname, matchId, nodeInterface);
     }
 
+    /**
+     * Writes the content of the AccessGameMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeVarInt(matchId);
+        out.writeString(senderNickname);
+    }
+
+    /**
+     * Reads a AccessGameMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static AccessGameMessage readFrom(WireInput in) throws IOException {
+        return new AccessGameMessage(
+            in.readVarInt(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
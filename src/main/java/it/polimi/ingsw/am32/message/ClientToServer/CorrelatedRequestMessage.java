@@ -0,0 +1,122 @@
+package it.polimi.ingsw.am32.message.ClientToServer;
+
+import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+/**
+ * This class is used to attach a request id to a message sent by the client. <br>
+ * The server elaborates the contained message as usual, and the first message it sends back to the sender while
+ * elaborating it is wrapped in a {@link it.polimi.ingsw.am32.message.ServerToClient.CorrelatedResponseMessage} carrying
+ * the same request id. Messages sent on the same connection are elaborated in the order in which they are sent, so a
+ * client can send several requests without waiting for each response, and match the responses by request id.
+ */
+public class CorrelatedRequestMessage implements CtoSMessage, WireMessage {
+    /**
+     * The nickname of the player who sent the request
+     */
+    private final String senderNickname;
+    /**
+     * The id chosen by the client to match the response to the request
+     */
+    private final int requestId;
+    /**
+     * The message to be elaborated
+     */
+    private final CtoSMessage message;
+
+    /**
+     * Constructor: a message that attaches a request id to a message of the client
+     * @param senderNickname the nickname of the player who sent the request
+     * @param requestId the id of the request; it should be different from {@link #NO_REQUEST_ID}
+     * @param message the message to be elaborated
+     */
+    public CorrelatedRequestMessage(String senderNickname, int requestId, CtoSMessage message) {
+        this.senderNickname = senderNickname;
+        this.requestId = requestId;
+        this.message = message;
+    }
+
+    /**
+     * This method is called when a correlated request is received.
+     * Elaborates the contained message, so that its response echoes the request id.
+     * @param gameController the game controller of the game the player is playing in
+     */
+    @Override
+    public void elaborateMessage(GameController gameController) {
+        gameController.elaborateCorrelatedRequest(senderNickname, requestId, message);
+    }
+
+    /**
+     * This method is used to get the request id of the message.
+     * @return the id of the request.
+     */
+    @Override
+    public int getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * Returns the type of the request.
+     * @return the type of the contained message.
+     */
+    @Override
+    public String getMessageType() {
+        return message.getMessageType();
+    }
+
+    /**
+     * This method is used to get the message to be elaborated.
+     * @return the contained message.
+     */
+    public CtoSMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Writes the content of the CorrelatedRequestMessage in the compact binary format of the {@link BinaryMessageCodec},
+     * followed by the contained message preceded by its own type id.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeVarInt(requestId);
+        out.writeMessage(message);
+    }
+
+    /**
+     * Reads a CorrelatedRequestMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static CorrelatedRequestMessage readFrom(WireInput in) throws IOException {
+        String senderNickname = in.readString();
+        int requestId = in.readVarInt();
+        if (!(in.readMessage() instanceof CtoSMessage message))
+            throw new StreamCorruptedException("CorrelatedRequestMessage does not contain a CtoSMessage");
+        return new CorrelatedRequestMessage(senderNickname, requestId, message);
+    }
+
+    /**
+     * This method overrides the default toString method.
+     * It provides a string representation of a message object, which can be useful for debugging purposes.
+     *
+     * @return A string representation of the CorrelatedRequestMessage object.
+     * The string includes the message type, the senderNickname, the requestId and the contained message.
+     */
+    @Override
+    public String toString() {
+        return "CorrelatedRequestMessage:{" +
+                "senderNickname='" + senderNickname + '\'' +
+                ", requestId=" + requestId +
+                ", message=" + message +
+                '}';
+    }
+}
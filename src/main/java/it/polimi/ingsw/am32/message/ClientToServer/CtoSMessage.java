@@ -9,12 +9,35 @@ import java.io.Serializable;
  * It contains a single method to elaborate the message with a game controller.
  */
 public interface CtoSMessage extends Serializable {
+    /**
+     * The request id of the messages that are not correlated with their response.
+     */
+    int NO_REQUEST_ID = 0;
 
     /**
      * Elaborates the message with the specified game controller.
      * @param gameController The game controller with which the message should be elaborated
      */
     void elaborateMessage(GameController gameController);
+
+    /**
+     * Gets the request id of the message, echoed by the server in the response to the message.
+     * @return the request id of the message, or {@link #NO_REQUEST_ID} if the message is not correlated with its response.
+     * @see CorrelatedRequestMessage
+     */
+    default int getRequestId() {
+        return NO_REQUEST_ID;
+    }
+
+    /**
+     * Gets the type of the message, used to group the latency measurements of the messages of the same kind.
+     * Messages wrapping another message return the type of the wrapped one.
+     * @return the simple name of the class of the message.
+     */
+    default String getMessageType() {
+        return getClass().getSimpleName();
+    }
+
     /**
      * This method provides a string representation of a message object, which can be useful for debugging purposes.
      * It will be overridden by the classes that implement the StoCMessage interface.
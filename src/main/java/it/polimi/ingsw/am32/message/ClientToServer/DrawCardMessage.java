@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ClientToServer;
 
 import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the client when he wants to draw a card.
  */
-public class DrawCardMessage implements CtoSMessage {
+public class DrawCardMessage implements CtoSMessage, WireMessage {
     /**
      * The nickname of the player who wants to draw a card
      */
@@ -43,6 +49,31 @@ public class DrawCardMessage implements CtoSMessage {
         gameController.drawCard(senderNickname, deckType, cardId);
     }
 
+    /**
+     * Writes the content of the DrawCardMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeVarInt(deckType);
+        out.writeVarInt(cardId);
+    }
+
+    /**
+     * Reads a DrawCardMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static DrawCardMessage readFrom(WireInput in) throws IOException {
+        return new DrawCardMessage(
+            in.readString(),
+            in.readVarInt(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
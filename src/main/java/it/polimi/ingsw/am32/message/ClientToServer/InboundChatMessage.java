@@ -2,11 +2,17 @@ package it.polimi.ingsw.am32.message.ClientToServer;
 
 import it.polimi.ingsw.am32.chat.ChatMessage;
 import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the client when he wants to send a chat message.
  */
-public class InboundChatMessage implements CtoSMessage {
+public class InboundChatMessage implements CtoSMessage, WireMessage {
     /**
      * The nickname of the player who wants to send the message
      */
@@ -52,6 +58,33 @@ public class InboundChatMessage implements CtoSMessage {
         gameController.submitChatMessage(new ChatMessage(senderNickname, recipientNickname, multicastFlag, content));
     }
 
+    /**
+     * Writes the content of the InboundChatMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeString(recipientNickname);
+        out.writeBoolean(multicastFlag);
+        out.writeString(content);
+    }
+
+    /**
+     * Reads a InboundChatMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static InboundChatMessage readFrom(WireInput in) throws IOException {
+        return new InboundChatMessage(
+            in.readString(),
+            in.readString(),
+            in.readBoolean(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -4,13 +4,19 @@ import it.polimi.ingsw.am32.controller.GameController;
 import it.polimi.ingsw.am32.controller.GamesManager;
 import it.polimi.ingsw.am32.controller.exceptions.InvalidPlayerNumberException;
 import it.polimi.ingsw.am32.network.ServerNode.ServerNodeInterface;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class represents a message that is sent from the client to the server when a new game is created.
  * The message contains the nickname of the player that created the game and the number of players that the game will have.
  * The message is used to create a new game and add the player to it.
  */
-public class NewGameMessage implements CtoSLobbyMessage {
+public class NewGameMessage implements CtoSLobbyMessage, WireMessage {
     /**
      * The nickname of the player that created the game
      */
@@ -42,6 +48,29 @@ public class NewGameMessage implements CtoSLobbyMessage {
         return GamesManager.getInstance().createGame(senderNickname, playerNum, nodeInterface);
     }
 
+    /**
+     * Writes the content of the NewGameMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeVarInt(playerNum);
+    }
+
+    /**
+     * Reads a NewGameMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static NewGameMessage readFrom(WireInput in) throws IOException {
+        return new NewGameMessage(
+            in.readString(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -1,22 +1,45 @@
 package it.polimi.ingsw.am32.message.ClientToServer;
 
 import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
- * This class is used to manage the message sent by the client when he wants to ping the server.
+ * This class is used to manage the message sent by the client when he wants to ping the server. <br>
+ * Any message received by the server counts as a heartbeat, so the client sends a ping only when it has nothing else to
+ * send. A ping can also answer a probe of the server (see {@link it.polimi.ingsw.am32.message.ServerToClient.PongMessage}):
+ * in this case it echoes the timestamp of the probe, so that the server can measure the round trip time of the connection.
  */
-public class PingMessage implements CtoSMessage {
+public class PingMessage implements CtoSMessage, WireMessage {
     /**
      * The nickname of the player who wants to ping the server
      */
     private final String senderNickname;
+    /**
+     * The timestamp of the probe the ping answers, or 0 if the ping does not answer a probe
+     */
+    private final long echoedTimestamp;
 
     /**
      * Constructor: a message representing a ping message sent by a player to the server.
      * @param senderNickname the nickname of the player who wants to ping the server
      */
     public PingMessage(String senderNickname) {
+        this(senderNickname, 0);
+    }
+
+    /**
+     * Constructor: a message representing a ping message sent by a player to the server to answer a probe.
+     * @param senderNickname the nickname of the player who wants to ping the server
+     * @param echoedTimestamp the timestamp of the probe the ping answers, or 0 if the ping does not answer a probe
+     */
+    public PingMessage(String senderNickname, long echoedTimestamp) {
         this.senderNickname = senderNickname;
+        this.echoedTimestamp = echoedTimestamp;
     }
 
     /**
@@ -28,6 +51,36 @@ public class PingMessage implements CtoSMessage {
         gameController.pongPlayer(senderNickname);
     }
 
+    /**
+     * This method is used to get the timestamp of the probe the ping answers.
+     * @return the timestamp echoed by the client, or 0 if the ping does not answer a probe
+     */
+    public long getEchoedTimestamp() {
+        return echoedTimestamp;
+    }
+
+    /**
+     * Writes the content of the PingMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeVarLong(echoedTimestamp);
+    }
+
+    /**
+     * Reads a PingMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static PingMessage readFrom(WireInput in) throws IOException {
+        String senderNickname = in.readString();
+        long echoedTimestamp = in.getVersion() >= 2 ? in.readVarLong() : 0;
+        return new PingMessage(senderNickname, echoedTimestamp);
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -39,6 +92,7 @@ public class PingMessage implements CtoSMessage {
     public String toString() {
         return "PingMessage:{" +
                 "senderNickname='" + senderNickname + '\'' +
+                ", echoedTimestamp=" + echoedTimestamp +
                 '}';
     }
 }
@@ -0,0 +1,134 @@
+package it.polimi.ingsw.am32.message.ClientToServer;
+
+import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
+
+/**
+ * This class is used to manage the message sent by the client when he wants to place a card and draw a card in a
+ * single request. <br>
+ * The placement and the draw are applied by the server as one turn: if the draw fails, the placement is rolled back
+ * and the turn is left unchanged. It can be used instead of a {@link PlaceCardMessage} followed by a
+ * {@link DrawCardMessage} to save a round trip.
+ */
+public class PlaceAndDrawCardMessage implements CtoSMessage, WireMessage {
+    /**
+     * The nickname of the player who wants to place and draw the cards
+     */
+    private final String senderNickname;
+    /**
+     * The id of the card the player wants to place
+     */
+    private final int cardId;
+    /**
+     * The row where the player wants to place the card
+     */
+    private final int row;
+    /**
+     * The column where the player wants to place the card
+     */
+    private final int column;
+    /**
+     * True if the card is placed face up, false otherwise
+     */
+    private final boolean isUp;
+    /**
+     * An identifier of the place from which the player wants to draw the card
+     */
+    private final int deckType;
+    /**
+     * The id of the face up card the player wants to draw; can be any value if player is not drawing from the face up cards
+     */
+    private final int drawnCardId;
+
+    /**
+     * Constructor: a message containing the placement the player wants to make and the card the player wants to draw
+     * afterwards.
+     * @param senderNickname the nickname of the player who wants to place and draw the cards
+     * @param cardId the id of the card the player wants to place
+     * @param row the row of the field where the player wants to place the card
+     * @param column the colum of the field where the player wants to place the card
+     * @param isUp indicates if the card is placed face up or face down:
+     *             true if the card is placed face up, false otherwise
+     * @param deckType the type of deck the player wants to draw from: 0 for resource deck, 1 for gold deck,
+     *                 2 for resource card visible, 3 for gold card visible
+     * @param drawnCardId the id of the card the player wants to draw
+     */
+    public PlaceAndDrawCardMessage(String senderNickname, int cardId, int row, int column, boolean isUp, int deckType, int drawnCardId) {
+        this.senderNickname = senderNickname;
+        this.cardId = cardId;
+        this.row = row;
+        this.column = column;
+        this.isUp = isUp;
+        this.deckType = deckType;
+        this.drawnCardId = drawnCardId;
+    }
+
+    /**
+     * This method is called when a player wants to place a card and draw a card in the same request.
+     * Places the card in the specified position, then draws a card from the deck the player wants to draw from.
+     * @param gameController the game controller of the game the player is playing
+     */
+    @Override
+    public void elaborateMessage(GameController gameController) {
+        gameController.placeAndDrawCard(senderNickname, cardId, row, column, isUp, deckType, drawnCardId);
+    }
+
+    /**
+     * Writes the content of the PlaceAndDrawCardMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeVarInt(cardId);
+        out.writeVarInt(row);
+        out.writeVarInt(column);
+        out.writeBoolean(isUp);
+        out.writeVarInt(deckType);
+        out.writeVarInt(drawnCardId);
+    }
+
+    /**
+     * Reads a PlaceAndDrawCardMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static PlaceAndDrawCardMessage readFrom(WireInput in) throws IOException {
+        return new PlaceAndDrawCardMessage(
+            in.readString(),
+            in.readVarInt(),
+            in.readVarInt(),
+            in.readVarInt(),
+            in.readBoolean(),
+            in.readVarInt(),
+            in.readVarInt()
+        );
+    }
+
+    /**
+     * This method overrides the default toString method.
+     * It provides a string representation of a message object, which can be useful for debugging purposes.
+     *
+     * @return A string representation of the PlaceAndDrawCardMessage object.
+     * The string includes the message type, the senderNickname, the cardId, the row, the column, the isUp, the deckType
+     * and the drawnCardId properties of the object.
+     */
+    @Override
+    public String toString() {
+        return "PlaceAndDrawCardMessage:{" +
+                "senderNickname='" + senderNickname + '\'' +
+                ", cardId=" + cardId +
+                ", row=" + row +
+                ", column=" + column +
+                ", isUp=" + isUp +
+                ", deckType=" + deckType +
+                ", drawnCardId=" + drawnCardId +
+                '}';
+    }
+}
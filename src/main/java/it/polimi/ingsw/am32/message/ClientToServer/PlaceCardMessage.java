@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ClientToServer;
 
 import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the client when he wants to place a card.
  */
-public class PlaceCardMessage implements CtoSMessage {
+public class PlaceCardMessage implements CtoSMessage, WireMessage {
     /**
      * The nickname of the player who wants to place the card
      */
@@ -56,6 +62,35 @@ public class PlaceCardMessage implements CtoSMessage {
     public void elaborateMessage(GameController gameController) {
         gameController.placeCard(senderNickname, cardId, row, column, isUp);
     }
+    /**
+     * Writes the content of the PlaceCardMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeVarInt(cardId);
+        out.writeVarInt(row);
+        out.writeVarInt(column);
+        out.writeBoolean(isUp);
+    }
+
+    /**
+     * Reads a PlaceCardMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static PlaceCardMessage readFrom(WireInput in) throws IOException {
+        return new PlaceCardMessage(
+            in.readString(),
+            in.readVarInt(),
+            in.readVarInt(),
+            in.readVarInt(),
+            in.readBoolean()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
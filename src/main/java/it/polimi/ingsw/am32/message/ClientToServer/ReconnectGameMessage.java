@@ -4,10 +4,18 @@ import it.polimi.ingsw.am32.controller.GameController;
 import it.polimi.ingsw.am32.controller.GamesManager;
 import it.polimi.ingsw.am32.controller.exceptions.*;
 import it.polimi.ingsw.am32.network.ServerNode.ServerNodeInterface;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
+import java.util.Arrays;
+
 /**
  * This class is used to manage the message sent by the client when he wants to reconnect to a game.
  */
-public class ReconnectGameMessage implements CtoSLobbyMessage {
+public class ReconnectGameMessage implements CtoSLobbyMessage, WireMessage {
     /**
      * The nickname of the player who wants to reconnect to the game
      */
@@ -16,16 +24,40 @@ public class ReconnectGameMessage implements CtoSLobbyMessage {
      * The id of the game the player left before and wants to reconnect to
      */
     private final int matchId;
+    /**
+     * The epoch of the event log the sequence numbers acknowledged by the player refer to
+     */
+    private final long epoch;
+    /**
+     * The last sequence number applied by the player for each priority class, or null if the player needs the full
+     * status of the game
+     */
+    private final long[] lastAppliedSequences;
 
     /**
      * Constructor: a message containing the nickname of the player who wants to reconnect to the game and the id of
-     * the game the player requests to reconnect to.
+     * the game the player requests to reconnect to. The player will receive the full status of the game.
      * @param senderNickname the nickname of the player who wants to reconnect to the game
      * @param matchId the id of the game the player wants to reconnect to
      */
     public ReconnectGameMessage(String senderNickname, int matchId) {
+        this(senderNickname, matchId, 0, null);
+    }
+
+    /**
+     * Constructor: a message containing the nickname of the player who wants to reconnect to the game, the id of
+     * the game the player requests to reconnect to and the last messages the player applied. If possible, the player
+     * will only receive the messages it missed.
+     * @param senderNickname the nickname of the player who wants to reconnect to the game
+     * @param matchId the id of the game the player wants to reconnect to
+     * @param epoch the epoch of the event log the sequence numbers refer to
+     * @param lastAppliedSequences the last sequence number applied by the player for each priority class
+     */
+    public ReconnectGameMessage(String senderNickname, int matchId, long epoch, long[] lastAppliedSequences) {
         this.senderNickname = senderNickname;
         this.matchId = matchId;
+        this.epoch = epoch;
+        this.lastAppliedSequences = lastAppliedSequences;
     }
     /**
      * This method is called when a player wants to reconnect to a game.
@@ -42,7 +74,7 @@ public class ReconnectGameMessage implements CtoSLobbyMessage {
     @Override
     public GameController elaborateMessage(ServerNodeInterface nodeInterface) throws GameAlreadyEndedException,
             GameNotFoundException, PlayerAlreadyConnectedException, GameNotYetStartedException, CTRPlayerNotFoundException {
-        return GamesManager.getInstance().reconnectToGame(senderNickname, matchId, nodeInterface);
+        return GamesManager.getInstance().reconnectToGame(senderNickname, matchId, nodeInterface, epoch, lastAppliedSequences);
     }
 
    /**
@@ -52,11 +84,40 @@ public class ReconnectGameMessage implements CtoSLobbyMessage {
     * @return A string representation of the ReconnectGameMessage object.
     * The string includes the message type, the matchId and the senderNickname properties of the object.
     */
+    /**
+     * Writes the content of the ReconnectGameMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeVarInt(matchId);
+        out.writeVarLong(epoch);
+        out.writeLongArray(lastAppliedSequences);
+    }
+
+    /**
+     * Reads a ReconnectGameMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static ReconnectGameMessage readFrom(WireInput in) throws IOException {
+        return new ReconnectGameMessage(
+            in.readString(),
+            in.readVarInt(),
+            in.readVarLong(),
+            in.readLongArray()
+        );
+    }
+
     @Override
     public String toString() {
         return "ReconnectGameMessage:{" +
                 "senderNickname='" + senderNickname + '\'' +
                 ", matchId=" + matchId +
+                ", epoch=" + epoch +
+                ", lastAppliedSequences=" + Arrays.toString(lastAppliedSequences) +
                 '}';
     }
 }
@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ClientToServer;
 
 import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the client when he wants to know the status of the game.
  */
-public class RequestGameStatusMessage implements CtoSMessage {
+public class RequestGameStatusMessage implements CtoSMessage, WireMessage {
     /**
      * The nickname of the player who wants to know the status of the game
      */
@@ -30,6 +36,27 @@ public class RequestGameStatusMessage implements CtoSMessage {
         gameController.sendGameStatus(senderNickname);
     }
 
+    /**
+     * Writes the content of the RequestGameStatusMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+    }
+
+    /**
+     * Reads a RequestGameStatusMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static RequestGameStatusMessage readFrom(WireInput in) throws IOException {
+        return new RequestGameStatusMessage(
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
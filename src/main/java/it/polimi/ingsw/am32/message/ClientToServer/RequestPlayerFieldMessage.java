@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ClientToServer;
 
 import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the client when he wants to see the field of another player.
  */
-public class RequestPlayerFieldMessage implements CtoSMessage {
+public class RequestPlayerFieldMessage implements CtoSMessage, WireMessage {
     /**
      * The nickname of the player who wants to see the field of another player
      */
@@ -36,6 +42,29 @@ public class RequestPlayerFieldMessage implements CtoSMessage {
         gameController.sendPlayerField(senderNickname, playerNickname);
     }
 
+    /**
+     * Writes the content of the RequestPlayerFieldMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeString(playerNickname);
+    }
+
+    /**
+     * Reads a RequestPlayerFieldMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static RequestPlayerFieldMessage readFrom(WireInput in) throws IOException {
+        return new RequestPlayerFieldMessage(
+            in.readString(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
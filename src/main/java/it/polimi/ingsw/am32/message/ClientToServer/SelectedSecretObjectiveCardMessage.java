@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ClientToServer;
 
 import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the client when he wants to notify the server of his selection of a secret objective card.
  */
-public class SelectedSecretObjectiveCardMessage implements CtoSMessage {
+public class SelectedSecretObjectiveCardMessage implements CtoSMessage, WireMessage {
     /**
      * The nickname of the player who selected the secret objective card
      */
@@ -35,6 +41,29 @@ public class SelectedSecretObjectiveCardMessage implements CtoSMessage {
         gameController.chooseSecretObjectiveCard(senderNickname, cardId);
     }
 
+    /**
+     * Writes the content of the SelectedSecretObjectiveCardMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeVarInt(cardId);
+    }
+
+    /**
+     * Reads a SelectedSecretObjectiveCardMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static SelectedSecretObjectiveCardMessage readFrom(WireInput in) throws IOException {
+        return new SelectedSecretObjectiveCardMessage(
+            in.readString(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
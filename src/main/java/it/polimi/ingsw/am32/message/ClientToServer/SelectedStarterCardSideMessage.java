@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ClientToServer;
 
 import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the client when he wants to notify the server of his selection of the side of the starter card.
  */
-public class SelectedStarterCardSideMessage implements CtoSMessage {
+public class SelectedStarterCardSideMessage implements CtoSMessage, WireMessage {
     /**
      * The nickname of the player who wants to select the side of the starter card
      */
@@ -35,6 +41,29 @@ public class SelectedStarterCardSideMessage implements CtoSMessage {
         gameController.chooseStarterCardSide(senderNickname, isUp);
     }
 
+    /**
+     * Writes the content of the SelectedStarterCardSideMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(senderNickname);
+        out.writeBoolean(isUp);
+    }
+
+    /**
+     * Reads a SelectedStarterCardSideMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static SelectedStarterCardSideMessage readFrom(WireInput in) throws IOException {
+        return new SelectedStarterCardSideMessage(
+            in.readString(),
+            in.readBoolean()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -2,10 +2,16 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 /**
  * This class is used to manage the message sent by the server to the client to confirm the access to the game.
  */
-public class AccessGameConfirmMessage implements StoCMessage {
+public class AccessGameConfirmMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who requested to access the game before.
      */
@@ -41,6 +47,27 @@ public class AccessGameConfirmMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the AccessGameConfirmMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+    }
+
+    /**
+     * Reads a AccessGameConfirmMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static AccessGameConfirmMessage readFrom(WireInput in) throws IOException {
+        return new AccessGameConfirmMessage(
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -2,14 +2,19 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
  * This class is used to manage the message sent by the server to the client to assign the secret objective cards which
  * should be chosen by the player, the common objective cards and the cards to the player's hand.
  */
-public class AssignedSecretObjectiveCardMessage implements StoCMessage {
+public class AssignedSecretObjectiveCardMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who will receive the assignment of the cards.
      */
@@ -65,6 +70,33 @@ public class AssignedSecretObjectiveCardMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the AssignedSecretObjectiveCardMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeIntList(assignedSecretObjectiveCards);
+        out.writeIntList(chosenCommonObjectiveCards);
+        out.writeIntList(playerHand);
+    }
+
+    /**
+     * Reads a AssignedSecretObjectiveCardMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static AssignedSecretObjectiveCardMessage readFrom(WireInput in) throws IOException {
+        return new AssignedSecretObjectiveCardMessage(
+            in.readString(),
+            in.readIntList(),
+            in.readIntList(),
+            in.readIntList()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
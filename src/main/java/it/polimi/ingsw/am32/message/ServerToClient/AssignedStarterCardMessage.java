@@ -2,11 +2,17 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is a message sent to the player to notify them of their assigned starter card after the preparation phase is over.
  */
-public class AssignedStarterCardMessage implements StoCMessage {
+public class AssignedStarterCardMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who will receive the assigned starter card.
      */
@@ -47,6 +53,29 @@ public class AssignedStarterCardMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the AssignedStarterCardMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeVarInt(cardId);
+    }
+
+    /**
+     * Reads a AssignedStarterCardMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static AssignedStarterCardMessage readFrom(WireInput in) throws IOException {
+        return new AssignedStarterCardMessage(
+            in.readString(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
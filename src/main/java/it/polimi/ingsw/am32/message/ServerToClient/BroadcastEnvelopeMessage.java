@@ -0,0 +1,264 @@
+package it.polimi.ingsw.am32.message.ServerToClient;
+
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.client.exceptions.MalformedMessageException;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+import it.polimi.ingsw.am32.network.framing.MessageInputFilter;
+
+import java.io.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class is used to deliver a message whose content is the same for several recipients. <br>
+ * The shared message (the template) is serialized only once by the server, and each recipient receives a lightweight
+ * envelope containing its own nickname and a reference to the shared serialized payload. <br>
+ * The template must be built using {@link #TEMPLATE_RECIPIENT} as recipient nickname: when the payload is decoded,
+ * the placeholder is replaced with the nickname of the recipient of the envelope.
+ */
+public class BroadcastEnvelopeMessage implements StoCMessage, WireMessage {
+    /**
+     * The placeholder used as recipient nickname of the template message. It can never be a valid nickname.
+     */
+    public static final String TEMPLATE_RECIPIENT = "\u0000recipient";
+    /**
+     * The filter bounding the decoding of the payload, which may have been received from the network.
+     */
+    private static final ObjectInputFilter PAYLOAD_FILTER = MessageInputFilter.withDefaultLimits();
+    /**
+     * The nickname of the recipient of the envelope.
+     */
+    private final String recipientNickname;
+    /**
+     * The serialized template message. The same array is shared by all the envelopes of a broadcast.
+     */
+    private final byte[] payload;
+    /**
+     * The decoded message, cached after the first decoding. It is never sent over the network.
+     */
+    private transient StoCMessage message;
+    /**
+     * The template message the payload was encoded from. It is only available on the server, where it is used to
+     * describe the envelope without decoding the payload, and it is never sent over the network.
+     */
+    private final transient StoCMessage template;
+    /**
+     * The template message encoded by the {@link BinaryMessageCodec}, shared by all the envelopes of a broadcast so that
+     * the template is encoded at most once. It is never sent over the network.
+     */
+    private final transient AtomicReference<byte[]> binaryPayload;
+
+    /**
+     * The constructor of the class.
+     * @param recipientNickname the nickname of the player who will receive the message.
+     * @param payload the serialized template message.
+     * @param template the template message the payload was encoded from.
+     */
+    private BroadcastEnvelopeMessage(String recipientNickname, byte[] payload, StoCMessage template) {
+        this(recipientNickname, payload, template, new AtomicReference<>());
+    }
+
+    /**
+     * The constructor of the class.
+     * @param recipientNickname the nickname of the player who will receive the message.
+     * @param payload the serialized template message.
+     * @param template the template message the payload was encoded from.
+     * @param binaryPayload the shared holder of the template message encoded by the {@link BinaryMessageCodec}.
+     */
+    private BroadcastEnvelopeMessage(String recipientNickname, byte[] payload, StoCMessage template, AtomicReference<byte[]> binaryPayload) {
+        this.recipientNickname = recipientNickname;
+        this.payload = payload;
+        this.template = template;
+        this.binaryPayload = binaryPayload;
+    }
+
+    /**
+     * Serializes the given template message so that it can be shared among several envelopes.
+     * The returned envelope is not addressed to anyone: use {@link #addressedTo(String)} to obtain the envelope of
+     * each recipient.
+     * @param template the message to serialize; its recipient nickname should be {@link #TEMPLATE_RECIPIENT}.
+     * @return an envelope containing the serialized template message.
+     * @throws IOException if the template message could not be serialized.
+     */
+    public static BroadcastEnvelopeMessage encode(StoCMessage template) throws IOException {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectStream = new ObjectOutputStream(byteStream)) {
+            objectStream.writeObject(template);
+        }
+        return new BroadcastEnvelopeMessage(TEMPLATE_RECIPIENT, byteStream.toByteArray(), template);
+    }
+
+    /**
+     * Creates the envelope of a recipient. The new envelope shares the serialized payload of this one.
+     * @param recipientNickname the nickname of the player who will receive the message.
+     * @return the envelope addressed to the given player.
+     */
+    public BroadcastEnvelopeMessage addressedTo(String recipientNickname) {
+        return new BroadcastEnvelopeMessage(recipientNickname, payload, template, binaryPayload);
+    }
+
+    /**
+     * Decodes the shared payload, replacing the template recipient with the recipient of the envelope.
+     * The decoded message is cached, so the payload is decoded at most once per envelope.
+     * @return the message contained in the envelope.
+     * @throws MalformedMessageException if the payload could not be decoded.
+     */
+    public synchronized StoCMessage getMessage() {
+        if (message == null) {
+            try (ObjectInputStream objectStream = new RecipientResolvingInputStream(new ByteArrayInputStream(payload), recipientNickname)) {
+                message = (StoCMessage) objectStream.readObject();
+            } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                throw new MalformedMessageException("Broadcast payload could not be decoded: " + e.getMessage());
+            }
+        }
+        return message;
+    }
+
+    /**
+     * This method is used to process the message contained in the envelope.
+     * @param view the view of the player who will receive the message.
+     */
+    @Override
+    public void processMessage(View view) {
+        getMessage().processMessage(view);
+    }
+
+    /**
+     * Returns the coalescing key of the message contained in the envelope.
+     * @return the coalescing key of the contained message.
+     */
+    @Override
+    public String getCoalescingKey() {
+        return describedMessage().getCoalescingKey();
+    }
+
+    /**
+     * Returns the priority class of the message contained in the envelope.
+     * @return the priority class of the contained message.
+     */
+    @Override
+    public MessagePriority getPriority() {
+        return describedMessage().getPriority();
+    }
+
+    /**
+     * Returns whether the message contained in the envelope can be discarded.
+     * @return true if the contained message can be discarded, false otherwise.
+     */
+    @Override
+    public boolean isDiscardable() {
+        return describedMessage().isDiscardable();
+    }
+
+    /**
+     * Returns the type of the message contained in the envelope.
+     * @return the type of the contained message.
+     */
+    @Override
+    public String getMessageType() {
+        return describedMessage().getMessageType();
+    }
+
+    /**
+     * Returns the message that describes the content of the envelope, preferring the template when available so
+     * that the payload does not need to be decoded.
+     * @return the template message if available, the decoded message otherwise.
+     */
+    private StoCMessage describedMessage() {
+        return template != null ? template : getMessage();
+    }
+
+    /**
+     * This method is used to get the nickname of the recipient of the envelope.
+     * @return the nickname of the player who will receive the message.
+     */
+    @Override
+    public String getRecipientNickname() {
+        return recipientNickname;
+    }
+
+    /**
+     * Writes the content of the BroadcastEnvelopeMessage in the compact binary format of the {@link BinaryMessageCodec}:
+     * the recipient of the envelope, followed by the template message. The template is encoded only once for all the
+     * envelopes of a broadcast.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        byte[] encodedTemplate;
+        if (template == null) { // The envelope has been received through Java serialization: the template is not available
+            encodedTemplate = BinaryMessageCodec.encodeEmbedded(getMessage());
+        } else if (binaryPayload == null) {
+            encodedTemplate = BinaryMessageCodec.encodeEmbedded(template);
+        } else {
+            encodedTemplate = binaryPayload.updateAndGet(encoded -> encoded != null ? encoded : BinaryMessageCodec.encodeEmbedded(template));
+        }
+        out.writeString(recipientNickname);
+        out.writeBytes(encodedTemplate);
+    }
+
+    /**
+     * Reads a BroadcastEnvelopeMessage written by {@link #writeTo(WireOutput)}. <br>
+     * Instead of a new envelope, the message contained in the envelope is returned, with the template recipient
+     * already replaced by the recipient of the envelope.
+     * @param in the input the message is read from.
+     * @return the message contained in the envelope.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static StoCMessage readFrom(WireInput in) throws IOException {
+        String recipientNickname = in.readString();
+        byte[] encodedTemplate = in.readBytes();
+        if (recipientNickname == null || encodedTemplate == null)
+            throw new StreamCorruptedException("Malformed BroadcastEnvelopeMessage");
+        if (!(BinaryMessageCodec.decodeEmbedded(encodedTemplate, in.getVersion(), recipientNickname) instanceof StoCMessage message))
+            throw new StreamCorruptedException("BroadcastEnvelopeMessage does not contain a StoCMessage");
+        return message;
+    }
+
+    /**
+     * This method overrides the default toString method.
+     * The envelope is described as the message it contains, addressed to the recipient of the envelope, so that the
+     * logs show the type and the content of the broadcast messages.
+     *
+     * @return A string representation of the message contained in the envelope.
+     */
+    @Override
+    public String toString() {
+        return describedMessage().toString().replace(TEMPLATE_RECIPIENT, recipientNickname);
+    }
+
+    /**
+     * An {@link ObjectInputStream} that replaces the template recipient with the nickname of the actual recipient.
+     */
+    private static class RecipientResolvingInputStream extends ObjectInputStream {
+        /**
+         * The nickname that replaces {@link #TEMPLATE_RECIPIENT}.
+         */
+        private final String recipientNickname;
+
+        /**
+         * The constructor of the class.
+         * @param in the stream containing the serialized template message.
+         * @param recipientNickname the nickname that replaces the template recipient.
+         * @throws IOException if the stream header could not be read.
+         */
+        private RecipientResolvingInputStream(InputStream in, String recipientNickname) throws IOException {
+            super(in);
+            this.recipientNickname = recipientNickname;
+            setObjectInputFilter(PAYLOAD_FILTER);
+            enableResolveObject(true);
+        }
+
+        /**
+         * Replaces the template recipient with the nickname of the actual recipient.
+         * @param obj the object read from the stream.
+         * @return the nickname of the recipient if the object is the template recipient, the object itself otherwise.
+         */
+        @Override
+        protected Object resolveObject(Object obj) {
+            return TEMPLATE_RECIPIENT.equals(obj) ? recipientNickname : obj;
+        }
+    }
+}
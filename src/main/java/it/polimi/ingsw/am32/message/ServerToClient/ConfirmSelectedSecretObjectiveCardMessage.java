@@ -1,12 +1,18 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the server to the client to confirm the selected secret objective
  * card. The player will receive the confirmation of the selected secret objective card.
  */
-public class ConfirmSelectedSecretObjectiveCardMessage implements StoCMessage {
+public class ConfirmSelectedSecretObjectiveCardMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who will receive the confirmation of the selected secret objective card.
      */
@@ -47,6 +53,29 @@ public class ConfirmSelectedSecretObjectiveCardMessage implements StoCMessage {
         view.updateConfirmSelectedSecretCard(chosenSecretObjectiveCard);
     }
 
+    /**
+     * Writes the content of the ConfirmSelectedSecretObjectiveCardMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeVarInt(chosenSecretObjectiveCard);
+    }
+
+    /**
+     * Reads a ConfirmSelectedSecretObjectiveCardMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static ConfirmSelectedSecretObjectiveCardMessage readFrom(WireInput in) throws IOException {
+        return new ConfirmSelectedSecretObjectiveCardMessage(
+            in.readString(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
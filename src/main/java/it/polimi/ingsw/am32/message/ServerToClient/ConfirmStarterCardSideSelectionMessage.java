@@ -1,7 +1,12 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.stream.Collectors;
@@ -10,7 +15,7 @@ import java.util.stream.Collectors;
  * This class is used to manage the message sent by the server to the client to confirm the selection of the starter
  * card side.
  */
-public class ConfirmStarterCardSideSelectionMessage implements StoCMessage {
+public class ConfirmStarterCardSideSelectionMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who will receive the confirmation message for the selection of the starter card
      * side.
@@ -81,6 +86,37 @@ public class ConfirmStarterCardSideSelectionMessage implements StoCMessage {
         view.updateConfirmStarterCard(playerColour,startingCardId,side, availableSpaces, playerResources);
     }
 
+    /**
+     * Writes the content of the ConfirmStarterCardSideSelectionMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeVarInt(startingCardId);
+        out.writeBoolean(side);
+        out.writeIntArrayList(availableSpaces);
+        out.writeIntArray(playerResources);
+        out.writeVarInt(playerColour);
+    }
+
+    /**
+     * Reads a ConfirmStarterCardSideSelectionMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static ConfirmStarterCardSideSelectionMessage readFrom(WireInput in) throws IOException {
+        return new ConfirmStarterCardSideSelectionMessage(
+            in.readString(),
+            in.readVarInt(),
+            in.readBoolean(),
+            in.readIntArrayList(),
+            in.readIntArray(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -0,0 +1,146 @@
+package it.polimi.ingsw.am32.message.ServerToClient;
+
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+/**
+ * This class is used to echo the request id of a
+ * {@link it.polimi.ingsw.am32.message.ClientToServer.CorrelatedRequestMessage} in the response to the request:
+ * the confirmation or the failure of the requested action. <br>
+ * Requests accepted without a reply, such as a chat message, are answered with an empty response, so that every
+ * correlated request receives exactly one response. The response is never coalesced or discarded.
+ */
+public class CorrelatedResponseMessage implements StoCMessage, WireMessage {
+    /**
+     * The nickname of the player who will receive the message.
+     */
+    private final String recipientNickname;
+    /**
+     * The id of the request the message responds to.
+     */
+    private final int requestId;
+    /**
+     * The response to be delivered, or null if the request was accepted without a reply.
+     */
+    private final StoCMessage message;
+
+    /**
+     * The constructor of the class.
+     * @param recipientNickname the nickname of the player who will receive the message.
+     * @param requestId the id of the request the message responds to.
+     * @param message the response to be delivered, addressed to the same recipient, or null if the request was
+     *                accepted without a reply.
+     */
+    public CorrelatedResponseMessage(String recipientNickname, int requestId, StoCMessage message) {
+        this.recipientNickname = recipientNickname;
+        this.requestId = requestId;
+        this.message = message;
+    }
+
+    /**
+     * This method is used to process the response, if any.
+     * @param view the view of the player who will receive the message.
+     */
+    @Override
+    public void processMessage(View view) {
+        if (message != null) {
+            message.processMessage(view);
+        }
+    }
+
+    /**
+     * This method is used to get the nickname of the recipient of the message.
+     * @return the nickname of the player who will receive the message.
+     */
+    @Override
+    public String getRecipientNickname() {
+        return recipientNickname;
+    }
+
+    /**
+     * Returns the priority class of the response.
+     * @return the priority class of the contained message, or {@link MessagePriority#GAME_CRITICAL} if the response is empty.
+     */
+    @Override
+    public MessagePriority getPriority() {
+        return message != null ? message.getPriority() : MessagePriority.GAME_CRITICAL;
+    }
+
+    /**
+     * Returns the type of the response.
+     * @return the type of the contained message, or the type of this message if the response is empty.
+     */
+    @Override
+    public String getMessageType() {
+        return message != null ? message.getMessageType() : StoCMessage.super.getMessageType();
+    }
+
+    /**
+     * This method is used to get the id of the request the message responds to.
+     * @return the id of the request.
+     */
+    @Override
+    public int getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * This method is used to get the response to be delivered.
+     * @return the contained message, or null if the request was accepted without a reply.
+     */
+    public StoCMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Writes the content of the CorrelatedResponseMessage in the compact binary format of the {@link BinaryMessageCodec},
+     * followed, if present, by the response preceded by its own type id.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeVarInt(requestId);
+        out.writeBoolean(message != null);
+        if (message != null) {
+            out.writeMessage(message);
+        }
+    }
+
+    /**
+     * Reads a CorrelatedResponseMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static CorrelatedResponseMessage readFrom(WireInput in) throws IOException {
+        String recipientNickname = in.readString();
+        int requestId = in.readVarInt();
+        if (!in.readBoolean())
+            return new CorrelatedResponseMessage(recipientNickname, requestId, null);
+        if (!(in.readMessage() instanceof StoCMessage message))
+            throw new StreamCorruptedException("CorrelatedResponseMessage does not contain a StoCMessage");
+        return new CorrelatedResponseMessage(recipientNickname, requestId, message);
+    }
+
+    /**
+     * This method overrides the default toString method.
+     * It provides a string representation of a message object, which can be useful for debugging purposes.
+     *
+     * @return A string representation of the CorrelatedResponseMessage object.
+     */
+    @Override
+    public String toString() {
+        return "CorrelatedResponseMessage:{" +
+                "recipientNickname='" + recipientNickname + '\'' +
+                ", requestId=" + requestId +
+                ", message=" + message +
+                '}';
+    }
+}
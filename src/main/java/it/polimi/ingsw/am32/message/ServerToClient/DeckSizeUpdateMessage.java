@@ -1,14 +1,19 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
  * This class is used to manage the message sent by the server to the client to update the deck after one player
  * draws a card.
  */
-public class DeckSizeUpdateMessage implements StoCMessage {
+public class DeckSizeUpdateMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who will receive the message to update the deck size after the draw card action.
      */
@@ -80,6 +85,48 @@ public class DeckSizeUpdateMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Only the latest deck sizes are relevant to the client, so a queued update can be replaced by a newer one.
+     * @return the name of the class, used as coalescing key.
+     */
+    @Override
+    public String getCoalescingKey() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Writes the content of the DeckSizeUpdateMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeVarInt(resourceCardDeckSize);
+        out.writeVarInt(goldCardDeckSize);
+        out.writeIntArray(currentResourceCards);
+        out.writeIntArray(currentGoldCards);
+        out.writeVarInt(resourceCardDeckFacingKingdom);
+        out.writeVarInt(goldCardDeckFacingKingdom);
+    }
+
+    /**
+     * Reads a DeckSizeUpdateMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static DeckSizeUpdateMessage readFrom(WireInput in) throws IOException {
+        return new DeckSizeUpdateMessage(
+            in.readString(),
+            in.readVarInt(),
+            in.readVarInt(),
+            in.readIntArray(),
+            in.readIntArray(),
+            in.readVarInt(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
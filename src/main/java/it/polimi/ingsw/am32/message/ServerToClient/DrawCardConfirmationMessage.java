@@ -1,13 +1,18 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
  * This class is used to manage the message sent by the server to the client to confirm the draw card action.
  */
-public class DrawCardConfirmationMessage implements StoCMessage {
+public class DrawCardConfirmationMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who will receive the confirmation after he draws a card.
      */
@@ -48,6 +53,29 @@ public class DrawCardConfirmationMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the DrawCardConfirmationMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeIntList(playerHand);
+    }
+
+    /**
+     * Reads a DrawCardConfirmationMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static DrawCardConfirmationMessage readFrom(WireInput in) throws IOException {
+        return new DrawCardConfirmationMessage(
+            in.readString(),
+            in.readIntList()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -2,11 +2,17 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the server to the client when his draw card action fails.
  */
-public class DrawCardFailedMessage implements StoCMessage {
+public class DrawCardFailedMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who will receive the message when his draw card action fails.
      */
@@ -47,6 +53,29 @@ public class DrawCardFailedMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the DrawCardFailedMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeString(reason);
+    }
+
+    /**
+     * Reads a DrawCardFailedMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static DrawCardFailedMessage readFrom(WireInput in) throws IOException {
+        return new DrawCardFailedMessage(
+            in.readString(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -3,11 +3,17 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
 import it.polimi.ingsw.am32.controller.exceptions.abstraction.LobbyMessageExceptionEnumeration;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 /**
  * This class is used to manage the message sent by the server to the client when client's request to access the game,
  * to create a new game or to reconnect to a game is not successful.
  */
-public class ErrorMessage implements StoCMessage{
+public class ErrorMessage implements StoCMessage, WireMessage {
     /**
      * The message that the server sends to the client to notify the failure reason of the request.
      */
@@ -63,6 +69,31 @@ public class ErrorMessage implements StoCMessage{
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the ErrorMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(message);
+        out.writeString(recipientNickname);
+        out.writeVarInt(errorType);
+    }
+
+    /**
+     * Reads a ErrorMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static ErrorMessage readFrom(WireInput in) throws IOException {
+        return new ErrorMessage(
+            in.readString(),
+            in.readString(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -2,13 +2,19 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the server to the client to notify the player that the game is
  * started, entering the preparation phase.
  */
 
-public class GameStartedMessage implements StoCMessage {
+public class GameStartedMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who will receive the message when the game enters the preparation phase.
      */
@@ -47,6 +53,27 @@ public class GameStartedMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the GameStartedMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+    }
+
+    /**
+     * Reads a GameStartedMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static GameStartedMessage readFrom(WireInput in) throws IOException {
+        return new GameStartedMessage(
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
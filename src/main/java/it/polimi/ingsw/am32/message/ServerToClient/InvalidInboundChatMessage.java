@@ -2,11 +2,17 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent from the server to the player notifying them of an invalid chat message.
  */
-public class InvalidInboundChatMessage implements StoCMessage {
+public class InvalidInboundChatMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the sender of the invalid chat message.
      */
@@ -35,6 +41,15 @@ public class InvalidInboundChatMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Chat error messages are delivered with the lowest priority, in order with the other chat messages.
+     * @return the priority class of the message.
+     */
+    @Override
+    public MessagePriority getPriority() {
+        return MessagePriority.CHAT;
+    }
+
     /**
      * This method is used to notify the recipient of the invalid chat message.
      * @param view The view of the recipient.
@@ -44,6 +59,29 @@ public class InvalidInboundChatMessage implements StoCMessage {
         view.handleFailureCase(Event.CHAT_ERROR,reason);
     }
 
+    /**
+     * Writes the content of the InvalidInboundChatMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeString(reason);
+    }
+
+    /**
+     * Reads a InvalidInboundChatMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static InvalidInboundChatMessage readFrom(WireInput in) throws IOException {
+        return new InvalidInboundChatMessage(
+            in.readString(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
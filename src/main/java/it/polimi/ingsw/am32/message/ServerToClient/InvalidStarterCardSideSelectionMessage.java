@@ -2,11 +2,17 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent to the client notifying them that the side of the starter card they have selected is invalid.
  */
-public class InvalidStarterCardSideSelectionMessage implements StoCMessage {
+public class InvalidStarterCardSideSelectionMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the player who has selected the invalid side of the starter card.
      */
@@ -51,6 +57,29 @@ public class InvalidStarterCardSideSelectionMessage implements StoCMessage {
         view.handleFailureCase(Event.SELECT_STARTER_CARD_SIDE_FAILURE,reason);
     }
 
+    /**
+     * Writes the content of the InvalidStarterCardSideSelectionMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeString(reason);
+    }
+
+    /**
+     * Reads a InvalidStarterCardSideSelectionMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static InvalidStarterCardSideSelectionMessage readFrom(WireInput in) throws IOException {
+        return new InvalidStarterCardSideSelectionMessage(
+            in.readString(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
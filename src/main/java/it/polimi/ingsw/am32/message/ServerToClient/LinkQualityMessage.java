@@ -0,0 +1,139 @@
+package it.polimi.ingsw.am32.message.ServerToClient;
+
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class is used to manage the message sent periodically by the server to all the players to report the quality of
+ * the connection of each player: the round trip time and the jitter measured by the heartbeats of the connection.
+ */
+public class LinkQualityMessage implements StoCMessage, WireMessage {
+    /**
+     * The nickname of the player who will receive the message.
+     */
+    private final String recipientNickname;
+    /**
+     * The nicknames of the players whose connection is reported.
+     */
+    private final ArrayList<String> playerNicknames;
+    /**
+     * The round trip time of the connection of each player, in microseconds, or -1 if it is not known.
+     */
+    private final long[] roundTripMicros;
+    /**
+     * The jitter of the connection of each player, in microseconds, or -1 if it is not known.
+     */
+    private final long[] jitterMicros;
+
+    /**
+     * The constructor of the class.
+     * @param recipientNickname the nickname of the player who will receive the message.
+     * @param playerNicknames the nicknames of the players whose connection is reported.
+     * @param roundTripMicros the round trip time of the connection of each player, in microseconds, or -1 if unknown.
+     * @param jitterMicros the jitter of the connection of each player, in microseconds, or -1 if unknown.
+     */
+    public LinkQualityMessage(String recipientNickname, ArrayList<String> playerNicknames, long[] roundTripMicros,
+                              long[] jitterMicros) {
+        this.recipientNickname = recipientNickname;
+        this.playerNicknames = playerNicknames;
+        this.roundTripMicros = roundTripMicros;
+        this.jitterMicros = jitterMicros;
+    }
+
+    /**
+     * This method is used to update the view with the quality of the connection of each player.
+     * @param view the view of the player who will receive the message.
+     */
+    @Override
+    public void processMessage(View view) {
+        view.updateLinkQuality(playerNicknames, roundTripMicros, jitterMicros);
+    }
+
+    /**
+     * This method is used to get the nickname of the recipient of the message.
+     * @return the nickname of the player who will receive the message.
+     */
+    @Override
+    public String getRecipientNickname() {
+        return recipientNickname;
+    }
+
+    /**
+     * Only the latest report is relevant to the client, so a queued report can be replaced by a newer one.
+     * @return the name of the class, used as coalescing key.
+     */
+    @Override
+    public String getCoalescingKey() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * The report is informative and is sent again periodically.
+     * @return {@link MessagePriority#CHAT}.
+     */
+    @Override
+    public MessagePriority getPriority() {
+        return MessagePriority.CHAT;
+    }
+
+    /**
+     * The report can be discarded, since a newer one will follow.
+     * @return true.
+     */
+    @Override
+    public boolean isDiscardable() {
+        return true;
+    }
+
+    /**
+     * Writes the content of the LinkQualityMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeStringList(playerNicknames);
+        out.writeLongArray(roundTripMicros);
+        out.writeLongArray(jitterMicros);
+    }
+
+    /**
+     * Reads a LinkQualityMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static LinkQualityMessage readFrom(WireInput in) throws IOException {
+        String recipientNickname = in.readString();
+        ArrayList<String> playerNicknames = in.readStringList();
+        long[] roundTripMicros = in.readLongArray();
+        long[] jitterMicros = in.readLongArray();
+        if (roundTripMicros.length != playerNicknames.size() || jitterMicros.length != playerNicknames.size())
+            throw new StreamCorruptedException("LinkQualityMessage reports " + playerNicknames.size() + " players");
+        return new LinkQualityMessage(recipientNickname, playerNicknames, roundTripMicros, jitterMicros);
+    }
+
+    /**
+     * This method overrides the default toString method.
+     * It provides a string representation of a message object, which can be useful for debugging purposes.
+     *
+     * @return A string representation of the LinkQualityMessage object.
+     */
+    @Override
+    public String toString() {
+        return "LinkQualityMessage:{" +
+                "recipientNickname='" + recipientNickname + '\'' +
+                ", playerNicknames=" + playerNicknames +
+                ", roundTripMicros=" + Arrays.toString(roundTripMicros) +
+                ", jitterMicros=" + Arrays.toString(jitterMicros) +
+                '}';
+    }
+}
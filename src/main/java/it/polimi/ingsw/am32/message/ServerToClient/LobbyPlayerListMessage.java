@@ -1,13 +1,18 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
  * This class is used to manage the message send to the players to notify them of the updated list of players in the lobby.
  */
-public class LobbyPlayerListMessage implements StoCMessage {
+public class LobbyPlayerListMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient.
      */
@@ -45,6 +50,38 @@ public class LobbyPlayerListMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Only the latest list of players in the lobby is relevant to the client, so a queued list can be replaced by a newer one.
+     * @return the name of the class, used as coalescing key.
+     */
+    @Override
+    public String getCoalescingKey() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Writes the content of the LobbyPlayerListMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeStringList(playerList);
+    }
+
+    /**
+     * Reads a LobbyPlayerListMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static LobbyPlayerListMessage readFrom(WireInput in) throws IOException {
+        return new LobbyPlayerListMessage(
+            in.readString(),
+            in.readStringList()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message send to the players notifying them of the game status.
  */
-public class MatchStatusMessage implements StoCMessage {
+public class MatchStatusMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the player that will receive the message.
      */
@@ -43,6 +49,29 @@ public class MatchStatusMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the MatchStatusMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeVarInt(matchStatus);
+    }
+
+    /**
+     * Reads a MatchStatusMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static MatchStatusMessage readFrom(WireInput in) throws IOException {
+        return new MatchStatusMessage(
+            in.readString(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -1,13 +1,18 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.ArrayList;
 
 /**
  * This class is used to manage the message send by the server to the players notifying them the winners of the match.
  */
-public class MatchWinnersMessage implements StoCMessage {
+public class MatchWinnersMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the player who will receive the message.
      */
@@ -71,6 +76,37 @@ public class MatchWinnersMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the MatchWinnersMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeStringList(players);
+        out.writeIntList(points);
+        out.writeIntList(secrets);
+        out.writeIntList(pointsGainedFromSecrets);
+        out.writeStringList(winners);
+    }
+
+    /**
+     * Reads a MatchWinnersMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static MatchWinnersMessage readFrom(WireInput in) throws IOException {
+        return new MatchWinnersMessage(
+            in.readString(),
+            in.readStringList(),
+            in.readIntList(),
+            in.readIntList(),
+            in.readIntList(),
+            in.readStringList()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
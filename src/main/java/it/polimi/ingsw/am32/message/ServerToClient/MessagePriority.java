@@ -0,0 +1,44 @@
+package it.polimi.ingsw.am32.message.ServerToClient;
+
+/**
+ * This enum represents the priority classes of the messages sent from the server to the client.
+ * Messages of different classes are delivered with weighted fairness: for each round, up to {@link #getWeight()}
+ * messages of each class are delivered. Messages of the same class are always delivered in order.
+ */
+public enum MessagePriority {
+    /**
+     * Messages that drive the game forward and that the player could be waiting for, such as turn changes and
+     * confirmations of the player's actions.
+     */
+    GAME_CRITICAL(4),
+    /**
+     * Messages that update the client about the state of other players, whose delivery can be delayed without
+     * affecting the game.
+     */
+    STATE_UPDATE(2),
+    /**
+     * Chat and cosmetic messages.
+     */
+    CHAT(1);
+
+    /**
+     * The maximum number of messages of this class delivered for each round.
+     */
+    private final int weight;
+
+    /**
+     * Constructor for the MessagePriority enum.
+     * @param weight the maximum number of messages of this class delivered for each round.
+     */
+    MessagePriority(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Gets the maximum number of messages of this class delivered for each round.
+     * @return the weight of the priority class.
+     */
+    public int getWeight() {
+        return weight;
+    }
+}
@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent to the player who requested the field of another player to notify him that the field could not be fetched (used for testing only).
  */
-public class NegativeResponsePlayerFieldMessage implements StoCMessage{
+public class NegativeResponsePlayerFieldMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient.
      */
@@ -43,6 +49,38 @@ public class NegativeResponsePlayerFieldMessage implements StoCMessage{
         return recipientNickname;
     }
 
+    /**
+     * The field of another player is only shown to the player, it does not affect the game.
+     * @return the priority class of the message.
+     */
+    @Override
+    public MessagePriority getPriority() {
+        return MessagePriority.STATE_UPDATE;
+    }
+
+    /**
+     * Writes the content of the NegativeResponsePlayerFieldMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeString(playerNickname);
+    }
+
+    /**
+     * Reads a NegativeResponsePlayerFieldMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static NegativeResponsePlayerFieldMessage readFrom(WireInput in) throws IOException {
+        return new NegativeResponsePlayerFieldMessage(
+            in.readString(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
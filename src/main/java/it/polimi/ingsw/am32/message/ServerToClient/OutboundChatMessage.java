@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent from the server to the players notifying them of a new chat message.
  */
-public class OutboundChatMessage implements StoCMessage {
+public class OutboundChatMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient of the chat message.
      */
@@ -49,6 +55,49 @@ public class OutboundChatMessage implements StoCMessage {
         return recipientString;
     }
 
+    /**
+     * Chat messages are delivered with the lowest priority.
+     * @return the priority class of the message.
+     */
+    @Override
+    public MessagePriority getPriority() {
+        return MessagePriority.CHAT;
+    }
+
+    /**
+     * Chat messages can be discarded when the outbound queue of the recipient is full, as they do not carry game state.
+     * @return always true.
+     */
+    @Override
+    public boolean isDiscardable() {
+        return true;
+    }
+
+    /**
+     * Writes the content of the OutboundChatMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientString);
+        out.writeString(senderNickname);
+        out.writeString(content);
+    }
+
+    /**
+     * Reads a OutboundChatMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static OutboundChatMessage readFrom(WireInput in) throws IOException {
+        return new OutboundChatMessage(
+            in.readString(),
+            in.readString(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
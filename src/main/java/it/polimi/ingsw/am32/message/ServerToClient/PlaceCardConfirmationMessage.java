@@ -1,7 +1,12 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.stream.Collectors;
@@ -9,7 +14,7 @@ import java.util.stream.Collectors;
 /**
  * This class is used to manage the message sent from the server to the players notifying them that a player has placed a card.
  */
-public class PlaceCardConfirmationMessage implements StoCMessage {
+public class PlaceCardConfirmationMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient.
      */
@@ -86,6 +91,41 @@ public class PlaceCardConfirmationMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the PlaceCardConfirmationMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeString(playerNickname);
+        out.writeVarInt(placedCard);
+        out.writeIntArray(placedCardCoordinates);
+        out.writeBoolean(placedSide);
+        out.writeVarInt(playerPoints);
+        out.writeIntArray(playerResources);
+        out.writeIntArrayList(newAvailableFieldSpaces);
+    }
+
+    /**
+     * Reads a PlaceCardConfirmationMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static PlaceCardConfirmationMessage readFrom(WireInput in) throws IOException {
+        return new PlaceCardConfirmationMessage(
+            in.readString(),
+            in.readString(),
+            in.readVarInt(),
+            in.readIntArray(),
+            in.readBoolean(),
+            in.readVarInt(),
+            in.readIntArray(),
+            in.readIntArrayList()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -1,13 +1,18 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.Arrays;
 
 /**
  * This class is used to manage the message sent to all the players, notifying them that a player has placed a card and disconnected.
  */
-public class PlaceCardRollbackMessage implements StoCMessage{
+public class PlaceCardRollbackMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who will receive the message.
      */
@@ -66,6 +71,35 @@ public class PlaceCardRollbackMessage implements StoCMessage{
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the PlaceCardRollbackMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeString(playerNickname);
+        out.writeVarInt(removedCard);
+        out.writeVarInt(playerPoints);
+        out.writeIntArray(playerResources);
+    }
+
+    /**
+     * Reads a PlaceCardRollbackMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static PlaceCardRollbackMessage readFrom(WireInput in) throws IOException {
+        return new PlaceCardRollbackMessage(
+            in.readString(),
+            in.readString(),
+            in.readVarInt(),
+            in.readVarInt(),
+            in.readIntArray()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -2,11 +2,17 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent to notify players that a new player has joined the game during the lobby phase.
  */
-public class PlayerConnectedMessage implements StoCMessage {
+public class PlayerConnectedMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the player that will receive the message.
      */
@@ -44,6 +50,29 @@ public class PlayerConnectedMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the PlayerConnectedMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeString(connectedNickname);
+    }
+
+    /**
+     * Reads a PlayerConnectedMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static PlayerConnectedMessage readFrom(WireInput in) throws IOException {
+        return new PlayerConnectedMessage(
+            in.readString(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -1,7 +1,12 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.stream.Collectors;
@@ -9,7 +14,7 @@ import java.util.stream.Collectors;
 /**
  * This class is used to manage the message sent to notify the player of the game status
  */
-public class PlayerGameStatusMessage implements StoCMessage {
+public class PlayerGameStatusMessage implements StoCMessage, WireMessage {
     /**
      * Nickname of the recipient of the message
      */
@@ -190,6 +195,71 @@ public class PlayerGameStatusMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the PlayerGameStatusMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeStringList(playerNicknames);
+        out.writeBooleanList(playerConnected);
+        out.writeIntList(playerColours);
+        out.writeIntList(playerHand);
+        out.writeIntList(playerAssignedSecretObjectiveCards);
+        out.writeVarInt(playerStartingCard);
+        out.writeVarInt(playerSecretObjective);
+        out.writeIntArray(playerPoints);
+        out.writeIntArrayList(playersResourcesSummary);
+        out.writeIntArrayListList(playerFields);
+        out.writeIntArray(playerResources);
+        out.writeIntList(gameCommonObjectives);
+        out.writeIntList(gameCurrentResourceCards);
+        out.writeIntList(gameCurrentGoldCards);
+        out.writeVarInt(gameResourcesDeckSize);
+        out.writeVarInt(gameGoldDeckSize);
+        out.writeVarInt(matchStatus);
+        out.writeStringArrayList(chatHistory);
+        out.writeString(currentPlayer);
+        out.writeIntArrayList(newAvailableFieldSpaces);
+        out.writeVarInt(resourceCardDeckFacingKingdom);
+        out.writeVarInt(goldCardDeckFacingKingdom);
+    }
+
+    /**
+     * Reads a PlayerGameStatusMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static PlayerGameStatusMessage readFrom(WireInput in) throws IOException {
+        return new PlayerGameStatusMessage(
+            in.readString(),
+            in.readStringList(),
+            in.readBooleanList(),
+            in.readIntList(),
+            in.readIntList(),
+            in.readIntList(),
+            in.readVarInt(),
+            in.readVarInt(),
+            in.readIntArray(),
+            in.readIntArrayList(),
+            in.readIntArrayListList(),
+            in.readIntArray(),
+            in.readIntList(),
+            in.readIntList(),
+            in.readIntList(),
+            in.readVarInt(),
+            in.readVarInt(),
+            in.readVarInt(),
+            in.readStringArrayList(),
+            in.readString(),
+            in.readIntArrayList(),
+            in.readVarInt(),
+            in.readVarInt()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -1,11 +1,17 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent to notify players of whose turn it is
  */
-public class PlayerTurnMessage implements StoCMessage {
+public class PlayerTurnMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who requested to access the game before.
      */
@@ -46,6 +52,38 @@ public class PlayerTurnMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Only the latest current player is relevant to the client, so a queued notification can be replaced by a newer one.
+     * @return the name of the class, used as coalescing key.
+     */
+    @Override
+    public String getCoalescingKey() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Writes the content of the PlayerTurnMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeString(playerNickname);
+    }
+
+    /**
+     * Reads a PlayerTurnMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static PlayerTurnMessage readFrom(WireInput in) throws IOException {
+        return new PlayerTurnMessage(
+            in.readString(),
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -1,22 +1,45 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
- * This class is used to manage the message sent to notify the client that a ping has been received.
+ * This class is used to manage the message sent to notify the client that a ping has been received. <br>
+ * Any message received by the client counts as a heartbeat, so the server sends a pong only when it has nothing else to
+ * send, or when it wants to measure the round trip time of the connection: in this case the pong is a probe carrying a
+ * timestamp, which the client echoes back at once in a {@link it.polimi.ingsw.am32.message.ClientToServer.PingMessage}.
  */
-public class PongMessage implements StoCMessage {
+public class PongMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who sent the ping.
      */
     private final String recipientNickname;
+    /**
+     * The timestamp of the probe, or 0 if the pong is not a probe.
+     */
+    private final long timestamp;
 
     /**
      * The constructor of the class: it creates a new PongMessage with the nickname of the recipient who sent the ping.
      * @param recipientNickname the nickname of the player who will receive the pong message.
      */
     public PongMessage(String recipientNickname) {
+        this(recipientNickname, 0);
+    }
+
+    /**
+     * The constructor of the class: it creates a new PongMessage that probes the round trip time of the connection.
+     * @param recipientNickname the nickname of the player who will receive the pong message.
+     * @param timestamp the timestamp of the probe, to be echoed by the client, or 0 if the pong is not a probe.
+     */
+    public PongMessage(String recipientNickname, long timestamp) {
         this.recipientNickname = recipientNickname;
+        this.timestamp = timestamp;
     }
 
     /**
@@ -25,7 +48,7 @@ public class PongMessage implements StoCMessage {
      */
     @Override
     public void processMessage(View view) {
-        // TODO
+        // Nothing to show: probes are answered by the client node
     }
 
     /**
@@ -37,6 +60,36 @@ public class PongMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * This method is used to get the timestamp of the probe.
+     * @return the timestamp to be echoed by the client, or 0 if the pong is not a probe.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Writes the content of the PongMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeVarLong(timestamp);
+    }
+
+    /**
+     * Reads a PongMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static PongMessage readFrom(WireInput in) throws IOException {
+        String recipientNickname = in.readString();
+        long timestamp = in.getVersion() >= 2 ? in.readVarLong() : 0;
+        return new PongMessage(recipientNickname, timestamp);
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -47,6 +100,7 @@ public class PongMessage implements StoCMessage {
     public String toString() {
         return "PongMessage:{" +
                 "recipientNickname='" + recipientNickname + '\'' +
+                ", timestamp=" + timestamp +
                 '}';
     }
 }
@@ -2,12 +2,18 @@ package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.Event;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
 
 /**
  * This class is used to manage the message sent by the server to the client to confirm the reconnection to the game.
  *
  **/
-public class ReconnectGameConfirmMessage implements StoCMessage {
+public class ReconnectGameConfirmMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient who requested to reconnect to the game before.
      */
@@ -42,6 +48,27 @@ public class ReconnectGameConfirmMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * Writes the content of the ReconnectGameConfirmMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+    }
+
+    /**
+     * Reads a ReconnectGameConfirmMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static ReconnectGameConfirmMessage readFrom(WireInput in) throws IOException {
+        return new ReconnectGameConfirmMessage(
+            in.readString()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -1,6 +1,11 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.stream.Collectors;
@@ -8,7 +13,7 @@ import java.util.stream.Collectors;
 /**
  * This class is used to manage the message sent to the player who requested the field of another player (used for testing only).
  */
-public class ResponsePlayerFieldMessage implements StoCMessage {
+public class ResponsePlayerFieldMessage implements StoCMessage, WireMessage {
     /**
      * The nickname of the recipient.
      */
@@ -59,6 +64,42 @@ public class ResponsePlayerFieldMessage implements StoCMessage {
         return recipientNickname;
     }
 
+    /**
+     * The field of another player is only shown to the player, it does not affect the game.
+     * @return the priority class of the message.
+     */
+    @Override
+    public MessagePriority getPriority() {
+        return MessagePriority.STATE_UPDATE;
+    }
+
+    /**
+     * Writes the content of the ResponsePlayerFieldMessage in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeString(playerNickname);
+        out.writeIntArrayList(playerField);
+        out.writeIntArray(playerResources);
+    }
+
+    /**
+     * Reads a ResponsePlayerFieldMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static ResponsePlayerFieldMessage readFrom(WireInput in) throws IOException {
+        return new ResponsePlayerFieldMessage(
+            in.readString(),
+            in.readString(),
+            in.readIntArrayList(),
+            in.readIntArray()
+        );
+    }
+
     /**
      * This method overrides the default toString method.
      * It provides a string representation of a message object, which can be useful for debugging purposes.
@@ -0,0 +1,184 @@
+package it.polimi.ingsw.am32.message.ServerToClient;
+
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+/**
+ * This class is used to attach to a message its position in the event log of the game. <br>
+ * Sequence numbers are assigned by the server in increasing order, and the client keeps track of the last sequence
+ * number applied for each {@link MessagePriority}: when reconnecting, the client sends them back so that the server
+ * can deliver only the missed messages instead of the full status of the game. <br>
+ * The epoch identifies the event log that assigned the sequence numbers: sequence numbers of different epochs cannot
+ * be compared.
+ */
+public class SequencedMessage implements StoCMessage, WireMessage {
+    /**
+     * The epoch of the event log that assigned the sequence number.
+     */
+    private final long epoch;
+    /**
+     * The sequence number of the message in the event log.
+     */
+    private final long sequence;
+    /**
+     * True if the message contains the full status of the game, false otherwise.
+     */
+    private final boolean snapshot;
+    /**
+     * The message to be delivered.
+     */
+    private final StoCMessage message;
+
+    /**
+     * The constructor of the class.
+     * @param epoch the epoch of the event log that assigned the sequence number.
+     * @param sequence the sequence number of the message in the event log.
+     * @param snapshot true if the message contains the full status of the game, false otherwise.
+     * @param message the message to be delivered.
+     */
+    public SequencedMessage(long epoch, long sequence, boolean snapshot, StoCMessage message) {
+        this.epoch = epoch;
+        this.sequence = sequence;
+        this.snapshot = snapshot;
+        this.message = message;
+    }
+
+    /**
+     * This method is used to process the message, unless the client has already applied it.
+     * @param view the view of the player who will receive the message.
+     */
+    @Override
+    public void processMessage(View view) {
+        if (view.acknowledgeSequence(epoch, getPriority(), sequence, snapshot)) {
+            message.processMessage(view);
+        }
+    }
+
+    /**
+     * This method is used to get the nickname of the recipient of the message.
+     * @return the nickname of the player who will receive the message.
+     */
+    @Override
+    public String getRecipientNickname() {
+        return message.getRecipientNickname();
+    }
+
+    /**
+     * Returns the priority class of the sequenced message.
+     * @return the priority class of the contained message.
+     */
+    @Override
+    public MessagePriority getPriority() {
+        return message.getPriority();
+    }
+
+    /**
+     * Returns the coalescing key of the sequenced message.
+     * @return the coalescing key of the contained message.
+     */
+    @Override
+    public String getCoalescingKey() {
+        return message.getCoalescingKey();
+    }
+
+    /**
+     * Returns whether the sequenced message can be discarded.
+     * @return true if the contained message can be discarded, false otherwise.
+     */
+    @Override
+    public boolean isDiscardable() {
+        return message.isDiscardable();
+    }
+
+    /**
+     * Returns the type of the sequenced message.
+     * @return the type of the contained message.
+     */
+    @Override
+    public String getMessageType() {
+        return message.getMessageType();
+    }
+
+    /**
+     * Returns the request id echoed by the sequenced message.
+     * @return the request id of the contained message.
+     */
+    @Override
+    public int getRequestId() {
+        return message.getRequestId();
+    }
+
+    /**
+     * This method is used to get the epoch of the event log that assigned the sequence number.
+     * @return the epoch of the event log.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * This method is used to get the sequence number of the message.
+     * @return the sequence number of the message in the event log.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * This method is used to get the message to be delivered.
+     * @return the sequenced message.
+     */
+    public StoCMessage getMessage() {
+        return message;
+    }
+
+    /**
+     * Writes the content of the SequencedMessage in the compact binary format of the {@link BinaryMessageCodec},
+     * followed by the sequenced message preceded by its own type id.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeVarLong(epoch);
+        out.writeVarLong(sequence);
+        out.writeBoolean(snapshot);
+        out.writeMessage(message);
+    }
+
+    /**
+     * Reads a SequencedMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static SequencedMessage readFrom(WireInput in) throws IOException {
+        long epoch = in.readVarLong();
+        long sequence = in.readVarLong();
+        boolean snapshot = in.readBoolean();
+        if (!(in.readMessage() instanceof StoCMessage message))
+            throw new StreamCorruptedException("SequencedMessage does not contain a StoCMessage");
+        return new SequencedMessage(epoch, sequence, snapshot, message);
+    }
+
+    /**
+     * This method overrides the default toString method.
+     * It provides a string representation of a message object, which can be useful for debugging purposes.
+     *
+     * @return A string representation of the SequencedMessage object.
+     */
+    @Override
+    public String toString() {
+        return "SequencedMessage:{" +
+                "epoch=" + epoch +
+                ", sequence=" + sequence +
+                ", snapshot=" + snapshot +
+                ", message=" + message +
+                '}';
+    }
+}
@@ -1,6 +1,7 @@
 package it.polimi.ingsw.am32.message.ServerToClient;
 
 import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSMessage;
 
 import java.io.Serializable;
 
@@ -22,6 +23,52 @@ public interface StoCMessage extends Serializable {
      * @return the recipient's nickname of the message.
      */
     String getRecipientNickname();
+
+    /**
+     * Gets the coalescing key of the message.
+     * Messages carrying the latest value of the same piece of state share the same key: when the outbound queue of a
+     * player is full, a queued message can be replaced by a newer message with the same key.
+     * @return the coalescing key of the message, or null if the message cannot be coalesced.
+     */
+    default String getCoalescingKey() {
+        return null;
+    }
+
+    /**
+     * Gets the priority class of the message, used to schedule the delivery of the messages queued for a player.
+     * @return the priority class of the message.
+     */
+    default MessagePriority getPriority() {
+        return MessagePriority.GAME_CRITICAL;
+    }
+
+    /**
+     * Returns whether the message can be discarded when the outbound queue of a player is full.
+     * @return true if the message can be discarded without compromising the state of the client, false otherwise.
+     */
+    default boolean isDiscardable() {
+        return false;
+    }
+
+    /**
+     * Gets the request id of the client request this message responds to.
+     * @return the request id echoed by the message, or {@link CtoSMessage#NO_REQUEST_ID}
+     * if the message is not the response to a correlated request.
+     * @see CorrelatedResponseMessage
+     */
+    default int getRequestId() {
+        return CtoSMessage.NO_REQUEST_ID;
+    }
+
+    /**
+     * Gets the type of the message, used to group the latency measurements of the messages of the same kind.
+     * Messages wrapping another message return the type of the wrapped one.
+     * @return the simple name of the class of the message.
+     */
+    default String getMessageType() {
+        return getClass().getSimpleName();
+    }
+
     /**
      * This method provides a string representation of a message object, which can be useful for debugging purposes.
      * It will be overridden by the classes that implement the StoCMessage interface.
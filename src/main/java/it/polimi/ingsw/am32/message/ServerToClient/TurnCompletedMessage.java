@@ -0,0 +1,114 @@
+package it.polimi.ingsw.am32.message.ServerToClient;
+
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.WireInput;
+import it.polimi.ingsw.am32.message.codec.WireMessage;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+
+/**
+ * This class is used to deliver, in a single message, all the updates that all the players receive at the end of a
+ * turn played with a {@link it.polimi.ingsw.am32.message.ClientToServer.PlaceAndDrawCardMessage}: the confirmation of
+ * the placement, the new content of the decks, the new status of the match and the next player. <br>
+ * The updates are processed in the order in which they were produced by the server, as if they were received one by one.
+ */
+public class TurnCompletedMessage implements StoCMessage, WireMessage {
+    /**
+     * The nickname of the player who will receive the message.
+     */
+    private final String recipientNickname;
+    /**
+     * The updates produced by the turn, in the order in which they have to be processed.
+     */
+    private final ArrayList<StoCMessage> messages;
+
+    /**
+     * The constructor of the class.
+     * @param recipientNickname the nickname of the player who will receive the message.
+     * @param messages the updates produced by the turn, all addressed to the same recipient of this message.
+     */
+    public TurnCompletedMessage(String recipientNickname, ArrayList<StoCMessage> messages) {
+        this.recipientNickname = recipientNickname;
+        this.messages = messages;
+    }
+
+    /**
+     * This method is used to process, in order, all the updates produced by the turn.
+     * @param view the view of the player who will receive the message.
+     */
+    @Override
+    public void processMessage(View view) {
+        for (StoCMessage message : messages) {
+            message.processMessage(view);
+        }
+    }
+
+    /**
+     * This method is used to get the nickname of the recipient of the message.
+     * @return the nickname of the player who will receive the message.
+     */
+    @Override
+    public String getRecipientNickname() {
+        return recipientNickname;
+    }
+
+    /**
+     * This method is used to get the updates produced by the turn.
+     * @return the updates contained in the message.
+     */
+    public ArrayList<StoCMessage> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Writes the content of the TurnCompletedMessage in the compact binary format of the {@link BinaryMessageCodec}:
+     * the recipient, followed by the number of updates and by each update preceded by its own type id.
+     * @param out the output the message is written to.
+     */
+    @Override
+    public void writeTo(WireOutput out) {
+        out.writeString(recipientNickname);
+        out.writeUnsignedVarInt(messages.size());
+        for (StoCMessage message : messages) {
+            out.writeMessage(message);
+        }
+    }
+
+    /**
+     * Reads a TurnCompletedMessage written by {@link #writeTo(WireOutput)}.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public static TurnCompletedMessage readFrom(WireInput in) throws IOException {
+        String recipientNickname = in.readString();
+        int count = in.readUnsignedVarInt();
+        if (count < 0 || count > in.remaining())
+            throw new StreamCorruptedException("TurnCompletedMessage declares " + count + " updates");
+        ArrayList<StoCMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (!(in.readMessage() instanceof StoCMessage message))
+                throw new StreamCorruptedException("TurnCompletedMessage does not contain a StoCMessage");
+            messages.add(message);
+        }
+        return new TurnCompletedMessage(recipientNickname, messages);
+    }
+
+    /**
+     * This method overrides the default toString method.
+     * It provides a string representation of a message object, which can be useful for debugging purposes.
+     *
+     * @return A string representation of the TurnCompletedMessage object.
+     */
+    @Override
+    public String toString() {
+        return "TurnCompletedMessage:{" +
+                "recipientNickname='" + recipientNickname + '\'' +
+                ", messages=" + messages +
+                '}';
+    }
+}
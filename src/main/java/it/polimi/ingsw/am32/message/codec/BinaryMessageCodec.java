@@ -0,0 +1,127 @@
+package it.polimi.ingsw.am32.message.codec;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+
+/**
+ * This class encodes the messages exchanged between clients and server in a compact binary format, as an alternative
+ * to Java object serialization. <br>
+ * An encoded message is made of the version of the codec, the type id of the message (see {@link MessageType}) and the
+ * content written by the message itself (see {@link WireMessage}). No class descriptor is written, integers are written
+ * as varints and no object is boxed, so that messages are several times smaller and faster to encode than with
+ * {@link java.io.ObjectOutputStream}. <br>
+ * The codec does not delimit messages: framing is left to the transport.
+ */
+public class BinaryMessageCodec {
+    /**
+     * The version of the format written by the codec. Messages written by older versions can still be decoded, since
+     * each message can check {@link WireInput#getVersion()} while reading its content. <br>
+     * Version 2 adds the round trip timestamps to pings and pongs.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Private constructor: the class only has static methods.
+     */
+    private BinaryMessageCodec() {}
+
+    /**
+     * Encodes a message.
+     * @param message the message to encode.
+     * @return the encoded message.
+     * @throws IllegalArgumentException if the message is not supported by the codec.
+     */
+    public static byte[] encode(Object message) {
+        WireOutput out = new WireOutput();
+        encode(message, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a message, appending it to the given output. Reusing the same output for several messages avoids
+     * allocating a new buffer for each of them.
+     * @param message the message to encode.
+     * @param out the output the message is appended to.
+     * @throws IllegalArgumentException if the message is not supported by the codec.
+     */
+    public static void encode(Object message, WireOutput out) {
+        out.writeByte(VERSION);
+        writeMessage(message, out);
+    }
+
+    /**
+     * Decodes a message.
+     * @param encodedMessage the encoded message.
+     * @return the decoded message.
+     * @throws IOException if the bytes do not contain a valid message.
+     */
+    public static Object decode(byte[] encodedMessage) throws IOException {
+        return decode(encodedMessage, 0, encodedMessage.length);
+    }
+
+    /**
+     * Decodes a message contained in a portion of an array.
+     * @param buffer the array containing the encoded message.
+     * @param offset the position of the encoded message in the array.
+     * @param length the length of the encoded message.
+     * @return the decoded message.
+     * @throws IOException if the bytes do not contain a valid message, or the message was written by a newer version
+     * of the codec.
+     */
+    public static Object decode(byte[] buffer, int offset, int length) throws IOException {
+        if (length < 1)
+            throw new StreamCorruptedException("Empty message");
+        int version = buffer[offset] & 0xFF;
+        if (version < 1 || version > VERSION)
+            throw new StreamCorruptedException("Unsupported codec version: " + version);
+
+        WireInput in = new WireInput(buffer, offset + 1, length - 1, version, null);
+        Object message = in.readMessage();
+        if (in.remaining() != 0)
+            throw new StreamCorruptedException(in.remaining() + " trailing bytes after " + message.getClass().getSimpleName());
+        return message;
+    }
+
+    /**
+     * Writes a message preceded by its type id, without the version of the codec.
+     * @param message the message to write.
+     * @param out the output the message is written to.
+     * @throws IllegalArgumentException if the message is not supported by the codec.
+     */
+    static void writeMessage(Object message, WireOutput out) {
+        MessageType type = message == null ? null : MessageType.fromClass(message.getClass());
+        if (type == null || !(message instanceof WireMessage wireMessage))
+            throw new IllegalArgumentException("Message not supported by the binary codec: " + (message == null ? null : message.getClass().getName()));
+
+        out.writeUnsignedVarInt(type.getId());
+        wireMessage.writeTo(out);
+    }
+
+    /**
+     * Encodes a message without the version of the codec, so that it can be embedded in other messages.
+     * @param message the message to encode.
+     * @return the encoded message, starting with its type id.
+     */
+    public static byte[] encodeEmbedded(Object message) {
+        WireOutput out = new WireOutput();
+        writeMessage(message, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a message encoded by {@link #encodeEmbedded(Object)}, replacing the template recipient of broadcast
+     * messages with the given nickname.
+     * @param embeddedMessage the encoded message.
+     * @param version the version of the codec of the enclosing message.
+     * @param templateRecipient the nickname that replaces the template recipient.
+     * @return the decoded message.
+     * @throws IOException if the bytes do not contain a valid message.
+     */
+    public static Object decodeEmbedded(byte[] embeddedMessage, int version, String templateRecipient) throws IOException {
+        WireInput in = new WireInput(embeddedMessage, 0, embeddedMessage.length, version, templateRecipient);
+        Object message = in.readMessage();
+        if (in.remaining() != 0)
+            throw new StreamCorruptedException(in.remaining() + " trailing bytes after " + message.getClass().getSimpleName());
+        return message;
+    }
+}
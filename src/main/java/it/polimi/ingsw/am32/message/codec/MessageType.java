@@ -0,0 +1,144 @@
+package it.polimi.ingsw.am32.message.codec;
+
+import it.polimi.ingsw.am32.message.ClientToServer.*;
+import it.polimi.ingsw.am32.message.ServerToClient.*;
+
+import java.io.StreamCorruptedException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The MessageType enum assigns a numeric type id to each message supported by the {@link BinaryMessageCodec}, and
+ * associates it with the method that reads the message. <br>
+ * Type ids are part of the wire format: they must never be changed or reused, and new messages must be given new ids.
+ * Client to server messages use ids from 1 to 31, server to client messages ids from 32 onwards.
+ */
+public enum MessageType {
+    PING(1, PingMessage.class, PingMessage::readFrom),
+    NEW_GAME(2, NewGameMessage.class, NewGameMessage::readFrom),
+    ACCESS_GAME(3, AccessGameMessage.class, AccessGameMessage::readFrom),
+    RECONNECT_GAME(4, ReconnectGameMessage.class, ReconnectGameMessage::readFrom),
+    SELECTED_STARTER_CARD_SIDE(5, SelectedStarterCardSideMessage.class, SelectedStarterCardSideMessage::readFrom),
+    SELECTED_SECRET_OBJECTIVE_CARD(6, SelectedSecretObjectiveCardMessage.class, SelectedSecretObjectiveCardMessage::readFrom),
+    PLACE_CARD(7, PlaceCardMessage.class, PlaceCardMessage::readFrom),
+    DRAW_CARD(8, DrawCardMessage.class, DrawCardMessage::readFrom),
+    INBOUND_CHAT(9, InboundChatMessage.class, InboundChatMessage::readFrom),
+    REQUEST_GAME_STATUS(10, RequestGameStatusMessage.class, RequestGameStatusMessage::readFrom),
+    REQUEST_PLAYER_FIELD(11, RequestPlayerFieldMessage.class, RequestPlayerFieldMessage::readFrom),
+    PLACE_AND_DRAW_CARD(12, PlaceAndDrawCardMessage.class, PlaceAndDrawCardMessage::readFrom),
+    CORRELATED_REQUEST(13, CorrelatedRequestMessage.class, CorrelatedRequestMessage::readFrom),
+    PONG(32, PongMessage.class, PongMessage::readFrom),
+    ERROR(33, ErrorMessage.class, ErrorMessage::readFrom),
+    NEW_GAME_CONFIRMATION(34, NewGameConfirmationMessage.class, NewGameConfirmationMessage::readFrom),
+    ACCESS_GAME_CONFIRM(35, AccessGameConfirmMessage.class, AccessGameConfirmMessage::readFrom),
+    RECONNECT_GAME_CONFIRM(36, ReconnectGameConfirmMessage.class, ReconnectGameConfirmMessage::readFrom),
+    LOBBY_PLAYER_LIST(37, LobbyPlayerListMessage.class, LobbyPlayerListMessage::readFrom),
+    GAME_STARTED(38, GameStartedMessage.class, GameStartedMessage::readFrom),
+    MATCH_STATUS(39, MatchStatusMessage.class, MatchStatusMessage::readFrom),
+    ASSIGNED_STARTER_CARD(40, AssignedStarterCardMessage.class, AssignedStarterCardMessage::readFrom),
+    CONFIRM_STARTER_CARD_SIDE_SELECTION(41, ConfirmStarterCardSideSelectionMessage.class, ConfirmStarterCardSideSelectionMessage::readFrom),
+    INVALID_STARTER_CARD_SIDE_SELECTION(42, InvalidStarterCardSideSelectionMessage.class, InvalidStarterCardSideSelectionMessage::readFrom),
+    ASSIGNED_SECRET_OBJECTIVE_CARD(43, AssignedSecretObjectiveCardMessage.class, AssignedSecretObjectiveCardMessage::readFrom),
+    CONFIRM_SELECTED_SECRET_OBJECTIVE_CARD(44, ConfirmSelectedSecretObjectiveCardMessage.class, ConfirmSelectedSecretObjectiveCardMessage::readFrom),
+    INVALID_SELECTED_SECRET_OBJECTIVE_CARD(45, InvalidSelectedSecretObjectiveCardMessage.class, InvalidSelectedSecretObjectiveCardMessage::readFrom),
+    PLAYER_TURN(46, PlayerTurnMessage.class, PlayerTurnMessage::readFrom),
+    PLACE_CARD_CONFIRMATION(47, PlaceCardConfirmationMessage.class, PlaceCardConfirmationMessage::readFrom),
+    PLACE_CARD_FAILED(48, PlaceCardFailedMessage.class, PlaceCardFailedMessage::readFrom),
+    PLACE_CARD_ROLLBACK(49, PlaceCardRollbackMessage.class, PlaceCardRollbackMessage::readFrom),
+    DRAW_CARD_CONFIRMATION(50, DrawCardConfirmationMessage.class, DrawCardConfirmationMessage::readFrom),
+    DRAW_CARD_FAILED(51, DrawCardFailedMessage.class, DrawCardFailedMessage::readFrom),
+    DECK_SIZE_UPDATE(52, DeckSizeUpdateMessage.class, DeckSizeUpdateMessage::readFrom),
+    OUTBOUND_CHAT(53, OutboundChatMessage.class, OutboundChatMessage::readFrom),
+    INVALID_INBOUND_CHAT(54, InvalidInboundChatMessage.class, InvalidInboundChatMessage::readFrom),
+    RESPONSE_PLAYER_FIELD(55, ResponsePlayerFieldMessage.class, ResponsePlayerFieldMessage::readFrom),
+    NEGATIVE_RESPONSE_PLAYER_FIELD(56, NegativeResponsePlayerFieldMessage.class, NegativeResponsePlayerFieldMessage::readFrom),
+    PLAYER_GAME_STATUS(57, PlayerGameStatusMessage.class, PlayerGameStatusMessage::readFrom),
+    PLAYER_CONNECTED(58, PlayerConnectedMessage.class, PlayerConnectedMessage::readFrom),
+    PLAYER_DISCONNECT(59, PlayerDisconnectMessage.class, PlayerDisconnectMessage::readFrom),
+    PLAYER_RECONNECTED(60, PlayerReconnectedMessage.class, PlayerReconnectedMessage::readFrom),
+    MATCH_WINNERS(61, MatchWinnersMessage.class, MatchWinnersMessage::readFrom),
+    SEQUENCED(62, SequencedMessage.class, SequencedMessage::readFrom),
+    BROADCAST_ENVELOPE(63, BroadcastEnvelopeMessage.class, BroadcastEnvelopeMessage::readFrom),
+    TURN_COMPLETED(64, TurnCompletedMessage.class, TurnCompletedMessage::readFrom),
+    CORRELATED_RESPONSE(65, CorrelatedResponseMessage.class, CorrelatedResponseMessage::readFrom),
+    LINK_QUALITY(66, LinkQualityMessage.class, LinkQualityMessage::readFrom);
+
+    /**
+     * The message types indexed by type id.
+     */
+    private static final Map<Integer, MessageType> BY_ID = new HashMap<>();
+    /**
+     * The message types indexed by message class.
+     */
+    private static final Map<Class<?>, MessageType> BY_CLASS = new HashMap<>();
+
+    static {
+        for (MessageType type : values()) {
+            BY_ID.put(type.id, type);
+            BY_CLASS.put(type.messageClass, type);
+        }
+    }
+
+    /**
+     * The type id written before the content of the message.
+     */
+    private final int id;
+    /**
+     * The class of the message.
+     */
+    private final Class<?> messageClass;
+    /**
+     * The method that reads the content of the message.
+     */
+    private final WireReader reader;
+
+    /**
+     * Constructor of the enum.
+     * @param id the type id of the message.
+     * @param messageClass the class of the message.
+     * @param reader the method that reads the content of the message.
+     */
+    MessageType(int id, Class<?> messageClass, WireReader reader) {
+        this.id = id;
+        this.messageClass = messageClass;
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the message type with the given type id.
+     * @param id the type id.
+     * @return the message type.
+     * @throws StreamCorruptedException if no message type has the given id.
+     */
+    public static MessageType fromId(int id) throws StreamCorruptedException {
+        MessageType type = BY_ID.get(id);
+        if (type == null)
+            throw new StreamCorruptedException("Unknown message type id: " + id);
+        return type;
+    }
+
+    /**
+     * Returns the message type of the given message class.
+     * @param messageClass the class of the message.
+     * @return the message type, or null if the class is not supported by the codec.
+     */
+    public static MessageType fromClass(Class<?> messageClass) {
+        return BY_CLASS.get(messageClass);
+    }
+
+    /**
+     * Getter
+     * @return the type id of the message.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Getter
+     * @return the method that reads the content of the message.
+     */
+    public WireReader getReader() {
+        return reader;
+    }
+}
@@ -0,0 +1,325 @@
+package it.polimi.ingsw.am32.message.codec;
+
+import it.polimi.ingsw.am32.message.ServerToClient.BroadcastEnvelopeMessage;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * This class reads messages written in the compact binary format of the {@link BinaryMessageCodec}. <br>
+ * Every length read is checked against the bytes left in the input before allocating anything, so that a malformed or
+ * malicious frame cannot make the reader allocate more memory than the size of the frame.
+ */
+public class WireInput {
+    /**
+     * The bytes to read.
+     */
+    private final byte[] buffer;
+    /**
+     * The position of the next byte to read.
+     */
+    private int position;
+    /**
+     * The position following the last byte that can be read.
+     */
+    private final int limit;
+    /**
+     * The version of the codec the input was written with.
+     */
+    private final int version;
+    /**
+     * The nickname that replaces {@link BroadcastEnvelopeMessage#TEMPLATE_RECIPIENT} in the strings read, or null.
+     */
+    private final String templateRecipient;
+
+    /**
+     * The constructor of the class.
+     * @param buffer the bytes to read.
+     * @param offset the position of the first byte to read.
+     * @param length the number of bytes that can be read.
+     * @param version the version of the codec the input was written with.
+     * @param templateRecipient the nickname that replaces the template recipient in the strings read, or null.
+     */
+    WireInput(byte[] buffer, int offset, int length, int version, String templateRecipient) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+        this.version = version;
+        this.templateRecipient = templateRecipient;
+    }
+
+    /**
+     * Reads a single byte.
+     * @return the byte read, as an unsigned value.
+     * @throws EOFException if the input is over.
+     */
+    public int readByte() throws EOFException {
+        if (position >= limit)
+            throw new EOFException("Unexpected end of frame");
+        return buffer[position++] & 0xFF;
+    }
+
+    /**
+     * Reads a non-negative integer written as an unsigned varint.
+     * @return the value read.
+     * @throws IOException if the input is over or the varint is too long.
+     */
+    public int readUnsignedVarInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    /**
+     * Reads an integer written as a zig-zag varint.
+     * @return the value read.
+     * @throws IOException if the input is over or the varint is too long.
+     */
+    public int readVarInt() throws IOException {
+        int zigZag = readUnsignedVarInt();
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    /**
+     * Reads a long written as a zig-zag varint.
+     * @return the value read.
+     * @throws IOException if the input is over or the varint is too long.
+     */
+    public long readVarLong() throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0)
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    /**
+     * Reads a boolean.
+     * @return the value read.
+     * @throws IOException if the input is over or the byte is not a boolean.
+     */
+    public boolean readBoolean() throws IOException {
+        int b = readByte();
+        if (b > 1)
+            throw new StreamCorruptedException("Malformed boolean");
+        return b == 1;
+    }
+
+    /**
+     * Reads the length prefix of a nullable string, array or list.
+     * @param minimumElementSize the minimum number of bytes taken by each element.
+     * @return the length, or -1 for null.
+     * @throws IOException if the length exceeds the bytes left in the input.
+     */
+    private int readLength(int minimumElementSize) throws IOException {
+        int length = readUnsignedVarInt() - 1;
+        if (length < -1 || (long) length * minimumElementSize > limit - position)
+            throw new StreamCorruptedException("Length " + length + " exceeds the frame");
+        return length;
+    }
+
+    /**
+     * Reads a nullable array of bytes.
+     * @return the bytes read.
+     * @throws IOException if the input does not contain a valid array.
+     */
+    public byte[] readBytes() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    /**
+     * Reads a nullable string.
+     * @return the string read.
+     * @throws IOException if the input does not contain a valid string.
+     */
+    public String readString() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        if (templateRecipient != null && value.equals(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT))
+            return templateRecipient;
+        return value;
+    }
+
+    /**
+     * Reads a nullable array of integers.
+     * @return the integers read.
+     * @throws IOException if the input does not contain a valid array.
+     */
+    public int[] readIntArray() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = readVarInt();
+        }
+        return values;
+    }
+
+    /**
+     * Reads a nullable array of longs.
+     * @return the longs read.
+     * @throws IOException if the input does not contain a valid array.
+     */
+    public long[] readLongArray() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        long[] values = new long[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = readVarLong();
+        }
+        return values;
+    }
+
+    /**
+     * Reads a nullable list of integers.
+     * @return the integers read.
+     * @throws IOException if the input does not contain a valid list.
+     */
+    public ArrayList<Integer> readIntList() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        ArrayList<Integer> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            values.add(readVarInt());
+        }
+        return values;
+    }
+
+    /**
+     * Reads a nullable list of booleans.
+     * @return the booleans read.
+     * @throws IOException if the input does not contain a valid list.
+     */
+    public ArrayList<Boolean> readBooleanList() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        ArrayList<Boolean> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            values.add(readBoolean());
+        }
+        return values;
+    }
+
+    /**
+     * Reads a nullable list of nullable strings.
+     * @return the strings read.
+     * @throws IOException if the input does not contain a valid list.
+     */
+    public ArrayList<String> readStringList() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        ArrayList<String> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    /**
+     * Reads a nullable list of nullable arrays of strings.
+     * @return the arrays of strings read.
+     * @throws IOException if the input does not contain a valid list.
+     */
+    public ArrayList<String[]> readStringArrayList() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        ArrayList<String[]> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int arrayLength = readLength(1);
+            if (arrayLength == -1) {
+                values.add(null);
+                continue;
+            }
+            String[] array = new String[arrayLength];
+            for (int j = 0; j < arrayLength; j++) {
+                array[j] = readString();
+            }
+            values.add(array);
+        }
+        return values;
+    }
+
+    /**
+     * Reads a nullable list of nullable arrays of integers.
+     * @return the arrays of integers read.
+     * @throws IOException if the input does not contain a valid list.
+     */
+    public ArrayList<int[]> readIntArrayList() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        ArrayList<int[]> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            values.add(readIntArray());
+        }
+        return values;
+    }
+
+    /**
+     * Reads a nullable list of nullable lists of arrays of integers.
+     * @return the lists read.
+     * @throws IOException if the input does not contain a valid list.
+     */
+    public ArrayList<ArrayList<int[]>> readIntArrayListList() throws IOException {
+        int length = readLength(1);
+        if (length == -1)
+            return null;
+        ArrayList<ArrayList<int[]>> values = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            values.add(readIntArrayList());
+        }
+        return values;
+    }
+
+    /**
+     * Reads a nested message, preceded by its type id.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    public Object readMessage() throws IOException {
+        return MessageType.fromId(readUnsignedVarInt()).getReader().read(this);
+    }
+
+    /**
+     * Returns the version of the codec the input was written with, so that messages can read the content written
+     * by older versions.
+     * @return the version of the codec.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the number of bytes left in the input.
+     * @return the number of bytes left.
+     */
+    public int remaining() {
+        return limit - position;
+    }
+}
@@ -0,0 +1,14 @@
+package it.polimi.ingsw.am32.message.codec;
+
+/**
+ * This interface represents a message that can be encoded by the {@link BinaryMessageCodec}. <br>
+ * Each message writes its own content, without the type id, and provides a static {@code readFrom(WireInput)} method,
+ * registered in {@link MessageType}, that reads it back.
+ */
+public interface WireMessage {
+    /**
+     * Writes the content of the message in the compact binary format of the {@link BinaryMessageCodec}.
+     * @param out the output the message is written to.
+     */
+    void writeTo(WireOutput out);
+}
@@ -0,0 +1,296 @@
+package it.polimi.ingsw.am32.message.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class is a growable byte buffer in which messages are written in the compact binary format of the
+ * {@link BinaryMessageCodec}. <br>
+ * Integers are written as zig-zag varints, so that small values, such as card ids, coordinates and counters, take a
+ * single byte whatever their sign. Strings, arrays and lists are prefixed by their length plus one, a length of zero
+ * denoting null. <br>
+ * An output can be reused for several messages by calling {@link #reset()}, keeping its buffer.
+ */
+public class WireOutput {
+    /**
+     * The initial capacity of the buffer.
+     */
+    private static final int INITIAL_CAPACITY = 256;
+    /**
+     * The bytes written.
+     */
+    private byte[] buffer;
+    /**
+     * The number of bytes written.
+     */
+    private int size;
+
+    /**
+     * The constructor of the class.
+     */
+    public WireOutput() {
+        this.buffer = new byte[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Makes sure that the buffer can contain the given number of additional bytes.
+     * @param additionalBytes the number of bytes that are going to be written.
+     */
+    private void ensureCapacity(int additionalBytes) {
+        if (size + additionalBytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additionalBytes));
+        }
+    }
+
+    /**
+     * Writes a single byte.
+     * @param value the byte to write.
+     */
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Writes a non-negative integer as an unsigned varint.
+     * @param value the value to write.
+     */
+    public void writeUnsignedVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[size++] = (byte) value;
+    }
+
+    /**
+     * Writes an integer as a zig-zag varint.
+     * @param value the value to write.
+     */
+    public void writeVarInt(int value) {
+        writeUnsignedVarInt((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Writes a long as a zig-zag varint.
+     * @param value the value to write.
+     */
+    public void writeVarLong(long value) {
+        long zigZag = (value << 1) ^ (value >> 63);
+        ensureCapacity(10);
+        while ((zigZag & ~0x7FL) != 0) {
+            buffer[size++] = (byte) ((zigZag & 0x7F) | 0x80);
+            zigZag >>>= 7;
+        }
+        buffer[size++] = (byte) zigZag;
+    }
+
+    /**
+     * Writes a boolean as a single byte.
+     * @param value the value to write.
+     */
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes the length prefix of a nullable string, array or list.
+     * @param length the length, or -1 for null.
+     */
+    private void writeLength(int length) {
+        writeUnsignedVarInt(length + 1);
+    }
+
+    /**
+     * Writes a nullable array of bytes.
+     * @param bytes the bytes to write.
+     */
+    public void writeBytes(byte[] bytes) {
+        if (bytes == null) {
+            writeLength(-1);
+            return;
+        }
+        writeLength(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    /**
+     * Writes a nullable string, encoded in UTF-8.
+     * @param value the string to write.
+     */
+    public void writeString(String value) {
+        writeBytes(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a nullable array of integers.
+     * @param values the integers to write.
+     */
+    public void writeIntArray(int[] values) {
+        if (values == null) {
+            writeLength(-1);
+            return;
+        }
+        writeLength(values.length);
+        for (int value : values) {
+            writeVarInt(value);
+        }
+    }
+
+    /**
+     * Writes a nullable array of longs.
+     * @param values the longs to write.
+     */
+    public void writeLongArray(long[] values) {
+        if (values == null) {
+            writeLength(-1);
+            return;
+        }
+        writeLength(values.length);
+        for (long value : values) {
+            writeVarLong(value);
+        }
+    }
+
+    /**
+     * Writes a nullable list of integers.
+     * @param values the integers to write.
+     */
+    public void writeIntList(List<Integer> values) {
+        if (values == null) {
+            writeLength(-1);
+            return;
+        }
+        writeLength(values.size());
+        for (int value : values) {
+            writeVarInt(value);
+        }
+    }
+
+    /**
+     * Writes a nullable list of booleans.
+     * @param values the booleans to write.
+     */
+    public void writeBooleanList(List<Boolean> values) {
+        if (values == null) {
+            writeLength(-1);
+            return;
+        }
+        writeLength(values.size());
+        for (boolean value : values) {
+            writeBoolean(value);
+        }
+    }
+
+    /**
+     * Writes a nullable list of nullable strings.
+     * @param values the strings to write.
+     */
+    public void writeStringList(List<String> values) {
+        if (values == null) {
+            writeLength(-1);
+            return;
+        }
+        writeLength(values.size());
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    /**
+     * Writes a nullable list of nullable arrays of strings.
+     * @param values the arrays of strings to write.
+     */
+    public void writeStringArrayList(List<String[]> values) {
+        if (values == null) {
+            writeLength(-1);
+            return;
+        }
+        writeLength(values.size());
+        for (String[] array : values) {
+            if (array == null) {
+                writeLength(-1);
+                continue;
+            }
+            writeLength(array.length);
+            for (String value : array) {
+                writeString(value);
+            }
+        }
+    }
+
+    /**
+     * Writes a nullable list of nullable arrays of integers, such as coordinates or placed cards.
+     * @param values the arrays of integers to write.
+     */
+    public void writeIntArrayList(List<int[]> values) {
+        if (values == null) {
+            writeLength(-1);
+            return;
+        }
+        writeLength(values.size());
+        for (int[] array : values) {
+            writeIntArray(array);
+        }
+    }
+
+    /**
+     * Writes a nullable list of nullable lists of arrays of integers, such as the fields of all the players.
+     * @param values the lists to write.
+     */
+    public void writeIntArrayListList(List<? extends List<int[]>> values) {
+        if (values == null) {
+            writeLength(-1);
+            return;
+        }
+        writeLength(values.size());
+        for (List<int[]> list : values) {
+            writeIntArrayList(list);
+        }
+    }
+
+    /**
+     * Writes a nested message, preceded by its type id.
+     * @param message the message to write.
+     * @throws IllegalArgumentException if the message is not supported by the codec.
+     */
+    public void writeMessage(Object message) {
+        BinaryMessageCodec.writeMessage(message, this);
+    }
+
+    /**
+     * Discards the bytes written, keeping the buffer.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Returns the number of bytes written.
+     * @return the number of bytes written.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the internal buffer. Only the first {@link #size()} bytes are meaningful.
+     * @return the internal buffer.
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns a copy of the bytes written.
+     * @return the bytes written.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+}
@@ -0,0 +1,18 @@
+package it.polimi.ingsw.am32.message.codec;
+
+import java.io.IOException;
+
+/**
+ * This functional interface represents the method that reads the content of a message written by
+ * {@link WireMessage#writeTo(WireOutput)}.
+ */
+@FunctionalInterface
+public interface WireReader {
+    /**
+     * Reads the content of a message.
+     * @param in the input the message is read from.
+     * @return the message read.
+     * @throws IOException if the input does not contain a valid message.
+     */
+    Object read(WireInput in) throws IOException;
+}
@@ -0,0 +1,213 @@
+package it.polimi.ingsw.am32.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class {@code LatencyHistogram} counts durations in buckets of logarithmic width, as an HDR histogram does, so
+ * that recording is cheap and its memory is bounded while the percentiles keep a bounded relative error. <br>
+ * Values below {@value #SUBBUCKETCOUNT} nanoseconds have a bucket each; above, every power of two is split in
+ * {@value #HALFSUBBUCKETCOUNT} buckets, so the values of a bucket differ by less than 1/{@value #HALFSUBBUCKETCOUNT}
+ * (about 1.6%). Values above about 18 minutes are counted in the last bucket. <br>
+ * Recording is lock-free: the buckets are atomic counters, so any number of threads can record at the same time.
+ * {@link #snapshot()} copies the counters without stopping the recording threads, so a snapshot may miss the values
+ * being recorded while it is taken.
+ *
+ * @author Matteo
+ */
+public class LatencyHistogram {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Constants used in the class
+     */
+    private static final int SUBBUCKETBITS = 7;
+    private static final int SUBBUCKETCOUNT = 1 << SUBBUCKETBITS;
+    private static final int HALFSUBBUCKETCOUNT = SUBBUCKETCOUNT / 2;
+    private static final int MAXVALUEBITS = 40;
+    private static final long MAXVALUE = (1L << MAXVALUEBITS) - 1;
+    private static final int BUCKETCOUNT = SUBBUCKETCOUNT + (MAXVALUEBITS - SUBBUCKETBITS) * HALFSUBBUCKETCOUNT;
+
+    /**
+     * Variables used to count the values recorded
+     */
+    private final AtomicLongArray counts;
+    private final LongAdder totalCount;
+    private final LongAdder totalValue;
+    private final AtomicLong maxValue;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     */
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETCOUNT);
+        totalCount = new LongAdder();
+        totalValue = new LongAdder();
+        maxValue = new AtomicLong();
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Record a duration. Negative durations, which the clock can produce on some platforms, are recorded as 0.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAXVALUE));
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalValue.add(value);
+
+        long max = maxValue.get();
+        while (value > max && !maxValue.compareAndSet(max, value))
+            max = maxValue.get();
+    }
+
+    /**
+     * Copy the counters of the histogram.
+     *
+     * @return a snapshot of the values recorded so far
+     */
+    public Snapshot snapshot() {
+        long[] countsCopy = new long[BUCKETCOUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKETCOUNT; i++) {
+            countsCopy[i] = counts.get(i);
+            count += countsCopy[i];
+        }
+        // The totals are read after the buckets, so they may include a few values the copy missed
+        return new Snapshot(countsCopy, count, Math.min(totalValue.sum(), count * MAXVALUE), maxValue.get());
+    }
+
+    /**
+     * Return the index of the bucket counting a value.
+     *
+     * @param value the value, between 0 and {@link #MAXVALUE}
+     * @return the index of the bucket
+     */
+    private static int indexOf(long value) {
+        if (value < SUBBUCKETCOUNT)
+            return (int) value;
+
+        // The shift leaves the value with SUBBUCKETBITS significant bits, the highest of which is always set
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUBBUCKETBITS;
+        return SUBBUCKETCOUNT + (shift - 1) * HALFSUBBUCKETCOUNT + (int) (value >>> shift) - HALFSUBBUCKETCOUNT;
+    }
+
+    /**
+     * Return the highest value counted by a bucket.
+     *
+     * @param index the index of the bucket
+     * @return the highest value of the bucket
+     */
+    private static long highestValueOf(int index) {
+        if (index < SUBBUCKETCOUNT)
+            return index;
+
+        int shift = (index - SUBBUCKETCOUNT) / HALFSUBBUCKETCOUNT + 1;
+        long subBucket = (index - SUBBUCKETCOUNT) % HALFSUBBUCKETCOUNT + HALFSUBBUCKETCOUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Nested classes
+
+    /**
+     * The values recorded by a {@link LatencyHistogram} up to a point in time. It is immutable, so it can be queried
+     * and exported without affecting the threads that keep recording in the histogram.
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long totalValue;
+        private final long maxValue;
+
+        private Snapshot(long[] counts, long count, long totalValue, long maxValue) {
+            this.counts = counts;
+            this.count = count;
+            this.totalValue = totalValue;
+            this.maxValue = maxValue;
+        }
+
+        /**
+         * Getter
+         *
+         * @return the number of values recorded
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Getter
+         *
+         * @return the highest value recorded, in nanoseconds
+         */
+        public long getMax() {
+            return maxValue;
+        }
+
+        /**
+         * Getter
+         *
+         * @return the sum of the values recorded, in nanoseconds
+         */
+        public long getTotal() {
+            return totalValue;
+        }
+
+        /**
+         * Getter
+         *
+         * @return the mean of the values recorded, in nanoseconds, or 0 if no value was recorded
+         */
+        public double getMean() {
+            return count == 0 ? 0 : (double) totalValue / count;
+        }
+
+        /**
+         * Return the value below which the given percentage of the values recorded falls. The value is the highest
+         * of its bucket, so it overestimates the exact percentile by less than the width of a bucket.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the value at the percentile, in nanoseconds, or 0 if no value was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0)
+                return 0;
+
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) * count / 100 - 1e-9));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank)
+                    return Math.min(highestValueOf(i), maxValue);
+            }
+            return maxValue;
+        }
+
+        /**
+         * Return a summary of the snapshot, with the durations in microseconds.
+         *
+         * @return the number of values and their p50, p99, p999 and maximum
+         */
+        @Override
+        public String toString() {
+            return String.format("count=%d p50=%.1fus p99=%.1fus p999=%.1fus max=%.1fus", count,
+                    getValueAtPercentile(50) / 1e3, getValueAtPercentile(99) / 1e3,
+                    getValueAtPercentile(99.9) / 1e3, maxValue / 1e3);
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package it.polimi.ingsw.am32.metrics;
+
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.utilities.Configuration;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The class {@code LatencyMetrics} keeps a {@link LatencyHistogram} for each {@link LatencyStage} and message type, in
+ * which the server nodes, the game controllers and the virtual views record the time the messages spend in each stage
+ * of their processing. <br>
+ * An inbound command is timed between {@link #beginCommand(Object, long)} and {@link #endCommand(long)}, invoked by
+ * the thread that elaborates it. The outbound messages submitted by that thread in the meantime are stamped by
+ * {@link #stampOutbound()} with the reception time of the command, so that, once written, their end to end latency is
+ * recorded under the type of the command that produced them. <br>
+ * The histograms are created the first time a message type is seen, and can be queried at any time with
+ * {@link #getSnapshots(LatencyStage)} or {@link #getReport()}. When the metrics are disabled by the
+ * {@link Configuration}, nothing is measured.
+ *
+ * @author Matteo
+ */
+public class LatencyMetrics {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Variables used for service purposes
+     */
+    private static LatencyMetrics instance;
+
+    /**
+     * Variables used to store the measurements
+     */
+    private final boolean enabled;
+    private final EnumMap<LatencyStage, ConcurrentHashMap<String, LatencyHistogram>> histograms;
+
+    /**
+     * The command being elaborated by each thread, whose type and reception time are given to the outbound messages it
+     * produces
+     */
+    private final ThreadLocal<Command> currentCommand;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     *
+     * @param enabled true if the durations are measured
+     */
+    private LatencyMetrics(boolean enabled) {
+        this.enabled = enabled;
+        histograms = new EnumMap<>(LatencyStage.class);
+        for (LatencyStage stage : LatencyStage.values())
+            histograms.put(stage, new ConcurrentHashMap<>());
+        currentCommand = ThreadLocal.withInitial(Command::new);
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Return the singleton instance of this class, creating it if it doesn't exist yet. The metrics are enabled
+     * according to the {@link Configuration}.
+     *
+     * @return the instance of {@code LatencyMetrics}
+     */
+    public synchronized static LatencyMetrics getInstance() {
+        if (instance == null) instance = new LatencyMetrics(Configuration.getInstance().isLatencyMetrics());
+        return instance;
+    }
+
+    /**
+     * Return whether the durations are measured.
+     *
+     * @return true if the metrics are enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Record the duration of a stage of the processing of a message.
+     *
+     * @param stage the stage
+     * @param messageType the type of the message, as given by {@link #typeOf(Object)}
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(LatencyStage stage, String messageType, long nanos) {
+        if (!enabled)
+            return;
+        histograms.get(stage).computeIfAbsent(messageType, type -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Start the elaboration of an inbound command by the calling thread.
+     *
+     * @param message the command
+     * @param receivedTime the {@link System#nanoTime()} at which the command was received
+     * @return the start time of the elaboration, to be given to {@link #endCommand(long)}
+     */
+    public long beginCommand(Object message, long receivedTime) {
+        if (!enabled)
+            return 0;
+        Command command = currentCommand.get();
+        command.type = typeOf(message);
+        command.receivedTime = receivedTime;
+        return System.nanoTime();
+    }
+
+    /**
+     * End the elaboration of the inbound command started by the calling thread, and record its duration.
+     *
+     * @param startTime the start time returned by {@link #beginCommand(Object, long)}
+     */
+    public void endCommand(long startTime) {
+        if (!enabled)
+            return;
+        Command command = currentCommand.get();
+        if (command.type != null)
+            record(LatencyStage.CONTROLLER, command.type, System.nanoTime() - startTime);
+        command.type = null;
+    }
+
+    /**
+     * Stamp an outbound message as it is queued, with the queuing time and the command the calling thread is
+     * elaborating, if any.
+     *
+     * @return the stamp of the message, or null if the metrics are disabled
+     */
+    public Stamp stampOutbound() {
+        if (!enabled)
+            return null;
+        Command command = currentCommand.get();
+        return new Stamp(System.nanoTime(), command.type, command.receivedTime);
+    }
+
+    /**
+     * Record the stages of an outbound message that has been written: the time it waited in the queue, the time it
+     * took to write it and, if it was produced by a command, the end to end latency of the command.
+     *
+     * @param stamp the stamp given to the message when it was queued, or null
+     * @param messageType the type of the message, as given by {@link #typeOf(Object)}
+     * @param writeStartTime the {@link System#nanoTime()} at which the write started
+     * @param writeEndTime the {@link System#nanoTime()} at which the write ended
+     */
+    public void recordDelivered(Stamp stamp, String messageType, long writeStartTime, long writeEndTime) {
+        if (!enabled || stamp == null)
+            return;
+        record(LatencyStage.QUEUE_WAIT, messageType, writeStartTime - stamp.queuedTime);
+        record(LatencyStage.WRITE, messageType, writeEndTime - writeStartTime);
+        if (stamp.commandType != null)
+            record(LatencyStage.END_TO_END, stamp.commandType, writeEndTime - stamp.commandReceivedTime);
+    }
+
+    /**
+     * Return the type under which a message is recorded: the simple name of its class, or the type of the message it
+     * wraps for the messages wrapping another one. The simple name of the class is also used if the message doesn't
+     * report a type.
+     *
+     * @param message the message
+     * @return the type of the message
+     */
+    public static String typeOf(Object message) {
+        String type = null;
+        if (message instanceof StoCMessage stoCMessage)
+            type = stoCMessage.getMessageType();
+        else if (message instanceof CtoSMessage ctoSMessage)
+            type = ctoSMessage.getMessageType();
+        return type != null ? type : message.getClass().getSimpleName();
+    }
+
+    /**
+     * Return a snapshot of the histograms of a stage.
+     *
+     * @param stage the stage
+     * @return the snapshots of the histograms of the stage, sorted by message type
+     */
+    public Map<String, LatencyHistogram.Snapshot> getSnapshots(LatencyStage stage) {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.get(stage).forEach((type, histogram) -> snapshots.put(type, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Return a snapshot of a histogram.
+     *
+     * @param stage the stage
+     * @param messageType the type of the message
+     * @return the snapshot of the histogram, or null if nothing has been recorded for the stage and message type
+     */
+    public LatencyHistogram.Snapshot getSnapshot(LatencyStage stage, String messageType) {
+        LatencyHistogram histogram = histograms.get(stage).get(messageType);
+        return histogram == null ? null : histogram.snapshot();
+    }
+
+    /**
+     * Return a textual report of all the histograms, a line for each stage and message type.
+     *
+     * @return the report
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder();
+        for (LatencyStage stage : LatencyStage.values())
+            getSnapshots(stage).forEach((type, snapshot) ->
+                    report.append(String.format("%-11s %-36s %s%n", stage, type, snapshot)));
+        return report.toString();
+    }
+
+    /**
+     * Discard all the histograms, so that the following snapshots only include the durations recorded from now on.
+     */
+    public void reset() {
+        for (ConcurrentHashMap<String, LatencyHistogram> stageHistograms : histograms.values())
+            stageHistograms.clear();
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Nested classes
+
+    /**
+     * The type and reception time of the command a thread is elaborating. The type is null when the thread is not
+     * elaborating a command.
+     */
+    private static class Command {
+        private String type;
+        private long receivedTime;
+    }
+
+    /**
+     * The time at which an outbound message was queued, and the type and reception time of the command that produced
+     * it. The command type is null if the message was not produced by a command, as the heartbeats.
+     */
+    public static class Stamp {
+
+        private final long queuedTime;
+        private final String commandType;
+        private final long commandReceivedTime;
+
+        private Stamp(long queuedTime, String commandType, long commandReceivedTime) {
+            this.queuedTime = queuedTime;
+            this.commandType = commandType;
+            this.commandReceivedTime = commandReceivedTime;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package it.polimi.ingsw.am32.metrics;
+
+/**
+ * The stages of the processing of the messages whose duration is measured by {@link LatencyMetrics}. <br>
+ * An inbound command goes through {@link #DECODE} and {@link #CONTROLLER}; each outbound message it produces goes
+ * through {@link #FAN_OUT}, if it is broadcast, then {@link #QUEUE_WAIT} and {@link #WRITE}. {@link #END_TO_END}
+ * covers the whole path, from the reception of the command to the write of each resulting message.
+ *
+ * @author Matteo
+ */
+public enum LatencyStage {
+    /**
+     * The decoding of an inbound message, after all its bytes have been received. Keyed by the inbound message type.
+     */
+    DECODE,
+    /**
+     * The elaboration of an inbound message by the {@code GamesManager} or the {@code GameController}, including the
+     * wait for the lock of the game. Keyed by the inbound message type.
+     */
+    CONTROLLER,
+    /**
+     * The encoding of a broadcast message and its submission to the {@code VirtualView} of each recipient. Keyed by the
+     * outbound message type.
+     */
+    FAN_OUT,
+    /**
+     * The time an outbound message waits in the queue of a {@code VirtualView}. Keyed by the outbound message type.
+     */
+    QUEUE_WAIT,
+    /**
+     * The delivery of an outbound message to the connection node, including its encoding and write. Keyed by the
+     * outbound message type.
+     */
+    WRITE,
+    /**
+     * The time from the reception of an inbound command to the write of each outbound message it produced. Keyed by
+     * the inbound message type.
+     */
+    END_TO_END
+}
@@ -0,0 +1,115 @@
+package it.polimi.ingsw.am32.metrics;
+
+import it.polimi.ingsw.am32.utilities.Configuration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * The class {@code ManagementBeans} registers the MBeans of the server in the platform MBean server, under the domain
+ * {@value #DOMAIN}, so that the server can be monitored and operated with standard JMX tools such as JConsole. <br>
+ * An MBean is named after its type and, if there are more of the same type, its name, as in
+ * {@code it.polimi.ingsw.am32:type=GameController,name=42}. Registering an MBean replaces the one with the same name,
+ * if any. <br>
+ * Nothing is registered when the MBeans are disabled by the {@link Configuration}. Registration failures are logged,
+ * since the server works without its MBeans.
+ *
+ * @author Matteo
+ */
+public class ManagementBeans {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Domain of the names of the MBeans
+     */
+    public static final String DOMAIN = "it.polimi.ingsw.am32";
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(ManagementBeans.class);
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * The class only has static methods.
+     */
+    private ManagementBeans() {}
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Register the MBeans of the transports, one for each {@link TransportMetrics.Transport}.
+     */
+    public static void registerTransports() {
+        for (TransportMetrics.Transport transport : TransportMetrics.Transport.values())
+            register("Transport", transport.name(), TransportMetrics.getInstance().of(transport));
+    }
+
+    /**
+     * Register an MBean, replacing the one with the same name if any.
+     *
+     * @param type the type of the MBean
+     * @param name the name of the MBean among those of its type, or null if there is only one MBean of the type
+     * @param bean the MBean, implementing a management interface
+     */
+    public static void register(String type, String name, Object bean) {
+        if (!Configuration.getInstance().isManagementBeans())
+            return;
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = nameOf(type, name);
+            synchronized (ManagementBeans.class) {
+                if (server.isRegistered(objectName))
+                    server.unregisterMBean(objectName);
+                server.registerMBean(bean, objectName);
+            }
+            logger.debug("MBean {} registered", objectName);
+        } catch (JMException e) {
+            logger.error("Could not register the MBean of type {} and name {}: {}", type, name, e.getMessage());
+        }
+    }
+
+    /**
+     * Unregister an MBean, if it is registered.
+     *
+     * @param type the type of the MBean
+     * @param name the name of the MBean among those of its type, or null if there is only one MBean of the type
+     */
+    public static void unregister(String type, String name) {
+        if (!Configuration.getInstance().isManagementBeans())
+            return;
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(nameOf(type, name));
+        } catch (InstanceNotFoundException ignored) {
+        } catch (JMException e) {
+            logger.error("Could not unregister the MBean of type {} and name {}: {}", type, name, e.getMessage());
+        }
+    }
+
+    /**
+     * Return the name of an MBean.
+     *
+     * @param type the type of the MBean
+     * @param name the name of the MBean among those of its type, or null if there is only one MBean of the type
+     * @return the name of the MBean
+     * @throws MalformedObjectNameException if the type or the name contain characters not allowed in a name
+     */
+    public static ObjectName nameOf(String type, String name) throws MalformedObjectNameException {
+        return new ObjectName(DOMAIN + ":type=" + type + (name != null ? ",name=" + name : ""));
+    }
+}
@@ -0,0 +1,274 @@
+package it.polimi.ingsw.am32.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import it.polimi.ingsw.am32.controller.GamesManagerMXBean;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The class {@code MetricsHttpServer} is an HTTP listener, built on the {@link HttpServer} of the JDK, through which the
+ * server can be monitored by tools that scrape HTTP endpoints, such as Prometheus. <br>
+ * It exposes the following endpoints:
+ * <ul>
+ *     <li>{@value #METRICSPATH}: the counters of the {@link TransportMetrics}, the games and players of the
+ *     {@link GamesManagerMXBean}, and the histograms of the {@link LatencyMetrics} as summaries, in the Prometheus text
+ *     format</li>
+ *     <li>{@value #LIVENESSPATH}: always answers 200 while the server is running</li>
+ *     <li>{@value #READINESSPATH}: answers 200 if all the readiness checks pass, 503 otherwise, listing the outcome of
+ *     each check in the body</li>
+ * </ul>
+ * The readiness checks are given by whoever creates the listener, usually one for each connection acceptor. <br>
+ * The metrics are read when an endpoint is requested, so a listener costs nothing between two requests.
+ *
+ * @author Matteo
+ */
+public class MetricsHttpServer {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Path of the endpoints
+     */
+    public static final String METRICSPATH = "/metrics";
+    public static final String LIVENESSPATH = "/health/live";
+    public static final String READINESSPATH = "/health/ready";
+
+    /**
+     * Content type of the Prometheus text format
+     */
+    private static final String PROMETHEUSCONTENTTYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /**
+     * Quantiles exported for each latency histogram
+     */
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(MetricsHttpServer.class);
+
+    /**
+     * Variables used to serve the requests
+     */
+    private final HttpServer httpServer;
+    private final GamesManagerMXBean games;
+    private final Map<String, BooleanSupplier> readinessChecks;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Bind the listener to an address. The listener does not serve any request until it is started.
+     *
+     * @param address the address on which to listen
+     * @param games the monitor of the games, whose phases and players are exported
+     * @param readinessChecks the checks that must all pass for the server to be ready, by name
+     * @param executor the executor running the handlers of the requests
+     * @throws IOException if the listener could not be bound to the address
+     */
+    public MetricsHttpServer(InetSocketAddress address, GamesManagerMXBean games,
+                             Map<String, BooleanSupplier> readinessChecks, Executor executor) throws IOException {
+        this.games = games;
+        this.readinessChecks = new LinkedHashMap<>(readinessChecks);
+
+        httpServer = HttpServer.create(address, 0);
+        httpServer.setExecutor(executor);
+        httpServer.createContext(METRICSPATH, exchange -> respond(exchange, 200, PROMETHEUSCONTENTTYPE, getMetrics()));
+        httpServer.createContext(LIVENESSPATH, exchange -> respond(exchange, 200, "text/plain; charset=utf-8", "UP\n"));
+        httpServer.createContext(READINESSPATH, this::handleReadiness);
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Start serving the requests, on the threads of the executor.
+     */
+    public void start() {
+        httpServer.start();
+        logger.info("Metrics HTTP listener started on {}", httpServer.getAddress());
+    }
+
+    /**
+     * Stop serving the requests and release the address.
+     */
+    public void stop() {
+        httpServer.stop(0);
+        logger.info("Metrics HTTP listener stopped");
+    }
+
+    /**
+     * Return the address on which the listener is bound, useful when it was bound to an ephemeral port.
+     *
+     * @return the address of the listener
+     */
+    public InetSocketAddress getAddress() {
+        return httpServer.getAddress();
+    }
+
+    /**
+     * Return whether all the readiness checks pass.
+     *
+     * @return true if the server is ready to accept connections
+     */
+    public boolean isReady() {
+        for (BooleanSupplier check : readinessChecks.values()) {
+            if (!check.getAsBoolean())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Return the metrics of the server in the Prometheus text format.
+     *
+     * @return the exposition of the metrics, one sample per line
+     */
+    public String getMetrics() {
+        StringBuilder builder = new StringBuilder();
+
+        appendHeader(builder, "am32_transport_open_nodes", "gauge", "Connections currently open");
+        for (TransportMetrics.Transport transport : TransportMetrics.Transport.values())
+            appendSample(builder, "am32_transport_open_nodes", transportLabel(transport), TransportMetrics.getInstance().of(transport).getOpenNodes());
+        appendHeader(builder, "am32_transport_opened_nodes_total", "counter", "Connections opened since the server started");
+        for (TransportMetrics.Transport transport : TransportMetrics.Transport.values())
+            appendSample(builder, "am32_transport_opened_nodes_total", transportLabel(transport), TransportMetrics.getInstance().of(transport).getOpenedNodes());
+        appendHeader(builder, "am32_transport_ping_failures_total", "counter", "Connections closed because the client stopped answering the heartbeats");
+        for (TransportMetrics.Transport transport : TransportMetrics.Transport.values())
+            appendSample(builder, "am32_transport_ping_failures_total", transportLabel(transport), TransportMetrics.getInstance().of(transport).getPingFailures());
+        appendHeader(builder, "am32_transport_received_bytes_total", "counter", "Bytes received");
+        for (TransportMetrics.Transport transport : TransportMetrics.Transport.values())
+            appendSample(builder, "am32_transport_received_bytes_total", transportLabel(transport), TransportMetrics.getInstance().of(transport).getBytesIn());
+        appendHeader(builder, "am32_transport_sent_bytes_total", "counter", "Bytes sent");
+        for (TransportMetrics.Transport transport : TransportMetrics.Transport.values())
+            appendSample(builder, "am32_transport_sent_bytes_total", transportLabel(transport), TransportMetrics.getInstance().of(transport).getBytesOut());
+        appendHeader(builder, "am32_transport_rejected_messages_total", "counter", "Messages rejected while being deserialized");
+        for (TransportMetrics.Transport transport : TransportMetrics.Transport.values())
+            appendSample(builder, "am32_transport_rejected_messages_total", transportLabel(transport), TransportMetrics.getInstance().of(transport).getRejectedMessages());
+        appendHeader(builder, "am32_transport_limited_messages_total", "counter", "Messages exceeding the rate limit of their type");
+        for (TransportMetrics.Transport transport : TransportMetrics.Transport.values())
+            appendSample(builder, "am32_transport_limited_messages_total", transportLabel(transport), TransportMetrics.getInstance().of(transport).getLimitedMessages());
+        appendHeader(builder, "am32_transport_limited_nodes_total", "counter", "Connections that exceeded a rate limit");
+        for (TransportMetrics.Transport transport : TransportMetrics.Transport.values())
+            appendSample(builder, "am32_transport_limited_nodes_total", transportLabel(transport), TransportMetrics.getInstance().of(transport).getLimitedNodes());
+
+        appendHeader(builder, "am32_games", "gauge", "Games in each phase");
+        for (Map.Entry<String, Integer> entry : games.getGamesByStatus().entrySet())
+            appendSample(builder, "am32_games", "status=\"" + escape(entry.getKey()) + "\"", entry.getValue());
+        appendHeader(builder, "am32_players", "gauge", "Players of the games not ended yet");
+        appendSample(builder, "am32_players", "state=\"connected\"", games.getConnectedPlayers());
+        appendSample(builder, "am32_players", "state=\"disconnected\"", games.getDisconnectedPlayers());
+
+        appendHeader(builder, "am32_latency_seconds", "summary", "Time spent by the messages in each stage of their processing");
+        for (LatencyStage stage : LatencyStage.values()) {
+            for (Map.Entry<String, LatencyHistogram.Snapshot> entry : LatencyMetrics.getInstance().getSnapshots(stage).entrySet()) {
+                String labels = "stage=\"" + stage.name().toLowerCase(Locale.ROOT) + "\",type=\"" + escape(entry.getKey()) + "\"";
+                LatencyHistogram.Snapshot snapshot = entry.getValue();
+                for (double quantile : QUANTILES)
+                    appendSample(builder, "am32_latency_seconds", labels + ",quantile=\"" + quantile + "\"",
+                            snapshot.getValueAtPercentile(quantile * 100) / 1e9);
+                appendSample(builder, "am32_latency_seconds_sum", labels, snapshot.getTotal() / 1e9);
+                appendSample(builder, "am32_latency_seconds_count", labels, snapshot.getCount());
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Answer a request of the readiness endpoint, with the outcome of each check.
+     *
+     * @param exchange the request and its response
+     * @throws IOException if the response could not be sent
+     */
+    private void handleReadiness(HttpExchange exchange) throws IOException {
+        StringBuilder body = new StringBuilder();
+        boolean ready = true;
+        for (Map.Entry<String, BooleanSupplier> check : readinessChecks.entrySet()) {
+            boolean passed = check.getValue().getAsBoolean();
+            ready &= passed;
+            body.append(check.getKey()).append(": ").append(passed ? "UP" : "DOWN").append('\n');
+        }
+        respond(exchange, ready ? 200 : 503, "text/plain; charset=utf-8", body.toString());
+    }
+
+    /**
+     * Send the response to a request. Only GET and HEAD requests are served, the others are answered with 405.
+     *
+     * @param exchange the request and its response
+     * @param status the status of the response
+     * @param contentType the type of the body
+     * @param body the body of the response
+     * @throws IOException if the response could not be sent
+     */
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            if (method.equals("HEAD")) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Append the help and type lines introducing a metric.
+     */
+    private static void appendHeader(StringBuilder builder, String name, String type, String help) {
+        builder.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Append a sample of a metric.
+     */
+    private static void appendSample(StringBuilder builder, String name, String labels, double value) {
+        builder.append(name).append('{').append(labels).append("} ");
+        if (value == Math.rint(value) && !Double.isInfinite(value))
+            builder.append((long) value);
+        else
+            builder.append(value);
+        builder.append('\n');
+    }
+
+    /**
+     * Return the label selecting a transport.
+     */
+    private static String transportLabel(TransportMetrics.Transport transport) {
+        return "transport=\"" + transport.name().toLowerCase(Locale.ROOT) + "\"";
+    }
+
+    /**
+     * Escape a label value as required by the Prometheus text format.
+     */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,65 @@
+package it.polimi.ingsw.am32.metrics;
+
+/**
+ * The management interface of a transport, through which the connections it serves can be monitored with JMX tools.
+ *
+ * @author Matteo
+ */
+public interface TransportMXBean {
+
+    /**
+     * Return the number of connections of the transport that are currently open.
+     *
+     * @return the number of open connections
+     */
+    long getOpenNodes();
+
+    /**
+     * Return the number of connections opened by the transport since the server started.
+     *
+     * @return the number of connections opened
+     */
+    long getOpenedNodes();
+
+    /**
+     * Return the number of connections closed because the client stopped answering the heartbeats.
+     *
+     * @return the number of ping failures
+     */
+    long getPingFailures();
+
+    /**
+     * Return the number of bytes received by the transport.
+     *
+     * @return the number of bytes received
+     */
+    long getBytesIn();
+
+    /**
+     * Return the number of bytes sent by the transport.
+     *
+     * @return the number of bytes sent
+     */
+    long getBytesOut();
+
+    /**
+     * Return the number of messages rejected while being deserialized, because of their classes or their size.
+     *
+     * @return the number of rejected messages
+     */
+    long getRejectedMessages();
+
+    /**
+     * Return the number of messages that exceeded the rate limit of their type, whatever the policy applied to them.
+     *
+     * @return the number of rate limited messages
+     */
+    long getLimitedMessages();
+
+    /**
+     * Return the number of connections that exceeded a rate limit at least once.
+     *
+     * @return the number of rate limited connections
+     */
+    long getLimitedNodes();
+}
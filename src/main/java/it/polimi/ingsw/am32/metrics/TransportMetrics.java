@@ -0,0 +1,289 @@
+package it.polimi.ingsw.am32.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class {@code TransportMetrics} counts, for each {@link Transport}, the connections opened and closed, the
+ * connections lost because the client stopped answering the heartbeats, the bytes received and sent, the messages
+ * rejected while being deserialized, and the messages exceeding the rate limits along with the connections that sent
+ * them. <br>
+ * The counters are updated by the server nodes and, for RMI, by the sockets of the RMI runtime; they can be read at any
+ * time, and are exported to JMX tools by the {@link ManagementBeans}.
+ *
+ * @author Matteo
+ */
+public class TransportMetrics {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Variables used for service purposes
+     */
+    private static TransportMetrics instance;
+
+    /**
+     * Variables used to store the counters of each transport
+     */
+    private final EnumMap<Transport, Counters> counters;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     */
+    private TransportMetrics() {
+        counters = new EnumMap<>(Transport.class);
+        for (Transport transport : Transport.values())
+            counters.put(transport, new Counters());
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Return the singleton instance of this class, creating it if it doesn't exist yet.
+     *
+     * @return the instance of {@code TransportMetrics}
+     */
+    public synchronized static TransportMetrics getInstance() {
+        if (instance == null) instance = new TransportMetrics();
+        return instance;
+    }
+
+    /**
+     * Return the counters of a transport.
+     *
+     * @param transport the transport
+     * @return the counters of the transport
+     */
+    public Counters of(Transport transport) {
+        return counters.get(transport);
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Nested classes
+
+    /**
+     * The transports through which the clients connect to the server.
+     */
+    public enum Transport {
+        /**
+         * The sockets served by a thread each, on TCP or on a Unix domain socket
+         */
+        SOCKET,
+        /**
+         * The sockets served by the NIO selectors
+         */
+        NIO,
+        /**
+         * The connections of the RMI runtime
+         */
+        RMI,
+        /**
+         * The clients running in the same process of the server
+         */
+        LOOPBACK
+    }
+
+    /**
+     * The counters of a transport. They are updated without locks, so any number of threads can update them at the same
+     * time.
+     */
+    public static class Counters implements TransportMXBean {
+
+        private final LongAdder openNodes = new LongAdder();
+        private final LongAdder openedNodes = new LongAdder();
+        private final LongAdder pingFailures = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder rejectedMessages = new LongAdder();
+        private final LongAdder limitedMessages = new LongAdder();
+        private final LongAdder limitedNodes = new LongAdder();
+
+        /**
+         * Record that a connection has been opened.
+         */
+        public void nodeOpened() {
+            openNodes.increment();
+            openedNodes.increment();
+        }
+
+        /**
+         * Record that a connection opened before has been closed.
+         */
+        public void nodeClosed() {
+            openNodes.decrement();
+        }
+
+        /**
+         * Record that a connection is being closed because the client stopped answering the heartbeats.
+         */
+        public void pingFailed() {
+            pingFailures.increment();
+        }
+
+        /**
+         * Record that bytes have been received.
+         *
+         * @param count the number of bytes received
+         */
+        public void addBytesIn(long count) {
+            bytesIn.add(count);
+        }
+
+        /**
+         * Record that bytes have been sent.
+         *
+         * @param count the number of bytes sent
+         */
+        public void addBytesOut(long count) {
+            bytesOut.add(count);
+        }
+
+        /**
+         * Record that a message has been rejected while being deserialized.
+         */
+        public void messageRejected() {
+            rejectedMessages.increment();
+        }
+
+        /**
+         * Record that a message has exceeded the rate limit of its type.
+         */
+        public void messageLimited() {
+            limitedMessages.increment();
+        }
+
+        /**
+         * Record that a connection has exceeded a rate limit for the first time.
+         */
+        public void nodeLimited() {
+            limitedNodes.increment();
+        }
+
+        /**
+         * Return a stream counting the bytes read from another one as received by the transport.
+         *
+         * @param in the stream to count
+         * @return the counting stream
+         */
+        public InputStream countInput(InputStream in) {
+            return new CountingInputStream(in, this);
+        }
+
+        /**
+         * Return a stream counting the bytes written to another one as sent by the transport.
+         *
+         * @param out the stream to count
+         * @return the counting stream
+         */
+        public OutputStream countOutput(OutputStream out) {
+            return new CountingOutputStream(out, this);
+        }
+
+        @Override
+        public long getOpenNodes() {
+            return openNodes.sum();
+        }
+
+        @Override
+        public long getOpenedNodes() {
+            return openedNodes.sum();
+        }
+
+        @Override
+        public long getPingFailures() {
+            return pingFailures.sum();
+        }
+
+        @Override
+        public long getBytesIn() {
+            return bytesIn.sum();
+        }
+
+        @Override
+        public long getBytesOut() {
+            return bytesOut.sum();
+        }
+
+        @Override
+        public long getRejectedMessages() {
+            return rejectedMessages.sum();
+        }
+
+        @Override
+        public long getLimitedMessages() {
+            return limitedMessages.sum();
+        }
+
+        @Override
+        public long getLimitedNodes() {
+            return limitedNodes.sum();
+        }
+    }
+
+    /**
+     * An input stream adding the bytes read to the counters of a transport.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final Counters counters;
+
+        private CountingInputStream(InputStream in, Counters counters) {
+            super(in);
+            this.counters = counters;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b != -1)
+                counters.addBytesIn(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0)
+                counters.addBytesIn(read);
+            return read;
+        }
+    }
+
+    /**
+     * An output stream adding the bytes written to the counters of a transport.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private final Counters counters;
+
+        private CountingOutputStream(OutputStream out, Counters counters) {
+            super(out);
+            this.counters = counters;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            counters.addBytesOut(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len); // FilterOutputStream would write the bytes one at a time
+            counters.addBytesOut(len);
+        }
+    }
+}
@@ -54,4 +54,7 @@ public interface ModelInterface {
     int getPointsGainedFromObjectives(String nickname) throws PlayerNotFoundException;
     public Optional<Integer> getNextResourceCardKingdom();
     public Optional<Integer> getNextGoldCardKingdom();
+    long getSeed();
+    long getVersion();
+    long getPlayerFieldVersion(String nickname) throws PlayerNotFoundException;
 }
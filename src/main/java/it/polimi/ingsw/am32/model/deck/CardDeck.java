@@ -5,6 +5,7 @@ import it.polimi.ingsw.am32.model.deck.utils.DeckType;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Random;
 
 /**
  * Contains a collection of Cards implemented as a stack.
@@ -47,6 +48,15 @@ public class CardDeck {
         Collections.shuffle(cards);
     }
 
+    /**
+     * Randomly rearranges the cards using the given source of randomness.
+     *
+     * @param random The source of randomness used to rearrange the cards
+     */
+    public void shuffle(Random random) {
+        Collections.shuffle(cards, random);
+    }
+
     /**
      * Adds a card to the top of the deck.
      *
@@ -8,6 +8,7 @@ import it.polimi.ingsw.am32.model.exceptions.MissingJSONException;
 import it.polimi.ingsw.am32.model.exceptions.WrongDeckTypeException;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 /**
  * This class is responsible for building a deck of Cards.
@@ -29,11 +30,23 @@ public class CardDeckBuilder {
      * @exception WrongDeckTypeException Thrown if the deckType parameter does not match any DeckType
      */
     public CardDeck buildCardDeck(DeckType deckType) {
+        return buildCardDeck(deckType, new Random());
+    }
+
+    /**
+     * Builds a deck of Cards of the specified type, shuffling it with the given source of randomness.
+     *
+     * @param deckType The type of the deck to be built.
+     * @param random The source of randomness used to shuffle the deck.
+     * @return A CardDeck object containing the cards of the specified type.
+     * @exception WrongDeckTypeException Thrown if the deckType parameter does not match any DeckType
+     */
+    public CardDeck buildCardDeck(DeckType deckType, Random random) {
         if (deckType != DeckType.OBJECTIVE) {
             throw new WrongDeckTypeException("Attempted to build a NonObjectiveCard deck using CardDeckBuilder.");
         } else {
             CardDeck deck = new CardDeck(loadCardsFromDisk(deckType), deckType);
-            deck.shuffle();
+            deck.shuffle(random);
             return deck;
         }
     }
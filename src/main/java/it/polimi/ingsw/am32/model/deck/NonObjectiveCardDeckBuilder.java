@@ -9,6 +9,7 @@ import it.polimi.ingsw.am32.model.exceptions.MissingJSONException;
 import it.polimi.ingsw.am32.model.exceptions.WrongDeckTypeException;
 
 import java.util.ArrayList;
+import java.util.Random;
 
 /**
  * This class is responsible for building a deck of NonObjectiveCards.
@@ -30,11 +31,23 @@ public class NonObjectiveCardDeckBuilder {
      * @exception  WrongDeckTypeException Thrown if the deckType parameter does not match any DeckType
      */
     public NonObjectiveCardDeck buildNonObjectiveCardDeck(DeckType deckType) {
+        return buildNonObjectiveCardDeck(deckType, new Random());
+    }
+
+    /**
+     * Builds a deck of NonObjectiveCards of the specified type, shuffling it with the given source of randomness.
+     *
+     * @param deckType The type of the deck to be built.
+     * @param random The source of randomness used to shuffle the deck.
+     * @return A NonObjectiveCardDeck object containing the cards of the specified type.
+     * @exception  WrongDeckTypeException Thrown if the deckType parameter does not match any DeckType
+     */
+    public NonObjectiveCardDeck buildNonObjectiveCardDeck(DeckType deckType, Random random) {
         if (deckType == DeckType.OBJECTIVE) {
             throw new WrongDeckTypeException("Attempted to build a Card deck using NonObjectiveCardDeckBuilder.");
         } else {
             NonObjectiveCardDeck deck = new NonObjectiveCardDeck(loadCardsFromDisk(deckType), deckType);
-            deck.shuffle();
+            deck.shuffle(random);
             return deck;
         }
     }
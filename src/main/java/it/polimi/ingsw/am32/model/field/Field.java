@@ -7,7 +7,11 @@ import it.polimi.ingsw.am32.model.exceptions.InvalidPositionException;
 import it.polimi.ingsw.am32.model.exceptions.MissingRequirementsException;
 import it.polimi.ingsw.am32.model.exceptions.RollbackException;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Map;
 
 /**
  * Used to store information about the field of the player. It contains the cards placed and the resources available.
@@ -34,6 +38,11 @@ public class Field {
      * The resources owned by the player before the last card was placed; used for rollback
      */
     private final int[] oldActiveRes;
+    /**
+     * The number of changes applied to the field since it was created; used to tell whether a copy of the field is
+     * up to date
+     */
+    private long version;
 
     //---------------------------------------------------------------------------------------------
     // Constructors
@@ -62,6 +71,19 @@ public class Field {
     }
 
 
+    /**
+     * Initialize a field with the given state. Used to restore a field from a snapshot.
+     *
+     * @param fieldCards the cards placed in the field, the last placed card first
+     * @param activeRes the resources currently owned by the player
+     * @param oldActiveRes the resources owned by the player before the last card was placed
+     */
+    private Field(ArrayList<CardPlaced> fieldCards, int[] activeRes, int[] oldActiveRes) {
+        this.fieldCards = fieldCards;
+        this.activeRes = activeRes;
+        this.oldActiveRes = oldActiveRes;
+    }
+
     //---------------------------------------------------------------------------------------------
     // Methods
 
@@ -207,6 +229,8 @@ public class Field {
         activeRes[4] -= resToSub[4];
         activeRes[5] -= resToSub[5];
         activeRes[6] -= resToSub[6];
+
+        version++;
     }
 
     /**
@@ -410,11 +434,59 @@ public class Field {
         // Restore resources to previous state.
         // This is done by overwriting the activeRes array with the oldActiveRes array.
         System.arraycopy(oldActiveRes, 0, activeRes, 0, resourcesSize);
+        version++;
 
         // Return the removed card.
         return removedCard.getNonObjectiveCard();
     }
 
+    /**
+     * Writes the state of the field in a compact binary layout: the placed cards, from the last placed one, followed by
+     * the current resources and by the resources saved for rollback.
+     *
+     * @param out is the output the field is written to
+     * @throws IOException if the field could not be written
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeShort(fieldCards.size());
+        for (CardPlaced cardPlaced : fieldCards) {
+            out.writeShort(cardPlaced.getNonObjectiveCard().getId());
+            out.writeShort(cardPlaced.getX());
+            out.writeShort(cardPlaced.getY());
+            out.writeBoolean(cardPlaced.getIsUp());
+        }
+        for (int i = 0; i < resourcesSize; i++) {
+            out.writeShort(activeRes[i]);
+            out.writeShort(oldActiveRes[i]);
+        }
+    }
+
+    /**
+     * Reads a field written by {@link #writeSnapshot(DataOutput)}.
+     *
+     * @param in is the input the field is read from
+     * @param cards contains the cards of the match, indexed by id
+     * @return the restored field
+     * @throws IOException if the field could not be read
+     */
+    public static Field readSnapshot(DataInput in, Map<Integer, NonObjectiveCard> cards) throws IOException {
+        int size = in.readShort();
+        ArrayList<CardPlaced> fieldCards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            NonObjectiveCard card = cards.get((int) in.readShort());
+            if (card == null)
+                throw new IOException("Unknown card in field snapshot");
+            fieldCards.add(new CardPlaced(card, in.readShort(), in.readShort(), in.readBoolean()));
+        }
+        int[] activeRes = new int[resourcesSize];
+        int[] oldActiveRes = new int[resourcesSize];
+        for (int i = 0; i < resourcesSize; i++) {
+            activeRes[i] = in.readShort();
+            oldActiveRes[i] = in.readShort();
+        }
+        return new Field(fieldCards, activeRes, oldActiveRes);
+    }
+
     //---------------------------------------------------------------------------------------------
     // Getters
 
@@ -427,6 +499,15 @@ public class Field {
         return fieldCards;
     }
 
+    /**
+     * Getter
+     *
+     * @return the version of the field, increased each time a card is placed or rolled back
+     */
+    public long getVersion() {
+        return version;
+    }
+
     /**
      * Getter
      *
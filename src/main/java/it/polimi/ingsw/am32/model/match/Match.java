@@ -13,10 +13,10 @@ import it.polimi.ingsw.am32.model.exceptions.*;
 import it.polimi.ingsw.am32.model.player.Colour;
 import it.polimi.ingsw.am32.model.player.Player;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.Optional;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.isNull;
@@ -77,19 +77,39 @@ public class Match implements ModelInterface {
      * The number of the turn.
      */
     private int currentTurnNumber;
+    /**
+     * The source of randomness used for every random choice of the match (deck shuffling, colours and players order).
+     */
+    private final ReplayableRandom random;
+    /**
+     * The number of commands applied to the match, increased before each command is applied, even if the match then
+     * rejects it; used to tell whether a copy of the state of the match is up to date.
+     */
+    private long version;
 
     /**
-     * Constructor: Initialize a new Match instance. It builds the decks and place the needed cards on the field.
+     * Constructor: Initialize a new Match instance with a random seed. It builds the decks and place the needed cards on the field.
      */
     public Match() {
+        this(new Random().nextLong());
+    }
+
+    /**
+     * Constructor: Initialize a new Match instance. It builds the decks and place the needed cards on the field.
+     * Two matches created with the same seed, and receiving the same sequence of calls, evolve in exactly the same way.
+     *
+     * @param seed The seed of the source of randomness of the match
+     */
+    public Match(long seed) {
+        this.random = new ReplayableRandom(seed);
         // Initialize the deck-builders
         NonObjectiveCardDeckBuilder nonObjectiveCardDeckBuilder = new NonObjectiveCardDeckBuilder();
         CardDeckBuilder cardDeckBuilder = new CardDeckBuilder();
         // Build the decks
-        this.objectiveCardsDeck = cardDeckBuilder.buildCardDeck(DeckType.OBJECTIVE);
-        this.starterCardsDeck = nonObjectiveCardDeckBuilder.buildNonObjectiveCardDeck(DeckType.STARTING);
-        this.resourceCardsDeck = nonObjectiveCardDeckBuilder.buildNonObjectiveCardDeck(DeckType.RESOURCE);
-        this.goldCardsDeck = nonObjectiveCardDeckBuilder.buildNonObjectiveCardDeck(DeckType.GOLD);
+        this.objectiveCardsDeck = cardDeckBuilder.buildCardDeck(DeckType.OBJECTIVE, random);
+        this.starterCardsDeck = nonObjectiveCardDeckBuilder.buildNonObjectiveCardDeck(DeckType.STARTING, random);
+        this.resourceCardsDeck = nonObjectiveCardDeckBuilder.buildNonObjectiveCardDeck(DeckType.RESOURCE, random);
+        this.goldCardsDeck = nonObjectiveCardDeckBuilder.buildNonObjectiveCardDeck(DeckType.GOLD, random);
         // Initialize the lists to store the deck cards visible on the field
         currentResourceCards = new ArrayList<>();
         currentGoldCards = new ArrayList<>();
@@ -108,6 +128,7 @@ public class Match implements ModelInterface {
      * Sets the match status flag to LOBBY.
      */
     public void enterLobbyPhase() {
+        version++;
         matchStatus = MatchStatus.LOBBY;
     }
 
@@ -118,6 +139,7 @@ public class Match implements ModelInterface {
      * @throws DuplicateNicknameException Nickname taken
      */
     public void addPlayer(String nickname) throws DuplicateNicknameException {
+        version++;
         for (Player player : players) {
             if (player.getNickname().equals(nickname))
                 // Player with similar nickname already present in list of players
@@ -135,6 +157,7 @@ public class Match implements ModelInterface {
      * @throws PlayerNotFoundException if the player with the given nickname was not found in the list of players
      */
     public void deletePlayer(String nickname) throws PlayerNotFoundException {
+        version++;
         if(!players.removeIf(player -> player.getNickname().equals(nickname))){
             throw new PlayerNotFoundException("Player not found in the list of players");
         }
@@ -144,6 +167,7 @@ public class Match implements ModelInterface {
      * Sets the match status flag to PREPARATION.
      */
     public void enterPreparationPhase() {
+        version++;
         matchStatus = MatchStatus.PREPARATION;
     }
 
@@ -151,10 +175,11 @@ public class Match implements ModelInterface {
      * Assigns a random colour to each player in the game.
      */
     public void assignRandomColoursToPlayers() {
+        version++;
         ArrayList<Colour> colour_array = new ArrayList<>(Arrays.asList(Colour.values())); // Create ArrayList of colours
         colour_array.remove(Colour.BLACK); // Remove black from ArrayList
 
-        Collections.shuffle(colour_array);
+        Collections.shuffle(colour_array, random);
 
         for (int i=0; i<players.size(); i++) { // Assign colour to each player
             players.get(i).setColour(colour_array.get(i));
@@ -165,6 +190,7 @@ public class Match implements ModelInterface {
      * Assigns a random starting initial card to each player in the game
      */
     public void assignRandomStartingInitialCardsToPlayers() {
+        version++;
         for (Player player : players) { // For each player
             NonObjectiveCard drawnCard = starterCardsDeck.draw(); // Draw a card from the starter cards deck
             player.assignStartingCard(drawnCard); // Place drawn card in player hand
@@ -195,6 +221,7 @@ public class Match implements ModelInterface {
      * @throws PlayerNotFoundException if the player with the given nickname was not found in the list of players
      */
     public void createFieldPlayer(String nickname, boolean side) throws PlayerNotFoundException {
+        version++;
         for (Player player : players) { // Scan all players
             if (player.getNickname().equals(nickname)) {
                 player.initializeGameField(side);
@@ -208,6 +235,7 @@ public class Match implements ModelInterface {
      * Assigns the two initial resource cards to each player at the beginning of the game
      */
     public void assignRandomStartingResourceCardsToPlayers() {
+        version++;
         for (Player player : players) { // For all players
             for (int j = 0; j < 2; j++) { // Puts 2 card in each player's hand
                 NonObjectiveCard c = resourceCardsDeck.draw();
@@ -220,6 +248,7 @@ public class Match implements ModelInterface {
      * Assigns the two initial gold cards to each player at the beginning of the game
      */
     public void assignRandomStartingGoldCardsToPlayers() {
+        version++;
         for (Player player : players) { // For all players
             NonObjectiveCard c = goldCardsDeck.draw(); // Puts 1 card in each player's hand
             player.putCardInHand(c);
@@ -230,6 +259,7 @@ public class Match implements ModelInterface {
      * Selects the two initial common objective cards at the beginning of the game
      */
     public void pickRandomCommonObjectives() {
+        version++;
         for (int i=0; i<2; i++) {
             Card c = objectiveCardsDeck.draw();
             commonObjectives[i] = c;
@@ -240,6 +270,7 @@ public class Match implements ModelInterface {
      * Assigns to each player a secret objective card
      */
     public void assignRandomStartingSecretObjectivesToPlayers() {
+        version++;
         for (Player player : players) {
             Card c1 = objectiveCardsDeck.draw();
             Card c2 = objectiveCardsDeck.draw();
@@ -278,6 +309,7 @@ public class Match implements ModelInterface {
      * @throws PlayerNotFoundException if the player with the given nickname was not found in the list of players.
      */
     public void receiveSecretObjectiveChoiceFromPlayer(String nickname, int id) throws InvalidSelectionException, PlayerNotFoundException {
+        version++;
         for (Player player : players) { // Scan all players
             if (player.getNickname().equals(nickname)) { // Found player with correct nickname
                 player.secretObjectiveSelection(id);
@@ -291,9 +323,10 @@ public class Match implements ModelInterface {
      * Shuffles the players ArrayList
      */
     public void randomizePlayersOrder() {
+        version++;
         ArrayList<Player> originalOrder = new ArrayList<>(players);
         do {
-            Collections.shuffle(players);
+            Collections.shuffle(players, random);
         } while (players.equals(originalOrder));
     }
 
@@ -301,6 +334,7 @@ public class Match implements ModelInterface {
      * Sets the match status flag to PLAYING.
      */
     public void enterPlayingPhase() {
+        version++;
         matchStatus = MatchStatus.PLAYING;
     }
 
@@ -308,6 +342,7 @@ public class Match implements ModelInterface {
      * Resets current turn number to 1 and sets current player to the first player.
      */
     public void startTurns() {
+        version++;
         currentPlayerNickname = players.getFirst().getNickname();
         currentTurnNumber = 1;
     }
@@ -325,6 +360,7 @@ public class Match implements ModelInterface {
      */
     public void placeCard(int id, int x, int y, boolean side) throws InvalidSelectionException,
             MissingRequirementsException, InvalidPositionException, PlayerNotFoundException {
+        version++;
         backupMatchStatus = matchStatus;
         for (int i=0; i<=players.size(); i++) {
             if (players.get(i).getNickname().equals(currentPlayerNickname)) { // Found current player
@@ -344,6 +380,7 @@ public class Match implements ModelInterface {
      * @throws PlayerNotFoundException if currentPlayerNickname was not found in the list of players.
      */
     public void rollbackPlacement() throws RollbackException, PlayerNotFoundException {
+        version++;
         for (Player player : players) {
             if (player.getNickname().equals(currentPlayerNickname)) {
                 player.rollbackMove();
@@ -362,6 +399,7 @@ public class Match implements ModelInterface {
  * @throws PlayerNotFoundException if the current player could not be found
  */
     public void drawCard(int deckType, int id) throws DrawException, PlayerNotFoundException {
+        version++;
         // Retrieve the player who is playing using the currentPlayerNickname
         for (Player player : players){
             if(player.getNickname().equals(currentPlayerNickname)){
@@ -428,6 +466,7 @@ public class Match implements ModelInterface {
      * The current turn number is incremented by 1.
      */
     public void nextTurn() {
+        version++;
         for (int i=0; i<players.size(); i++) {
             if (players.get(i).getNickname().equals(currentPlayerNickname)) {
                 currentPlayerNickname = (i == players.size() - 1) ? players.getFirst().getNickname() : players.get(i+1).getNickname();
@@ -441,6 +480,7 @@ public class Match implements ModelInterface {
      * Sets the match status flag to TERMINATING.
      */
     public void setTerminating() {
+        version++;
         matchStatus = MatchStatus.TERMINATING;
     }
 
@@ -466,6 +506,7 @@ public class Match implements ModelInterface {
      * Sets the match status flag to LAST_TURN.
      */
     public void setLastTurn() {
+        version++;
         matchStatus = MatchStatus.LAST_TURN;
     }
 
@@ -473,6 +514,7 @@ public class Match implements ModelInterface {
      * Sets the match status flag to TERMINATED.
      */
     public void enterTerminatedPhase() {
+        version++;
         matchStatus = MatchStatus.TERMINATED;
     }
 
@@ -481,6 +523,7 @@ public class Match implements ModelInterface {
      * @throws AlreadyComputedPointsException Tried to calculate points when they were already calculated.
      */
     public void addObjectivePoints() throws AlreadyComputedPointsException {
+        version++;
         for (Player player : players) {
             player.updatePointsForObjectives(commonObjectives);
             player.updatePointsForSecretObjective();
@@ -818,4 +861,149 @@ public class Match implements ModelInterface {
         return Optional.of(goldCardsDeck.getCards().getLast().getKingdom().getValue());
     }
 
+    /**
+     * Getter
+     *
+     * @return The seed of the source of randomness of the match
+     */
+    public long getSeed() {
+        return random.getInitialSeed();
+    }
+
+    /**
+     * Getter
+     *
+     * @return The version of the match, increased by each command applied to it
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * This method retrieves the version of the field of a specific player, increased each time a card is placed on the
+     * field or rolled back.
+     *
+     * @param nickname The nickname of the player whose field version we want to retrieve.
+     * @return The version of the field of the player, or -1 if the field has not yet been initialized.
+     * @throws PlayerNotFoundException if the player with the given nickname was not found in the list of players.
+     */
+    public long getPlayerFieldVersion(String nickname) throws PlayerNotFoundException {
+        for (Player player : players) {
+            if (player.getNickname().equals(nickname))
+                return player.getField() == null ? -1 : player.getField().getVersion();
+        }
+        throw new PlayerNotFoundException("Player not found in the list of players");
+    }
+
+    /**
+     * Writes the whole state of the match in a compact binary layout: the state of the source of randomness, the phase
+     * and the turn of the match, the order of the cards left in every deck, the cards on the field, the common objectives
+     * and the state of every player (field, hand, objectives and points). Cards are written as their ids.
+     *
+     * @param out The output the match is written to
+     * @throws IOException If the match could not be written
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeLong(random.getInitialSeed());
+        out.writeLong(random.getDraws());
+        out.writeByte(isNull(matchStatus) ? -1 : matchStatus.ordinal());
+        out.writeByte(isNull(backupMatchStatus) ? -1 : backupMatchStatus.ordinal());
+        out.writeBoolean(currentPlayerNickname != null);
+        if (currentPlayerNickname != null) out.writeUTF(currentPlayerNickname);
+        out.writeInt(currentTurnNumber);
+
+        writeCardIds(out, objectiveCardsDeck.getCards());
+        writeCardIds(out, starterCardsDeck.getCards());
+        writeCardIds(out, resourceCardsDeck.getCards());
+        writeCardIds(out, goldCardsDeck.getCards());
+        writeCardIds(out, currentResourceCards);
+        writeCardIds(out, currentGoldCards);
+        writeCardIds(out, Arrays.asList(commonObjectives));
+
+        out.writeByte(players.size());
+        for (Player player : players) {
+            player.writeSnapshot(out);
+        }
+    }
+
+    /**
+     * Reads a match written by {@link #writeSnapshot(DataOutput)}.
+     * The restored match is in the same state as the written one, and it will make the same random choices.
+     *
+     * @param in The input the match is read from
+     * @return The restored match
+     * @throws IOException If the match could not be read
+     */
+    public static Match readSnapshot(DataInput in) throws IOException {
+        Match match = new Match(in.readLong()); // Loads all the cards of the game
+        match.random.restore(in.readLong());
+
+        // Index all the cards of the game by id
+        Map<Integer, NonObjectiveCard> nonObjectiveCards = new HashMap<>();
+        for (NonObjectiveCard card : match.starterCardsDeck.getCards()) nonObjectiveCards.put(card.getId(), card);
+        for (NonObjectiveCard card : match.resourceCardsDeck.getCards()) nonObjectiveCards.put(card.getId(), card);
+        for (NonObjectiveCard card : match.goldCardsDeck.getCards()) nonObjectiveCards.put(card.getId(), card);
+        for (NonObjectiveCard card : match.currentResourceCards) nonObjectiveCards.put(card.getId(), card);
+        for (NonObjectiveCard card : match.currentGoldCards) nonObjectiveCards.put(card.getId(), card);
+        Map<Integer, Card> objectiveCards = new HashMap<>();
+        for (Card card : match.objectiveCardsDeck.getCards()) objectiveCards.put(card.getId(), card);
+
+        int matchStatus = in.readByte();
+        match.matchStatus = matchStatus == -1 ? null : MatchStatus.values()[matchStatus];
+        int backupMatchStatus = in.readByte();
+        match.backupMatchStatus = backupMatchStatus == -1 ? null : MatchStatus.values()[backupMatchStatus];
+        match.currentPlayerNickname = in.readBoolean() ? in.readUTF() : null;
+        match.currentTurnNumber = in.readInt();
+
+        readCardIds(in, match.objectiveCardsDeck.getCards(), objectiveCards);
+        readCardIds(in, match.starterCardsDeck.getCards(), nonObjectiveCards);
+        readCardIds(in, match.resourceCardsDeck.getCards(), nonObjectiveCards);
+        readCardIds(in, match.goldCardsDeck.getCards(), nonObjectiveCards);
+        readCardIds(in, match.currentResourceCards, nonObjectiveCards);
+        readCardIds(in, match.currentGoldCards, nonObjectiveCards);
+        ArrayList<Card> commonObjectives = new ArrayList<>();
+        readCardIds(in, commonObjectives, objectiveCards);
+        for (int i = 0; i < match.commonObjectives.length; i++) {
+            match.commonObjectives[i] = commonObjectives.get(i);
+        }
+
+        int playerCount = in.readByte();
+        for (int i = 0; i < playerCount; i++) {
+            match.players.add(Player.readSnapshot(in, nonObjectiveCards, objectiveCards));
+        }
+        return match;
+    }
+
+    /**
+     * Writes the ids of the given cards, preceded by their number. Missing cards are written as -1.
+     *
+     * @param out The output the ids are written to
+     * @param cards The cards whose ids are written
+     * @throws IOException If the ids could not be written
+     */
+    private static void writeCardIds(DataOutput out, List<? extends Card> cards) throws IOException {
+        out.writeShort(cards.size());
+        for (Card card : cards) {
+            out.writeShort(isNull(card) ? -1 : card.getId());
+        }
+    }
+
+    /**
+     * Replaces the content of the given list with the cards whose ids are read from the input.
+     *
+     * @param in The input the ids are read from
+     * @param cards The list that is filled with the read cards
+     * @param catalog Contains the cards of the match, indexed by id
+     * @throws IOException If the ids could not be read, or an id does not belong to any card
+     */
+    private static <T extends Card> void readCardIds(DataInput in, List<T> cards, Map<Integer, T> catalog) throws IOException {
+        cards.clear();
+        int size = in.readShort();
+        for (int i = 0; i < size; i++) {
+            int id = in.readShort();
+            if (id != -1 && !catalog.containsKey(id)) throw new IOException("Unknown card " + id + " in match snapshot");
+            cards.add(id == -1 ? null : catalog.get(id));
+        }
+    }
+
 }
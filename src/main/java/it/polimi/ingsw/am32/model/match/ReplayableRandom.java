@@ -0,0 +1,75 @@
+package it.polimi.ingsw.am32.model.match;
+
+import java.util.Random;
+
+/**
+ * Source of randomness whose state can be saved and restored. <br>
+ * The state of a {@link Random} only depends on its seed and on the number of values generated from it, so counting the
+ * generated values is enough to bring a new instance, built with the same seed, to the same state.
+ *
+ * @author Lorenzo
+ */
+public class ReplayableRandom extends Random {
+    /**
+     * The seed the generator was built with.
+     */
+    private final long initialSeed;
+    /**
+     * The number of values generated since the generator was built.
+     */
+    private long draws;
+
+    /**
+     * Constructor: Initialize a new generator with the given seed.
+     *
+     * @param seed The seed of the generator
+     */
+    public ReplayableRandom(long seed) {
+        super(seed);
+        this.initialSeed = seed;
+        this.draws = 0;
+    }
+
+    /**
+     * Generates the next value, keeping track of the number of generated values.
+     *
+     * @param bits The number of random bits
+     * @return The next random value
+     */
+    @Override
+    protected int next(int bits) {
+        draws++;
+        return super.next(bits);
+    }
+
+    /**
+     * Brings the generator to the state it had after generating the given number of values.
+     *
+     * @param draws The number of values generated by the generator whose state is restored
+     */
+    public synchronized void restore(long draws) {
+        setSeed(initialSeed);
+        for (long i = 0; i < draws; i++) {
+            super.next(32);
+        }
+        this.draws = draws;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The seed the generator was built with
+     */
+    public long getInitialSeed() {
+        return initialSeed;
+    }
+
+    /**
+     * Getter
+     *
+     * @return The number of values generated since the generator was built
+     */
+    public long getDraws() {
+        return draws;
+    }
+}
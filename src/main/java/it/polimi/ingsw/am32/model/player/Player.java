@@ -6,7 +6,11 @@ import it.polimi.ingsw.am32.model.card.pointstrategy.PointStrategy;
 import it.polimi.ingsw.am32.model.exceptions.*;
 import it.polimi.ingsw.am32.model.field.Field;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 /**
@@ -347,6 +351,75 @@ public class Player {
         return availableCoordinate;
     }
 
+    /**
+     * Writes the state of the player in a compact binary layout. Cards are written as their ids, and missing cards
+     * or values as -1.
+     *
+     * @param out is the output the player is written to
+     * @throws IOException if the player could not be written
+     */
+    public void writeSnapshot(DataOutput out) throws IOException {
+        out.writeUTF(nickname);
+        out.writeByte(colour == null ? -1 : colour.ordinal());
+        out.writeInt(points);
+        out.writeInt(oldPoints);
+        out.writeInt(pointsGainedFromObjectives);
+        out.writeBoolean(objectivePointsState[0]);
+        out.writeBoolean(objectivePointsState[1]);
+        out.writeShort(secretObjective == null ? -1 : secretObjective.getId());
+        for (Card card : tmpSecretObj) {
+            out.writeShort(card == null ? -1 : card.getId());
+        }
+        out.writeShort(hand == null ? -1 : hand.size());
+        if (hand != null) {
+            for (NonObjectiveCard card : hand) {
+                out.writeShort(card.getId());
+            }
+        }
+        out.writeBoolean(gameField != null);
+        if (gameField != null) {
+            gameField.writeSnapshot(out);
+        }
+    }
+
+    /**
+     * Reads a player written by {@link #writeSnapshot(DataOutput)}.
+     *
+     * @param in is the input the player is read from
+     * @param nonObjectiveCards contains the non-objective cards of the match, indexed by id
+     * @param objectiveCards contains the objective cards of the match, indexed by id
+     * @return the restored player
+     * @throws IOException if the player could not be read
+     */
+    public static Player readSnapshot(DataInput in, Map<Integer, NonObjectiveCard> nonObjectiveCards, Map<Integer, Card> objectiveCards) throws IOException {
+        Player player = new Player(in.readUTF());
+        int colour = in.readByte();
+        player.colour = colour == -1 ? null : Colour.values()[colour];
+        player.points = in.readInt();
+        player.oldPoints = in.readInt();
+        player.pointsGainedFromObjectives = in.readInt();
+        player.objectivePointsState[0] = in.readBoolean();
+        player.objectivePointsState[1] = in.readBoolean();
+        player.secretObjective = objectiveCards.get((int) in.readShort());
+        for (int i = 0; i < secObjOptions; i++) {
+            player.tmpSecretObj[i] = objectiveCards.get((int) in.readShort());
+        }
+        int handSize = in.readShort();
+        if (handSize != -1) {
+            player.hand = new ArrayList<>(handSize);
+            for (int i = 0; i < handSize; i++) {
+                NonObjectiveCard card = nonObjectiveCards.get((int) in.readShort());
+                if (card == null)
+                    throw new IOException("Unknown card in hand snapshot");
+                player.hand.add(card);
+            }
+        }
+        if (in.readBoolean()) {
+            player.gameField = Field.readSnapshot(in, nonObjectiveCards);
+        }
+        return player;
+    }
+
     //---------------------------------------------------------------------------------------------
     // Getters
 
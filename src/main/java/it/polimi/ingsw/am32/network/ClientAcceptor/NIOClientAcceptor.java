@@ -0,0 +1,106 @@
+package it.polimi.ingsw.am32.network.ClientAcceptor;
+
+import it.polimi.ingsw.am32.network.ServerNode.NIOSelectorLoop;
+import it.polimi.ingsw.am32.network.ServerNode.NIOServerNode;
+import it.polimi.ingsw.am32.network.exceptions.UninitializedException;
+import it.polimi.ingsw.am32.utilities.Configuration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The class {@code NIOClientAcceptor} manages the new requests of connection to the server by the clients using socket
+ * as network protocol, as {@link SKClientAcceptor} does. <br>
+ * Instead of dedicating a thread to each connection, the accepted connections are distributed among a fixed number of
+ * {@link NIOSelectorLoop}, each one multiplexing the reads of all its connections on a single thread. A thread is used
+ * to process the messages of a connection only while its bytes are being decoded, so that idle connections cost no
+ * thread. <br>
+ * Only one instance of this class is required to be created when the server is run.
+ * Because this class is an implementation of the interface {@link Runnable}, is preferable to assign its instance to a
+ * new thread to maximise parallelization.
+ *
+ * @author Matteo
+ */
+public class NIOClientAcceptor implements Runnable {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(NIOClientAcceptor.class);
+
+    /**
+     * Variables used to tell whether connections are being accepted
+     */
+    private volatile ServerSocketChannel serverSocketChannel;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Invoking this method will start the selector threads and lead to the creation of a {@link ServerSocketChannel}
+     * that will wait for new incoming connections. <br>
+     * When a client attempt to establish a connection with the server, a new instance of {@link NIOServerNode} will be
+     * created and registered, in turn, to one of the selector threads.
+     */
+    public void run() {
+
+        ExecutorService executorService = Configuration.getInstance().getExecutorService();
+        NIOSelectorLoop[] selectorLoops = new NIOSelectorLoop[Configuration.getInstance().getNioSelectorThreads()];
+
+        try {
+            for (int i = 0; i < selectorLoops.length; i++) {
+                selectorLoops[i] = new NIOSelectorLoop();
+                executorService.submit(selectorLoops[i]);
+            }
+
+            serverSocketChannel = ServerSocketChannel.open();
+            serverSocketChannel.bind(new InetSocketAddress(Configuration.getInstance().getSocketPort()));
+        } catch (IOException e) {
+            logger.fatal("Socket communications not available. ServerSocketChannel initialization failed");
+            for (NIOSelectorLoop selectorLoop : selectorLoops) {
+                if (selectorLoop != null)
+                    selectorLoop.close();
+            }
+            return;
+        }
+
+        logger.debug("Server Socket Channel initialized successfully, {} selector threads started", selectorLoops.length);
+
+        int nextSelectorLoop = 0;
+
+        while (true) {
+            try {
+                SocketChannel socketChannel = serverSocketChannel.accept();
+
+                NIOServerNode nioServerNode = new NIOServerNode(socketChannel);
+                logger.info("Accepted connection from: {}. NIOServerNode created successfully", socketChannel.getRemoteAddress());
+                selectorLoops[nextSelectorLoop].register(nioServerNode);
+                nextSelectorLoop = (nextSelectorLoop + 1) % selectorLoops.length;
+
+            } catch (IOException e) {
+                logger.error("Connection accept failed: {}", e.getMessage());
+            } catch (UninitializedException e) {
+                logger.error("NIOServerNode initialization failed");
+            }
+        }
+    }
+
+    /**
+     * Return whether the {@link ServerSocketChannel} has been bound and is accepting new connections.
+     *
+     * @return true if the connections of the clients are being accepted
+     */
+    public boolean isAccepting() {
+        ServerSocketChannel serverSocketChannel = this.serverSocketChannel;
+        return serverSocketChannel != null && serverSocketChannel.isOpen() && serverSocketChannel.socket().isBound();
+    }
+}
@@ -5,12 +5,18 @@ import it.polimi.ingsw.am32.controller.exceptions.abstraction.LobbyMessageExcept
 import it.polimi.ingsw.am32.message.ClientToServer.CtoSLobbyMessage;
 import it.polimi.ingsw.am32.message.ServerToClient.ErrorMessage;
 import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
 import it.polimi.ingsw.am32.network.ClientNode.ClientNodeInterface;
 import it.polimi.ingsw.am32.network.ClientNode.RMIClientNodeInt;
 import it.polimi.ingsw.am32.network.ServerNode.RMIServerNode;
 import it.polimi.ingsw.am32.network.ServerNode.RMIServerNodeInt;
-import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import it.polimi.ingsw.am32.network.exceptions.NodeClosedException;
+import it.polimi.ingsw.am32.network.framing.MessageInputFilter;
+import it.polimi.ingsw.am32.network.rmi.TunedClientSocketFactory;
+import it.polimi.ingsw.am32.network.rmi.TunedServerSocketFactory;
 import it.polimi.ingsw.am32.utilities.Configuration;
+import it.polimi.ingsw.am32.utilities.ProtocolLogSampler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -25,7 +31,7 @@ import java.rmi.server.UnicastRemoteObject;
  *
  * @author Matteo
  */
-public class RMIClientAcceptor extends UnicastRemoteObject implements RMIClientAcceptorInt {
+public class RMIClientAcceptor implements RMIClientAcceptorInt {
 
     //---------------------------------------------------------------------------------------------
     // Variables and Constants
@@ -40,10 +46,16 @@ public class RMIClientAcceptor extends UnicastRemoteObject implements RMIClientA
     // Constructor
 
     /**
-     * Standard constructor of the class.
+     * Standard constructor of the class. <br>
+     * The object is exported with the socket factories configured in {@link Configuration}, so that the connections of
+     * the clients have read timeouts and the configured buffering and compression, and with a
+     * {@link MessageInputFilter} bounding the messages received from the clients.
      * @throws RemoteException thrown if the object couldn't be exported
      */
-    public RMIClientAcceptor() throws RemoteException {}
+    public RMIClientAcceptor() throws RemoteException {
+        UnicastRemoteObject.exportObject(this, 0, TunedClientSocketFactory.fromConfiguration(),
+                TunedServerSocketFactory.fromConfiguration(), MessageInputFilter.fromConfiguration(TransportMetrics.Transport.RMI));
+    }
 
 
     //---------------------------------------------------------------------------------------------
@@ -70,19 +82,22 @@ public class RMIClientAcceptor extends UnicastRemoteObject implements RMIClientA
             throws RemoteException, LobbyMessageException
     {
 
-        logger.info("Received a CtoSLobbyMessage from a RMI client: {}", message.toString());
+        if (ProtocolLogSampler.isSampled(logger, message))
+            logger.info("Received a CtoSLobbyMessage from a RMI client: {}", message);
 
         RMIServerNode rmiServerNode = new RMIServerNode(node);
 
         GameController gameController = null;
+        LatencyMetrics metrics = LatencyMetrics.getInstance();
+        long startTime = metrics.beginCommand(message, System.nanoTime());
         try {
             gameController = message.elaborateMessage(rmiServerNode);
         } catch (LobbyMessageException e) {
 
             Configuration.getInstance().getExecutorService().submit(() -> {
                 try {
-                    rmiServerNode.uploadToClient(new ErrorMessage(e.getMessage(), "PLAYER", e.getExceptionType().getValue()));
-                } catch (UploadFailureException ignore) {}
+                    node.uploadStoC(new ErrorMessage(e.getMessage(), "PLAYER", e.getExceptionType().getValue()));
+                } catch (RemoteException | NodeClosedException ignore) {}
                 rmiServerNode.destroy();
             });
 
@@ -97,6 +112,8 @@ public class RMIClientAcceptor extends UnicastRemoteObject implements RMIClientA
             rmiServerNode.destroy();
             logger.fatal("GameController access failed due to a critical exception: {}", e.getMessage());
             throw e;
+        } finally {
+            metrics.endCommand(startTime);
         }
 
         rmiServerNode.setGameController(gameController);
@@ -32,6 +32,11 @@ public class SKClientAcceptor implements Runnable {
      */
     private static final Logger logger = LogManager.getLogger(SKClientAcceptor.class);
 
+    /**
+     * Variables used to tell whether connections are being accepted
+     */
+    private volatile ServerSocket serverSocket;
+
 
     //---------------------------------------------------------------------------------------------
     // Methods
@@ -45,7 +50,6 @@ public class SKClientAcceptor implements Runnable {
     public void run() {
 
         ExecutorService executorService = Configuration.getInstance().getExecutorService();
-        ServerSocket serverSocket;
         try {
             serverSocket = new ServerSocket(Configuration.getInstance().getSocketPort());
         } catch (IOException e) {
@@ -70,4 +74,14 @@ public class SKClientAcceptor implements Runnable {
             }
         }
     }
+
+    /**
+     * Return whether the {@link ServerSocket} has been bound and is accepting new connections.
+     *
+     * @return true if the connections of the clients are being accepted
+     */
+    public boolean isAccepting() {
+        ServerSocket serverSocket = this.serverSocket;
+        return serverSocket != null && serverSocket.isBound() && !serverSocket.isClosed();
+    }
 }
@@ -0,0 +1,20 @@
+package it.polimi.ingsw.am32.network.ClientAcceptor;
+
+/**
+ * The enum {@code SocketTransport} lists the implementations that can be used by the server to accept and handle socket
+ * connections. <br>
+ * Both implementations speak the same protocol, so the choice is transparent to the clients.
+ *
+ * @author Matteo
+ */
+public enum SocketTransport {
+    /**
+     * Connections are accepted by {@link SKClientAcceptor}, and each connection is handled by a dedicated thread.
+     */
+    BLOCKING,
+    /**
+     * Connections are accepted by {@link NIOClientAcceptor}, and all connections are multiplexed over a few selector
+     * threads.
+     */
+    NIO
+}
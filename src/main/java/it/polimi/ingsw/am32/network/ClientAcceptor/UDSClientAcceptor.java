@@ -0,0 +1,101 @@
+package it.polimi.ingsw.am32.network.ClientAcceptor;
+
+import it.polimi.ingsw.am32.network.ServerNode.SKServerNode;
+import it.polimi.ingsw.am32.network.exceptions.UninitializedException;
+import it.polimi.ingsw.am32.network.unix.UnixDomainSocket;
+import it.polimi.ingsw.am32.utilities.Configuration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The class {@code UDSClientAcceptor} manages the new requests of connection to the server by the clients running on
+ * the same host, such as bots and proxies, through a Unix domain socket. <br>
+ * The connections are handled by {@link SKServerNode}, exactly as the connections accepted by {@link SKClientAcceptor}:
+ * the messages and the framing are the same, only the kernel path is shorter, since no TCP segment is built and no
+ * loopback interface is crossed. <br>
+ * It is created by the server only if a socket path is configured, and runs alongside the TCP acceptor.
+ * Because this class is an implementation of the interface {@link Runnable}, is preferable to assign its instance to a
+ * new thread to maximise parallelization.
+ *
+ * @author Matteo
+ */
+public class UDSClientAcceptor implements Runnable {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(UDSClientAcceptor.class);
+
+    /**
+     * Path of the socket file
+     */
+    private final Path path;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     *
+     * @param path the path of the socket file the acceptor will listen on
+     */
+    public UDSClientAcceptor(Path path) {
+        this.path = path;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Invoking this method will lead to the creation of a Unix domain {@link ServerSocketChannel} bound to the socket
+     * path, that will wait for new incoming connections. A socket file left by a previous run of the server is
+     * replaced. <br>
+     * When a client attempt to establish a connection with the server, a new instance of {@link SKServerNode} will be
+     * created and the connection will be handled by this instance.
+     */
+    public void run() {
+
+        ExecutorService executorService = Configuration.getInstance().getExecutorService();
+        ServerSocketChannel serverSocketChannel;
+        try {
+            Files.deleteIfExists(path);
+            serverSocketChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            serverSocketChannel.bind(UnixDomainSocketAddress.of(path));
+            path.toFile().deleteOnExit();
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.fatal("Unix domain socket communications not available. ServerSocketChannel initialization failed: {}", e.getMessage());
+            return;
+        }
+
+        logger.debug("Unix domain socket listener initialized successfully on {}", path);
+
+        while (true) {
+            try {
+                SocketChannel socketChannel = serverSocketChannel.accept();
+
+                SKServerNode skServerNode = new SKServerNode(new UnixDomainSocket(socketChannel));
+                logger.info("Accepted connection on {}. SKServerNode created successfully", path);
+                executorService.submit(skServerNode);
+
+            } catch (IOException e) {
+                logger.error("Connection accept failed: {}", e.getMessage());
+            } catch (UninitializedException e) {
+                logger.error("SKServerNode initialization failed");
+            }
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package it.polimi.ingsw.am32.network.ClientNode;
+
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSLobbyMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.PongMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.network.ServerNode.LoopbackServerNode;
+import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The class {@code LoopbackClientNode} connects a {@link View} to the server running in the same JVM, through a pair of
+ * in-memory queues handled on the server by a {@link LoopbackServerNode}. <br>
+ * It lets tests and benchmarks drive the {@link it.polimi.ingsw.am32.controller.GamesManager} and the game controllers
+ * through the same views and messages used by real clients, isolating the cost of the game logic from the cost of the
+ * kernel networking. If the codec is enabled, every message goes through the {@link BinaryMessageCodec} in both
+ * directions, as it would on a framed socket connection. <br>
+ * A new {@link LoopbackServerNode} is created whenever a {@link CtoSLobbyMessage} is sent after the previous one has
+ * been destroyed, as a real client does when it reconnects.
+ *
+ * @author Matteo
+ */
+public class LoopbackClientNode implements ClientNodeInterface, Runnable {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Constants used in the class
+     */
+    private static final int POLLTIMEOUT = 100;
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(LoopbackClientNode.class);
+
+    /**
+     * Variables used to communicate with the view
+     */
+    private final View view;
+
+    /**
+     * Variables used to communicate with the server
+     */
+    private final boolean useCodec;
+    private final BlockingQueue<Object> inbound;
+    private BlockingQueue<Object> outbound;
+    private LoopbackServerNode serverNode;
+
+    /**
+     * Variables used to manage the state of the instance
+     */
+    private boolean statusIsAlive;
+    private final Object aliveLock;
+    private final Object cToSProcessingLock;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class. <br>
+     * The node is not connected until the first {@link CtoSLobbyMessage} is sent, and does not process the messages of
+     * the server until {@link #startConnection()} is invoked.
+     *
+     * @param view is the instance of {@link View} that will process the messages received
+     * @param useCodec true if the messages are exchanged encoded by the {@link BinaryMessageCodec}
+     */
+    public LoopbackClientNode(View view, boolean useCodec) {
+        this.view = view;
+        this.useCodec = useCodec;
+        inbound = new LinkedBlockingQueue<>();
+        outbound = null;
+        serverNode = null;
+        aliveLock = new Object();
+        cToSProcessingLock = new Object();
+
+        statusIsAlive = true;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Start the thread that processes the messages received from the server.
+     */
+    public void startConnection() {
+        Thread thread = new Thread(this, "loopback-client");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Process the messages received from the server, in order, until the {@code LoopbackClientNode} is closed. <br>
+     * A {@link PongMessage} is ignored, since no heartbeat is needed; any other {@link StoCMessage} is processed by
+     * invoking {@link StoCMessage#processMessage(View)}.
+     */
+    @Override
+    public void run() {
+
+        while (isAlive()) {
+
+            Object message;
+            try {
+                message = inbound.poll(POLLTIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                close();
+                return;
+            }
+
+            if (message == null)
+                continue;
+
+            try {
+                if (message instanceof byte[] encodedMessage)
+                    message = BinaryMessageCodec.decode(encodedMessage);
+            } catch (IOException e) {
+                logger.error("Malformed message received from loopback server: {}", e.getMessage());
+                continue;
+            }
+
+            if (message instanceof PongMessage)
+                continue;
+
+            if (message instanceof StoCMessage stoCMessage) {
+                try {
+                    stoCMessage.processMessage(view);
+                } catch (Exception e) {
+                    logger.fatal("Error while processing a message received from loopback server: ", e);
+                }
+            } else {
+                logger.error("Message received. Message type not recognized");
+            }
+        }
+    }
+
+    /**
+     * Send a {@link CtoSMessage} to the server, by putting it in the queue of the {@link LoopbackServerNode}.
+     *
+     * @param message is the message that the client wants to send
+     * @throws UploadFailureException if the client is not connected, or the message cannot be encoded
+     */
+    @Override
+    public void uploadToServer(CtoSMessage message) throws UploadFailureException {
+
+        synchronized (cToSProcessingLock) {
+
+            if (!isAlive() || serverNode == null || !serverNode.isAlive())
+                throw new UploadFailureException();
+
+            send(message);
+        }
+    }
+
+    /**
+     * Send a {@link CtoSLobbyMessage} to the server. If the client is not connected, a new {@link LoopbackServerNode}
+     * is created to receive it.
+     *
+     * @param message is the message that the client wants to send
+     * @throws UploadFailureException if the client is closed, or the message cannot be encoded
+     */
+    @Override
+    public void uploadToServer(CtoSLobbyMessage message) throws UploadFailureException {
+
+        synchronized (cToSProcessingLock) {
+
+            if (!isAlive())
+                throw new UploadFailureException();
+
+            if (serverNode == null || !serverNode.isAlive()) {
+                outbound = new LinkedBlockingQueue<>();
+                serverNode = new LoopbackServerNode(outbound, inbound, useCodec);
+                serverNode.start();
+            }
+
+            send(message);
+        }
+    }
+
+    /**
+     * Put a message in the queue of the server, encoded if the codec is enabled. The caller must hold
+     * cToSProcessingLock.
+     *
+     * @param message the message to be sent
+     * @throws UploadFailureException if the message cannot be encoded
+     */
+    private void send(Object message) throws UploadFailureException {
+
+        try {
+            outbound.add(useCodec ? BinaryMessageCodec.encode(message) : message);
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to encode message for loopback server: {}", e.getMessage());
+            throw new UploadFailureException();
+        }
+        logger.debug("Message sent to loopback server: {}", message);
+    }
+
+    /**
+     * The queues cannot fail, so no heartbeat is needed.
+     */
+    @Override
+    public void pongTimeOverdue() {}
+
+    /**
+     * Return whether the {@code LoopbackClientNode} is alive.
+     *
+     * @return true if the {@code LoopbackClientNode} has not been closed
+     */
+    public boolean isAlive() {
+        synchronized (aliveLock) {
+            return statusIsAlive;
+        }
+    }
+
+    /**
+     * Simulate the loss of the connection with the server: the {@link LoopbackServerNode} is destroyed, so that the
+     * player is disconnected from its game, and the view is notified that the connection has been lost and restored,
+     * as it is by the socket client. The next lobby message, such as a reconnection, is received by a new
+     * {@link LoopbackServerNode}.
+     */
+    public void dropConnection() {
+
+        synchronized (cToSProcessingLock) {
+            if (serverNode != null)
+                serverNode.destroy();
+        }
+
+        view.nodeDisconnected();
+        view.nodeReconnected();
+    }
+
+    /**
+     * Close the {@code LoopbackClientNode}, as a client leaving the game does: the {@link LoopbackServerNode} is
+     * destroyed, so that the player is disconnected from its game, and the node stops processing messages.
+     */
+    public void close() {
+
+        synchronized (aliveLock) {
+            statusIsAlive = false;
+        }
+
+        synchronized (cToSProcessingLock) {
+            if (serverNode != null)
+                serverNode.destroy();
+        }
+
+        inbound.clear();
+        logger.info("LoopbackClientNode closed");
+    }
+}
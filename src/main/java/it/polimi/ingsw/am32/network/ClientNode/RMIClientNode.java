@@ -12,6 +12,9 @@ import it.polimi.ingsw.am32.network.ServerNode.RMIServerNodeInt;
 import it.polimi.ingsw.am32.network.exceptions.ConnectionSetupFailedException;
 import it.polimi.ingsw.am32.network.exceptions.NodeClosedException;
 import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import it.polimi.ingsw.am32.network.heartbeat.HeartbeatMonitor;
+import it.polimi.ingsw.am32.network.rmi.TunedClientSocketFactory;
+import it.polimi.ingsw.am32.network.rmi.TunedServerSocketFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -20,6 +23,7 @@ import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Timer;
 import java.util.concurrent.ExecutorService;
@@ -45,6 +49,9 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
     private static final int THREADSLEEPINTERVAL = 1000;
     private static final int PINGINTERVAL = 5000;
     private static final String REMOTEOBJECTNAME = "Server-CodexNaturalis";
+    private static final int CONNECTTIMEOUT = 5000;
+    private static final int READTIMEOUT = 30000; // Longer than the wait of a batch received out of order
+    private static final int STREAMBUFFERSIZE = 8192;
 
     /**
      * Variables used for service purposes
@@ -57,7 +64,7 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
      */
     private final String ip;
     private final int port;
-    private int pongCount;
+    private final HeartbeatMonitor heartbeat;
     private final String nickname;
 
     /**
@@ -72,6 +79,12 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
     private RMIClientAcceptorInt rmiClientAcceptor;
     private RMIServerNodeInt serverNode;
 
+    /**
+     * The sequence number of the next batch of messages to be processed, guarded by sToCProcessingLock. It is reset
+     * every time a new {@link it.polimi.ingsw.am32.network.ServerNode.RMIServerNode} is requested to the server.
+     */
+    private long nextBatchSequence;
+
     /**
      * Variables used to verify and maintain active the connection with the server
      */
@@ -100,6 +113,8 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
      * If any of the two is not found, it will throw a {@link ConnectionSetupFailedException} implying that the connection
      * is not possible. <br>
      * Additionally, it will schedule a {@link ClientPingTask} to periodically check the connection with the server. <br>
+     * The object is exported with socket factories that give a connect and a read timeout to the invocations of the
+     * server, so that a hung client cannot hold a thread of the server indefinitely.
      *
      * @param view is the instance of {@link View} the {@link RMIClientNode} will use to process the messages received
      * @param ip is the ip of the server
@@ -108,10 +123,12 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
      * @throws ConnectionSetupFailedException thrown if the connection is not possible
      */
     public RMIClientNode(View view, String ip, int port) throws RemoteException, ConnectionSetupFailedException {
+        super(0, new TunedClientSocketFactory(CONNECTTIMEOUT, READTIMEOUT, true, STREAMBUFFERSIZE, false),
+                new TunedServerSocketFactory(READTIMEOUT, true, STREAMBUFFERSIZE, false));
         this.view = view;
         this.ip = ip;
         this.port = port;
-        pongCount = PONGMAXCOUNT;
+        heartbeat = new HeartbeatMonitor(PINGINTERVAL);
         nickname = "Unknown";
         reconnectCalled = false;
 
@@ -156,6 +173,8 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
      * If those conditions are not met, the method will try to send the message to the server. <br>
      * If the server is not reachable or the respective {@link it.polimi.ingsw.am32.network.ServerNode.RMIServerNode} is
      * closed, the method will request a reset and reconnection process and throw a {@link UploadFailureException}. <br>
+     * Since the remote invocation returns only once the server has received the message, a successful upload is a
+     * heartbeat in both directions. <br>
      *
      * @param message is the message that the client wants to send
      * @throws UploadFailureException if the message could not be sent
@@ -179,6 +198,8 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
 
             try {
                 serverNode.uploadCtoS(message);
+                heartbeat.frameSent();
+                heartbeat.frameReceived();
                 logger.info("Message sent. Type: CtoSMessage: {}", message);
 
             } catch (NodeClosedException e) {
@@ -227,6 +248,10 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
                     throw new UploadFailureException();
             }
 
+            synchronized (sToCProcessingLock) {
+                nextBatchSequence = 0; // The new RMIServerNode can send batches before the invocation returns
+            }
+
             try {
 
                 serverNode = rmiClientAcceptor.uploadToServer((RMIClientNodeInt) this, message);
@@ -234,6 +259,7 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
                 synchronized (aliveLock){
                     nodePreState = false;
                     prePingTask.cancel();
+                    heartbeat.frameReceived();
                 }
 
                 logger.info("Message sent. Type: CtoSLobbyMessage. Content: {}", message);
@@ -273,24 +299,84 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
                 resetTimeCounter();
             }
 
-            if (message == null) {
-                logger.error("Null message received");
-                return;
+            processStoC(message);
+        }
+    }
+
+    /**
+     * Wait until all the batches with a lower sequence number have been processed, then process the messages of the
+     * batch in order, as {@link #uploadStoC(StoCMessage)} does. <br>
+     * A batch already processed is ignored. If the previous batches are not received within the time after which the
+     * server is considered unreachable, or the {@code RMIClientNode} is not alive, a {@link NodeClosedException} is
+     * thrown.
+     *
+     * @param batchSequence the sequence number of the batch
+     * @param messages the {@link StoCMessage}s that the client has to process
+     * @throws NodeClosedException if the {@code RMIClientNode} is not alive, or the previous batches are missing
+     */
+    @Override
+    public void uploadStoCBatch(long batchSequence, ArrayList<StoCMessage> messages) throws NodeClosedException {
+
+        synchronized (sToCProcessingLock) {
+
+            long deadline = System.currentTimeMillis() + (long) PINGINTERVAL * PONGMAXCOUNT;
+            while (batchSequence > nextBatchSequence) {
+                long remainingTime = deadline - System.currentTimeMillis();
+                if (remainingTime <= 0)
+                    throw new NodeClosedException();
+                try {
+                    sToCProcessingLock.wait(remainingTime);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new NodeClosedException();
+                }
             }
 
-            if (message instanceof PongMessage) {
-                logger.debug("PongMessage received");
+            synchronized (aliveLock) {
+                if(!statusIsAlive)
+                    throw new NodeClosedException();
+
+                resetTimeCounter();
+            }
+
+            if (batchSequence < nextBatchSequence) {
+                logger.debug("Batch {} already processed", batchSequence);
                 return;
             }
 
-            try {
-                logger.info("Message received. Type: StoCMessage. Processing: {}", message);
-                message.processMessage(view);
+            for (StoCMessage message : messages)
+                processStoC(message);
 
-            } catch (Exception e) {
-                logger.fatal("Critical Runtime Exception:\nException Type: {}\nLocal Message: {}\nStackTrace: {}",
-                        e.getClass(), e.getLocalizedMessage(), Arrays.toString(e.getStackTrace()));
-            }
+            nextBatchSequence++;
+            sToCProcessingLock.notifyAll(); // Wake up the thread delivering the next batch, if already received
+        }
+    }
+
+    /**
+     * Process a message received from the server by calling the {@link StoCMessage#processMessage(View)} method. <br>
+     * The caller must hold the lock used to process the messages received.
+     *
+     * @param message a {@link StoCMessage} that the client has to process
+     */
+    private void processStoC(StoCMessage message) {
+
+        if (message == null) {
+            logger.error("Null message received");
+            return;
+        }
+
+        if (message instanceof PongMessage) {
+            logger.debug("PongMessage received");
+            return;
+        }
+
+        try {
+            logger.info("Message received. Type: StoCMessage. Processing: {}", message);
+            message.processMessage(view);
+
+        } catch (Exception e) {
+            logger.fatal("Critical Runtime Exception:\nException Type: {}\nLocal Message: {}\nStackTrace: {}",
+                    e.getClass(), e.getLocalizedMessage(), Arrays.toString(e.getStackTrace()));
         }
     }
 
@@ -367,7 +453,7 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
             reconnectCalled = false;
             nodePreState = true;
             statusIsAlive = true;
-            pongCount = PONGMAXCOUNT;
+            heartbeat.frameReceived();
             timer.scheduleAtFixedRate(prePingTask, PINGINTERVAL, PINGINTERVAL);
             logger.info("Connection established");
             view.nodeReconnected();
@@ -387,10 +473,10 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
      * If the {@code RMIClientNode} is alive, the method will check whether the ClientNode is in pre-game state or not. <br>
      * If the ClientNode is in pre-game state, the method will assign to another thread the task of calling the
      * {@link RMIClientAcceptorInt#extraPing()} method. <br>
-     * IF the ClientNode is not in pre-game state, the method will decrement the pong count. <br>
-     * If the pong count reaches 0, the {@code RMIClientNode} will start the reset and reconnection process. <br>
-     * On the other hand, if the pong count is still more than 0 after decrementing, the client will send a
-     * {@link PingMessage} to the server.
+     * IF the ClientNode is not in pre-game state and nothing has been received from the server for the maximum number
+     * of heartbeat intervals, the {@code RMIClientNode} will start the reset and reconnection process. <br>
+     * On the other hand, the client will send a {@link PingMessage} to the server only if nothing else has been sent
+     * to it for half an interval.
      */
     @Override
     public void pongTimeOverdue() {
@@ -408,12 +494,8 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
                 logger.debug("Pong time overdue node pre-game");
 
             } else {
-                pongCount--;
-
-                logger.debug("Pong time overdue. Pong count: {}", pongCount);
-
-                if (pongCount <= 0) {
-                    logger.info("Pong count reached minimum. Trying to check connection");
+                if (heartbeat.isExpired(PONGMAXCOUNT)) {
+                    logger.info("No heartbeat received from server. Trying to check connection");
                     toReset = true;
                 }
             }
@@ -434,7 +516,7 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
                 }
             });
 
-        } else {
+        } else if (heartbeat.isIdle()) {
             executorService.submit(() -> {
                 try {
                     uploadToServer(new PingMessage(nickname));
@@ -444,7 +526,7 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
     }
 
     /**
-     * Reset the pong count to the maximum value if the {@code RMIClientNode} is alive.
+     * Record that a heartbeat has been received from the server, if the {@code RMIClientNode} is alive.
      */
     public void resetTimeCounter() {
 
@@ -453,10 +535,7 @@ public class RMIClientNode extends UnicastRemoteObject implements ClientNodeInte
             if (!statusIsAlive)
                 return;
 
-            pongCount = PONGMAXCOUNT;
+            heartbeat.frameReceived();
         }
-
-        logger.debug("Pong count reset");
-
     }
 }
@@ -5,6 +5,7 @@ import it.polimi.ingsw.am32.network.exceptions.NodeClosedException;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.ArrayList;
 
 /**
  * The interface {@link RMIClientNodeInt} exposes the RMI methods that a
@@ -30,4 +31,19 @@ public interface RMIClientNodeInt extends Remote {
      * connection.
      */
     void uploadStoC(StoCMessage message) throws RemoteException, NodeClosedException;
+
+    /**
+     * The client will process, in order, the messages of a batch. <br>
+     * Several batches can be sent concurrently by the ServerNode: the client processes them in the order given by their
+     * sequence number, which starts from 0 for each ServerNode. <br>
+     * if a {@link RemoteException} or {@link NodeClosedException} is thrown, the ServerNode will start the termination
+     * process.
+     *
+     * @param batchSequence the sequence number of the batch
+     * @param messages the {@link StoCMessage}s that the client has to process
+     * @throws RemoteException thrown if the method couldn't be invoked on the client
+     * @throws NodeClosedException thrown if the ClientNode associated with the ServerNode is executing a reset of the
+     * connection, or a previous batch has not been received.
+     */
+    void uploadStoCBatch(long batchSequence, ArrayList<StoCMessage> messages) throws RemoteException, NodeClosedException;
 }
@@ -9,12 +9,21 @@ import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
 import it.polimi.ingsw.am32.network.exceptions.ConnectionSetupFailedException;
 import it.polimi.ingsw.am32.network.exceptions.NodeClosedException;
 import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import it.polimi.ingsw.am32.network.framing.FrameCodec;
+import it.polimi.ingsw.am32.network.framing.FrameCompressor;
+import it.polimi.ingsw.am32.network.framing.FrameHandshake;
+import it.polimi.ingsw.am32.network.framing.FrameReader;
+import it.polimi.ingsw.am32.network.framing.FrameWriter;
+import it.polimi.ingsw.am32.network.framing.SocketFraming;
+import it.polimi.ingsw.am32.network.heartbeat.HeartbeatMonitor;
+import it.polimi.ingsw.am32.network.unix.UnixDomainSocket;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Timer;
 import java.util.concurrent.ExecutorService;
@@ -26,6 +35,8 @@ import java.util.concurrent.Executors;
  * to handle the messages incoming from the server. <br>
  * Is necessary and enough to instantiate one instance of this class to connect to the server. <br>
  * If the connection were to go down, the instance will automatically try to reset and reconnect. <br>
+ * Messages are exchanged as length-prefixed frames by default (see {@link SocketFraming}); if the server only supports
+ * the stream mode, the instance switches to it. <br>
  *
  * @author Matteo
  */
@@ -58,8 +69,11 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
      */
     private final String ip;
     private final int port;
+    private final Path unixSocketPath; // Null if the server is reached through TCP
     private final String nickname;
-    private int pongCount;
+    private final HeartbeatMonitor heartbeat;
+    private SocketFraming framing;
+    private final boolean compression;
 
     /**
      * Variables used to communicate with the server
@@ -68,6 +82,16 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
     private ObjectOutputStream outputObtStr;
     private ObjectInputStream inputObtStr;
 
+    /**
+     * Variables used to communicate with the server in the framed mode. They are null in the stream mode, in which
+     * case the object streams are null.
+     */
+    private InputStream inputStream;
+    private OutputStream outputStream;
+    private FrameReader frameReader;
+    private FrameWriter frameWriter;
+    private FrameCompressor frameCompressor;
+
     /**
      * Variables used to verify and maintain active the connection with the server
      */
@@ -89,6 +113,21 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
 
     /**
      * Standard constructor of the class. <br>
+     * Create the {@link Socket} connection with the server, using the framed mode and compressing large frames if the
+     * server allows it. <br>
+     * A {@link ConnectionSetupFailedException} is thrown if the connection couldn't be established. <br>
+     *
+     * @param view the view that will be used to process incoming messages
+     * @param ip the ip of the server
+     * @param port the port of the server
+     * @throws ConnectionSetupFailedException thrown if the connection couldn't be established
+     */
+    public SKClientNode(View view, String ip, int port) throws ConnectionSetupFailedException {
+        this(view, ip, port, SocketFraming.FRAMED, true);
+    }
+
+    /**
+     * Constructor of the class that allows to choose how messages are exchanged with the server. <br>
      * Create the {@link Socket} connection with the server and the input and output streams. <br>
      * At initialization a ping task is scheduled to run to check and maintain the connection alive. <br>
      * A {@link ConnectionSetupFailedException} is thrown if the connection couldn't be established or during the
@@ -97,51 +136,65 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
      * @param view the view that will be used to process incoming messages
      * @param ip the ip of the server
      * @param port the port of the server
+     * @param framing the mode used to exchange messages with the server
+     * @param compression true to request the compression of large frames, used only in the framed mode
      * @throws ConnectionSetupFailedException thrown if the connection couldn't be established
      */
-    public SKClientNode(View view, String ip, int port) throws ConnectionSetupFailedException {
+    public SKClientNode(View view, String ip, int port, SocketFraming framing, boolean compression) throws ConnectionSetupFailedException {
+        this(view, ip, port, null, framing, compression);
+    }
+
+    /**
+     * Constructor of the class that connects to a server running on the same host through its Unix domain socket,
+     * instead of TCP. The messages are exchanged as on a TCP connection. <br>
+     *
+     * @param view the view that will be used to process incoming messages
+     * @param unixSocketPath the path of the Unix domain socket of the server
+     * @param framing the mode used to exchange messages with the server
+     * @param compression true to request the compression of large frames, used only in the framed mode
+     * @throws ConnectionSetupFailedException thrown if the connection couldn't be established
+     */
+    public SKClientNode(View view, Path unixSocketPath, SocketFraming framing, boolean compression) throws ConnectionSetupFailedException {
+        this(view, "localhost", 0, unixSocketPath, framing, compression);
+    }
+
+    /**
+     * Constructor of the class used by the public ones. <br>
+     *
+     * @param view the view that will be used to process incoming messages
+     * @param ip the ip of the server
+     * @param port the port of the server
+     * @param unixSocketPath the path of the Unix domain socket of the server, or null to connect through TCP
+     * @param framing the mode used to exchange messages with the server
+     * @param compression true to request the compression of large frames, used only in the framed mode
+     * @throws ConnectionSetupFailedException thrown if the connection couldn't be established
+     */
+    private SKClientNode(View view, String ip, int port, Path unixSocketPath, SocketFraming framing, boolean compression)
+            throws ConnectionSetupFailedException {
         this.view = view;
+        this.framing = framing;
+        this.compression = compression;
         this.ip = ip;
         this.port = port;
+        this.unixSocketPath = unixSocketPath;
         statusIsAlive = true;
         reconnectCalled = false;
-        pongCount = PONGMAXCOUNT;
+        heartbeat = new HeartbeatMonitor(PINGINTERVAL);
         nickname = "Unknown";
 
         logger = LogManager.getLogger(SKClientNode.class);
 
         try {
 
-            logger.info("Attempting to connect to the server at {}:{}", ip, port);
+            logger.info("Attempting to connect to the server at {}", unixSocketPath != null ? unixSocketPath : ip + ":" + port);
 
-            socket = new Socket(ip, port);
-            //socket.setSoTimeout(SOCKETTIMEOUT*100); // Time out sulle read sulla input stream in caso qualcosa vada storto
-            outputObtStr = new ObjectOutputStream(socket.getOutputStream());
-            outputObtStr.flush();
-            inputObtStr = new ObjectInputStream(socket.getInputStream());
-            socket.setSoTimeout(SOCKETTIMEOUT);
+            openConnection();
 
             logger.info("Connection established. Personal connection data: {}", socket.getLocalSocketAddress());
 
         } catch (IOException e) {
 
-            if (inputObtStr != null) {
-                try {
-                    inputObtStr.close();
-                } catch (IOException ignore) {}
-            }
-
-            if (outputObtStr != null) {
-                try {
-                    outputObtStr.close();
-                } catch (IOException ignore) {}
-            }
-
-            if (socket != null) {
-                try {
-                    socket.close();
-                } catch (IOException ignore) {}
-            }
+            closeConnection();
 
             //System.out.println("Connection failed do to wrong parameters or inaccessible server");
             logger.info("Connection failed do to wrong parameters or inaccessible server");
@@ -191,7 +244,8 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
     /**
      * Listen for incoming messages using a {@link ObjectInputStream}. <br>
      * Upon receiving a message, based on the type of the message, there can be two different outcomes: <br>
-     * If the message is a {@link PongMessage}, the method will return immediately. <br>
+     * If the message is a {@link PongMessage}, the method will answer at once the probe it carries, if any, and return.
+     * <br>
      * If the message is a {@link StoCMessage}, the method will process the message by invoking the method
      * {@link StoCMessage#processMessage(View)}. <br>
      * If the {@link IOException} or {@link ClassNotFoundException} is thrown, the input stream will be corrupted and
@@ -208,7 +262,7 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
 
         try {
             synchronized (sToCProcessingLock) {
-                message = inputObtStr.readObject();
+                message = frameReader != null ? frameReader.read(inputStream) : inputObtStr.readObject();
             }
         } catch (SocketTimeoutException e) {
             // logger.debug("Socket timeout exception"); Disabled because it's too verbose
@@ -218,9 +272,15 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
         resetTimeCounter();
 
 
-        if(message instanceof PongMessage) {
+        if(message instanceof PongMessage pongMessage) {
 
-            logger.debug("PongMessage received");
+            if(pongMessage.getTimestamp() != 0) {
+                synchronized (cToSProcessingLock) {
+                    try {
+                        writeMessage(new PingMessage(nickname, pongMessage.getTimestamp()));
+                    } catch (IOException | NullPointerException ignore) {}
+                }
+            }
             return;
         }
 
@@ -253,11 +313,7 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
 
         try {
             synchronized (cToSProcessingLock) {
-                outputObtStr.writeObject(message);
-
-                try {
-                    outputObtStr.flush();
-                } catch (IOException ignore) {}
+                writeMessage(message);
             }
 
             logger.info("Message sent. Type: CtoSLobbyMessage. Content: {}", message);
@@ -285,11 +341,7 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
 
         try {
             synchronized (cToSProcessingLock) {
-                outputObtStr.writeObject(message);
-
-                try {
-                    outputObtStr.flush();
-                } catch (IOException ignore) {}
+                writeMessage(message);
             }
 
             logger.info("Message sent. Type: CtoSMessage: {}", message);
@@ -400,30 +452,10 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
 
                 while (reconnectionProcess) {
 
-                    if (inputObtStr != null) {
-                        try {
-                            inputObtStr.close();
-                        } catch (IOException ignore) {}
-                    }
-
-                    if (outputObtStr != null) {
-                        try {
-                            outputObtStr.close();
-                        } catch (IOException ignore) {}
-                    }
-
-                    if (socket != null) {
-                        try {
-                            socket.close();
-                        } catch (IOException ignore) {}
-                    }
+                    closeConnection();
 
                     try {
-                        socket = new Socket(ip, port);
-                        outputObtStr = new ObjectOutputStream(socket.getOutputStream());
-                        outputObtStr.flush();
-                        inputObtStr = new ObjectInputStream(socket.getInputStream());
-                        socket.setSoTimeout(SOCKETTIMEOUT);
+                        openConnection();
                         logger.info("Connection established. Personal connection data: {}", socket.getLocalSocketAddress());
 
                     } catch (IOException ignore) {
@@ -445,13 +477,114 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
         synchronized (aliveLock) {
             statusIsAlive = true;
             reconnectCalled = false;
-            pongCount = PONGMAXCOUNT;
+            heartbeat.frameReceived();
             aliveLock.notifyAll();
             timer.scheduleAtFixedRate(clientPingTask, PINGINTERVAL, PINGINTERVAL);
             view.nodeReconnected();
         }
     }
 
+    /**
+     * Open a new {@link Socket} connection with the server, through TCP or through its Unix domain socket, and initialize
+     * the streams for the current mode. <br>
+     * In the framed mode the handshake is sent to the server and its answer is read. If the server answers with the
+     * header of an object stream, it only supports the stream mode: the connection is closed, and a new one is opened
+     * using the stream mode. <br>
+     *
+     * @throws IOException thrown if the connection couldn't be established
+     */
+    private void openConnection() throws IOException {
+
+        socket = unixSocketPath != null ? UnixDomainSocket.connect(unixSocketPath) : new Socket(ip, port);
+        //socket.setSoTimeout(SOCKETTIMEOUT*100); // Time out sulle read sulla input stream in caso qualcosa vada storto
+
+        if (framing == SocketFraming.FRAMED) {
+            outputStream = new BufferedOutputStream(socket.getOutputStream());
+            outputStream.write(new FrameHandshake(FrameCodec.BINARY, compression).encode());
+            outputStream.flush();
+            inputStream = new BufferedInputStream(socket.getInputStream());
+
+            byte[] preamble = inputStream.readNBytes(FrameHandshake.PREAMBLE_LENGTH);
+            if (FrameHandshake.isStreamHeader(preamble)) {
+                logger.info("The server doesn't support the framed mode. Switching to the stream mode");
+                framing = SocketFraming.STREAM;
+                closeConnection();
+                openConnection();
+                return;
+            }
+
+            FrameHandshake answer = FrameHandshake.decode(preamble, inputStream);
+            if (answer.isCompression())
+                frameCompressor = new FrameCompressor(FrameCompressor.DEFAULT_THRESHOLD);
+            frameReader = new FrameReader(frameCompressor);
+            frameWriter = new FrameWriter(answer.getCodec(), frameCompressor);
+            logger.debug("Framed mode established with codec {}, compression {}", answer.getCodec(), answer.isCompression());
+
+        } else {
+            outputObtStr = new ObjectOutputStream(socket.getOutputStream());
+            outputObtStr.flush();
+            inputObtStr = new ObjectInputStream(socket.getInputStream());
+        }
+
+        socket.setSoTimeout(SOCKETTIMEOUT);
+    }
+
+    /**
+     * Close the input and output streams and the socket, if they were opened. <br>
+     */
+    private void closeConnection() {
+
+        if (inputObtStr != null) {
+            try {
+                inputObtStr.close();
+            } catch (IOException ignore) {}
+        }
+
+        if (outputObtStr != null) {
+            try {
+                outputObtStr.close();
+            } catch (IOException ignore) {}
+        }
+
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException ignore) {}
+        }
+
+        if (frameCompressor != null) {
+            logger.info("Frame compression: {}", frameCompressor.getStatistics());
+            frameCompressor.end();
+        }
+
+        inputObtStr = null;
+        outputObtStr = null;
+        inputStream = null;
+        outputStream = null;
+        frameReader = null;
+        frameWriter = null;
+        frameCompressor = null;
+    }
+
+    /**
+     * Write a message to the server, as a frame or on the object stream depending on the mode, and flush it. <br>
+     * The caller must hold the lock used to send messages.
+     *
+     * @param message the message to write
+     * @throws IOException thrown if the message couldn't be written
+     */
+    private void writeMessage(Object message) throws IOException {
+
+        if (frameWriter != null) {
+            frameWriter.write(message, outputStream);
+            outputStream.flush();
+        } else {
+            outputObtStr.writeObject(message);
+            outputObtStr.flush();
+        }
+        heartbeat.frameSent();
+    }
+
     /**
      * Start the connection. <br>
      * The method will submit the {@code SKClientNode} to the {@link ExecutorService} to start the connection. <br>
@@ -464,10 +597,10 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
 
     /**
      * If the {@code SKClientNode} is not alive, the method will return immediately. <br>
-     * If the {@code SKClientNode} is alive, the pong count will be decremented. <br>
-     * If the pong count reaches 0, the {@code SKClientNode} will start the reset and reconnection process. <br>
-     * On the other hand, if the pong count is still more than 0 after decrementing, the client will send a
-     * {@link PingMessage} to the server.
+     * If nothing has been received from the server for the maximum number of heartbeat intervals, the
+     * {@code SKClientNode} will start the reset and reconnection process. <br>
+     * On the other hand, the client will send a {@link PingMessage} to the server only if nothing else has been sent to
+     * it for half an interval: on busy connections, the messages of the game are the heartbeats.
      */
     @Override
     public void pongTimeOverdue() {
@@ -478,12 +611,8 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
             if(!statusIsAlive)
                 return;
 
-            pongCount--;
-
-            logger.debug("Pong time overdue. Pong count: {}", pongCount);
-
-            if(pongCount <= 0) {
-                logger.info("Pong count reached minimum. Trying to check connection");
+            if(heartbeat.isExpired(PONGMAXCOUNT)) {
+                logger.info("No heartbeat received from server. Trying to check connection");
                 toReset = true;
             }
         }
@@ -493,15 +622,18 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
             return;
         }
 
+        if(!heartbeat.isIdle())
+            return;
+
         executorService.submit(() -> {synchronized (cToSProcessingLock) {
             try {
-                outputObtStr.writeObject(new PingMessage(nickname));
+                writeMessage(new PingMessage(nickname));
             } catch (IOException | NullPointerException ignore) {}
         }});
     }
 
     /**
-     * Reset the pong count to the maximum value if the {@code SKClientNode} is alive. <br>
+     * Record that a heartbeat has been received from the server, if the {@code SKClientNode} is alive. <br>
      */
     public void resetTimeCounter() {
 
@@ -510,9 +642,7 @@ public class SKClientNode implements ClientNodeInterface, Runnable {
             if (!statusIsAlive)
                 return;
 
-            pongCount = PONGMAXCOUNT;
+            heartbeat.frameReceived();
         }
-
-        logger.debug("Pong count reset");
     }
 }
\ No newline at end of file
@@ -0,0 +1,299 @@
+package it.polimi.ingsw.am32.network.ServerNode;
+
+import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.controller.exceptions.abstraction.LobbyMessageException;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSLobbyMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.PingMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.ErrorMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import it.polimi.ingsw.am32.metrics.LatencyStage;
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
+import it.polimi.ingsw.am32.network.exceptions.ErrorMessageCode;
+import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import it.polimi.ingsw.am32.utilities.Configuration;
+import it.polimi.ingsw.am32.utilities.Log4J2ConfiguratorWrapper;
+import it.polimi.ingsw.am32.utilities.ProtocolLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each instance of class {@code LoopbackServerNode} handles the in-memory connection of a client running in the same
+ * JVM as the server, typically a {@link it.polimi.ingsw.am32.network.ClientNode.LoopbackClientNode}. <br>
+ * The messages are exchanged through a pair of queues, one for each direction, instead of a socket or a remote object,
+ * so that tests and benchmarks can wire views and game controllers together and measure the cost of the game logic
+ * without the cost of the kernel networking. <br>
+ * If the codec is enabled, the messages are put in the queues encoded by the {@link BinaryMessageCodec}, and decoded by
+ * the receiver, so that the cost of encoding and the copies of the messages are the same as on a real connection.
+ * Otherwise, the receiver gets the same instances sent. <br>
+ * Since the queues cannot fail, the node does not send heartbeats: it is alive until it is destroyed, by the server or
+ * by the client.
+ *
+ * @author Matteo
+ */
+public class LoopbackServerNode implements Runnable, ServerNodeInterface {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Constants used in the class
+     */
+    private static final int POLLTIMEOUT = 100;
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(LoopbackServerNode.class);
+    private final TransportMetrics.Counters transportCounters;
+
+    /**
+     * Variables used to communicate with the {@code GameController}
+     */
+    private GameController gameController;
+
+    /**
+     * Variables used to communicate with the client
+     */
+    private final BlockingQueue<Object> inbound;
+    private final BlockingQueue<Object> outbound;
+    private final boolean useCodec;
+
+    /**
+     * Variables used to manage the state of the connection and the instance
+     */
+    private boolean statusIsAlive;
+    private boolean destroyCalled;
+    private final Object aliveLock;
+    private final Object ctoSProcessingLock;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class. <br>
+     * The node does not receive anything until it is run, which is done by {@link #start()}.
+     *
+     * @param inbound the queue of the messages sent by the client
+     * @param outbound the queue of the messages sent to the client
+     * @param useCodec true if the messages are put in the queues encoded by the {@link BinaryMessageCodec}
+     */
+    public LoopbackServerNode(BlockingQueue<Object> inbound, BlockingQueue<Object> outbound, boolean useCodec) {
+        this.inbound = inbound;
+        this.outbound = outbound;
+        this.useCodec = useCodec;
+        gameController = null;
+        aliveLock = new Object();
+        ctoSProcessingLock = new Object();
+        transportCounters = TransportMetrics.getInstance().of(TransportMetrics.Transport.LOOPBACK);
+
+        statusIsAlive = true;
+        destroyCalled = false;
+        transportCounters.nodeOpened();
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Assign the reception of the messages of the client to a thread of the server.
+     */
+    public void start() {
+        Configuration.getInstance().getExecutorService().submit(this);
+    }
+
+    /**
+     * Process the messages sent by the client, in order, until the {@code LoopbackServerNode} is destroyed.
+     */
+    @Override
+    public void run() {
+
+        while (isAlive()) {
+
+            Object message;
+            try {
+                message = inbound.poll(POLLTIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                destroy();
+                return;
+            }
+
+            if (message == null)
+                continue;
+
+            try {
+                long receivedTime = System.nanoTime();
+                if (message instanceof byte[] encodedMessage) {
+                    transportCounters.addBytesIn(encodedMessage.length);
+                    message = BinaryMessageCodec.decode(encodedMessage);
+                    LatencyMetrics.getInstance().record(LatencyStage.DECODE, LatencyMetrics.typeOf(message),
+                            System.nanoTime() - receivedTime);
+                }
+                processMessage(message, receivedTime);
+
+            } catch (IOException e) {
+                logger.error("Malformed message received from loopback client: {}", e.getMessage());
+                destroy();
+            } catch (UploadFailureException e) {
+                logger.error("Failed to send ErrorMessage to loopback client");
+            } catch (Exception e) {
+                logger.fatal("Error while processing a message received from loopback client: ", e);
+            }
+        }
+    }
+
+    /**
+     * Process a message sent by the client, as {@link SKServerNode} does: a {@link CtoSLobbyMessage} assigns the
+     * {@code GameController} of the node, and the following {@link CtoSMessage} are elaborated by it.
+     *
+     * @param message the message received
+     * @param receivedTime the {@link System#nanoTime()} at which the message was taken from the inbound queue
+     * @throws UploadFailureException if an {@link ErrorMessage} could not be sent back to the client
+     */
+    private void processMessage(Object message, long receivedTime) throws UploadFailureException {
+        LatencyMetrics metrics = LatencyMetrics.getInstance();
+
+        synchronized (ctoSProcessingLock) {
+
+            if (!isAlive() || message instanceof PingMessage)
+                return;
+
+            if (message instanceof CtoSMessage ctoSMessage) {
+                if (gameController == null) {
+                    uploadToClient(new ErrorMessage(
+                            "StoCMessage was sent before StoCLobbyMessage",
+                            "PLAYER",
+                            ErrorMessageCode.STOCMESSAGE_SENT_BEFORE_STOCLOBBYMESSAGE.getCode()
+                    ));
+                    return;
+                }
+                long startTime = metrics.beginCommand(message, receivedTime);
+                Log4J2ConfiguratorWrapper.routeToGame(gameController.getId());
+                try {
+                    ctoSMessage.elaborateMessage(gameController);
+                } finally {
+                    Log4J2ConfiguratorWrapper.stopRoutingToGame();
+                    metrics.endCommand(startTime);
+                }
+                if (ProtocolLogSampler.isSampled(logger, message))
+                    logger.info("Loopback CtoSMessage received and elaborated successfully: {}", message);
+            }
+            else if (message instanceof CtoSLobbyMessage lobbyMessage) {
+                if (gameController != null) {
+                    uploadToClient(new ErrorMessage(
+                            "StoCLobbyMessage was sent when the game has already been chosen",
+                            "PLAYER",
+                            ErrorMessageCode.STOCLOBBYMESSAGE_SENT_BUT_GAMECONTROLLER_ALREADY_PRESENT.getCode()
+                    ));
+                    return;
+                }
+                long startTime = metrics.beginCommand(message, receivedTime);
+                try {
+                    gameController = lobbyMessage.elaborateMessage(this);
+                    if (ProtocolLogSampler.isSampled(logger, message))
+                        logger.info("Loopback CtoSLobbyMessage received and elaborated successfully: {}", message);
+                } catch (LobbyMessageException e) {
+                    uploadToClient(new ErrorMessage(e.getMessage(), "PLAYER", e.getExceptionType().getValue()));
+                } finally {
+                    metrics.endCommand(startTime);
+                }
+            }
+            else {
+                uploadToClient(new ErrorMessage(
+                        "Message type not recognized",
+                        "PLAYER",
+                        ErrorMessageCode.MESSAGE_TYPE_NOT_RECOGNIZED.getCode()
+                ));
+            }
+        }
+    }
+
+    /**
+     * Send a {@link StoCMessage} to the client, by putting it in the outbound queue. <br>
+     * If the codec is enabled, the message is encoded by the calling thread, as it would be by a socket.
+     *
+     * @param message is the message that the server wants to send
+     * @throws UploadFailureException if the {@code LoopbackServerNode} is not alive, or the message cannot be encoded
+     */
+    @Override
+    public void uploadToClient(StoCMessage message) throws UploadFailureException {
+
+        if (!isAlive())
+            throw new UploadFailureException();
+
+        try {
+            if (useCodec) {
+                byte[] encodedMessage = BinaryMessageCodec.encode(message);
+                transportCounters.addBytesOut(encodedMessage.length);
+                outbound.add(encodedMessage);
+            } else {
+                outbound.add(message);
+            }
+        } catch (IllegalArgumentException e) {
+            logger.error("Failed to encode StoCMessage for loopback client: {}", e.getMessage());
+            throw new UploadFailureException();
+        }
+        logger.debug("StoCMessage sent to loopback client: {}", message);
+    }
+
+    /**
+     * The queues cannot fail, so no heartbeat is needed.
+     */
+    @Override
+    public void pingTimeOverdue() {}
+
+    /**
+     * The queues cannot fail, so no heartbeat is needed.
+     */
+    @Override
+    public void resetTimeCounter() {}
+
+    /**
+     * Return whether the {@code LoopbackServerNode} is alive.
+     *
+     * @return true if the {@code LoopbackServerNode} has not been destroyed
+     */
+    public boolean isAlive() {
+        synchronized (aliveLock) {
+            return statusIsAlive;
+        }
+    }
+
+    /**
+     * Destroy the {@code LoopbackServerNode}. <br>
+     * The node stops receiving messages and, if it is linked to a {@code GameController}, disconnects the player from
+     * it. The messages still in the queues are discarded.
+     */
+    @Override
+    public void destroy() {
+
+        synchronized (aliveLock) {
+            statusIsAlive = false;
+            if (destroyCalled)
+                return;
+            destroyCalled = true;
+        }
+
+        transportCounters.nodeClosed();
+
+        synchronized (ctoSProcessingLock) {
+
+            inbound.clear();
+
+            if (gameController != null) {
+                gameController.getTimer().purge();
+                gameController.disconnect(this);
+            }
+
+            logger.info("LoopbackServerNode destroyed");
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package it.polimi.ingsw.am32.network.ServerNode;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Each instance of class {@code NIOSelectorLoop} multiplexes, on a single thread, the connections of many
+ * {@link NIOServerNode}. <br>
+ * The thread waits on a {@link Selector} until some of its connections can be read or written, and hands the event to
+ * the corresponding node. The bytes read are only copied into the node: decoding and processing the messages happen
+ * outside of this thread, so that a slow message never delays the other connections. <br>
+ * A single read buffer is shared by all the connections of the loop.
+ *
+ * @author Matteo
+ */
+public class NIOSelectorLoop implements Runnable {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Size, in bytes, of the buffer used to read from the connections
+     */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(NIOSelectorLoop.class);
+
+    /**
+     * Variables used to multiplex the connections
+     */
+    private final Selector selector;
+    private final ByteBuffer readBuffer;
+    private final Queue<NIOServerNode> pendingRegistrations;
+    private volatile boolean running;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class. <br>
+     * It opens the {@link Selector} of the loop.
+     *
+     * @throws IOException thrown if the selector could not be opened
+     */
+    public NIOSelectorLoop() throws IOException {
+        selector = Selector.open();
+        readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        pendingRegistrations = new ConcurrentLinkedQueue<>();
+        running = true;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Method that adds a new connection to the loop. <br>
+     * The connection is registered by the thread of the loop, which is woken up to do so.
+     *
+     * @param node the node handling the connection
+     */
+    public void register(NIOServerNode node) {
+        pendingRegistrations.add(node);
+        selector.wakeup();
+    }
+
+    /**
+     * Method that waits for the connections to be ready, and notifies the nodes of the events. <br>
+     * The method returns only when the loop is closed or the selector fails.
+     */
+    public void run() {
+        logger.debug("NIOSelectorLoop thread started");
+
+        while (running) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                logger.fatal("Selector failed: {}", e.getMessage());
+                break;
+            }
+
+            registerPendingNodes();
+
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                NIOServerNode node = (NIOServerNode) key.attachment();
+
+                try {
+                    if (key.isReadable())
+                        node.channelReadable(readBuffer);
+                    if (key.isValid() && key.isWritable())
+                        node.channelWritable();
+                } catch (CancelledKeyException ignored) {} // The node has been destroyed meanwhile
+            }
+        }
+
+        try {
+            selector.close();
+        } catch (IOException ignored) {}
+    }
+
+    /**
+     * Method that registers to the selector the connections added through {@link #register(NIOServerNode)}. <br>
+     * Connections closed before being registered are discarded.
+     */
+    private void registerPendingNodes() {
+        NIOServerNode node;
+        while ((node = pendingRegistrations.poll()) != null) {
+            try {
+                node.setSelectionKey(node.getChannel().register(selector, SelectionKey.OP_READ, node));
+            } catch (ClosedChannelException e) {
+                logger.debug("Connection closed before being registered");
+            }
+        }
+    }
+
+    /**
+     * Method that stops the loop. The connections registered to the loop are not closed.
+     */
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+}
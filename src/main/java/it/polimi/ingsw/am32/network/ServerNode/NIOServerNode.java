@@ -0,0 +1,833 @@
+package it.polimi.ingsw.am32.network.ServerNode;
+
+import it.polimi.ingsw.am32.controller.GameController;
+import it.polimi.ingsw.am32.controller.exceptions.abstraction.LobbyMessageException;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import it.polimi.ingsw.am32.metrics.LatencyStage;
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSLobbyMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.CtoSMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.PingMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.ErrorMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.PongMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.network.exceptions.ErrorMessageCode;
+import it.polimi.ingsw.am32.network.exceptions.NodeClosedException;
+import it.polimi.ingsw.am32.network.exceptions.UninitializedException;
+import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import it.polimi.ingsw.am32.network.framing.FrameCompressor;
+import it.polimi.ingsw.am32.network.framing.FrameHandshake;
+import it.polimi.ingsw.am32.network.framing.FrameReader;
+import it.polimi.ingsw.am32.network.framing.FrameWriter;
+import it.polimi.ingsw.am32.network.framing.MessageInputFilter;
+import it.polimi.ingsw.am32.network.heartbeat.HeartbeatMonitor;
+import it.polimi.ingsw.am32.network.ratelimit.InboundRateLimiter;
+import it.polimi.ingsw.am32.network.ratelimit.RateLimitPolicy;
+import it.polimi.ingsw.am32.utilities.Configuration;
+import it.polimi.ingsw.am32.utilities.Log4J2ConfiguratorWrapper;
+import it.polimi.ingsw.am32.utilities.ProtocolLogSampler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Each instance of class {@code NIOServerNode} handles a socket connection with a client, multiplexed by a
+ * {@link NIOSelectorLoop}. <br>
+ * The node speaks the same protocol of {@link SKServerNode}, and has the same ping, lifecycle and error semantics:
+ * if, at some point, the connection were to go down, this instance will begin automatically a termination process. <br>
+ * The bytes received are buffered by the selector thread; a thread of the server executor is used only while there are
+ * bytes to decode, so that an idle connection doesn't hold any thread. Messages are written directly on the
+ * non-blocking channel by the sending thread, which waits for the selector to report the channel writable only when
+ * the socket buffer is full. <br>
+ * As {@link SKServerNode}, the node recognizes from the first bytes received whether the client uses the stream or the
+ * framed mode. <br>
+ *
+ * @author Matteo
+ */
+public class NIOServerNode implements ServerNodeInterface {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Amount of received bytes not yet decoded above which the node stops reading from the connection
+     */
+    private static final int MAX_BUFFERED_INPUT = 1024 * 1024;
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(NIOServerNode.class);
+    private final Configuration config;
+    private final TransportMetrics.Counters transportCounters;
+
+    /**
+     * Variables used to communicate with the {@code GameController}
+     */
+    private GameController gameController;
+
+    /**
+     * Variables used to manage the connection with the server
+     */
+    private final HeartbeatMonitor heartbeat;
+    private final InboundRateLimiter rateLimiter;
+    private final String nickname;
+
+    /**
+     * Variables used to communicate with the client
+     */
+    private final SocketChannel channel;
+    private volatile SelectionKey selectionKey;
+    private final InboundBuffer inboundBuffer;
+    private final MessageInputFilter inputFilter;
+    private ObjectInputStream inputObtStr;
+    private final ByteArrayOutputStream outputBytes;
+    private ObjectOutputStream outputObtStr;
+
+    /**
+     * Variables used to communicate with the client when it uses the framed mode. They are null if the client uses
+     * the stream mode, in which case the object streams are null.
+     */
+    private FrameReader frameReader;
+    private FrameWriter frameWriter;
+    private FrameCompressor frameCompressor;
+    private final OutputStream channelOutput;
+
+    /**
+     * Variables used to schedule the decoding of the received bytes and the writing of the messages
+     */
+    private final AtomicBoolean decoding;
+    private final Object writableLock;
+    private boolean writable;
+
+    /**
+     * Variables used to verify and maintain active the connection with the client
+     */
+    private ServerPingTask notLinkedPingTask;
+    private ServerPingTask serverPingTask;
+
+    /**
+     * Variables used to manage the state of the connection and the instance
+     */
+    private boolean statusIsAlive;
+    private boolean destroyCalled;
+    private final Object aliveLock;
+    private final Object ctoSProcessingLock;
+    private final Object stoCProcessingLock;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class. <br>
+     * It creates a new instance of {@code NIOServerNode} and puts the channel in non-blocking mode. The streams are
+     * initialized once the client has chosen the stream or framed mode. <br>
+     * A temporary ping task is created to check if the client is still alive while the gameController is not yet assigned.
+     * Throwing an exception implies that this class is not correctly initialized and should be destroyed. This also
+     * implies that the channel is closed.
+     *
+     * @param channel the channel of the accepted connection
+     * @throws UninitializedException thrown if, during the instantiation, there were some problems
+     */
+    public NIOServerNode(SocketChannel channel) throws UninitializedException {
+        this.gameController = null;
+        this.channel = channel;
+        config = Configuration.getInstance();
+        heartbeat = new HeartbeatMonitor(config.getPingTimeInterval());
+        aliveLock = new Object();
+        ctoSProcessingLock = new Object();
+        stoCProcessingLock = new Object();
+        writableLock = new Object();
+        decoding = new AtomicBoolean(false);
+        inboundBuffer = new InboundBuffer();
+        outputBytes = new ByteArrayOutputStream();
+        channelOutput = new ChannelOutputStream();
+        nickname = "Unknown";
+        transportCounters = TransportMetrics.getInstance().of(TransportMetrics.Transport.NIO);
+        inputFilter = MessageInputFilter.fromConfiguration(TransportMetrics.Transport.NIO);
+        rateLimiter = InboundRateLimiter.fromConfiguration(TransportMetrics.Transport.NIO, String.valueOf(channel.socket().getRemoteSocketAddress()));
+
+        try {
+            channel.configureBlocking(false);
+
+        } catch (IOException e) {
+
+            try {
+                channel.close();
+            } catch (IOException ignored) {}
+
+            logger.error("Could not initialize the connection: {} . Channel Closed", e.getMessage());
+
+            throw new UninitializedException();
+        }
+
+        logger.debug("NIOServerNode ready");
+        transportCounters.nodeOpened();
+
+        statusIsAlive = true;
+        destroyCalled = false;
+        serverPingTask = new ServerPingTask(this);
+        notLinkedPingTask = new ServerPingTask(this);
+        config.addTimerTask(notLinkedPingTask);
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Method invoked by the {@link NIOSelectorLoop} when the channel has bytes to read. <br>
+     * The bytes are copied in the inbound buffer, and their decoding is scheduled on the server executor. If too many
+     * bytes are waiting to be decoded, the node stops reading until the decoding catches up. <br>
+     * If the client closed the connection, or the channel cannot be read, the destruction process is started.
+     *
+     * @param readBuffer the buffer, shared among the connections of the selector, in which the bytes are read
+     */
+    void channelReadable(ByteBuffer readBuffer) {
+        int read;
+
+        readBuffer.clear();
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            logger.error("Critical SocketChannel error while reading: {}", e.getMessage());
+            read = -1;
+        }
+
+        if (read == -1) {
+            selectionKey.cancel();
+            inboundBuffer.close();
+            config.getExecutorService().submit(this::destroy); // The selector thread must not wait for the node locks
+            return;
+        }
+
+        transportCounters.addBytesIn(read);
+        readBuffer.flip();
+        if (inboundBuffer.feed(readBuffer) > MAX_BUFFERED_INPUT)
+            updateInterest(SelectionKey.OP_READ, false);
+
+        if (decoding.compareAndSet(false, true))
+            config.getExecutorService().submit(this::decodeMessages);
+    }
+
+    /**
+     * Method invoked by the {@link NIOSelectorLoop} when the channel can be written again after the socket buffer was
+     * full. The thread waiting to write is woken up.
+     */
+    void channelWritable() {
+        updateInterest(SelectionKey.OP_WRITE, false);
+
+        synchronized (writableLock) {
+            writable = true;
+            writableLock.notifyAll();
+        }
+    }
+
+    /**
+     * Method that decodes and processes the messages contained in the inbound buffer, until the buffer is empty. <br>
+     * Only one thread at a time runs this method for a given node, so that messages are processed in order. If a message
+     * has been only partially received, the thread waits for the rest of it: should the client stop sending, the ping
+     * mechanism will destroy the node and release the thread. <br>
+     * Any problem with the input stream will cause the destruction of the {@code NIOServerNode}. <br>
+     */
+    private void decodeMessages() {
+        try {
+            while (true) {
+
+                synchronized (aliveLock) {
+                    if (!statusIsAlive)
+                        throw new NodeClosedException();
+                }
+
+                if (inputObtStr == null && frameReader == null) {
+                    initializeStreams();
+                } else {
+                    Object message;
+                    if (frameReader != null) {
+                        message = frameReader.read(inboundBuffer);
+                    } else {
+                        inputFilter.beginMessage(); // The stream carries all the messages of the connection
+                        message = inputObtStr.readObject();
+                    }
+                    logger.debug("Object received from socket channel: {}", message.getClass().getName());
+
+                    long receivedTime = System.nanoTime();
+                    if (frameReader != null) { // In stream mode the decoding can't be told apart from the wait for the bytes
+                        receivedTime -= frameReader.getLastDecodeNanos();
+                        LatencyMetrics.getInstance().record(LatencyStage.DECODE, LatencyMetrics.typeOf(message),
+                                frameReader.getLastDecodeNanos());
+                    }
+                    processMessage(message, receivedTime);
+                }
+
+                if (inboundBuffer.available() < MAX_BUFFERED_INPUT)
+                    updateInterest(SelectionKey.OP_READ, true);
+
+                if (inboundBuffer.available() == 0) {
+                    decoding.set(false);
+                    // Bytes fed after the check and before releasing the flag would otherwise be left undecoded
+                    if (inboundBuffer.available() == 0 || !decoding.compareAndSet(false, true))
+                        return;
+                }
+            }
+        } catch (IOException | ClassNotFoundException e) {
+
+            synchronized (aliveLock) {
+                if (!statusIsAlive)
+                    return; // The stream has been closed by the destruction process
+            }
+
+            logger.error("Critical ObjectInputStream error while reading.\n" +
+                    "Exception message: {}\n" +
+                    "Exception local message: {}\n" +
+                    "Stack Trace: {}\n",
+                    e.getMessage(), e.getLocalizedMessage(), Arrays.toString(e.getStackTrace()));
+
+            destroy();
+
+        } catch (NodeClosedException ignored) {}
+    }
+
+    /**
+     * Method that recognizes, from the first bytes received, whether the client uses the stream or the framed mode,
+     * and initializes the streams accordingly. <br>
+     * In the stream mode the header of the output stream is sent to the client, and the input stream is created reading
+     * the header sent by the client. In the framed mode the handshake of the client is read and answered.
+     *
+     * @throws IOException if the first bytes are neither a stream header nor a valid handshake, or the answer could not
+     * be sent
+     */
+    private void initializeStreams() throws IOException {
+        byte[] preamble = inboundBuffer.readNBytes(FrameHandshake.PREAMBLE_LENGTH);
+
+        synchronized (stoCProcessingLock) {
+            if (FrameHandshake.isStreamHeader(preamble)) {
+                outputObtStr = new ObjectOutputStream(outputBytes);
+                outputObtStr.flush();
+                channelOutput.write(outputBytes.toByteArray());
+                outputBytes.reset();
+                inputObtStr = new ObjectInputStream(new SequenceInputStream(new ByteArrayInputStream(preamble), inboundBuffer));
+                inputObtStr.setObjectInputFilter(inputFilter);
+                logger.debug("Client uses the stream mode");
+
+            } else {
+                FrameHandshake request = FrameHandshake.decode(preamble, inboundBuffer);
+                FrameHandshake answer = request.answer(request.getCodec(), config.isFrameCompression());
+                channelOutput.write(answer.encode());
+                if (answer.isCompression())
+                    frameCompressor = new FrameCompressor(config.getFrameCompressionThreshold());
+                frameReader = new FrameReader(frameCompressor, inputFilter);
+                frameWriter = new FrameWriter(answer.getCodec(), frameCompressor);
+                logger.debug("Client uses the framed mode with codec {}, compression {}", answer.getCodec(), answer.isCompression());
+            }
+        }
+    }
+
+    /**
+     * Method that processes a message received from the client. <br>
+     * - If the message exceeds the rate limit of its type, it is handled according to the {@link RateLimitPolicy}: the
+     * method waits until the message can be processed, returns without processing it, or destroys the node. <br>
+     * - If the message is a {@link PingMessage}, the method will record the round trip time of the probe it answers, if
+     * any, and return immediately. <br>
+     * - If the message is a {@link CtoSMessage} and a {@link GameController} is already set, the method will call the
+     * {@code elaborateMessage} method on the message. <br>
+     * - If the message is a {@link CtoSLobbyMessage} and a {@link GameController} is not yet set, the method will call
+     * the {@code elaborateMessage} method on the message and set the {@code GameController} to the one returned by the
+     * method. <br>
+     * - If the message is not recognized, the method will send an {@link ErrorMessage} to the client. <br>
+     *
+     * @param message the message received from the client
+     * @param receivedTime the {@link System#nanoTime()} at which the message was received, before it was decoded
+     * @throws NodeClosedException exception thrown if the instance of {@code NIOServerNode} is not alive
+     */
+    private void processMessage(Object message, long receivedTime) throws NodeClosedException {
+        LatencyMetrics metrics = LatencyMetrics.getInstance();
+
+        resetTimeCounter(); // Any message received from the client is a heartbeat, even if it exceeds the rate limits
+
+        if (!rateLimiter.acquire(message)) { // Messages exceeding the rate are discarded, or the client disconnected
+            if (rateLimiter.getPolicy() == RateLimitPolicy.DISCONNECT) {
+                destroy();
+                throw new NodeClosedException();
+            }
+            return;
+        }
+
+        synchronized (ctoSProcessingLock) {
+
+            synchronized (aliveLock) {
+                if (!statusIsAlive)
+                    throw new NodeClosedException();
+            }
+
+            // Check type of message received
+
+            if (message instanceof PingMessage pingMessage) {
+                if (pingMessage.getEchoedTimestamp() != 0)
+                    heartbeat.recordRoundTrip(System.nanoTime() - pingMessage.getEchoedTimestamp());
+                return;
+            }
+            else if (message instanceof CtoSMessage) {
+                if (gameController == null) { // It should never happen that the gameController hasn't yet been assigned when a CtoSMessage is received
+                    try {
+                        uploadToClient(new ErrorMessage(
+                                "StoCMessage was sent before StoCLobbyMessage",
+                                "PLAYER",
+                                ErrorMessageCode.STOCMESSAGE_SENT_BEFORE_STOCLOBBYMESSAGE.getCode()
+                        ));
+                        logger.info("StoCMessage received before StoCLobbyMessage. Sending ErrorMessage to client");
+                    } catch (UploadFailureException e) {
+                        logger.error("StoCMessage received before StoCLobbyMessage. Failed to send ErrorMessage to client");
+                    }
+                    return;
+                }
+
+                // As expected, the gameController has been assigned
+                long startTime = metrics.beginCommand(message, receivedTime);
+                Log4J2ConfiguratorWrapper.routeToGame(gameController.getId());
+                try {
+                    ((CtoSMessage) message).elaborateMessage(gameController); // Process the message
+                    if (ProtocolLogSampler.isSampled(logger, message))
+                        logger.info("Elaborated CtoSMessage received: {}", message);
+                } catch (Exception e) { // Catch any exception thrown by the message elaboration
+                    logger.fatal("Error while elaborating CtoSMessage: ", e);
+                    throw e;
+                } finally {
+                    Log4J2ConfiguratorWrapper.stopRoutingToGame();
+                    metrics.endCommand(startTime);
+                }
+            }
+            else if (message instanceof CtoSLobbyMessage) {
+                if (gameController != null) { // It should never happen that the gameController has already been assigned when a CtoSLobbyMessage is received
+                    try {
+                        uploadToClient(new ErrorMessage(
+                                "StoCLobbyMessage was sent when the game has already been chosen",
+                                "PLAYER",
+                                ErrorMessageCode.STOCLOBBYMESSAGE_SENT_BUT_GAMECONTROLLER_ALREADY_PRESENT.getCode()
+                        ));
+                        logger.info("StoCLobbyMessage received when gameController already assigned. Sending ErrorMessage to client");
+                    } catch (UploadFailureException e) {
+                        logger.error("StoCLobbyMessage received when gameController already assigned. Failed to send ErrorMessage to client");
+                    }
+                    return;
+                }
+
+                // As expected, the gameController has not yet been assigned
+                long startTime = metrics.beginCommand(message, receivedTime);
+                try {
+                    gameController = ((CtoSLobbyMessage) message).elaborateMessage(this);
+
+                    notLinkedPingTask.cancel();
+                    config.purgeTimer();
+                    gameController.getTimer().scheduleAtFixedRate(serverPingTask,
+                            config.getPingTimeInterval(), config.getPingTimeInterval());
+
+                    if (ProtocolLogSampler.isSampled(logger, message))
+                        logger.info("Elaborated CtoSLobbyMessage received: {}", message);
+                } catch (LobbyMessageException e) {
+                    try {
+                        uploadToClient(new ErrorMessage(
+                                e.getMessage(),
+                                "PLAYER",
+                                e.getExceptionType().getValue()
+                        ));
+                        logger.info("Invalid player number. Sending ErrorMessage to client");
+                    } catch (UploadFailureException ex) {
+                        logger.error("Invalid player number. Failed to send ErrorMessage to client");
+                    }
+                } catch (Exception e) {
+                    logger.fatal("Error while elaborating CtoSLobbyMessage: ", e);
+                    throw e;
+                } finally {
+                    metrics.endCommand(startTime);
+                }
+            }
+            else { // Unknown message type received
+                try {
+                    uploadToClient(new ErrorMessage(
+                            "Message type not recognized",
+                            "PLAYER",
+                            ErrorMessageCode.MESSAGE_TYPE_NOT_RECOGNIZED.getCode()
+                    ));
+                    logger.info("Message type not recognized. Sending ErrorMessage to client");
+                } catch (UploadFailureException e) {
+                    logger.error("Message type not recognized. Failed to send ErrorMessage to client");
+                }
+            }
+        }
+    }
+
+    /**
+     * Method that sends a {@link StoCMessage} to the client. <br>
+     * If the client is not alive or the connection had issues and the message couldn't reach the client, a
+     * {@link UploadFailureException} will be thrown. <br>
+     * If the client wasn't reachable, the method will start the destruction process. <br>
+     * If the client doesn't accept the whole message within the configured socket write timeout, the client is
+     * considered unreachable. <br>
+     * Messages cannot be sent before the client has chosen the stream or framed mode. <br>
+     *
+     * @param msg is the message that the server wants to send
+     * @throws UploadFailureException if the message couldn't be sent to the client or the ServerNode is not alive
+     */
+    public void uploadToClient(StoCMessage msg) throws UploadFailureException {
+
+        synchronized (stoCProcessingLock) {
+
+            synchronized (aliveLock) {
+                if (!statusIsAlive)
+                    throw new UploadFailureException();
+            }
+
+            if (frameWriter == null && outputObtStr == null)
+                throw new UploadFailureException(); // The client has not yet chosen the mode
+
+            try {
+                if (frameWriter != null) {
+                    frameWriter.write(msg, channelOutput); // The frame is written on the channel with a single write
+                } else {
+                    outputBytes.reset();
+                    outputObtStr.writeObject(msg);
+                    outputObtStr.flush();
+                    channelOutput.write(outputBytes.toByteArray());
+                }
+                heartbeat.frameSent();
+                if (ProtocolLogSampler.isSampled(logger, msg))
+                    logger.info("StoCMessage sent to client: {}", msg);
+
+            } catch (IOException e) {
+
+                logger.error("Failed to send StoCMessage to client: {}", e.getMessage());
+
+                destroy();
+
+                throw new UploadFailureException();
+            }
+        }
+    }
+
+    /**
+     * Method that writes all the bytes of a buffer on the channel. <br>
+     * When the socket buffer is full, the method waits for the selector to report the channel writable again.
+     *
+     * @param buffer the bytes to write
+     * @param deadline the time, in milliseconds, by which the bytes must have been written
+     * @throws IOException if the channel has been closed, or the deadline has expired
+     */
+    private void writeFully(ByteBuffer buffer, long deadline) throws IOException {
+        while (buffer.hasRemaining()) {
+            int written = channel.write(buffer);
+            if (written > 0) {
+                transportCounters.addBytesOut(written);
+                continue;
+            }
+
+            synchronized (writableLock) {
+                writable = false;
+                updateInterest(SelectionKey.OP_WRITE, true);
+
+                while (!writable) {
+                    if (!channel.isOpen())
+                        throw new ClosedChannelException();
+
+                    long remainingTime = deadline - System.currentTimeMillis();
+                    if (remainingTime <= 0)
+                        throw new IOException("Write deadline expired");
+
+                    try {
+                        writableLock.wait(remainingTime);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Interrupted while waiting to write");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Method that adds or removes an operation from the ones the selector waits for on the channel. <br>
+     * The selector is woken up, so that the change is effective immediately.
+     *
+     * @param operation the operation to add or remove
+     * @param enabled true to add the operation, false to remove it
+     */
+    private void updateInterest(int operation, boolean enabled) {
+        SelectionKey key = selectionKey;
+        if (key == null)
+            return; // Not yet registered: the selector will wait for reads as soon as it registers the channel
+
+        try {
+            int interestOps = key.interestOps();
+            int newInterestOps = enabled ? interestOps | operation : interestOps & ~operation;
+            if (newInterestOps != interestOps) {
+                key.interestOps(newInterestOps);
+                key.selector().wakeup();
+            }
+        } catch (CancelledKeyException ignored) {} // The node is being destroyed
+    }
+
+    /**
+     * Method that should be called at regular intervals. <br>
+     * If the {@code NIOServerNode} is not alive, the method will return immediately. <br>
+     * If nothing has been received from the client for the maximum number of heartbeat intervals, the
+     * {@code NIOServerNode} will start the destruction process. <br>
+     * On the other hand, a {@link PongMessage} probe is sent to the client only if nothing else has been sent to it
+     * for half an interval, or if the round trip time has not been measured for a while: on busy connections, the
+     * messages of the game are the heartbeats. <br>
+     */
+    @Override
+    public void pingTimeOverdue() {
+
+        boolean tmpDestroy = false;
+
+        synchronized (aliveLock) {
+
+            if(!statusIsAlive)
+                return;
+
+            if(heartbeat.isExpired(config.getMaxPingCount())) {
+                statusIsAlive = false;
+                logger.debug("No heartbeat received from client, starting destruction process");
+                transportCounters.pingFailed();
+                tmpDestroy = true;
+            }
+        }
+
+        if(tmpDestroy)
+            destroy();
+        else if(heartbeat.isIdle() || heartbeat.isSampleStale())
+            config.getExecutorService().submit(() -> {
+                try {
+                    uploadToClient(new PongMessage(nickname, System.nanoTime()));
+                } catch (UploadFailureException e) {
+                    logger.error("Failed to send PongMessage to client");
+                }
+            }); // Create a new thread that sends a PongMessage probe to the client
+    }
+
+    /**
+     * Method that records that a heartbeat has been received from the client, if the {@code NIOServerNode} is alive. <br>
+     */
+    @Override
+    public void resetTimeCounter() {
+
+        synchronized (aliveLock){
+
+            if(!statusIsAlive)
+                return;
+
+            heartbeat.frameReceived();
+        }
+    }
+
+    /**
+     * Method that returns the smoothed round trip time of the connection, measured with the probes sent to the client.
+     *
+     * @return the round trip time in microseconds, or -1 if it has not been measured yet
+     */
+    @Override
+    public long getRoundTripMicros() {
+        return heartbeat.getRoundTripMicros();
+    }
+
+    /**
+     * Method that returns the jitter of the connection, measured as the mean deviation of the round trip time.
+     *
+     * @return the jitter in microseconds, or -1 if the round trip time has not been measured yet
+     */
+    @Override
+    public long getJitterMicros() {
+        return heartbeat.getJitterMicros();
+    }
+
+    /**
+     * Method that destroys the instance of {@code NIOServerNode}. <br>
+     * It closes the channel and the inbound buffer, releasing the threads waiting to decode or to write. <br>
+     * If the {@code NIOServerNode} is linked to a {@code GameController}, it will disconnect from it. <br>
+     * It also cancels all ping tasks and then purges the timer of the {@code Configuration} class and
+     * {@code GameController}. <br>
+     * The method will also set the status of the {@code NIOServerNode} to not alive. <br>
+     */
+    public void destroy(){
+
+        synchronized (aliveLock) {
+            statusIsAlive = false;
+            if(destroyCalled)
+                return;
+            destroyCalled = true;
+            serverPingTask.cancel();
+            notLinkedPingTask.cancel();
+        }
+
+        transportCounters.nodeClosed();
+        if (!rateLimiter.getLimitedMessages().isEmpty())
+            logger.info("Messages exceeding the rate limits: {}", rateLimiter.getLimitedMessages());
+
+        // Closing the channel before acquiring the locks releases the threads blocked on it
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
+
+        inboundBuffer.close();
+
+        synchronized (writableLock) {
+            writableLock.notifyAll();
+        }
+
+        synchronized (ctoSProcessingLock) {
+            synchronized (stoCProcessingLock) {
+
+                if(frameCompressor != null) {
+                    logger.info("Frame compression: {}", frameCompressor.getStatistics());
+                    frameCompressor.end();
+                }
+
+                if(gameController != null) {
+                    gameController.getTimer().purge();
+                    gameController.disconnect(this);
+                    logger.info("NIOServerNode destroyed and disconnected from GameController");
+                    return;
+                }
+
+                serverPingTask = null;
+                notLinkedPingTask = null;
+
+                logger.info("NIOServerNode destroyed");
+                config.purgeTimer();
+            }
+        }
+    }
+
+    /**
+     * Setter used by the {@link NIOSelectorLoop} once the channel has been registered.
+     *
+     * @param selectionKey the key of the channel in the selector
+     */
+    void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+    }
+
+    /**
+     * Getter
+     *
+     * @return the channel of the connection
+     */
+    SocketChannel getChannel() {
+        return channel;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Nested classes
+
+    /**
+     * Stream writing directly on the channel. Each write must be completed within the configured socket write timeout.
+     */
+    private class ChannelOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writeFully(ByteBuffer.wrap(b, off, len), System.currentTimeMillis() + config.getSocketWriteTimeout());
+        }
+    }
+
+    /**
+     * Stream of the bytes received from the client and not yet decoded. <br>
+     * Bytes are fed by the selector thread, and read by the thread decoding the messages, which waits when it needs
+     * more bytes than the ones received. Once closed, the stream returns the remaining bytes and then the end of stream.
+     */
+    private static class InboundBuffer extends InputStream {
+
+        private final ArrayDeque<byte[]> chunks = new ArrayDeque<>();
+        private int headPosition;
+        private int available;
+        private boolean closed;
+
+        /**
+         * Appends the remaining bytes of a buffer to the stream.
+         *
+         * @param buffer the bytes received
+         * @return the number of bytes available after the append
+         */
+        synchronized int feed(ByteBuffer buffer) {
+            byte[] chunk = new byte[buffer.remaining()];
+            buffer.get(chunk);
+            chunks.add(chunk);
+            available += chunk.length;
+            notifyAll();
+            return available;
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+
+            while (available == 0) {
+                if (closed)
+                    return -1;
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for bytes");
+                }
+            }
+
+            int copied = 0;
+            while (copied < len && available > 0) {
+                byte[] head = chunks.peek();
+                int length = Math.min(len - copied, head.length - headPosition);
+                System.arraycopy(head, headPosition, b, off + copied, length);
+                copied += length;
+                available -= length;
+                headPosition += length;
+                if (headPosition == head.length) {
+                    chunks.poll();
+                    headPosition = 0;
+                }
+            }
+            return copied;
+        }
+
+        @Override
+        public synchronized int available() {
+            return available;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+    }
+}
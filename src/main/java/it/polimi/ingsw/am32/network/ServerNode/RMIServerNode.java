@@ -6,15 +6,29 @@ import it.polimi.ingsw.am32.message.ClientToServer.CtoSMessage;
 import it.polimi.ingsw.am32.message.ClientToServer.PingMessage;
 import it.polimi.ingsw.am32.message.ServerToClient.PongMessage;
 import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
 import it.polimi.ingsw.am32.network.ClientNode.RMIClientNodeInt;
 import it.polimi.ingsw.am32.network.exceptions.NodeClosedException;
 import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import it.polimi.ingsw.am32.network.framing.MessageInputFilter;
+import it.polimi.ingsw.am32.network.heartbeat.HeartbeatMonitor;
+import it.polimi.ingsw.am32.network.ratelimit.InboundRateLimiter;
+import it.polimi.ingsw.am32.network.ratelimit.RateLimitPolicy;
+import it.polimi.ingsw.am32.network.rmi.TunedClientSocketFactory;
+import it.polimi.ingsw.am32.network.rmi.TunedServerSocketFactory;
+import it.polimi.ingsw.am32.utilities.Log4J2ConfiguratorWrapper;
+import it.polimi.ingsw.am32.utilities.ProtocolLogSampler;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.rmi.NoSuchObjectException;
 import java.rmi.RemoteException;
+import java.rmi.server.RemoteServer;
+import java.rmi.server.ServerNotActiveException;
 import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 
 /**
  * Each instance of class {@code RMIServerNode} handle une RMI connection with a client.<br>
@@ -22,7 +36,7 @@ import java.rmi.server.UnicastRemoteObject;
  *
  * @author Matteo
  */
-public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeInt, ServerNodeInterface {
+public class RMIServerNode implements RMIServerNodeInt, ServerNodeInterface {
 
     //---------------------------------------------------------------------------------------------
     // Variables and Constants
@@ -32,6 +46,7 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
      */
     private final static Logger logger = LogManager.getLogger(RMIServerNode.class);
     private final Configuration config;
+    private final TransportMetrics.Counters transportCounters;
 
     /**
      * Variables used to communicate with the {@code GameController}
@@ -41,7 +56,8 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
     /**
      * Variables used to manage the connection with the server
      */
-    private int pingCount;
+    private final HeartbeatMonitor heartbeat;
+    private final InboundRateLimiter rateLimiter;
     private final String nickname;
 
     /**
@@ -49,6 +65,15 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
      */
     private final RMIClientNodeInt clientNode;
 
+    /**
+     * Variables used to send messages to the client asynchronously: the messages waiting to be sent, the number of
+     * remote invocations in progress and the sequence number of the next batch. They are guarded by outboundLock.
+     */
+    private final ArrayDeque<StoCMessage> pendingMessages;
+    private int inFlightBatches;
+    private long nextBatchSequence;
+    private final Object outboundLock;
+
     /**
      * Variables used to verify and maintain active the connection with the client
      */
@@ -68,7 +93,9 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
     // Constructor
 
     /**
-     * Standard constructor of the class
+     * Standard constructor of the class. <br>
+     * The object is exported with the socket factories configured in {@link Configuration}, on the same port of the
+     * {@code RMIClientAcceptor}, and with a {@link MessageInputFilter} bounding the messages received from the client.
      *
      * @param clientNode is the instance of {@code RMIClientNodeInt} the {@code RMIServerNode} will use to send messages
      *                   to che client
@@ -78,14 +105,30 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
         this.clientNode = clientNode;
         serverPingTask = new ServerPingTask(this);
         config = Configuration.getInstance();
-        pingCount = config.getMaxPingCount();
+        heartbeat = new HeartbeatMonitor(config.getPingTimeInterval());
         aliveLock = new Object();
         ctoSProcessingLock = new Object();
         stoCProcessingLock = new Object();
+        outboundLock = new Object();
+        pendingMessages = new ArrayDeque<>();
+        inFlightBatches = 0;
+        nextBatchSequence = 0;
         nickname = "Unknown";
+        transportCounters = TransportMetrics.getInstance().of(TransportMetrics.Transport.RMI);
+
+        String clientHost;
+        try {
+            clientHost = RemoteServer.getClientHost(); // The node is created during a call of the client
+        } catch (ServerNotActiveException e) {
+            clientHost = "Unknown";
+        }
+        rateLimiter = InboundRateLimiter.fromConfiguration(TransportMetrics.Transport.RMI, clientHost);
 
         statusIsAlive = true;
         destroyCalled = false;
+        UnicastRemoteObject.exportObject(this, 0, TunedClientSocketFactory.fromConfiguration(),
+                TunedServerSocketFactory.fromConfiguration(), MessageInputFilter.fromConfiguration(TransportMetrics.Transport.RMI));
+        transportCounters.nodeOpened();
     }
 
 
@@ -95,21 +138,32 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
     /**
      * Send a {@link CtoSMessage} to the {@link RMIServerNode}. The server will process it and send back a
      * {@link StoCMessage} according to the situation.<br>
-     * If the ServerNode is not alive, a {@link NodeClosedException} will be thrown.
+     * If the ServerNode is not alive, a {@link NodeClosedException} will be thrown.<br>
+     * If the message exceeds the rate limit of its type, it is handled according to the {@link RateLimitPolicy}: the
+     * method waits until the message can be processed, returns without processing it, or destroys the node.
      *
      * @param message a {@link CtoSMessage} that the server has to process
      * @throws RemoteException if the method couldn't be invoked on the server
      * @throws NodeClosedException if the {@code RMIServerNode} is not alive
      */
     public void uploadCtoS(CtoSMessage message) throws RemoteException, NodeClosedException {
+        long receivedTime = System.nanoTime(); // The message has already been unmarshalled by the RMI runtime
+
+        resetTimeCounter(); // Any message received from the client is a heartbeat, even if it exceeds the rate limits
+
+        if (!rateLimiter.acquire(message)) { // Messages exceeding the rate are discarded, or the client disconnected
+            if (rateLimiter.getPolicy() == RateLimitPolicy.DISCONNECT) {
+                destroy();
+                throw new NodeClosedException();
+            }
+            return;
+        }
 
         synchronized (ctoSProcessingLock) {
 
             synchronized (aliveLock) {
                 if (!statusIsAlive)
                     throw new NodeClosedException();
-
-                resetTimeCounter();
             }
 
             if(message instanceof PingMessage) {return;}
@@ -117,57 +171,143 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
             // We can't risk to lose the observability of potential RuntimeExceptions thrown by GameController and Model
             // The server will not crash if such exceptions are thrown, thanks to how the threads are managed, but
             // we need to log them to understand what went wrong and fix it.
-            try{
+            LatencyMetrics metrics = LatencyMetrics.getInstance();
+            long startTime = metrics.beginCommand(message, receivedTime);
+            Log4J2ConfiguratorWrapper.routeToGame(gameController.getId());
+            try {
                 message.elaborateMessage(gameController);
-                logger.info("RMI CtoSMessage received and elaborated successfully: {}", message.toString());
+                if (ProtocolLogSampler.isSampled(logger, message))
+                    logger.info("RMI CtoSMessage received and elaborated successfully: {}", message);
             } catch (Exception e) {
                 logger.fatal("An error occurred while processing RMI CtoSMessage:", e);
                 throw e;
+            } finally {
+                Log4J2ConfiguratorWrapper.stopRoutingToGame();
+                metrics.endCommand(startTime);
             }
         }
     }
 
     /**
      * Send a {@link StoCMessage} to the client. <br>
-     * If the client is not alive or the connection had issues and the message couldn't reach the client, a
-     * {@link UploadFailureException} will be thrown. <br>
-     * If any of the two exceptions is thrown, the {@code RMIServerNode} will start the destruction process.
+     * The message is sent asynchronously: it is queued and the method returns without waiting for the client, as it
+     * happens when writing on a socket. The queued messages are sent in batches, with
+     * {@link RMIClientNodeInt#uploadStoCBatch(long, ArrayList)}, by at most a configured number of concurrent remote
+     * invocations; while they are in progress, new messages accumulate in the next batch. <br>
+     * If too many messages are already waiting, the method waits until a batch is sent, so that the messages keep
+     * accumulating in the {@link it.polimi.ingsw.am32.controller.VirtualView} queue of the client. <br>
+     * If the {@code RMIServerNode} is not alive, a {@link UploadFailureException} will be thrown. If a batch cannot
+     * reach the client, the {@code RMIServerNode} will start the destruction process.
      *
      * @param message is the message that the server wants to send
-     * @throws UploadFailureException if the message couldn't be sent to the client
+     * @throws UploadFailureException if the {@code RMIServerNode} is not alive
      */
     public void uploadToClient(StoCMessage message) throws UploadFailureException {
 
+        synchronized (outboundLock) {
+
+            while (isAlive() && pendingMessages.size() >= config.getRmiBatchSize()) {
+                try {
+                    outboundLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UploadFailureException();
+                }
+            }
+
+            if (!isAlive())
+                throw new UploadFailureException();
+
+            pendingMessages.addLast(message);
+
+            if (inFlightBatches < config.getRmiMaxInFlightCalls())
+                sendNextBatch();
+        }
+    }
+
+    /**
+     * Take the messages waiting to be sent, up to the batch size, and assign their remote invocation to another thread.
+     * The caller must hold outboundLock.
+     */
+    private void sendNextBatch() {
+
+        ArrayList<StoCMessage> batch = new ArrayList<>(Math.min(pendingMessages.size(), config.getRmiBatchSize()));
+        while (!pendingMessages.isEmpty() && batch.size() < config.getRmiBatchSize())
+            batch.add(pendingMessages.removeFirst());
+
+        long batchSequence = nextBatchSequence++;
+        inFlightBatches++;
+        outboundLock.notifyAll(); // Room has been made for new messages
+
+        config.getExecutorService().submit(() -> uploadBatch(batchSequence, batch));
+    }
+
+    /**
+     * Send a batch of messages to the client. <br>
+     * When the invocation is over, the next batch is sent if messages have been queued in the meantime. If the client
+     * is not reachable, the {@code RMIServerNode} will start the destruction process and the queued messages are lost:
+     * the client will receive the full status of the game when it reconnects. <br>
+     * Since the remote invocation returns only once the client has received the messages, a successful upload is a
+     * heartbeat in both directions.
+     *
+     * @param batchSequence the sequence number of the batch, used by the client to process the batches in order
+     * @param batch the messages to be sent
+     */
+    private void uploadBatch(long batchSequence, ArrayList<StoCMessage> batch) {
+
         try {
-            clientNode.uploadStoC(message);
-            logger.info("StoCMessage sent to client: {}", message.toString());
+            clientNode.uploadStoCBatch(batchSequence, batch);
+            heartbeat.frameSent();
+            heartbeat.frameReceived();
+            if (!batch.isEmpty() && ProtocolLogSampler.isSampled(logger, batch.getFirst())) // A batch is sampled as its first message
+                logger.info("Batch of {} StoCMessages sent to client: {}", batch.size(), batch);
 
         } catch (RemoteException e) {
 
             synchronized (aliveLock) {
                 statusIsAlive = false;
             }
-            logger.error("Failed to send StoCMessage to client: {}",  e.getMessage());
-            config.getExecutorService().submit(this::destroy);
-            throw new UploadFailureException();
+            logger.error("Failed to send StoCMessages to client: {}",  e.getMessage());
+            destroy();
 
         } catch (NodeClosedException e) {
 
             synchronized (aliveLock) {
                 statusIsAlive = false;
             }
-            logger.info("Failed to send StoCMessage to client because client node is closed");
-            config.getExecutorService().submit(this::destroy);
-            throw new UploadFailureException();
+            logger.info("Failed to send StoCMessages to client because client node is closed");
+            destroy();
+        }
+
+        synchronized (outboundLock) {
+            inFlightBatches--;
+            if (!isAlive()) {
+                pendingMessages.clear();
+                outboundLock.notifyAll(); // Release the threads waiting to queue a message
+            } else if (!pendingMessages.isEmpty()) {
+                sendNextBatch();
+            }
+        }
+    }
+
+    /**
+     * Return whether the {@code RMIServerNode} is alive.
+     *
+     * @return true if the {@code RMIServerNode} is alive
+     */
+    private boolean isAlive() {
+        synchronized (aliveLock) {
+            return statusIsAlive;
         }
     }
 
     /**
      * If the {@code RMIServerNode} is not alive, the method will return immediately. <br>
-     * If the {@code RMIServerNode} is alive, the ping count will be decremented. <br>
-     * If the ping count reaches 0, the {@code RMIServerNode} will start the destruction process. <br>
-     * On the other hand, if the ping count is still more than 0 after decrementing, the server will send a
-     * {@link PongMessage} to the client.
+     * If nothing has been received from the client for the maximum number of heartbeat intervals, the
+     * {@code RMIServerNode} will start the destruction process. <br>
+     * On the other hand, a {@link PongMessage} probe is sent to the client only if nothing else has been sent to it for
+     * half an interval, or if the round trip time has not been measured for a while. The duration of the remote
+     * invocation of the probe is the round trip time of the connection.
      */
     public void pingTimeOverdue() {
 
@@ -178,13 +318,10 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
             if(!statusIsAlive)
                 return;
 
-            pingCount--;
-
-            logger.debug("Ping time overdue. Ping count: {}", pingCount);
-
-            if(pingCount <= 0){
+            if(heartbeat.isExpired(config.getMaxPingCount())){
                 statusIsAlive = false;
-                logger.debug("Ping count reached minimum, starting destruction process");
+                logger.debug("No heartbeat received from client, starting destruction process");
+                transportCounters.pingFailed();
                 tmpDestroy = true;
             }
 
@@ -192,19 +329,25 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
 
         if(tmpDestroy)
             destroy();
-        else
+        else if(heartbeat.isIdle() || heartbeat.isSampleStale())
             config.getExecutorService().submit(() -> {
                 try {
-                    uploadToClient(new PongMessage(nickname));
-                } catch (UploadFailureException e) {
+                    long startTime = System.nanoTime();
+                    clientNode.uploadStoC(new PongMessage(nickname)); // Not queued, so that only the round trip is measured
+                    heartbeat.recordRoundTrip(System.nanoTime() - startTime);
+                    heartbeat.frameSent();
+                    heartbeat.frameReceived();
+                } catch (RemoteException | NodeClosedException e) {
                     logger.error("Failed to send PongMessage to client");
+                    transportCounters.pingFailed();
+                    destroy();
                 }
             });
 
     }
 
     /**
-     * Reset the ping count to the maximum value if the server is alive. <br>
+     * Record that a heartbeat has been received from the client, if the server is alive. <br>
      */
     @Override
     public void resetTimeCounter() {
@@ -214,15 +357,35 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
             if(!statusIsAlive)
                 return;
 
-            pingCount = config.getMaxPingCount();
-            logger.debug("Ping count reset");
+            heartbeat.frameReceived();
         }
     }
 
+    /**
+     * Return the smoothed round trip time of the connection, measured with the probes sent to the client.
+     *
+     * @return the round trip time in microseconds, or -1 if it has not been measured yet
+     */
+    @Override
+    public long getRoundTripMicros() {
+        return heartbeat.getRoundTripMicros();
+    }
+
+    /**
+     * Return the jitter of the connection, measured as the mean deviation of the round trip time.
+     *
+     * @return the jitter in microseconds, or -1 if the round trip time has not been measured yet
+     */
+    @Override
+    public long getJitterMicros() {
+        return heartbeat.getJitterMicros();
+    }
+
     /**
      * Destroy the {@code RMIServerNode}. <br>
      * The method will stop the {@link ServerPingTask} and will disconnect the {@code RMIServerNode} from the
      * {@code GameController} if already assigned. <br>
+     * The messages not yet sent to the client are discarded. <br>
      * The method will also unexport the {@code RMIServerNode} from the RMI registry.
      */
     public void destroy() {
@@ -235,6 +398,15 @@ public class RMIServerNode extends UnicastRemoteObject implements RMIServerNodeI
             serverPingTask.cancel();
         }
 
+        transportCounters.nodeClosed();
+        if (!rateLimiter.getLimitedMessages().isEmpty())
+            logger.info("Messages exceeding the rate limits: {}", rateLimiter.getLimitedMessages());
+
+        synchronized (outboundLock) {
+            pendingMessages.clear();
+            outboundLock.notifyAll(); // Release the threads waiting to queue a message
+        }
+
         synchronized (ctoSProcessingLock) {
             synchronized (stoCProcessingLock) {
 
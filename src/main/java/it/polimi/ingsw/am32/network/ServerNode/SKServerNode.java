@@ -1,6 +1,9 @@
 package it.polimi.ingsw.am32.network.ServerNode;
 
 import it.polimi.ingsw.am32.controller.exceptions.abstraction.LobbyMessageException;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import it.polimi.ingsw.am32.metrics.LatencyStage;
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
 import it.polimi.ingsw.am32.network.exceptions.ErrorMessageCode;
 import it.polimi.ingsw.am32.utilities.Configuration;
 import it.polimi.ingsw.am32.controller.GameController;
@@ -12,13 +15,29 @@ import it.polimi.ingsw.am32.message.ServerToClient.PongMessage;
 import it.polimi.ingsw.am32.network.exceptions.NodeClosedException;
 import it.polimi.ingsw.am32.network.exceptions.UninitializedException;
 import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import it.polimi.ingsw.am32.network.framing.FrameCompressor;
+import it.polimi.ingsw.am32.network.framing.FrameHandshake;
+import it.polimi.ingsw.am32.network.framing.FrameReader;
+import it.polimi.ingsw.am32.network.framing.FrameWriter;
+import it.polimi.ingsw.am32.network.framing.MessageInputFilter;
+import it.polimi.ingsw.am32.network.heartbeat.HeartbeatMonitor;
+import it.polimi.ingsw.am32.network.ratelimit.InboundRateLimiter;
+import it.polimi.ingsw.am32.network.ratelimit.RateLimitPolicy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.utilities.Log4J2ConfiguratorWrapper;
+import it.polimi.ingsw.am32.utilities.ProtocolLogSampler;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.net.Socket;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
@@ -28,6 +47,8 @@ import java.util.Arrays;
  * Each instance of class {@code SKServerNode} handles a socket connection with a client. <br>
  * If, at some point, the connection were to go down, this instance will begin automatically a termination process. <br>
  * The class implements the {@code Runnable} interface to allow the instance to be run in a separate thread. <br>
+ * The client chooses whether messages are exchanged on a pair of object streams or as length-prefixed frames (see
+ * {@link FrameHandshake}): the node recognizes the mode from the first bytes received. <br>
  *
  * @author Matteo
  */
@@ -41,6 +62,7 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
      */
     private final Logger logger;
     private final Configuration config;
+    private final TransportMetrics.Counters transportCounters;
 
     /**
      * Variables used to communicate with the {@code GameController}
@@ -50,15 +72,33 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
     /**
      * Variables used to manage the connection with the server
      */
-    private int pingCount;
+    private final HeartbeatMonitor heartbeat;
+    private final InboundRateLimiter rateLimiter;
     private final String nickname;
 
     /**
      * Variables used to communicate with the client
      */
     private final Socket socket;
-    private final ObjectInputStream inputObtStr;
-    private final ObjectOutputStream outputObtStr;
+    private final MessageInputFilter inputFilter;
+    private ObjectInputStream inputObtStr;
+    private ObjectOutputStream outputObtStr;
+
+    /**
+     * Variables used to communicate with the client when it uses the framed mode. They are null if the client uses
+     * the stream mode, in which case the object streams are null.
+     */
+    private InputStream inputStream;
+    private OutputStream outputStream;
+    private FrameReader frameReader;
+    private FrameWriter frameWriter;
+    private FrameCompressor frameCompressor;
+
+    /**
+     * Time, in milliseconds, at which the write currently in progress on the output stream started, or 0 if no write is
+     * in progress. Used to enforce the write deadline without acquiring the lock held by the writing thread.
+     */
+    private volatile long writeStartTime;
 
     /**
      * Variables used to verify and maintain active the connection with the client
@@ -81,7 +121,8 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
 
     /**
      * Standard constructor of the class. <br>
-     * It creates a new instance of {@code SKServerNode} and initializes the input and output streams. <br>
+     * It creates a new instance of {@code SKServerNode}, waits for the client to choose the stream or framed mode and
+     * initializes the input and output streams accordingly. <br>
      * It also sets the socket timeout. <br>
      * A temporary ping task is created to check if the client is still alive while the gameController is not yet assigned
      * Throwing an exception implies that this class is not correctly initialized and should be destroyed. This also
@@ -94,45 +135,51 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
         this.gameController = null;
         this.socket = socket;
         config = Configuration.getInstance();
-        pingCount = config.getMaxPingCount();
+        heartbeat = new HeartbeatMonitor(config.getPingTimeInterval());
         aliveLock = new Object();
         ctoSProcessingLock = new Object();
         stoCProcessingLock = new Object();
         nickname = "Unknown";
+        transportCounters = TransportMetrics.getInstance().of(TransportMetrics.Transport.SOCKET);
+        inputFilter = MessageInputFilter.fromConfiguration(TransportMetrics.Transport.SOCKET);
+        rateLimiter = InboundRateLimiter.fromConfiguration(TransportMetrics.Transport.SOCKET, String.valueOf(socket.getRemoteSocketAddress()));
 
         this.logger = LogManager.getLogger(SKServerNode.class);
 
         try {
-            outputObtStr = new ObjectOutputStream(socket.getOutputStream());
-            outputObtStr.flush();
-
-        } catch (IOException e) {
-
-            try {
-                if(!socket.isClosed())
-                    socket.close();
-            } catch (IOException ignored) {}
-
-            logger.error("Could not open output stream: {} . Socket Closed", e.getMessage());
+            InputStream socketInput = new BufferedInputStream(transportCounters.countInput(socket.getInputStream()));
+            OutputStream socketOutput = transportCounters.countOutput(socket.getOutputStream());
+            byte[] preamble = socketInput.readNBytes(FrameHandshake.PREAMBLE_LENGTH); // Wait for the client to choose the mode
 
-            throw new UninitializedException();
-        }
-
-        try {
-            inputObtStr = new ObjectInputStream(socket.getInputStream());
+            if (FrameHandshake.isStreamHeader(preamble)) {
+                outputObtStr = new ObjectOutputStream(socketOutput);
+                outputObtStr.flush();
+                inputObtStr = new ObjectInputStream(new SequenceInputStream(new ByteArrayInputStream(preamble), socketInput));
+                inputObtStr.setObjectInputFilter(inputFilter);
+                logger.debug("Client uses the stream mode");
+
+            } else {
+                FrameHandshake request = FrameHandshake.decode(preamble, socketInput);
+                FrameHandshake answer = request.answer(request.getCodec(), config.isFrameCompression());
+                outputStream = new BufferedOutputStream(socketOutput);
+                outputStream.write(answer.encode());
+                outputStream.flush();
+                inputStream = socketInput;
+                if (answer.isCompression())
+                    frameCompressor = new FrameCompressor(config.getFrameCompressionThreshold());
+                frameReader = new FrameReader(frameCompressor, inputFilter);
+                frameWriter = new FrameWriter(answer.getCodec(), frameCompressor);
+                logger.debug("Client uses the framed mode with codec {}, compression {}", answer.getCodec(), answer.isCompression());
+            }
 
         } catch (IOException e) {
 
-            try {
-                outputObtStr.close();
-            } catch (IOException ignored) {}
-
             try {
                 if(!socket.isClosed())
                     socket.close();
             } catch (IOException ignored) {}
 
-            logger.error("Could not open input stream: {} . Socket Closed", e.getMessage());
+            logger.error("Could not open streams: {} . Socket Closed", e.getMessage());
 
             throw new UninitializedException();
         }
@@ -154,9 +201,11 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
         }
 
         logger.debug("SKServerNode ready");
+        transportCounters.nodeOpened();
 
         statusIsAlive = true;
         destroyCalled = false;
+        writeStartTime = 0;
         serverPingTask = new ServerPingTask(this);
         notLinkedPingTask = new ServerPingTask(this);
         config.addTimerTask(notLinkedPingTask);
@@ -204,7 +253,10 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
      * Method that listens for incoming messages from the client. <br>
      * The method will wait until a message is received from the client. <br>
      * When a message is received, the method will check the type of the message: <br>
-     * - If the message is a {@link PingMessage}, the method will return immediately. <br>
+     * - If the message exceeds the rate limit of its type, it is handled according to the {@link RateLimitPolicy}: the
+     * method waits until the message can be processed, returns without processing it, or destroys the node. <br>
+     * - If the message is a {@link PingMessage}, the method will record the round trip time of the probe it answers, if
+     * any, and return immediately. <br>
      * - If the message is a {@link CtoSMessage} and a {@link GameController} is already set, the method will call the
      * {@code elaborateMessage} method on the message. <br>
      * - If the message is a {@link CtoSLobbyMessage} and a {@link GameController} is not yet set, the method will call
@@ -219,26 +271,53 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
      */
     private void listenForIncomingMessages() throws IOException, ClassNotFoundException, NodeClosedException {
         Object message; // Variable containing the message object received from the client
+        long receivedTime; // Time at which the whole message was received, before it was decoded
 
         try {
-            message = inputObtStr.readObject(); // Listen for incoming messages; wait here until a message is received
+            // Listen for incoming messages; wait here until a message is received
+            if (frameReader != null) {
+                message = frameReader.read(inputStream);
+            } else {
+                inputFilter.beginMessage(); // The stream carries all the messages of the connection
+                message = inputObtStr.readObject();
+            }
             logger.debug("Object received from socket stream: {}", message.getClass().getName());
         } catch (SocketTimeoutException e) {
             // logger.debug("Socket timeout exception"); Removed because it's too verbose
             return;
         }
 
+        LatencyMetrics metrics = LatencyMetrics.getInstance();
+        receivedTime = System.nanoTime();
+        if (frameReader != null) { // In stream mode the decoding can't be told apart from the wait for the bytes
+            receivedTime -= frameReader.getLastDecodeNanos();
+            metrics.record(LatencyStage.DECODE, LatencyMetrics.typeOf(message), frameReader.getLastDecodeNanos());
+        }
+
+        resetTimeCounter(); // Any message received from the client is a heartbeat, even if it exceeds the rate limits
+
+        if (!rateLimiter.acquire(message)) { // Messages exceeding the rate are discarded, or the client disconnected
+            if (rateLimiter.getPolicy() == RateLimitPolicy.DISCONNECT) {
+                destroy();
+                throw new NodeClosedException();
+            }
+            return;
+        }
+
         synchronized (ctoSProcessingLock) {
 
             synchronized (aliveLock) {
                 if (!statusIsAlive)
                     throw new NodeClosedException();
-                resetTimeCounter(); // Reset the ping counter (message has been received from client)
             }
 
             // Check type of message received
 
-            if (message instanceof PingMessage) {return;}
+            if (message instanceof PingMessage pingMessage) {
+                if (pingMessage.getEchoedTimestamp() != 0)
+                    heartbeat.recordRoundTrip(System.nanoTime() - pingMessage.getEchoedTimestamp());
+                return;
+            }
             else if (message instanceof CtoSMessage) {
                 if (gameController == null) { // It should never happen that the gameController hasn't yet been assigned when a CtoSMessage is received
                     try {
@@ -255,12 +334,18 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
                 }
 
                 // As expected, the gameController has been assigned
+                long startTime = metrics.beginCommand(message, receivedTime);
+                Log4J2ConfiguratorWrapper.routeToGame(gameController.getId());
                 try {
                     ((CtoSMessage) message).elaborateMessage(gameController); // Process the message
-                    logger.info("Elaborated CtoSMessage received: {}", message.toString());
+                    if (ProtocolLogSampler.isSampled(logger, message))
+                        logger.info("Elaborated CtoSMessage received: {}", message);
                 } catch (Exception e) { // Catch any exception thrown by the message elaboration
                     logger.fatal("Error while elaborating CtoSMessage: ", e);
                     throw e;
+                } finally {
+                    Log4J2ConfiguratorWrapper.stopRoutingToGame();
+                    metrics.endCommand(startTime);
                 }
             }
             else if (message instanceof CtoSLobbyMessage) {
@@ -279,6 +364,7 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
                 }
 
                 // As expected, the gameController has not yet been assigned
+                long startTime = metrics.beginCommand(message, receivedTime);
                 try {
                     gameController = ((CtoSLobbyMessage) message).elaborateMessage(this);
 
@@ -287,7 +373,8 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
                     gameController.getTimer().scheduleAtFixedRate(serverPingTask,
                             Configuration.getInstance().getPingTimeInterval(), Configuration.getInstance().getPingTimeInterval());
 
-                    logger.info("Elaborated CtoSLobbyMessage received: {}", message.toString());
+                    if (ProtocolLogSampler.isSampled(logger, message))
+                        logger.info("Elaborated CtoSLobbyMessage received: {}", message);
                 } catch (LobbyMessageException e) {
                     try {
                         uploadToClient(new ErrorMessage(
@@ -302,6 +389,8 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
                 } catch (Exception e) {
                     logger.fatal("Error while elaborating CtoSLobbyMessage: ", e);
                     throw e;
+                } finally {
+                    metrics.endCommand(startTime);
                 }
             }
             else { // Unknown message type received
@@ -324,6 +413,9 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
      * If the client is not alive or the connection had issues and the message couldn't reach the client, a
      * {@link UploadFailureException} will be thrown. <br>
      * If the client wasn't reachable, the method will start the destruction process. <br>
+     * While the message is being written, a write deadline is active: if the client doesn't accept the message within
+     * the configured socket write timeout, the socket is closed by {@link #pingTimeOverdue()} so that the writing
+     * thread is released. <br>
      *
      * @param msg is the message that the server wants to send
      * @throws UploadFailureException if the message couldn't be sent to the client or the ServerNode is not alive
@@ -337,9 +429,19 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
                     throw new UploadFailureException();
             }
 
+            writeStartTime = System.currentTimeMillis();
+
             try {
-                outputObtStr.writeObject(msg);
-                logger.info("StoCMessage sent to client: {}", msg.toString());
+                if (frameWriter != null) {
+                    frameWriter.write(msg, outputStream);
+                    outputStream.flush();
+                } else {
+                    outputObtStr.writeObject(msg);
+                    outputObtStr.flush();
+                }
+                heartbeat.frameSent();
+                if (ProtocolLogSampler.isSampled(logger, msg))
+                    logger.info("StoCMessage sent to client: {}", msg);
 
             } catch (IOException e) {
 
@@ -348,25 +450,27 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
                 destroy();
 
                 throw new UploadFailureException();
-            }
 
-            try {
-                outputObtStr.flush();
-            } catch (IOException ignored) {}
+            } finally {
+                writeStartTime = 0;
+            }
         }
     }
 
     /**
      * Method that should be called at regular intervals. <br>
      * If the {@code SKServerNode} is not alive, the method will return immediately. <br>
-     * If the {@code SKServerNode} is alive, the ping count will be decremented. <br>
-     * If the ping count reaches 0, the {@code SKServerNode} will start the destruction process. <br>
-     * On the other hand, if the ping count is still more than 0 after decrementing, the server will send a
-     * {@link PongMessage} to the client. <br>
+     * If nothing has been received from the client for the maximum number of heartbeat intervals, the
+     * {@code SKServerNode} will start the destruction process. <br>
+     * On the other hand, a {@link PongMessage} probe is sent to the client only if nothing else has been sent to it
+     * for half an interval, or if the round trip time has not been measured for a while: on busy connections, the
+     * messages of the game are the heartbeats. <br>
      */
     @Override
     public void pingTimeOverdue() {
 
+        checkWriteDeadline();
+
         boolean tmpDestroy = false;
 
         synchronized (aliveLock) {
@@ -374,31 +478,47 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
             if(!statusIsAlive)
                 return;
 
-            pingCount--;
-
-            logger.debug("Ping time overdue. Ping count: {}", pingCount);
-
-            if(pingCount <= 0) {
+            if(heartbeat.isExpired(config.getMaxPingCount())) {
                 statusIsAlive = false;
-                logger.debug("Ping count reached minimum, starting destruction process");
+                logger.debug("No heartbeat received from client, starting destruction process");
+                transportCounters.pingFailed();
                 tmpDestroy = true;
             }
         }
 
         if(tmpDestroy)
             destroy();
-        else
+        else if(heartbeat.isIdle() || heartbeat.isSampleStale())
             config.getExecutorService().submit(() -> {
                 try {
-                    uploadToClient(new PongMessage(nickname));
+                    uploadToClient(new PongMessage(nickname, System.nanoTime()));
                 } catch (UploadFailureException e) {
                     logger.error("Failed to send PongMessage to client");
                 }
-            }); // Create a new thread that sends a PongMessage back to the client
+            }); // Create a new thread that sends a PongMessage probe to the client
+    }
+
+    /**
+     * Method that verifies that the write currently in progress, if any, has not exceeded the socket write timeout. <br>
+     * If the deadline has expired, the socket is closed: the blocked writing thread will fail and start the destruction
+     * process. The socket is closed directly because the lock needed by {@link #destroy()} is held by the writing thread.
+     */
+    private void checkWriteDeadline() {
+
+        long startTime = writeStartTime;
+
+        if(startTime == 0 || System.currentTimeMillis() - startTime <= config.getSocketWriteTimeout())
+            return;
+
+        logger.error("Write deadline expired after {} ms, closing socket", System.currentTimeMillis() - startTime);
+
+        try {
+            socket.close();
+        } catch (IOException ignored) {}
     }
 
     /**
-     * Method that resets the ping counter to its maximum value if the {@code SKServerNode} is alive. <br>
+     * Method that records that a heartbeat has been received from the client, if the {@code SKServerNode} is alive. <br>
      */
     @Override
     public void resetTimeCounter() {
@@ -408,11 +528,30 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
             if(!statusIsAlive)
                 return;
 
-            pingCount = config.getMaxPingCount();
-            logger.debug("Ping count reset");
+            heartbeat.frameReceived();
         }
     }
 
+    /**
+     * Method that returns the smoothed round trip time of the connection, measured with the probes sent to the client.
+     *
+     * @return the round trip time in microseconds, or -1 if it has not been measured yet
+     */
+    @Override
+    public long getRoundTripMicros() {
+        return heartbeat.getRoundTripMicros();
+    }
+
+    /**
+     * Method that returns the jitter of the connection, measured as the mean deviation of the round trip time.
+     *
+     * @return the jitter in microseconds, or -1 if the round trip time has not been measured yet
+     */
+    @Override
+    public long getJitterMicros() {
+        return heartbeat.getJitterMicros();
+    }
+
     /**
      * Method that destroys the instance of {@code SKServerNode}. <br>
      * It closes the input and output streams and the socket. <br>
@@ -433,15 +572,21 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
             notLinkedPingTask.cancel();
         }
 
+        transportCounters.nodeClosed();
+        if (!rateLimiter.getLimitedMessages().isEmpty())
+            logger.info("Messages exceeding the rate limits: {}", rateLimiter.getLimitedMessages());
+
         synchronized (ctoSProcessingLock) {
             synchronized (stoCProcessingLock) {
 
                 try {
-                    inputObtStr.close();
+                    if(inputObtStr != null)
+                        inputObtStr.close();
                 } catch (IOException ignored) {}
 
                 try {
-                    outputObtStr.close();
+                    if(outputObtStr != null)
+                        outputObtStr.close();
                 } catch (IOException ignored) {}
 
                 try {
@@ -449,6 +594,11 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
                         socket.close();
                 } catch (IOException ignored) {}
 
+                if(frameCompressor != null) {
+                    logger.info("Frame compression: {}", frameCompressor.getStatistics());
+                    frameCompressor.end();
+                }
+
                 if(gameController != null) {
                     gameController.getTimer().purge();
                     gameController.disconnect(this);
@@ -459,7 +609,7 @@ public class SKServerNode implements Runnable, ServerNodeInterface {
                 serverPingTask = null;
                 notLinkedPingTask = null;
 
-                logger.info("SKServerNode destroyed: Stack Trace" + Arrays.toString(Thread.currentThread().getStackTrace()));
+                logger.info("SKServerNode destroyed: Stack Trace {}", () -> Arrays.toString(Thread.currentThread().getStackTrace()));
                 config.purgeTimer();
             }
         }
@@ -34,17 +34,41 @@ public interface ServerNodeInterface {
 
     /**
      * Inform the ServerNode that the interval for pings is over. <br>
-     * This invocation can lead to the decrease of a ping counter. If the counter reach the minimum than the termination
-     * process is started.
+     * If nothing has been received from the client for too many intervals, the termination process is started.
      * <br>
-     * Invoking this method can lead, depending on the current state of the ServerNode, to verify if the connection to
-     * the client is working through the emission of a ping to the client.
+     * Invoking this method can lead, if nothing else has been sent to the client recently, to verify if the connection
+     * to the client is working through the emission of a ping to the client.
      */
     void pingTimeOverdue();
 
     /**
-     * The invocation of this method will lead to the reset of the ping counter, i.e. bringing it back to maximum,
-     * associated with the ServerNode.Ad
+     * Inform the ServerNode that a message has been received from the client: any message counts as a heartbeat, and
+     * resets the time after which the client is considered unreachable.
      */
     void resetTimeCounter();
+
+    /**
+     * Return the smoothed round trip time of the connection to the client.
+     *
+     * @return the round trip time in microseconds, or -1 if it is not known
+     */
+    default long getRoundTripMicros() {
+        return -1;
+    }
+
+    /**
+     * Return the jitter of the connection to the client, i.e. the mean deviation of its round trip time.
+     *
+     * @return the jitter in microseconds, or -1 if it is not known
+     */
+    default long getJitterMicros() {
+        return -1;
+    }
+
+    /**
+     * Start the termination process of the ServerNode. <br>
+     * The connection to the client is closed and, if the ServerNode is linked to a game, the player is disconnected
+     * from it. Invoking this method on a ServerNode that is already terminating has no effect.
+     */
+    void destroy();
 }
@@ -0,0 +1,54 @@
+package it.polimi.ingsw.am32.network.framing;
+
+import java.io.StreamCorruptedException;
+
+/**
+ * The enum {@code FrameCodec} lists the codecs that can be used to encode the message contained in a frame. <br>
+ * The codec is written in the header of each frame, so that the reader decodes every frame independently, and the
+ * writer can choose a different codec for each message.
+ *
+ * @author Matteo
+ */
+public enum FrameCodec {
+    /**
+     * The message is serialized by a new {@link java.io.ObjectOutputStream}, used for that frame only.
+     */
+    JAVA(0),
+    /**
+     * The message is encoded by the {@link it.polimi.ingsw.am32.message.codec.BinaryMessageCodec}.
+     */
+    BINARY(1);
+
+    /**
+     * The id of the codec, written in the header of the frames
+     */
+    private final int id;
+
+    FrameCodec(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the codec with the given id.
+     *
+     * @param id the id read from a frame header
+     * @return the codec with the given id
+     * @throws StreamCorruptedException if no codec has the given id
+     */
+    public static FrameCodec fromId(int id) throws StreamCorruptedException {
+        for (FrameCodec codec : values()) {
+            if (codec.id == id)
+                return codec;
+        }
+        throw new StreamCorruptedException("Unknown frame codec: " + id);
+    }
+
+    /**
+     * Getter
+     *
+     * @return the id of the codec
+     */
+    public int getId() {
+        return id;
+    }
+}
@@ -0,0 +1,281 @@
+package it.polimi.ingsw.am32.network.framing;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The class {@code FrameCompressor} compresses and decompresses the payload of the frames of a connection, when both
+ * ends agreed to use compression during the handshake. <br>
+ * Only payloads at least as long as the threshold are compressed, since small messages would gain nothing; a payload
+ * whose compressed form is not smaller is sent as it is. Each payload is compressed on its own with the preset
+ * {@link FrameDictionary}, so that frames can still be decoded independently. <br>
+ * An instance is used by a single connection, and reuses its {@link Deflater} and {@link Inflater}: compression is
+ * invoked by the thread sending messages and decompression by the thread reading them, so the two can run at the same
+ * time. {@link #end()} must be called when the connection is closed, to release the native memory they hold; it can be
+ * called while a frame is being compressed or decompressed, which is completed first. <br>
+ * The compressor measures the bytes saved and the time spent, both for the connection and for the whole process.
+ *
+ * @author Matteo
+ */
+public class FrameCompressor {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Threshold used when no other is given, in bytes
+     */
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    /**
+     * Statistics of all the connections of the process
+     */
+    private static final Statistics totalStatistics = new Statistics();
+
+    /**
+     * Variables used to compress and decompress
+     */
+    private final int threshold;
+    private final Deflater deflater;
+    private final Inflater inflater;
+    private boolean deflaterEnded;
+    private boolean inflaterEnded;
+
+    /**
+     * Statistics of the connection
+     */
+    private final Statistics statistics;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     *
+     * @param threshold the minimum length, in bytes, of the payloads to compress
+     */
+    public FrameCompressor(int threshold) {
+        this.threshold = threshold;
+        deflater = new Deflater(Deflater.BEST_SPEED, true);
+        inflater = new Inflater(true);
+        statistics = new Statistics();
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Compresses a payload, if it is long enough and compression makes it smaller.
+     *
+     * @param input the array containing the payload
+     * @param offset the position of the payload in the array
+     * @param length the length of the payload
+     * @param output the array the compressed payload is written to, starting at position 0
+     * @param maxCompressedLength the length above which the compressed payload is not worth sending
+     * @return the length of the compressed payload, or -1 if the payload should be sent uncompressed
+     */
+    int compress(byte[] input, int offset, int length, byte[] output, int maxCompressedLength) {
+        if (length < threshold)
+            return -1;
+
+        long startTime = System.nanoTime();
+        int compressedLength;
+        boolean smaller;
+        synchronized (deflater) {
+            if (deflaterEnded)
+                return -1;
+            deflater.reset();
+            deflater.setDictionary(FrameDictionary.getDictionary());
+            deflater.setInput(input, offset, length);
+            deflater.finish();
+            compressedLength = deflater.deflate(output, 0, maxCompressedLength);
+            smaller = deflater.finished();
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+
+        statistics.recordCompression(length, smaller ? compressedLength : length, elapsedTime);
+        totalStatistics.recordCompression(length, smaller ? compressedLength : length, elapsedTime);
+        return smaller ? compressedLength : -1;
+    }
+
+    /**
+     * Decompresses a payload.
+     *
+     * @param input the array containing the compressed payload
+     * @param offset the position of the compressed payload in the array
+     * @param length the length of the compressed payload
+     * @param output the array the payload is written to, starting at position 0
+     * @param originalLength the length of the payload before compression
+     * @throws StreamCorruptedException if the compressed payload is corrupted, or its length doesn't match
+     * @throws IOException if the compressor has been ended
+     */
+    void decompress(byte[] input, int offset, int length, byte[] output, int originalLength) throws IOException {
+        long startTime = System.nanoTime();
+        synchronized (inflater) {
+            if (inflaterEnded)
+                throw new IOException("Frame compressor ended");
+            try {
+                inflater.reset();
+                inflater.setDictionary(FrameDictionary.getDictionary());
+                inflater.setInput(input, offset, length);
+                int inflatedLength = inflater.inflate(output, 0, originalLength);
+                if (inflatedLength != originalLength || !inflater.finished())
+                    throw new StreamCorruptedException("Compressed frame doesn't match its declared length");
+            } catch (DataFormatException e) {
+                throw new StreamCorruptedException("Corrupted compressed frame: " + e.getMessage());
+            }
+        }
+        long elapsedTime = System.nanoTime() - startTime;
+
+        statistics.recordDecompression(elapsedTime);
+        totalStatistics.recordDecompression(elapsedTime);
+    }
+
+    /**
+     * Getter
+     *
+     * @return the minimum length, in bytes, of the payloads to compress
+     */
+    int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Releases the native memory of the deflater and inflater. The compressor cannot be used afterward.
+     */
+    public void end() {
+        synchronized (deflater) {
+            deflaterEnded = true;
+            deflater.end();
+        }
+        synchronized (inflater) {
+            inflaterEnded = true;
+            inflater.end();
+        }
+    }
+
+    /**
+     * Getter
+     *
+     * @return the statistics of the connection
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Getter
+     *
+     * @return the statistics of all the connections of the process
+     */
+    public static Statistics getTotalStatistics() {
+        return totalStatistics;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Nested classes
+
+    /**
+     * Compression ratio and time spent compressing and decompressing frames. <br>
+     * Payloads long enough to be compressed are counted even when compression didn't make them smaller, so that the
+     * ratio reflects the whole cost of compressing them.
+     */
+    public static class Statistics {
+
+        private final LongAdder compressedFrames = new LongAdder();
+        private final LongAdder originalBytes = new LongAdder();
+        private final LongAdder compressedBytes = new LongAdder();
+        private final LongAdder compressionNanos = new LongAdder();
+        private final LongAdder decompressedFrames = new LongAdder();
+        private final LongAdder decompressionNanos = new LongAdder();
+
+        private void recordCompression(int originalLength, int compressedLength, long nanos) {
+            compressedFrames.increment();
+            originalBytes.add(originalLength);
+            compressedBytes.add(compressedLength);
+            compressionNanos.add(nanos);
+        }
+
+        private void recordDecompression(long nanos) {
+            decompressedFrames.increment();
+            decompressionNanos.add(nanos);
+        }
+
+        /**
+         * Getter
+         *
+         * @return the number of payloads that were long enough to be compressed
+         */
+        public long getCompressedFrames() {
+            return compressedFrames.sum();
+        }
+
+        /**
+         * Getter
+         *
+         * @return the ratio between the length of the payloads before and after compression, or 1 if nothing was
+         * compressed
+         */
+        public double getCompressionRatio() {
+            long compressed = compressedBytes.sum();
+            return compressed == 0 ? 1 : (double) originalBytes.sum() / compressed;
+        }
+
+        /**
+         * Getter
+         *
+         * @return the number of bytes saved by compression
+         */
+        public long getSavedBytes() {
+            return originalBytes.sum() - compressedBytes.sum();
+        }
+
+        /**
+         * Getter
+         *
+         * @return the total time spent compressing, in nanoseconds
+         */
+        public long getCompressionNanos() {
+            return compressionNanos.sum();
+        }
+
+        /**
+         * Getter
+         *
+         * @return the number of payloads decompressed
+         */
+        public long getDecompressedFrames() {
+            return decompressedFrames.sum();
+        }
+
+        /**
+         * Getter
+         *
+         * @return the total time spent decompressing, in nanoseconds
+         */
+        public long getDecompressionNanos() {
+            return decompressionNanos.sum();
+        }
+
+        /**
+         * This method overrides the default toString method, summarizing the statistics.
+         *
+         * @return a summary of the statistics
+         */
+        @Override
+        public String toString() {
+            long frames = getCompressedFrames();
+            long decompressed = getDecompressedFrames();
+            return String.format("%d frames compressed, ratio %.2f, %d bytes saved, %.1f us/frame to compress; %d frames decompressed, %.1f us/frame to decompress",
+                    frames, getCompressionRatio(), getSavedBytes(), frames == 0 ? 0 : getCompressionNanos() / 1000.0 / frames,
+                    decompressed, decompressed == 0 ? 0 : getDecompressionNanos() / 1000.0 / decompressed);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package it.polimi.ingsw.am32.network.framing;
+
+import it.polimi.ingsw.am32.message.ServerToClient.*;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Adler32;
+
+/**
+ * The class {@code FrameDictionary} provides the preset dictionary used to compress frames (see
+ * {@link FrameCompressor}). <br>
+ * The dictionary is built from the encodings of typical game messages, in both codecs: serialized messages share
+ * their class descriptors, and binary messages share the layout of fields, hands and resource summaries, so that even
+ * the first frames of a connection are compressed well. The encodings of the most frequent messages are placed at the
+ * end of the dictionary, where back-references are shortest. <br>
+ * The dictionary is built in the same way by client and server; its checksum is exchanged in the handshake, so that
+ * compression is only enabled when both ends have the same dictionary.
+ *
+ * @author Matteo
+ */
+public class FrameDictionary {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Maximum length of the dictionary: the window of the deflate algorithm
+     */
+    private static final int MAX_LENGTH = 32 * 1024;
+
+    /**
+     * The dictionary, and its checksum
+     */
+    private static final byte[] dictionary = build();
+    private static final int id = checksum(dictionary);
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Private constructor: the class only has static methods.
+     */
+    private FrameDictionary() {}
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Getter. The returned array must not be modified.
+     *
+     * @return the preset dictionary
+     */
+    static byte[] getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Getter
+     *
+     * @return the checksum identifying the dictionary
+     */
+    public static int getId() {
+        return id;
+    }
+
+    /**
+     * Builds the dictionary from the sample messages.
+     *
+     * @return the dictionary
+     */
+    private static byte[] build() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        List<StoCMessage> samples = sampleMessages();
+
+        try {
+            for (StoCMessage sample : samples) {
+                ObjectOutputStream objectOutput = new ObjectOutputStream(bytes);
+                objectOutput.writeObject(sample);
+                objectOutput.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Cannot happen writing on a byte array
+        }
+        for (StoCMessage sample : samples) {
+            bytes.writeBytes(BinaryMessageCodec.encode(sample));
+        }
+
+        byte[] built = bytes.toByteArray();
+        return built.length <= MAX_LENGTH ? built : Arrays.copyOfRange(built, built.length - MAX_LENGTH, built.length);
+    }
+
+    /**
+     * Computes the checksum of the dictionary.
+     *
+     * @param dictionary the dictionary
+     * @return the checksum of the dictionary
+     */
+    private static int checksum(byte[] dictionary) {
+        Adler32 adler32 = new Adler32();
+        adler32.update(dictionary);
+        return (int) adler32.getValue();
+    }
+
+    /**
+     * Returns the messages the dictionary is built from, the least frequent first.
+     *
+     * @return the sample messages
+     */
+    private static List<StoCMessage> sampleMessages() {
+        ArrayList<String> players = new ArrayList<>(List.of("player1", "player2", "player3", "player4"));
+        ArrayList<int[]> resourcesSummary = new ArrayList<>();
+        ArrayList<ArrayList<int[]>> fields = new ArrayList<>();
+        for (int i = 0; i < players.size(); i++) {
+            resourcesSummary.add(new int[]{3 + i, 2, 1, 4 - i, 1, 0, 2});
+            fields.add(field(81 + i, 12 + 4 * i));
+        }
+        ArrayList<String[]> chatHistory = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            chatHistory.add(new String[]{players.get(i), i % 2 == 0 ? null : players.get(i - 1), String.valueOf(i % 2 == 0), "Hello"});
+        }
+        int[] resources = {4, 3, 2, 1, 1, 0, 2};
+
+        return List.of(
+                new MatchWinnersMessage(players.getFirst(), players, new ArrayList<>(List.of(22, 20, 18, 9)),
+                        new ArrayList<>(List.of(87, 92, 95, 101)), new ArrayList<>(List.of(3, 2, 2, 0)), new ArrayList<>(List.of(players.getFirst()))),
+                new ConfirmStarterCardSideSelectionMessage(players.getFirst(), 81, true, availableSpaces(), resources, 2),
+                new AssignedSecretObjectiveCardMessage(players.getFirst(), new ArrayList<>(List.of(87, 94)),
+                        new ArrayList<>(List.of(99, 102)), new ArrayList<>(List.of(7, 23, 45))),
+                new DeckSizeUpdateMessage(players.getFirst(), 28, 30, new int[]{11, 34}, new int[]{52, 77}, 2, 4),
+                new PlayerGameStatusMessage(players.getFirst(), players, new ArrayList<>(List.of(true, true, false, true)),
+                        new ArrayList<>(List.of(0, 1, 2, 3)), new ArrayList<>(List.of(7, 23, 45)), new ArrayList<>(List.of(87, 94)),
+                        81, 87, new int[]{12, 9, 17, 5}, resourcesSummary, fields, resources,
+                        new ArrayList<>(List.of(99, 102)), new ArrayList<>(List.of(11, 34)), new ArrayList<>(List.of(52, 77)),
+                        24, 27, 3, chatHistory, players.get(1), availableSpaces(), 2, 3),
+                new PlaceCardConfirmationMessage(players.getFirst(), players.get(1), 23, new int[]{2, -1}, false, 9,
+                        resources, availableSpaces()),
+                new ResponsePlayerFieldMessage(players.getFirst(), players.get(1), field(83, 16), resources)
+        );
+    }
+
+    /**
+     * Returns a typical field: a starting card surrounded by cards placed on its corners, spreading outwards.
+     *
+     * @param startingCard the id of the starting card
+     * @param cards the number of cards placed after the starting card
+     * @return the field, as a list of arrays of x, y, card id and side
+     */
+    private static ArrayList<int[]> field(int startingCard, int cards) {
+        ArrayList<int[]> field = new ArrayList<>();
+        field.add(new int[]{0, 0, startingCard, 1});
+        int[][] directions = {{1, 1}, {1, -1}, {-1, -1}, {-1, 1}};
+        for (int i = 0; i < cards; i++) {
+            int[] direction = directions[i % 4];
+            int distance = 1 + i / 4;
+            field.add(new int[]{direction[0] * distance, direction[1] * distance, 1 + (i * 7) % 80, i % 3 == 0 ? 0 : 1});
+        }
+        return field;
+    }
+
+    /**
+     * Returns typical available spaces of a field.
+     *
+     * @return the available spaces, as a list of arrays of x and y
+     */
+    private static ArrayList<int[]> availableSpaces() {
+        ArrayList<int[]> spaces = new ArrayList<>();
+        for (int i = -3; i <= 3; i += 2) {
+            spaces.add(new int[]{i, 1});
+            spaces.add(new int[]{i, -1});
+        }
+        return spaces;
+    }
+}
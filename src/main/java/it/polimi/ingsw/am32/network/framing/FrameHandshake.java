@@ -0,0 +1,199 @@
+package it.polimi.ingsw.am32.network.framing;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+
+/**
+ * The class {@code FrameHandshake} represents the handshake used to agree on the framed mode at the beginning of a
+ * socket connection. <br>
+ * A client that wants to use frames sends a handshake made of a magic number, the version of the framing, the codec it
+ * prefers and whether it wants to compress large frames, together with the id of its {@link FrameDictionary}. The
+ * server answers with a handshake containing the codec it is going to use and whether compression is enabled, and from
+ * then on both ends only exchange frames. Compression is enabled only if both ends want it and have the same
+ * dictionary. <br>
+ * A client using the stream mode starts the connection with the header of an {@link java.io.ObjectOutputStream}
+ * instead, which never begins with the magic number: reading the first {@link #PREAMBLE_LENGTH} bytes is enough for the
+ * server to tell the two modes apart.
+ *
+ * @author Matteo
+ */
+public class FrameHandshake {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Number of bytes to read to recognize the mode chosen by the client
+     */
+    public static final int PREAMBLE_LENGTH = 4;
+
+    /**
+     * The magic number that starts a handshake ("AM32" in ASCII)
+     */
+    private static final int MAGIC = 0x414D3332;
+
+    /**
+     * The version of the framing. Version 1 handshakes end with the codec; version 2 handshakes add the compression
+     * flag and the dictionary id.
+     */
+    private static final int VERSION = 2;
+
+    /**
+     * Flag of the handshake requesting or enabling compression
+     */
+    private static final int COMPRESSION_FLAG = 0x01;
+
+    /**
+     * The first two bytes of the header written by an {@link java.io.ObjectOutputStream}
+     */
+    private static final int STREAM_MAGIC = 0xACED;
+
+    /**
+     * The content of the handshake
+     */
+    private final int version;
+    private final FrameCodec codec;
+    private final boolean compression;
+    private final int dictionaryId;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class, creating a handshake of the current version.
+     *
+     * @param codec the codec preferred by the client, or chosen by the server
+     * @param compression true if the client wants to compress large frames, or the server enabled compression
+     */
+    public FrameHandshake(FrameCodec codec, boolean compression) {
+        this(VERSION, codec, compression, FrameDictionary.getId());
+    }
+
+    private FrameHandshake(int version, FrameCodec codec, boolean compression, int dictionaryId) {
+        this.version = version;
+        this.codec = codec;
+        this.compression = compression;
+        this.dictionaryId = dictionaryId;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Encodes the handshake.
+     *
+     * @return the bytes of the handshake
+     */
+    public byte[] encode() {
+        byte[] bytes = new byte[version == 1 ? PREAMBLE_LENGTH + 2 : PREAMBLE_LENGTH + 7];
+        writeInt(bytes, 0, MAGIC);
+        bytes[4] = (byte) version;
+        bytes[5] = (byte) codec.getId();
+        if (version >= 2) {
+            bytes[6] = (byte) (compression ? COMPRESSION_FLAG : 0);
+            writeInt(bytes, 7, dictionaryId);
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the answer of the server to this handshake, in the version used by the client. <br>
+     * Compression is enabled if the client requested it, the server allows it and both have the same dictionary.
+     *
+     * @param codec the codec the server is going to use
+     * @param compressionAllowed true if the server allows compression
+     * @return the answer to send to the client
+     */
+    public FrameHandshake answer(FrameCodec codec, boolean compressionAllowed) {
+        boolean enabled = compression && compressionAllowed && dictionaryId == FrameDictionary.getId();
+        return new FrameHandshake(version, codec, enabled, FrameDictionary.getId());
+    }
+
+    /**
+     * Checks whether the first bytes of a connection are the header of an {@link java.io.ObjectOutputStream}, which
+     * means that the other end uses the stream mode.
+     *
+     * @param preamble the first {@link #PREAMBLE_LENGTH} bytes received
+     * @return true if the other end uses the stream mode
+     */
+    public static boolean isStreamHeader(byte[] preamble) {
+        return preamble.length >= 2 && ((preamble[0] & 0xFF) << 8 | preamble[1] & 0xFF) == STREAM_MAGIC;
+    }
+
+    /**
+     * Decodes a handshake whose first {@link #PREAMBLE_LENGTH} bytes have already been read, reading the rest of it.
+     *
+     * @param preamble the first bytes of the handshake
+     * @param in the stream from which the rest of the handshake is read
+     * @return the handshake
+     * @throws IOException if the bytes are not a valid handshake, or the stream ends before the end of the handshake
+     */
+    public static FrameHandshake decode(byte[] preamble, InputStream in) throws IOException {
+        if (preamble.length != PREAMBLE_LENGTH)
+            throw new EOFException("Incomplete handshake");
+
+        int magic = readInt(preamble, 0);
+        if (magic != MAGIC)
+            throw new StreamCorruptedException(String.format("Invalid handshake magic: %08X", magic));
+
+        byte[] versionAndCodec = readFully(in, 2);
+        int version = versionAndCodec[0] & 0xFF;
+        if (version < 1 || version > VERSION)
+            throw new StreamCorruptedException("Unsupported framing version: " + version);
+        FrameCodec codec = FrameCodec.fromId(versionAndCodec[1] & 0xFF);
+
+        if (version == 1)
+            return new FrameHandshake(version, codec, false, 0);
+
+        byte[] rest = readFully(in, 5);
+        return new FrameHandshake(version, codec, (rest[0] & COMPRESSION_FLAG) != 0, readInt(rest, 1));
+    }
+
+    /**
+     * Reads the given number of bytes.
+     *
+     * @param in the stream to read
+     * @param length the number of bytes to read
+     * @return the bytes read
+     * @throws IOException if the stream ends before the bytes have been read
+     */
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length)
+            throw new EOFException("Incomplete handshake");
+        return bytes;
+    }
+
+    private static int readInt(byte[] bytes, int position) {
+        return (bytes[position] & 0xFF) << 24 | (bytes[position + 1] & 0xFF) << 16 | (bytes[position + 2] & 0xFF) << 8 | bytes[position + 3] & 0xFF;
+    }
+
+    private static void writeInt(byte[] bytes, int position, int value) {
+        bytes[position] = (byte) (value >>> 24);
+        bytes[position + 1] = (byte) (value >>> 16);
+        bytes[position + 2] = (byte) (value >>> 8);
+        bytes[position + 3] = (byte) value;
+    }
+
+    /**
+     * Getter
+     *
+     * @return the codec preferred by the client, or chosen by the server
+     */
+    public FrameCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Getter
+     *
+     * @return true if the client wants to compress large frames, or the server enabled compression
+     */
+    public boolean isCompression() {
+        return compression;
+    }
+}
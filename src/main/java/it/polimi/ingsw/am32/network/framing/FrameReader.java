@@ -0,0 +1,212 @@
+package it.polimi.ingsw.am32.network.framing;
+
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.StreamCorruptedException;
+
+/**
+ * The class {@code FrameReader} reads the frames written by a {@link FrameWriter} and decodes the messages they
+ * contain. <br>
+ * Each frame is decoded independently, with the codec written in its header. Compressed payloads are decompressed
+ * by the {@link FrameCompressor} of the connection. The payload is read in a buffer reused for the following frames; a
+ * buffer grown to read an unusually large frame is released once the frame is decoded, so that the memory used by the
+ * reader stays flat. <br>
+ * Reading can be interrupted by a read timeout of the underlying socket at any point: the bytes already received are
+ * kept, and the next invocation of {@link #read(InputStream)} resumes the frame where it stopped. <br>
+ * An instance is meant to be used by a single thread at a time.
+ *
+ * @author Matteo
+ */
+public class FrameReader {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Maximum length of the payload of a frame. Longer frames are considered corrupted.
+     */
+    public static final int MAX_FRAME_LENGTH = 4 * 1024 * 1024;
+
+    /**
+     * Capacity of the payload buffer kept between frames
+     */
+    private static final int RETAINED_CAPACITY = 64 * 1024;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Variables holding the frame being read
+     */
+    private final FrameCompressor compressor;
+    private final ObjectInputFilter inputFilter;
+    private final byte[] header;
+    private int headerRead;
+    private byte[] payload;
+    private int payloadLength;
+    private int payloadRead;
+    private byte[] decompressed;
+
+    /**
+     * Variables used to measure the decoding of the frames
+     */
+    private long lastDecodeNanos;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class, for connections that don't use compression.
+     */
+    public FrameReader() {
+        this(null);
+    }
+
+    /**
+     * Constructor of the class for connections that may use compression.
+     *
+     * @param compressor the compressor of the connection, or null if the connection doesn't use compression
+     */
+    public FrameReader(FrameCompressor compressor) {
+        this(compressor, null);
+    }
+
+    /**
+     * Constructor of the class for connections whose serialized messages are filtered, as those of the server.
+     *
+     * @param compressor the compressor of the connection, or null if the connection doesn't use compression
+     * @param inputFilter the filter of the messages serialized with the {@link FrameCodec#JAVA} codec, or null to use
+     *                    the filter of the JVM
+     */
+    public FrameReader(FrameCompressor compressor, ObjectInputFilter inputFilter) {
+        this.compressor = compressor;
+        this.inputFilter = inputFilter;
+        decompressed = new byte[0];
+        header = new byte[FrameWriter.HEADER_LENGTH];
+        payload = new byte[INITIAL_CAPACITY];
+        headerRead = 0;
+        payloadLength = -1;
+        payloadRead = 0;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Reads the next frame from a stream and decodes the message it contains. <br>
+     * The method blocks until the whole frame has been received. If the stream throws an exception while waiting, such
+     * as a {@link java.net.SocketTimeoutException}, the partially read frame is kept and completed by the next
+     * invocation.
+     *
+     * @param in the stream the frame is read from
+     * @return the decoded message
+     * @throws IOException if the stream ended, the frame is corrupted or the message could not be decoded
+     * @throws ClassNotFoundException if the class of a serialized message is not found
+     */
+    public Object read(InputStream in) throws IOException, ClassNotFoundException {
+        while (headerRead < header.length) {
+            int read = in.read(header, headerRead, header.length - headerRead);
+            if (read == -1)
+                throw new EOFException(headerRead == 0 ? "End of stream" : "End of stream inside a frame header");
+            headerRead += read;
+        }
+
+        if (payloadLength < 0) {
+            int length = (header[0] & 0xFF) << 24 | (header[1] & 0xFF) << 16 | (header[2] & 0xFF) << 8 | header[3] & 0xFF;
+            if (length <= 0 || length > MAX_FRAME_LENGTH)
+                throw new StreamCorruptedException("Invalid frame length: " + length);
+            if (payload.length < length)
+                payload = new byte[length];
+            payloadLength = length;
+        }
+
+        while (payloadRead < payloadLength) {
+            int read = in.read(payload, payloadRead, payloadLength - payloadRead);
+            if (read == -1)
+                throw new EOFException("End of stream inside a frame");
+            payloadRead += read;
+        }
+
+        int length = payloadLength;
+        headerRead = 0;
+        payloadLength = -1;
+        payloadRead = 0;
+
+        long decodeStartTime = System.nanoTime();
+        try {
+            FrameCodec codec = FrameCodec.fromId(header[4] & ~FrameWriter.COMPRESSED_FLAG & 0xFF);
+            if ((header[4] & FrameWriter.COMPRESSED_FLAG) == 0)
+                return decode(codec, payload, length);
+
+            int originalLength = decompress(length);
+            return decode(codec, decompressed, originalLength);
+        } finally {
+            lastDecodeNanos = System.nanoTime() - decodeStartTime;
+            if (payload.length > RETAINED_CAPACITY)
+                payload = new byte[INITIAL_CAPACITY];
+            if (decompressed.length > RETAINED_CAPACITY)
+                decompressed = new byte[0];
+        }
+    }
+
+    /**
+     * Returns the time taken to decompress and decode the last frame read, after all its bytes were received.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getLastDecodeNanos() {
+        return lastDecodeNanos;
+    }
+
+    /**
+     * Decompresses the payload of the frame just read.
+     *
+     * @param length the length of the compressed payload
+     * @return the length of the decompressed payload
+     * @throws IOException if the connection doesn't use compression, or the payload is corrupted
+     */
+    private int decompress(int length) throws IOException {
+        if (compressor == null)
+            throw new StreamCorruptedException("Compressed frame received on a connection without compression");
+        if (length < Integer.BYTES)
+            throw new StreamCorruptedException("Invalid compressed frame length: " + length);
+
+        int originalLength = (payload[0] & 0xFF) << 24 | (payload[1] & 0xFF) << 16 | (payload[2] & 0xFF) << 8 | payload[3] & 0xFF;
+        if (originalLength <= 0 || originalLength > MAX_FRAME_LENGTH)
+            throw new StreamCorruptedException("Invalid decompressed frame length: " + originalLength);
+        if (decompressed.length < originalLength)
+            decompressed = new byte[originalLength];
+
+        compressor.decompress(payload, Integer.BYTES, length - Integer.BYTES, decompressed, originalLength);
+        return originalLength;
+    }
+
+    /**
+     * Decodes the payload of a frame.
+     *
+     * @param codec the codec written in the header of the frame
+     * @param buffer the array containing the payload
+     * @param length the length of the payload
+     * @return the decoded message
+     * @throws IOException if the message could not be decoded
+     * @throws ClassNotFoundException if the class of a serialized message is not found
+     */
+    private Object decode(FrameCodec codec, byte[] buffer, int length) throws IOException, ClassNotFoundException {
+        return switch (codec) {
+            case BINARY -> BinaryMessageCodec.decode(buffer, 0, length);
+            case JAVA -> {
+                try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(buffer, 0, length))) {
+                    if (inputFilter != null)
+                        objectInput.setObjectInputFilter(inputFilter);
+                    yield objectInput.readObject();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,239 @@
+package it.polimi.ingsw.am32.network.framing;
+
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.MessageType;
+import it.polimi.ingsw.am32.message.codec.WireOutput;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The class {@code FrameWriter} writes messages as length-prefixed frames. <br>
+ * A frame is made of a header, containing the length of the payload (4 bytes, big-endian) and the id of the
+ * {@link FrameCodec} used, followed by the encoded message. Each message is encoded on its own, so that nothing written
+ * for a message is retained afterward: unlike a long-lived {@link ObjectOutputStream}, the writer doesn't keep
+ * references to the objects it wrote. <br>
+ * Messages supported by the {@link BinaryMessageCodec} are encoded with it when the writer uses the binary codec; any
+ * other message is serialized by a new {@link ObjectOutputStream}. <br>
+ * When the connection uses compression, large payloads are compressed by a {@link FrameCompressor}: the codec id in the
+ * header is then marked with {@link #COMPRESSED_FLAG}, and the payload is made of the length of the original payload
+ * (4 bytes, big-endian) followed by the compressed bytes. <br>
+ * Frames are assembled in buffers taken from a pool shared by all writers, so that a message is written on the
+ * connection with a single write and no buffer is allocated for each message.
+ *
+ * @author Matteo
+ */
+public class FrameWriter {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Length of the header of a frame: length of the payload and codec id
+     */
+    public static final int HEADER_LENGTH = 5;
+
+    /**
+     * Flag added to the codec id of the frames whose payload is compressed
+     */
+    public static final int COMPRESSED_FLAG = 0x80;
+
+    /**
+     * Maximum number of buffers kept in the pool
+     */
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    /**
+     * Buffers grown above this capacity, to write an unusually large message, are not returned to the pool
+     */
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+    /**
+     * The buffers not in use
+     */
+    private static final ConcurrentLinkedQueue<FrameBuffer> pool = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pooledBuffers = new AtomicInteger();
+
+    /**
+     * The codec preferred by the writer
+     */
+    private final FrameCodec codec;
+
+    /**
+     * The compressor of the connection, or null if the connection doesn't use compression
+     */
+    private final FrameCompressor compressor;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class, for connections that don't use compression.
+     *
+     * @param codec the codec used for the messages it supports
+     */
+    public FrameWriter(FrameCodec codec) {
+        this(codec, null);
+    }
+
+    /**
+     * Constructor of the class for connections that may use compression.
+     *
+     * @param codec the codec used for the messages it supports
+     * @param compressor the compressor of the connection, or null if the connection doesn't use compression
+     */
+    public FrameWriter(FrameCodec codec, FrameCompressor compressor) {
+        this.codec = codec;
+        this.compressor = compressor;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Encodes a message as a frame and writes it on a stream with a single write. <br>
+     * The stream is not flushed.
+     *
+     * @param message the message to write
+     * @param out the stream the frame is written on
+     * @throws IOException if the message could not be encoded, is larger than {@link FrameReader#MAX_FRAME_LENGTH}, or
+     * the stream could not be written
+     */
+    public void write(Object message, OutputStream out) throws IOException {
+        FrameBuffer buffer = acquire();
+        try {
+            buffer.encode(message, codec, compressor);
+            buffer.writeTo(out);
+        } finally {
+            release(buffer);
+        }
+    }
+
+    /**
+     * Getter
+     *
+     * @return the codec preferred by the writer
+     */
+    public FrameCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * Takes a buffer from the pool, or creates a new one if the pool is empty.
+     *
+     * @return a buffer not used by any other thread
+     */
+    private static FrameBuffer acquire() {
+        FrameBuffer buffer = pool.poll();
+        if (buffer == null)
+            return new FrameBuffer();
+        pooledBuffers.decrementAndGet();
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool, unless the pool is full or the buffer has grown too much.
+     *
+     * @param buffer the buffer no longer used
+     */
+    private static void release(FrameBuffer buffer) {
+        if (buffer.capacity() > MAX_POOLED_CAPACITY)
+            return;
+        if (pooledBuffers.incrementAndGet() > MAX_POOLED_BUFFERS) {
+            pooledBuffers.decrementAndGet();
+            return;
+        }
+        pool.offer(buffer);
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Nested classes
+
+    /**
+     * Buffer in which a frame is assembled: the header is reserved at the beginning of the buffer and filled in once
+     * the length of the encoded message is known.
+     */
+    private static class FrameBuffer extends ByteArrayOutputStream {
+
+        private final WireOutput wireOutput = new WireOutput();
+        private byte[] compressed = new byte[0];
+
+        /**
+         * Encodes a message in the buffer, replacing its previous content.
+         *
+         * @param message the message to encode
+         * @param preferredCodec the codec preferred by the writer
+         * @param compressor the compressor of the connection, or null if the connection doesn't use compression
+         * @throws IOException if the message could not be encoded
+         */
+        void encode(Object message, FrameCodec preferredCodec, FrameCompressor compressor) throws IOException {
+            reset();
+            write(new byte[HEADER_LENGTH], 0, HEADER_LENGTH);
+
+            FrameCodec frameCodec;
+            if (preferredCodec == FrameCodec.BINARY && message != null && MessageType.fromClass(message.getClass()) != null) {
+                wireOutput.reset();
+                BinaryMessageCodec.encode(message, wireOutput);
+                write(wireOutput.getBuffer(), 0, wireOutput.size());
+                frameCodec = FrameCodec.BINARY;
+            } else {
+                ObjectOutputStream objectOutput = new ObjectOutputStream(this);
+                objectOutput.writeObject(message);
+                objectOutput.flush();
+                frameCodec = FrameCodec.JAVA;
+            }
+
+            int payloadLength = count - HEADER_LENGTH;
+            if (payloadLength > FrameReader.MAX_FRAME_LENGTH)
+                throw new IOException("Frame too large: " + payloadLength + " bytes");
+
+            int codecId = frameCodec.getId();
+            if (compressor != null && payloadLength >= compressor.getThreshold()) {
+                int maxCompressedLength = payloadLength - Integer.BYTES - 1; // Compressing must save at least a byte
+                if (compressed.length < maxCompressedLength)
+                    compressed = new byte[maxCompressedLength];
+
+                int compressedLength = compressor.compress(buf, HEADER_LENGTH, payloadLength, compressed, maxCompressedLength);
+                if (compressedLength >= 0) {
+                    writeInt(HEADER_LENGTH, payloadLength);
+                    System.arraycopy(compressed, 0, buf, HEADER_LENGTH + Integer.BYTES, compressedLength);
+                    payloadLength = Integer.BYTES + compressedLength;
+                    count = HEADER_LENGTH + payloadLength;
+                    codecId |= COMPRESSED_FLAG;
+                }
+            }
+
+            writeInt(0, payloadLength);
+            buf[4] = (byte) codecId;
+        }
+
+        /**
+         * Writes an integer in the buffer, big-endian.
+         *
+         * @param position the position of the integer in the buffer
+         * @param value the integer to write
+         */
+        private void writeInt(int position, int value) {
+            buf[position] = (byte) (value >>> 24);
+            buf[position + 1] = (byte) (value >>> 16);
+            buf[position + 2] = (byte) (value >>> 8);
+            buf[position + 3] = (byte) value;
+        }
+
+        /**
+         * Getter
+         *
+         * @return the largest capacity among the arrays of the buffer
+         */
+        int capacity() {
+            return Math.max(Math.max(buf.length, wireOutput.getBuffer().length), compressed.length);
+        }
+    }
+}
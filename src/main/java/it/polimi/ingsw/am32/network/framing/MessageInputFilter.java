@@ -0,0 +1,219 @@
+package it.polimi.ingsw.am32.network.framing;
+
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
+import it.polimi.ingsw.am32.utilities.Configuration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ObjectInputFilter;
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.rmi.Remote;
+import java.util.ArrayList;
+import java.util.Set;
+
+/**
+ * The class {@code MessageInputFilter} bounds the deserialization of the messages received from the clients, so that
+ * a malformed or abusive message can't make the server instantiate unexpected classes, nor spend an unbounded amount of
+ * CPU and memory decoding it. <br>
+ * Only the classes of the messages, the boxed primitives, {@link ArrayList} and arrays of those are accepted; the
+ * stubs of the remote objects of the clients are accepted as well when the filter is used by RMI. Each message is also
+ * limited in the depth of its object graph, the length of its arrays, the number of its references and the number of
+ * its bytes. <br>
+ * When a stream carries more than one message, the references and the bytes are counted from the beginning of each
+ * message, marked by {@link #beginMessage()}: such a filter must then be used by that stream only. A filter whose
+ * {@code beginMessage} is never invoked can be shared by any number of streams, each containing a single message. <br>
+ * Rejected messages are counted in the {@link TransportMetrics} of the transport, and cause the stream to fail.
+ *
+ * @author Matteo
+ */
+public class MessageInputFilter implements ObjectInputFilter {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Default limits of a message
+     */
+    public static final int DEFAULT_MAX_DEPTH = 20;
+    public static final int DEFAULT_MAX_ARRAY_LENGTH = 10000;
+    public static final int DEFAULT_MAX_REFERENCES = 10000;
+    public static final int DEFAULT_MAX_BYTES = 1024 * 1024;
+
+    /**
+     * Package of the classes of the messages
+     */
+    private static final String MESSAGE_PACKAGE = "it.polimi.ingsw.am32.message.";
+
+    /**
+     * Classes, other than the messages, that can be found in a message
+     */
+    private static final Set<Class<?>> ALLOWED_CLASSES = Set.of(Boolean.class, Byte.class, Character.class, Short.class,
+            Integer.class, Long.class, Float.class, Double.class, Number.class, Enum.class, String.class, ArrayList.class);
+
+    /**
+     * Classes, other than the proxies, that can be found in the stub of a remote object
+     */
+    private static final Set<String> ALLOWED_STUB_CLASSES = Set.of("java.lang.reflect.Proxy",
+            "java.rmi.server.RemoteObjectInvocationHandler", "java.rmi.server.RemoteObject",
+            "it.polimi.ingsw.am32.network.rmi.TunedClientSocketFactory");
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(MessageInputFilter.class);
+
+    /**
+     * Limits of a message
+     */
+    private final long maxDepth;
+    private final long maxArrayLength;
+    private final long maxReferences;
+    private final long maxBytes;
+
+    /**
+     * Variables used to accept the stubs of the remote objects and to count the rejected messages
+     */
+    private final boolean remoteStubs;
+    private final TransportMetrics.Counters counters;
+
+    /**
+     * Variables used to count the references and the bytes of the message being read, when a stream carries more than
+     * one message
+     */
+    private boolean messageBegun;
+    private long referencesBefore;
+    private long bytesBefore;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     *
+     * @param maxDepth the maximum depth of the object graph of a message
+     * @param maxArrayLength the maximum length of an array in a message
+     * @param maxReferences the maximum number of references in a message
+     * @param maxBytes the maximum number of bytes of a message
+     * @param remoteStubs true if the stubs of the remote objects of the clients are accepted, as needed by RMI
+     * @param counters the counters of the transport to which the rejected messages are added, or null
+     */
+    public MessageInputFilter(long maxDepth, long maxArrayLength, long maxReferences, long maxBytes, boolean remoteStubs,
+                              TransportMetrics.Counters counters) {
+        this.maxDepth = maxDepth;
+        this.maxArrayLength = maxArrayLength;
+        this.maxReferences = maxReferences;
+        this.maxBytes = maxBytes;
+        this.remoteStubs = remoteStubs;
+        this.counters = counters;
+        messageBegun = true; // Until a message is marked, everything is counted from the beginning of the stream
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Creates a filter with the limits of the server {@link Configuration}.
+     *
+     * @param transport the transport through which the messages are received
+     * @return the filter for the messages received through the transport
+     */
+    public static MessageInputFilter fromConfiguration(TransportMetrics.Transport transport) {
+        Configuration config = Configuration.getInstance();
+        return new MessageInputFilter(config.getSerialFilterMaxDepth(), config.getSerialFilterMaxArrayLength(),
+                config.getSerialFilterMaxReferences(), config.getSerialFilterMaxBytes(),
+                transport == TransportMetrics.Transport.RMI, TransportMetrics.getInstance().of(transport));
+    }
+
+    /**
+     * Creates a filter with the default limits, not counting the rejected messages.
+     *
+     * @return a filter that can be shared by any number of streams
+     */
+    public static MessageInputFilter withDefaultLimits() {
+        return new MessageInputFilter(DEFAULT_MAX_DEPTH, DEFAULT_MAX_ARRAY_LENGTH, DEFAULT_MAX_REFERENCES,
+                DEFAULT_MAX_BYTES, false, null);
+    }
+
+    /**
+     * Marks the beginning of a message in a stream carrying more than one message, so that its references and bytes
+     * are counted from here.
+     */
+    public void beginMessage() {
+        messageBegun = false;
+    }
+
+    /**
+     * Checks a class, an array or the size of the message being read.
+     *
+     * @param filterInfo the class and the size of the message read so far
+     * @return {@link Status#ALLOWED} if the message is within the limits and the class is allowed,
+     * {@link Status#REJECTED} otherwise
+     */
+    @Override
+    public Status checkInput(FilterInfo filterInfo) {
+        if (!messageBegun) {
+            messageBegun = true;
+            referencesBefore = filterInfo.references();
+            bytesBefore = filterInfo.streamBytes();
+        }
+
+        if (filterInfo.depth() > maxDepth)
+            return reject("depth", filterInfo.depth());
+        if (filterInfo.arrayLength() > maxArrayLength)
+            return reject("array length", filterInfo.arrayLength());
+        if (filterInfo.references() - referencesBefore > maxReferences)
+            return reject("references", filterInfo.references() - referencesBefore);
+        if (filterInfo.streamBytes() - bytesBefore > maxBytes)
+            return reject("bytes", filterInfo.streamBytes() - bytesBefore);
+
+        Class<?> clazz = filterInfo.serialClass();
+        if (clazz == null)
+            return Status.ALLOWED;
+        while (clazz.isArray())
+            clazz = clazz.getComponentType();
+        if (isAllowed(clazz))
+            return Status.ALLOWED;
+        return reject("class " + clazz.getName(), 0);
+    }
+
+    /**
+     * Returns whether a class can be found in a message.
+     *
+     * @param clazz the class, or the component type of an array
+     * @return true if the class is allowed
+     */
+    private boolean isAllowed(Class<?> clazz) {
+        if (clazz.isPrimitive() || clazz == Object.class || ALLOWED_CLASSES.contains(clazz))
+            return true;
+        if (clazz.getName().startsWith(MESSAGE_PACKAGE) && Serializable.class.isAssignableFrom(clazz))
+            return true;
+        if (!remoteStubs)
+            return false;
+        if (ALLOWED_STUB_CLASSES.contains(clazz.getName()))
+            return true;
+        if (!Proxy.isProxyClass(clazz))
+            return false;
+        for (Class<?> proxyInterface : clazz.getInterfaces()) { // Only the stubs of the remote objects of the game
+            if (!Remote.class.isAssignableFrom(proxyInterface) || !proxyInterface.getName().startsWith("it.polimi.ingsw.am32."))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Counts and logs a rejected message.
+     *
+     * @param reason the limit exceeded, or the class not allowed
+     * @param value the value exceeding the limit
+     * @return {@link Status#REJECTED}
+     */
+    private Status reject(String reason, long value) {
+        if (counters != null)
+            counters.messageRejected();
+        logger.warn("Message rejected while being deserialized: {}{}", reason, value > 0 ? " " + value + " over the limit" : " not allowed");
+        return Status.REJECTED;
+    }
+}
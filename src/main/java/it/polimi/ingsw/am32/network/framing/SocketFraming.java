@@ -0,0 +1,21 @@
+package it.polimi.ingsw.am32.network.framing;
+
+/**
+ * The enum {@code SocketFraming} lists the ways in which messages can be exchanged over a socket connection. <br>
+ * The mode is chosen by the client: the server recognizes it from the first bytes received on the connection, so that
+ * both modes can be used at the same time on the same port.
+ *
+ * @author Matteo
+ */
+public enum SocketFraming {
+    /**
+     * Messages are written on a single {@link java.io.ObjectOutputStream} that lasts as long as the connection. <br>
+     * The stream keeps a reference to every object written, so memory grows during long sessions.
+     */
+    STREAM,
+    /**
+     * Each message is encoded on its own and sent as a length-prefixed frame (see {@link FrameWriter} and
+     * {@link FrameReader}). Nothing is retained between frames, so memory stays flat over a session.
+     */
+    FRAMED
+}
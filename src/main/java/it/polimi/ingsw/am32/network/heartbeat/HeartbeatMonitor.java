@@ -0,0 +1,171 @@
+package it.polimi.ingsw.am32.network.heartbeat;
+
+/**
+ * The class {@code HeartbeatMonitor} keeps track of the liveness and of the round trip time of a connection. <br>
+ * Every frame received from the other end counts as a heartbeat, and every frame sent counts as a heartbeat for the
+ * other end: explicit pings are needed only when the link has been idle, which the node checks with
+ * {@link #isIdle()} at each tick of its ping timer. <br>
+ * The round trip time is measured with the probes sent on the link, and smoothed as TCP does (RFC 6298): the interval
+ * between heartbeats is stretched on slow or unsteady links, so that a late heartbeat is not mistaken for a dead peer,
+ * and never goes below the configured interval. <br>
+ * All methods can be invoked by any thread.
+ *
+ * @author Matteo
+ */
+public class HeartbeatMonitor {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Gains of the smoothed round trip time and of its variation, as in RFC 6298
+     */
+    private static final double RTT_GAIN = 0.125;
+    private static final double JITTER_GAIN = 0.25;
+
+    /**
+     * Minimum number of retransmission timeouts contained in a heartbeat interval
+     */
+    private static final int TIMEOUTS_PER_INTERVAL = 4;
+
+    /**
+     * Number of heartbeat intervals after which the round trip time is measured again, even if the link is busy
+     */
+    private static final int INTERVALS_PER_SAMPLE = 4;
+
+    /**
+     * Configured interval between heartbeats, in nanoseconds
+     */
+    private final long baseInterval;
+
+    /**
+     * Times, given by {@link System#nanoTime()}, of the last frame received and sent, and of the last round trip sample
+     */
+    private volatile long lastReceived;
+    private volatile long lastSent;
+    private volatile long lastSample;
+
+    /**
+     * Smoothed round trip time and its mean deviation, in nanoseconds; the round trip time is negative until the
+     * first sample is recorded
+     */
+    private long smoothedRtt;
+    private long rttVariation;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class. The link is considered active at creation, and no round trip time is known.
+     *
+     * @param intervalMillis the configured interval between heartbeats, in milliseconds
+     */
+    public HeartbeatMonitor(long intervalMillis) {
+        this.baseInterval = intervalMillis * 1_000_000L;
+        long now = System.nanoTime();
+        lastReceived = now;
+        lastSent = now;
+        lastSample = now;
+        smoothedRtt = -1;
+        rttVariation = 0;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Records that a frame has been received from the other end.
+     */
+    public void frameReceived() {
+        lastReceived = System.nanoTime();
+    }
+
+    /**
+     * Records that a frame has been sent to the other end.
+     */
+    public void frameSent() {
+        lastSent = System.nanoTime();
+    }
+
+    /**
+     * Records a round trip time sample.
+     *
+     * @param rttNanos the time elapsed between sending a probe and receiving its answer, in nanoseconds
+     */
+    public synchronized void recordRoundTrip(long rttNanos) {
+        if (rttNanos < 0)
+            return;
+
+        if (smoothedRtt < 0) {
+            smoothedRtt = rttNanos;
+            rttVariation = rttNanos / 2;
+        } else {
+            rttVariation = (long) ((1 - JITTER_GAIN) * rttVariation + JITTER_GAIN * Math.abs(smoothedRtt - rttNanos));
+            smoothedRtt = (long) ((1 - RTT_GAIN) * smoothedRtt + RTT_GAIN * rttNanos);
+        }
+        lastSample = System.nanoTime();
+    }
+
+    /**
+     * Returns the interval between heartbeats: the configured interval, stretched when the link is so slow or unsteady
+     * that it would contain less than {@value #TIMEOUTS_PER_INTERVAL} retransmission timeouts.
+     *
+     * @return the interval between heartbeats, in nanoseconds
+     */
+    public synchronized long getInterval() {
+        if (smoothedRtt < 0)
+            return baseInterval;
+        return Math.max(baseInterval, TIMEOUTS_PER_INTERVAL * (smoothedRtt + 4 * rttVariation));
+    }
+
+    /**
+     * Tells whether nothing has been sent on the link for half an interval, in which case the next tick of the ping
+     * timer should send an explicit ping so that the other end receives a heartbeat at least once per interval.
+     *
+     * @return true if an explicit ping should be sent
+     */
+    public boolean isIdle() {
+        return System.nanoTime() - lastSent >= getInterval() / 2;
+    }
+
+    /**
+     * Tells whether the round trip time should be measured again, because the last sample is older than
+     * {@value #INTERVALS_PER_SAMPLE} intervals.
+     *
+     * @return true if a probe should be sent even if the link is busy
+     */
+    public boolean isSampleStale() {
+        return System.nanoTime() - lastSample >= INTERVALS_PER_SAMPLE * getInterval();
+    }
+
+    /**
+     * Tells whether the other end should be considered dead, because nothing has been received for more than the
+     * given number of intervals.
+     *
+     * @param maxMissedIntervals the number of intervals without heartbeats after which the other end is dead
+     * @return true if the other end should be considered dead
+     */
+    public boolean isExpired(int maxMissedIntervals) {
+        return System.nanoTime() - lastReceived > maxMissedIntervals * getInterval();
+    }
+
+    /**
+     * Returns the smoothed round trip time of the link.
+     *
+     * @return the round trip time in microseconds, or -1 if it has not been measured yet
+     */
+    public synchronized long getRoundTripMicros() {
+        return smoothedRtt < 0 ? -1 : smoothedRtt / 1000;
+    }
+
+    /**
+     * Returns the jitter of the link, measured as the mean deviation of the round trip time.
+     *
+     * @return the jitter in microseconds, or -1 if the round trip time has not been measured yet
+     */
+    public synchronized long getJitterMicros() {
+        return smoothedRtt < 0 ? -1 : rttVariation / 1000;
+    }
+}
@@ -0,0 +1,274 @@
+package it.polimi.ingsw.am32.network.ratelimit;
+
+import it.polimi.ingsw.am32.message.ClientToServer.PingMessage;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
+import it.polimi.ingsw.am32.utilities.Configuration;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The class {@code InboundRateLimiter} limits the rate at which the messages of a connection are processed, so that a
+ * client flooding the server with requests can't take the {@link it.polimi.ingsw.am32.controller.GameController} from
+ * the other players of its game. <br>
+ * Each type of message has its own token bucket, refilled at the rate configured for the type and holding up to
+ * {@link Configuration#getRateLimitBurst()} seconds worth of messages, so that short bursts are not penalized. The
+ * types without a configured rate share the rate of {@link #DEFAULT_TYPE}; a rate of 0 leaves a type unlimited. The
+ * {@link PingMessage}s are never limited, since they keep the connection alive. <br>
+ * What happens to a message exceeding the rate is decided by the {@link RateLimitPolicy}. The exceeding messages are
+ * counted by type for the connection, and in the {@link TransportMetrics} of the transport. <br>
+ * Each connection has its own limiter, whose methods can be invoked by any thread.
+ *
+ * @author Matteo
+ */
+public class InboundRateLimiter {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Key of the rate of the types of message without a rate of their own
+     */
+    public static final String DEFAULT_TYPE = "default";
+
+    /**
+     * Variables used for service purposes
+     */
+    private static final Logger logger = LogManager.getLogger(InboundRateLimiter.class);
+
+    /**
+     * Configuration of the limiter
+     */
+    private final Map<String, Integer> rates;
+    private final int burst;
+    private final RateLimitPolicy policy;
+
+    /**
+     * Variables used to identify and count the messages exceeding the rate
+     */
+    private final String connection;
+    private final TransportMetrics.Counters counters;
+    private final ConcurrentHashMap<String, LongAdder> limitedMessages;
+
+    /**
+     * Token bucket of each type of message, created when the first message of the type is received
+     */
+    private final ConcurrentHashMap<String, TokenBucket> buckets;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     *
+     * @param rates the rate of each type of message, in messages per second, with the rate of the other types under
+     *              {@link #DEFAULT_TYPE}
+     * @param burst the number of seconds worth of messages that a bucket can hold
+     * @param policy what happens to the messages exceeding the rate
+     * @param connection a description of the connection, used in the logs
+     * @param counters the counters of the transport to which the exceeding messages are added, or null
+     */
+    public InboundRateLimiter(Map<String, Integer> rates, int burst, RateLimitPolicy policy, String connection,
+                              TransportMetrics.Counters counters) {
+        this.rates = Map.copyOf(rates);
+        this.burst = burst;
+        this.policy = policy;
+        this.connection = connection;
+        this.counters = counters;
+        limitedMessages = new ConcurrentHashMap<>();
+        buckets = new ConcurrentHashMap<>();
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Creates a limiter with the rates and the policy of the server {@link Configuration}.
+     *
+     * @param transport the transport through which the messages are received
+     * @param connection a description of the connection, used in the logs
+     * @return the limiter of the connection
+     */
+    public static InboundRateLimiter fromConfiguration(TransportMetrics.Transport transport, String connection) {
+        Configuration config = Configuration.getInstance();
+        return new InboundRateLimiter(config.getRateLimits(), config.getRateLimitBurst(), config.getRateLimitPolicy(),
+                connection, TransportMetrics.getInstance().of(transport));
+    }
+
+    /**
+     * Takes a token for a message received from the client. <br>
+     * If the rate of its type has been exceeded and the policy is {@link RateLimitPolicy#THROTTLE}, the calling thread
+     * waits until the message can be processed; with the other policies the method returns immediately.
+     *
+     * @param message the message received
+     * @return true if the message can be processed, false if it must be discarded or, if the policy is
+     * {@link RateLimitPolicy#DISCONNECT}, the client disconnected
+     */
+    public boolean acquire(Object message) {
+        if (message instanceof PingMessage)
+            return true;
+
+        String type = LatencyMetrics.typeOf(message);
+        TokenBucket bucket = buckets.computeIfAbsent(type, this::createBucket);
+        if (bucket == TokenBucket.UNLIMITED)
+            return true;
+
+        if (policy != RateLimitPolicy.THROTTLE) {
+            if (bucket.tryTake(System.nanoTime()))
+                return true;
+            recordLimited(type);
+            return false;
+        }
+
+        long waitNanos = bucket.reserve(System.nanoTime());
+        if (waitNanos == 0)
+            return true;
+        recordLimited(type);
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // The node is being destroyed
+            return false;
+        }
+    }
+
+    /**
+     * Returns the policy applied to the messages exceeding the rate.
+     *
+     * @return the policy of the limiter
+     */
+    public RateLimitPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns the number of messages of each type that exceeded the rate on this connection.
+     *
+     * @return the number of exceeding messages, by type
+     */
+    public Map<String, Long> getLimitedMessages() {
+        TreeMap<String, Long> snapshot = new TreeMap<>();
+        limitedMessages.forEach((type, count) -> snapshot.put(type, count.sum()));
+        return snapshot;
+    }
+
+    /**
+     * Creates the token bucket of a type of message.
+     *
+     * @param type the type of message
+     * @return the bucket of the type, or {@link TokenBucket#UNLIMITED} if the type is not limited
+     */
+    private TokenBucket createBucket(String type) {
+        int rate = rates.getOrDefault(type, rates.getOrDefault(DEFAULT_TYPE, 0));
+        if (rate <= 0)
+            return TokenBucket.UNLIMITED;
+        return new TokenBucket(rate, Math.max(1, (long) rate * burst), System.nanoTime());
+    }
+
+    /**
+     * Counts and logs a message exceeding the rate of its type. Only the first exceeding message of each type is
+     * logged as a warning, the others are logged at debug level.
+     *
+     * @param type the type of the message
+     */
+    private void recordLimited(String type) {
+        if (counters != null) {
+            counters.messageLimited();
+            if (limitedMessages.isEmpty())
+                counters.nodeLimited();
+        }
+
+        LongAdder count = limitedMessages.computeIfAbsent(type, key -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1)
+            logger.warn("Client {} exceeded the rate of {}: policy {}", connection, type, policy);
+        else
+            logger.debug("Client {} exceeded the rate of {} {} times", connection, type, count.sum());
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Nested classes
+
+    /**
+     * A token bucket, refilled continuously at a constant rate.
+     */
+    private static class TokenBucket {
+
+        /**
+         * Bucket of the types of message that are not limited
+         */
+        private static final TokenBucket UNLIMITED = new TokenBucket(0, 0, 0);
+
+        /**
+         * Tokens added each nanosecond, and maximum number of tokens
+         */
+        private final double refillRate;
+        private final double capacity;
+
+        /**
+         * Tokens available, negative if tokens have been reserved in advance, and time of the last refill
+         */
+        private double tokens;
+        private long lastRefill;
+
+        /**
+         * Standard constructor of the class. The bucket is created full.
+         *
+         * @param rate the tokens added each second
+         * @param capacity the maximum number of tokens
+         * @param now the current {@link System#nanoTime()}
+         */
+        private TokenBucket(int rate, long capacity, long now) {
+            this.refillRate = rate / 1e9;
+            this.capacity = capacity;
+            tokens = capacity;
+            lastRefill = now;
+        }
+
+        /**
+         * Takes a token, if one is available.
+         *
+         * @param now the current {@link System#nanoTime()}
+         * @return true if a token was taken
+         */
+        private synchronized boolean tryTake(long now) {
+            refill(now);
+            if (tokens < 1)
+                return false;
+            tokens--;
+            return true;
+        }
+
+        /**
+         * Takes a token, even if it is not available yet.
+         *
+         * @param now the current {@link System#nanoTime()}
+         * @return the nanoseconds after which the token will be available, 0 if it already is
+         */
+        private synchronized long reserve(long now) {
+            refill(now);
+            tokens--;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / refillRate);
+        }
+
+        /**
+         * Adds the tokens accumulated since the last refill.
+         *
+         * @param now the current {@link System#nanoTime()}
+         */
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillRate);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package it.polimi.ingsw.am32.network.ratelimit;
+
+/**
+ * The RateLimitPolicy enum represents the different strategies a server node can adopt when a client sends messages
+ * of a type faster than the rate allowed by its {@link InboundRateLimiter}.
+ *
+ * @author Matteo
+ */
+public enum RateLimitPolicy {
+    /**
+     * The message is processed once the rate allows it: the node stops reading from the client until then.
+     */
+    THROTTLE,
+    /**
+     * The message is discarded without being processed.
+     */
+    DROP,
+    /**
+     * The client is disconnected.
+     */
+    DISCONNECT
+}
@@ -0,0 +1,121 @@
+package it.polimi.ingsw.am32.network.rmi;
+
+import it.polimi.ingsw.am32.utilities.Configuration;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.rmi.server.RMIClientSocketFactory;
+import java.util.Objects;
+
+/**
+ * The class {@code TunedClientSocketFactory} creates the sockets used to invoke the methods of a remote object. <br>
+ * It is given when the object is exported, and RMI sends it to the clients together with the stub of the object: the
+ * connections opened by the clients have a connect and a read timeout, so that an unreachable or hung peer cannot hold a
+ * thread indefinitely, and use the buffering and compression expected by the matching {@link TunedServerSocketFactory}.
+ * <br>
+ * Factories with the same options are equal, so that RMI can share the same connections among the objects exported with
+ * them.
+ *
+ * @author Matteo
+ */
+public class TunedClientSocketFactory implements RMIClientSocketFactory, Serializable {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Options of the sockets created
+     */
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final boolean tcpNoDelay;
+    private final int bufferSize;
+    private final boolean compression;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     *
+     * @param connectTimeout the timeout of the connection, in milliseconds, or 0 to wait indefinitely
+     * @param readTimeout the timeout of the reads, in milliseconds, or 0 to wait indefinitely
+     * @param tcpNoDelay true to disable the Nagle algorithm
+     * @param bufferSize the size, in bytes, of the buffers of the streams
+     * @param compression true if the streams are compressed; it must match the server socket factory
+     */
+    public TunedClientSocketFactory(int connectTimeout, int readTimeout, boolean tcpNoDelay, int bufferSize, boolean compression) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.tcpNoDelay = tcpNoDelay;
+        this.bufferSize = bufferSize;
+        this.compression = compression;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Creates a factory with the options of the server {@link Configuration}.
+     *
+     * @return the client socket factory used to export the remote objects of the server
+     */
+    public static TunedClientSocketFactory fromConfiguration() {
+        Configuration config = Configuration.getInstance();
+        return new TunedClientSocketFactory(config.getRmiConnectTimeout(), config.getRmiReadTimeout(),
+                config.isRmiTcpNoDelay(), config.getRmiBufferSize(), config.isRmiCompression());
+    }
+
+    /**
+     * Creates a socket connected to the given host and port.
+     *
+     * @param host the host of the remote object
+     * @param port the port of the remote object
+     * @return the connected socket
+     * @throws IOException if the connection could not be established within the connect timeout
+     */
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        TunedSocket socket = new TunedSocket(bufferSize, compression);
+        try {
+            socket.configure(readTimeout, tcpNoDelay);
+            socket.connect(new InetSocketAddress(host, port), connectTimeout);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        return socket;
+    }
+
+    /**
+     * Two factories are equal if they create sockets with the same options.
+     *
+     * @param o the object to compare
+     * @return true if the object is a factory with the same options
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TunedClientSocketFactory that)) return false;
+        return connectTimeout == that.connectTimeout && readTimeout == that.readTimeout && tcpNoDelay == that.tcpNoDelay
+                && bufferSize == that.bufferSize && compression == that.compression;
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code of the options
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(connectTimeout, readTimeout, tcpNoDelay, bufferSize, compression);
+    }
+}
@@ -0,0 +1,117 @@
+package it.polimi.ingsw.am32.network.rmi;
+
+import it.polimi.ingsw.am32.utilities.Configuration;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.rmi.server.RMIServerSocketFactory;
+import java.util.Objects;
+
+/**
+ * The class {@code TunedServerSocketFactory} creates the server sockets on which the exported remote objects accept
+ * invocations. <br>
+ * The accepted connections have a read timeout, so that a client that stops sending in the middle of an invocation, or
+ * keeps an idle connection open, cannot hold an RMI thread of the server indefinitely, and use the buffering and
+ * compression expected by the matching {@link TunedClientSocketFactory}. <br>
+ * Factories with the same options are equal, so that RMI exports all the objects using them on the same port.
+ *
+ * @author Matteo
+ */
+public class TunedServerSocketFactory implements RMIServerSocketFactory {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Options of the sockets accepted
+     */
+    private final int readTimeout;
+    private final boolean tcpNoDelay;
+    private final int bufferSize;
+    private final boolean compression;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     *
+     * @param readTimeout the timeout of the reads, in milliseconds, or 0 to wait indefinitely
+     * @param tcpNoDelay true to disable the Nagle algorithm
+     * @param bufferSize the size, in bytes, of the buffers of the streams
+     * @param compression true if the streams are compressed; it must match the client socket factory
+     */
+    public TunedServerSocketFactory(int readTimeout, boolean tcpNoDelay, int bufferSize, boolean compression) {
+        this.readTimeout = readTimeout;
+        this.tcpNoDelay = tcpNoDelay;
+        this.bufferSize = bufferSize;
+        this.compression = compression;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Creates a factory with the options of the server {@link Configuration}.
+     *
+     * @return the server socket factory used to export the remote objects of the server
+     */
+    public static TunedServerSocketFactory fromConfiguration() {
+        Configuration config = Configuration.getInstance();
+        return new TunedServerSocketFactory(config.getRmiReadTimeout(), config.isRmiTcpNoDelay(),
+                config.getRmiBufferSize(), config.isRmiCompression());
+    }
+
+    /**
+     * Creates a server socket listening on the given port, whose accepted sockets are configured with the options of
+     * the factory.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @return the server socket
+     * @throws IOException if the server socket could not be created
+     */
+    @Override
+    public ServerSocket createServerSocket(int port) throws IOException {
+        return new ServerSocket(port) {
+            @Override
+            public Socket accept() throws IOException {
+                TunedSocket socket = new TunedSocket(bufferSize, compression);
+                implAccept(socket);
+                try {
+                    socket.configure(readTimeout, tcpNoDelay);
+                } catch (IOException e) {
+                    socket.close();
+                    throw e;
+                }
+                return socket;
+            }
+        };
+    }
+
+    /**
+     * Two factories are equal if they create sockets with the same options.
+     *
+     * @param o the object to compare
+     * @return true if the object is a factory with the same options
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TunedServerSocketFactory that)) return false;
+        return readTimeout == that.readTimeout && tcpNoDelay == that.tcpNoDelay && bufferSize == that.bufferSize
+                && compression == that.compression;
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code of the options
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(readTimeout, tcpNoDelay, bufferSize, compression);
+    }
+}
@@ -0,0 +1,142 @@
+package it.polimi.ingsw.am32.network.rmi;
+
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The class {@code TunedSocket} is the socket created by the RMI socket factories of the package, on both ends of a
+ * connection. <br>
+ * Its streams are buffered, so that each remote invocation is written with a few system calls, and optionally
+ * compressed: the output is compressed with a {@link Deflater} flushed at every {@link OutputStream#flush()}, which RMI
+ * invokes at the end of each message, so that the other end can decompress every message as soon as it is received.
+ * Both ends must agree on compression: this is guaranteed by RMI, which sends to the client the client socket factory
+ * matching the server socket factory of the exported object. <br>
+ * The native memory held by the compressor is released when the socket is closed. The bytes exchanged on the network
+ * are counted in the {@link TransportMetrics} of RMI.
+ *
+ * @author Matteo
+ */
+class TunedSocket extends Socket {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Counters of the bytes received and sent by the RMI runtime through the sockets of the package
+     */
+    private static final TransportMetrics.Counters rmiCounters = TransportMetrics.getInstance().of(TransportMetrics.Transport.RMI);
+
+    /**
+     * Variables used to configure the streams
+     */
+    private final int bufferSize;
+    private final boolean compression;
+
+    /**
+     * Variables used to compress and decompress, null if compression is disabled
+     */
+    private final Deflater deflater;
+    private final Inflater inflater;
+
+    /**
+     * Streams of the socket, created on first use
+     */
+    private InputStream inputStream;
+    private OutputStream outputStream;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class. The socket is created unconnected.
+     *
+     * @param bufferSize the size, in bytes, of the buffers of the streams
+     * @param compression true if the streams are compressed
+     */
+    TunedSocket(int bufferSize, boolean compression) {
+        this.bufferSize = bufferSize;
+        this.compression = compression;
+        deflater = compression ? new Deflater(Deflater.BEST_SPEED, true) : null;
+        inflater = compression ? new Inflater(true) : null;
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Returns the buffered, and optionally decompressing, input stream of the socket.
+     *
+     * @return the input stream of the socket
+     * @throws IOException if the socket is closed or not connected
+     */
+    @Override
+    public synchronized InputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            InputStream socketInput = rmiCounters.countInput(super.getInputStream());
+            inputStream = compression
+                    ? new InflaterInputStream(socketInput, inflater, bufferSize)
+                    : new BufferedInputStream(socketInput, bufferSize);
+        }
+        return inputStream;
+    }
+
+    /**
+     * Returns the buffered, and optionally compressing, output stream of the socket.
+     *
+     * @return the output stream of the socket
+     * @throws IOException if the socket is closed or not connected
+     */
+    @Override
+    public synchronized OutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            OutputStream socketOutput = new BufferedOutputStream(rmiCounters.countOutput(super.getOutputStream()), bufferSize);
+            outputStream = compression
+                    ? new DeflaterOutputStream(socketOutput, deflater, bufferSize, true)
+                    : socketOutput;
+        }
+        return outputStream;
+    }
+
+    /**
+     * Closes the socket, and releases the native memory held by the compressor.
+     *
+     * @throws IOException if the socket could not be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (compression) {
+                deflater.end();
+                inflater.end();
+            }
+        }
+    }
+
+    /**
+     * Applies the options shared by the sockets of both ends of a connection.
+     *
+     * @param readTimeout the timeout of the reads, in milliseconds, or 0 to wait indefinitely
+     * @param tcpNoDelay true to disable the Nagle algorithm
+     * @throws SocketException if an option could not be applied
+     */
+    void configure(int readTimeout, boolean tcpNoDelay) throws SocketException {
+        setSoTimeout(readTimeout);
+        setTcpNoDelay(tcpNoDelay);
+        setKeepAlive(true);
+    }
+}
@@ -0,0 +1,285 @@
+package it.polimi.ingsw.am32.network.unix;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+
+/**
+ * The class {@code UnixDomainSocket} presents a Unix domain {@link SocketChannel} as a {@link java.net.Socket}, so that
+ * the socket nodes can exchange messages with clients running on the same host without going through the TCP stack.
+ * <br>
+ * Unix domain channels have no {@link java.net.Socket} of their own: this class implements the part of its interface
+ * used by the nodes, i.e. the streams, the read timeout, the addresses and the closing. The channel is used in
+ * non-blocking mode, and each stream waits on its own {@link Selector}, so that a read and a write can be in progress
+ * at the same time and the reads can time out as they do on a TCP socket.
+ *
+ * @author Matteo
+ */
+public class UnixDomainSocket extends java.net.Socket {
+
+    //---------------------------------------------------------------------------------------------
+    // Variables and Constants
+
+    /**
+     * Variables used to communicate with the other end
+     */
+    private final SocketChannel channel;
+    private final Selector readSelector;
+    private final Selector writeSelector;
+    private final InputStream inputStream;
+    private final OutputStream outputStream;
+
+    /**
+     * Timeout of the reads, in milliseconds, or 0 to wait indefinitely
+     */
+    private volatile int readTimeout;
+
+
+    //---------------------------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Standard constructor of the class.
+     *
+     * @param channel a connected Unix domain socket channel
+     * @throws IOException if the channel cannot be configured
+     */
+    public UnixDomainSocket(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        readTimeout = 0;
+
+        try {
+            channel.configureBlocking(false);
+            readSelector = Selector.open();
+            writeSelector = Selector.open();
+            channel.register(readSelector, SelectionKey.OP_READ);
+            channel.register(writeSelector, SelectionKey.OP_WRITE);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        inputStream = new ChannelInputStream();
+        outputStream = new ChannelOutputStream();
+    }
+
+
+    //---------------------------------------------------------------------------------------------
+    // Methods
+
+    /**
+     * Connect to the server listening on the given path.
+     *
+     * @param path the path of the socket file of the server
+     * @return the connected socket
+     * @throws IOException if the connection could not be established
+     */
+    public static UnixDomainSocket connect(Path path) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(path));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new UnixDomainSocket(channel);
+    }
+
+    /**
+     * Returns the input stream of the socket, whose reads time out as configured by {@link #setSoTimeout(int)}.
+     *
+     * @return the input stream of the socket
+     * @throws IOException if the socket is closed
+     */
+    @Override
+    public InputStream getInputStream() throws IOException {
+        if (!channel.isOpen())
+            throw new SocketException("Socket is closed");
+        return inputStream;
+    }
+
+    /**
+     * Returns the output stream of the socket. It is not buffered.
+     *
+     * @return the output stream of the socket
+     * @throws IOException if the socket is closed
+     */
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if (!channel.isOpen())
+            throw new SocketException("Socket is closed");
+        return outputStream;
+    }
+
+    /**
+     * Sets the timeout of the reads on the input stream.
+     *
+     * @param timeout the timeout in milliseconds, or 0 to wait indefinitely
+     */
+    @Override
+    public void setSoTimeout(int timeout) {
+        if (timeout < 0)
+            throw new IllegalArgumentException("timeout < 0");
+        readTimeout = timeout;
+    }
+
+    /**
+     * Returns the timeout of the reads on the input stream.
+     *
+     * @return the timeout in milliseconds, or 0 if the reads wait indefinitely
+     */
+    @Override
+    public int getSoTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Returns the path the socket is bound to.
+     *
+     * @return the local {@link UnixDomainSocketAddress}, or null if it is not available
+     */
+    @Override
+    public SocketAddress getLocalSocketAddress() {
+        try {
+            return channel.getLocalAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the path of the other end of the socket.
+     *
+     * @return the remote {@link UnixDomainSocketAddress}, or null if it is not available
+     */
+    @Override
+    public SocketAddress getRemoteSocketAddress() {
+        try {
+            return channel.getRemoteAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Tells whether the channel is connected.
+     *
+     * @return true if the channel is connected
+     */
+    @Override
+    public boolean isConnected() {
+        return channel.isConnected();
+    }
+
+    /**
+     * Tells whether the socket has been closed.
+     *
+     * @return true if the channel is closed
+     */
+    @Override
+    public boolean isClosed() {
+        return !channel.isOpen();
+    }
+
+    /**
+     * Close the channel and the selectors. A read or a write in progress fails with an {@link IOException}.
+     *
+     * @throws IOException if the channel could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.close();
+        } finally {
+            readSelector.close();
+            writeSelector.close();
+        }
+    }
+
+    /**
+     * Wait until the channel is ready for the operation of the given selector, or the timeout expires.
+     *
+     * @param selector the selector of the operation
+     * @param timeoutMillis the maximum time to wait, in milliseconds, or 0 to wait indefinitely
+     * @throws SocketException if the socket has been closed
+     */
+    private void await(Selector selector, long timeoutMillis) throws IOException {
+        try {
+            selector.select(timeoutMillis);
+            selector.selectedKeys().clear();
+        } catch (ClosedSelectorException e) {
+            throw new SocketException("Socket is closed");
+        }
+    }
+
+    /**
+     * The input stream of the socket: it waits for bytes on the read selector, up to the read timeout.
+     */
+    private class ChannelInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return 0;
+
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            int timeout = readTimeout;
+            long deadline = System.nanoTime() + timeout * 1_000_000L;
+
+            synchronized (readSelector) {
+                while (true) {
+                    int read = channel.read(buffer);
+                    if (read != 0)
+                        return read;
+
+                    long waitMillis = 0;
+                    if (timeout > 0) {
+                        waitMillis = (deadline - System.nanoTime()) / 1_000_000L;
+                        if (waitMillis <= 0)
+                            throw new SocketTimeoutException("Read timed out");
+                    }
+                    await(readSelector, waitMillis);
+                }
+            }
+        }
+    }
+
+    /**
+     * The output stream of the socket: it waits on the write selector while the send buffer is full.
+     */
+    private class ChannelOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            synchronized (writeSelector) {
+                while (buffer.hasRemaining()) {
+                    if (channel.write(buffer) == 0)
+                        await(writeSelector, 0);
+                }
+            }
+        }
+    }
+}
@@ -3,13 +3,20 @@ package it.polimi.ingsw.am32.utilities;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import it.polimi.ingsw.am32.Server;
+import it.polimi.ingsw.am32.controller.OverflowPolicy;
+import it.polimi.ingsw.am32.network.ClientAcceptor.SocketTransport;
 import it.polimi.ingsw.am32.network.ServerNode.ServerPingTask;
+import it.polimi.ingsw.am32.network.framing.MessageInputFilter;
+import it.polimi.ingsw.am32.network.ratelimit.InboundRateLimiter;
+import it.polimi.ingsw.am32.network.ratelimit.RateLimitPolicy;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Timer;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -39,6 +46,39 @@ public class Configuration {
     private int maxPingCount;
     private int socketReadTimeout;
     private int endGameDueToDisconnectionTimeout;
+    private int socketWriteTimeout;
+    private int outboundQueueCapacity;
+    private OverflowPolicy outboundQueueOverflowPolicy;
+    private int eventLogCapacity;
+    private String journalDirectory;
+    private int journalGroupCommitInterval;
+    private int snapshotInterval;
+    private SocketTransport socketTransport;
+    private int nioSelectorThreads;
+    private boolean frameCompression;
+    private int frameCompressionThreshold;
+    private int linkQualityInterval;
+    private int rmiBatchSize;
+    private int rmiMaxInFlightCalls;
+    private int rmiConnectTimeout;
+    private int rmiReadTimeout;
+    private boolean rmiTcpNoDelay;
+    private int rmiBufferSize;
+    private boolean rmiCompression;
+    private String unixSocketPath;
+    private boolean latencyMetrics;
+    private boolean managementBeans;
+    private int metricsPort;
+    private int asyncLogBufferSize;
+    private int protocolLogSampleRate;
+    private String gameLogDirectory;
+    private int serialFilterMaxDepth;
+    private int serialFilterMaxArrayLength;
+    private int serialFilterMaxReferences;
+    private int serialFilterMaxBytes;
+    private final Map<String, Integer> rateLimits;
+    private int rateLimitBurst;
+    private RateLimitPolicy rateLimitPolicy;
     private String serverIp;
     private final ExecutorService executorService;
     private final Timer notLinkedSocketTimer;
@@ -72,6 +112,43 @@ public class Configuration {
         executorService = Executors.newCachedThreadPool();
         notLinkedSocketTimer = new Timer();
         endGameDueToDisconnectionTimeout = 2 * 60 * 1000; // 2 minutes
+        socketWriteTimeout = 10000;
+        outboundQueueCapacity = 256;
+        outboundQueueOverflowPolicy = OverflowPolicy.COALESCE;
+        eventLogCapacity = 1024;
+        journalDirectory = ""; // journaling disabled
+        journalGroupCommitInterval = 50;
+        snapshotInterval = 30000;
+        socketTransport = SocketTransport.BLOCKING;
+        nioSelectorThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        frameCompression = true;
+        frameCompressionThreshold = 512;
+        linkQualityInterval = 10000;
+        rmiBatchSize = 64;
+        rmiMaxInFlightCalls = 2;
+        rmiConnectTimeout = 5000;
+        rmiReadTimeout = 30000;
+        rmiTcpNoDelay = true;
+        rmiBufferSize = 8192;
+        rmiCompression = false;
+        unixSocketPath = ""; // Unix domain socket disabled
+        latencyMetrics = true;
+        managementBeans = true;
+        metricsPort = 0; // HTTP metrics listener disabled
+        asyncLogBufferSize = 8192;
+        protocolLogSampleRate = 1; // Every message logged
+        gameLogDirectory = ""; // Logs of the games not routed to files
+        serialFilterMaxDepth = MessageInputFilter.DEFAULT_MAX_DEPTH;
+        serialFilterMaxArrayLength = MessageInputFilter.DEFAULT_MAX_ARRAY_LENGTH;
+        serialFilterMaxReferences = MessageInputFilter.DEFAULT_MAX_REFERENCES;
+        serialFilterMaxBytes = MessageInputFilter.DEFAULT_MAX_BYTES;
+        rateLimits = new LinkedHashMap<>(); // Messages per second, 0 for no limit
+        rateLimits.put("RequestGameStatusMessage", 2);
+        rateLimits.put("RequestPlayerFieldMessage", 5);
+        rateLimits.put("InboundChatMessage", 5);
+        rateLimits.put(InboundRateLimiter.DEFAULT_TYPE, 50);
+        rateLimitBurst = 2;
+        rateLimitPolicy = RateLimitPolicy.THROTTLE;
 
         // temporary values
 
@@ -131,6 +208,145 @@ public class Configuration {
             try {
                 endGameDueToDisconnectionTimeout = jsonNode.get("endGameDueToDisconnectionTimeout").asInt();
             } catch (Exception ignored){}
+
+            try {
+                socketWriteTimeout = jsonNode.get("socketWriteTimeout").asInt();
+            } catch (Exception ignored){}
+
+            try {
+                outboundQueueCapacity = positiveValidator(jsonNode.get("outboundQueueCapacity").asInt(), outboundQueueCapacity);
+            } catch (Exception ignored){}
+
+            try {
+                outboundQueueOverflowPolicy = OverflowPolicy.valueOf(jsonNode.get("outboundQueueOverflowPolicy").asText().toUpperCase());
+            } catch (Exception ignored){}
+
+            try {
+                eventLogCapacity = positiveValidator(jsonNode.get("eventLogCapacity").asInt(), eventLogCapacity);
+            } catch (Exception ignored){}
+
+            try {
+                journalDirectory = jsonNode.get("journalDirectory").asText().trim();
+            } catch (Exception ignored){}
+
+            try {
+                journalGroupCommitInterval = positiveValidator(jsonNode.get("journalGroupCommitInterval").asInt(), journalGroupCommitInterval);
+            } catch (Exception ignored){}
+
+            try {
+                snapshotInterval = positiveValidator(jsonNode.get("snapshotInterval").asInt(), snapshotInterval);
+            } catch (Exception ignored){}
+
+            try {
+                socketTransport = SocketTransport.valueOf(jsonNode.get("socketTransport").asText().toUpperCase());
+            } catch (Exception ignored){}
+
+            try {
+                nioSelectorThreads = positiveValidator(jsonNode.get("nioSelectorThreads").asInt(), nioSelectorThreads);
+            } catch (Exception ignored){}
+
+            try {
+                if (jsonNode.get("frameCompression").isBoolean())
+                    frameCompression = jsonNode.get("frameCompression").asBoolean();
+            } catch (Exception ignored){}
+
+            try {
+                frameCompressionThreshold = positiveValidator(jsonNode.get("frameCompressionThreshold").asInt(), frameCompressionThreshold);
+            } catch (Exception ignored){}
+
+            try {
+                linkQualityInterval = positiveValidator(jsonNode.get("linkQualityInterval").asInt(), linkQualityInterval);
+            } catch (Exception ignored){}
+
+            try {
+                rmiBatchSize = positiveValidator(jsonNode.get("rmiBatchSize").asInt(), rmiBatchSize);
+            } catch (Exception ignored){}
+
+            try {
+                rmiMaxInFlightCalls = positiveValidator(jsonNode.get("rmiMaxInFlightCalls").asInt(), rmiMaxInFlightCalls);
+            } catch (Exception ignored){}
+
+            try {
+                rmiConnectTimeout = positiveValidator(jsonNode.get("rmiConnectTimeout").asInt(), rmiConnectTimeout);
+            } catch (Exception ignored){}
+
+            try {
+                rmiReadTimeout = positiveValidator(jsonNode.get("rmiReadTimeout").asInt(), rmiReadTimeout);
+            } catch (Exception ignored){}
+
+            try {
+                if (jsonNode.get("rmiTcpNoDelay").isBoolean())
+                    rmiTcpNoDelay = jsonNode.get("rmiTcpNoDelay").asBoolean();
+            } catch (Exception ignored){}
+
+            try {
+                rmiBufferSize = positiveValidator(jsonNode.get("rmiBufferSize").asInt(), rmiBufferSize);
+            } catch (Exception ignored){}
+
+            try {
+                if (jsonNode.get("rmiCompression").isBoolean())
+                    rmiCompression = jsonNode.get("rmiCompression").asBoolean();
+            } catch (Exception ignored){}
+
+            try {
+                unixSocketPath = jsonNode.get("unixSocketPath").asText().trim();
+            } catch (Exception ignored){}
+
+            try {
+                if (jsonNode.get("latencyMetrics").isBoolean())
+                    latencyMetrics = jsonNode.get("latencyMetrics").asBoolean();
+            } catch (Exception ignored){}
+
+            try {
+                if (jsonNode.get("managementBeans").isBoolean())
+                    managementBeans = jsonNode.get("managementBeans").asBoolean();
+            } catch (Exception ignored){}
+
+            try {
+                metricsPort = portValidator(jsonNode.get("metricsPort").asInt(), metricsPort);
+            } catch (Exception ignored){}
+
+            try {
+                if (jsonNode.get("asyncLogBufferSize").isInt() && jsonNode.get("asyncLogBufferSize").asInt() >= 0)
+                    asyncLogBufferSize = jsonNode.get("asyncLogBufferSize").asInt();
+            } catch (Exception ignored){}
+
+            try {
+                protocolLogSampleRate = positiveValidator(jsonNode.get("protocolLogSampleRate").asInt(), protocolLogSampleRate);
+            } catch (Exception ignored){}
+
+            try {
+                gameLogDirectory = jsonNode.get("gameLogDirectory").asText().trim();
+            } catch (Exception ignored){}
+
+            try {
+                serialFilterMaxDepth = positiveValidator(jsonNode.get("serialFilterMaxDepth").asInt(), serialFilterMaxDepth);
+            } catch (Exception ignored){}
+
+            try {
+                serialFilterMaxArrayLength = positiveValidator(jsonNode.get("serialFilterMaxArrayLength").asInt(), serialFilterMaxArrayLength);
+            } catch (Exception ignored){}
+
+            try {
+                serialFilterMaxReferences = positiveValidator(jsonNode.get("serialFilterMaxReferences").asInt(), serialFilterMaxReferences);
+            } catch (Exception ignored){}
+
+            try {
+                serialFilterMaxBytes = positiveValidator(jsonNode.get("serialFilterMaxBytes").asInt(), serialFilterMaxBytes);
+            } catch (Exception ignored){}
+
+            try {
+                jsonNode.get("rateLimits").fields().forEachRemaining(entry ->
+                        rateLimits.put(entry.getKey(), Math.max(0, entry.getValue().asInt())));
+            } catch (Exception ignored){}
+
+            try {
+                rateLimitBurst = positiveValidator(jsonNode.get("rateLimitBurst").asInt(), rateLimitBurst);
+            } catch (Exception ignored){}
+
+            try {
+                rateLimitPolicy = RateLimitPolicy.valueOf(jsonNode.get("rateLimitPolicy").asText().toUpperCase());
+            } catch (Exception ignored){}
         }
 
         // overwrite server configuration with data from startup parameters
@@ -159,8 +375,46 @@ public class Configuration {
                     case "-srt" -> socketReadTimeout = Integer.parseInt(args[i + 1]);
                     case "-edt" -> endGameDueToDisconnectionTimeout = Integer.parseInt(args[i + 1]);
                     case "-si" -> serverIp = serverIpValidator(args[i + 1], serverIp);
+                    case "-swt" -> socketWriteTimeout = Integer.parseInt(args[i + 1]);
+                    case "-oqc" -> outboundQueueCapacity = positiveValidator(Integer.parseInt(args[i + 1]), outboundQueueCapacity);
+                    case "-oqp" -> outboundQueueOverflowPolicy = OverflowPolicy.valueOf(args[i + 1].toUpperCase());
+                    case "-elc" -> eventLogCapacity = positiveValidator(Integer.parseInt(args[i + 1]), eventLogCapacity);
+                    case "-jd" -> journalDirectory = args[i + 1].trim();
+                    case "-jgi" -> journalGroupCommitInterval = positiveValidator(Integer.parseInt(args[i + 1]), journalGroupCommitInterval);
+                    case "-ssi" -> snapshotInterval = positiveValidator(Integer.parseInt(args[i + 1]), snapshotInterval);
+                    case "-skt" -> socketTransport = SocketTransport.valueOf(args[i + 1].toUpperCase());
+                    case "-nst" -> nioSelectorThreads = positiveValidator(Integer.parseInt(args[i + 1]), nioSelectorThreads);
+                    case "-fc" -> frameCompression = Boolean.parseBoolean(args[i + 1]);
+                    case "-fct" -> frameCompressionThreshold = positiveValidator(Integer.parseInt(args[i + 1]), frameCompressionThreshold);
+                    case "-lqi" -> linkQualityInterval = positiveValidator(Integer.parseInt(args[i + 1]), linkQualityInterval);
+                    case "-rbs" -> rmiBatchSize = positiveValidator(Integer.parseInt(args[i + 1]), rmiBatchSize);
+                    case "-rmf" -> rmiMaxInFlightCalls = positiveValidator(Integer.parseInt(args[i + 1]), rmiMaxInFlightCalls);
+                    case "-rct" -> rmiConnectTimeout = positiveValidator(Integer.parseInt(args[i + 1]), rmiConnectTimeout);
+                    case "-rrt" -> rmiReadTimeout = positiveValidator(Integer.parseInt(args[i + 1]), rmiReadTimeout);
+                    case "-rnd" -> rmiTcpNoDelay = Boolean.parseBoolean(args[i + 1]);
+                    case "-rbf" -> rmiBufferSize = positiveValidator(Integer.parseInt(args[i + 1]), rmiBufferSize);
+                    case "-rc" -> rmiCompression = Boolean.parseBoolean(args[i + 1]);
+                    case "-usp" -> unixSocketPath = args[i + 1].trim();
+                    case "-lm" -> latencyMetrics = Boolean.parseBoolean(args[i + 1]);
+                    case "-mb" -> managementBeans = Boolean.parseBoolean(args[i + 1]);
+                    case "-mp" -> metricsPort = portValidator(Integer.parseInt(args[i + 1]), metricsPort);
+                    case "-alb" -> asyncLogBufferSize = Math.max(0, Integer.parseInt(args[i + 1]));
+                    case "-pls" -> protocolLogSampleRate = positiveValidator(Integer.parseInt(args[i + 1]), protocolLogSampleRate);
+                    case "-gld" -> gameLogDirectory = args[i + 1].trim();
+                    case "-sfd" -> serialFilterMaxDepth = positiveValidator(Integer.parseInt(args[i + 1]), serialFilterMaxDepth);
+                    case "-sfa" -> serialFilterMaxArrayLength = positiveValidator(Integer.parseInt(args[i + 1]), serialFilterMaxArrayLength);
+                    case "-sfr" -> serialFilterMaxReferences = positiveValidator(Integer.parseInt(args[i + 1]), serialFilterMaxReferences);
+                    case "-sfb" -> serialFilterMaxBytes = positiveValidator(Integer.parseInt(args[i + 1]), serialFilterMaxBytes);
+                    case "-rl" -> { // Comma separated list of type=rate
+                        for (String limit : args[i + 1].split(",")) {
+                            String[] typeAndRate = limit.split("=");
+                            rateLimits.put(typeAndRate[0].trim(), Math.max(0, Integer.parseInt(typeAndRate[1].trim())));
+                        }
+                    }
+                    case "-rlb" -> rateLimitBurst = positiveValidator(Integer.parseInt(args[i + 1]), rateLimitBurst);
+                    case "-rlp" -> rateLimitPolicy = RateLimitPolicy.valueOf(args[i + 1].toUpperCase());
                 }
-            } catch (NumberFormatException ignored) {}
+            } catch (IllegalArgumentException ignored) {}
 
             i += 2;
         }
@@ -184,6 +438,9 @@ public class Configuration {
                 rmiPort = rmiPortFile;
         }
 
+        if (metricsPort == socketPort || metricsPort == rmiPort)
+            metricsPort = 0;
+
         logger.info("The loaded configuration is:");
         logger.info("Socket port: {}", socketPort);
         logger.info("RMI port: {}", rmiPort);
@@ -191,6 +448,34 @@ public class Configuration {
         logger.info("Max ping count: {}", maxPingCount);
         logger.info("Socket read timeout: {}", socketReadTimeout);
         logger.info("End game due to disconnection timeout: {}", endGameDueToDisconnectionTimeout);
+        logger.info("Socket write timeout: {}", socketWriteTimeout);
+        logger.info("Outbound queue capacity: {}", outboundQueueCapacity);
+        logger.info("Outbound queue overflow policy: {}", outboundQueueOverflowPolicy);
+        logger.info("Event log capacity: {}", eventLogCapacity);
+        logger.info("Journal directory: {}", journalDirectory.isEmpty() ? "journaling disabled" : journalDirectory);
+        logger.info("Journal group commit interval: {}", journalGroupCommitInterval);
+        logger.info("Snapshot interval: {}", snapshotInterval);
+        logger.info("Socket transport: {}", socketTransport);
+        logger.info("NIO selector threads: {}", nioSelectorThreads);
+        logger.info("Frame compression: {}", frameCompression ? "enabled above " + frameCompressionThreshold + " bytes" : "disabled");
+        logger.info("Link quality report interval: {}", linkQualityInterval);
+        logger.info("RMI batch size: {}", rmiBatchSize);
+        logger.info("RMI max in-flight calls: {}", rmiMaxInFlightCalls);
+        logger.info("RMI connect timeout: {}", rmiConnectTimeout);
+        logger.info("RMI read timeout: {}", rmiReadTimeout);
+        logger.info("RMI TCP_NODELAY: {}", rmiTcpNoDelay);
+        logger.info("RMI buffer size: {}", rmiBufferSize);
+        logger.info("RMI compression: {}", rmiCompression ? "enabled" : "disabled");
+        logger.info("Unix domain socket: {}", unixSocketPath.isEmpty() ? "disabled" : unixSocketPath);
+        logger.info("Latency metrics: {}", latencyMetrics ? "enabled" : "disabled");
+        logger.info("Management beans: {}", managementBeans ? "enabled" : "disabled");
+        logger.info("Metrics HTTP port: {}", metricsPort == 0 ? "disabled" : metricsPort);
+        logger.info("Async log buffer size: {}", asyncLogBufferSize == 0 ? "synchronous logging" : asyncLogBufferSize);
+        logger.info("Protocol log sample rate: 1 in {}", protocolLogSampleRate);
+        logger.info("Game log directory: {}", gameLogDirectory.isEmpty() ? "game logs not routed" : gameLogDirectory);
+        logger.info("Serialization filter limits: depth {}, array length {}, references {}, bytes {}",
+                serialFilterMaxDepth, serialFilterMaxArrayLength, serialFilterMaxReferences, serialFilterMaxBytes);
+        logger.info("Rate limits: {} messages per second, burst of {} seconds, policy {}", rateLimits, rateLimitBurst, rateLimitPolicy);
         logger.info("Server IP: {}", serverIp);
     }
 
@@ -210,6 +495,18 @@ public class Configuration {
         return defaultPort;
     }
 
+    /**
+     * Verify that the new value is strictly positive and in that case returns it.
+     *
+     * @param newValue is the new value that has to be evaluated to substitute the default one
+     * @param defaultValue is the default value
+     * @return the new value if valid, the default one otherwise
+     */
+    protected int positiveValidator(int newValue, int defaultValue) {
+        if(newValue > 0) return newValue;
+        return defaultValue;
+    }
+
     /**
      * Verify that the given ip comply with ipv4 rules and in that case returns it.
      *
@@ -379,4 +676,306 @@ public class Configuration {
     public int getEndGameDueToDisconnectionTimeout() {
         return endGameDueToDisconnectionTimeout;
     }
+
+    /**
+     * Return the maximum duration of a single write to a socket output. A client whose socket stays blocked for longer
+     * is considered dead.
+     *
+     * @return an int indicating the timeout in milliseconds
+     */
+    public int getSocketWriteTimeout() {
+        return socketWriteTimeout;
+    }
+
+    /**
+     * Return the maximum amount of messages that can be queued for a single client.
+     *
+     * @return an int indicating the capacity of the outbound queue of each client
+     */
+    public int getOutboundQueueCapacity() {
+        return outboundQueueCapacity;
+    }
+
+    /**
+     * Return the policy adopted when the outbound queue of a client is full.
+     *
+     * @return the {@link OverflowPolicy} of the outbound queues
+     */
+    public OverflowPolicy getOutboundQueueOverflowPolicy() {
+        return outboundQueueOverflowPolicy;
+    }
+
+    /**
+     * Return the maximum amount of messages retained by the event log of each game, used to resynchronize the clients
+     * that reconnect after a brief disconnection.
+     *
+     * @return an int indicating the capacity of the event log of each game
+     */
+    public int getEventLogCapacity() {
+        return eventLogCapacity;
+    }
+
+    /**
+     * Return the directory where the journals of the games are stored, used to recover the games after a crash.
+     *
+     * @return the path of the directory, or an empty string if journaling is disabled
+     */
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    /**
+     * Return the interval between two group commits of the journals of the games.
+     *
+     * @return an integer indicating the interval in milliseconds
+     */
+    public int getJournalGroupCommitInterval() {
+        return journalGroupCommitInterval;
+    }
+
+    /**
+     * Return the interval between two snapshots of the same game, used to trim its journal.
+     *
+     * @return an integer indicating the interval in milliseconds
+     */
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    /**
+     * Return the implementation used to accept and handle socket connections.
+     *
+     * @return the {@link SocketTransport} used by the server
+     */
+    public SocketTransport getSocketTransport() {
+        return socketTransport;
+    }
+
+    /**
+     * Return the number of selector threads multiplexing the socket connections when the NIO transport is used.
+     *
+     * @return an integer indicating the number of selector threads
+     */
+    public int getNioSelectorThreads() {
+        return nioSelectorThreads;
+    }
+
+    /**
+     * Return whether the socket connections using the framed mode are allowed to compress large frames.
+     *
+     * @return true if frame compression is allowed
+     */
+    public boolean isFrameCompression() {
+        return frameCompression;
+    }
+
+    /**
+     * Return the minimum length of the frames compressed, on the connections that use compression.
+     *
+     * @return an integer indicating the threshold in bytes
+     */
+    public int getFrameCompressionThreshold() {
+        return frameCompressionThreshold;
+    }
+
+    /**
+     * Return the interval between two reports of the round trip time and jitter of the connections of the players,
+     * sent to all the players of a game.
+     *
+     * @return an integer indicating the interval in milliseconds
+     */
+    public int getLinkQualityInterval() {
+        return linkQualityInterval;
+    }
+
+    /**
+     * Return the maximum number of messages sent to a RMI client with a single remote invocation.
+     *
+     * @return an integer indicating the number of messages
+     */
+    public int getRmiBatchSize() {
+        return rmiBatchSize;
+    }
+
+    /**
+     * Return the maximum number of remote invocations in progress at the same time to send messages to a RMI client.
+     *
+     * @return an integer indicating the number of invocations
+     */
+    public int getRmiMaxInFlightCalls() {
+        return rmiMaxInFlightCalls;
+    }
+
+    /**
+     * Return the timeout of the connections opened to the remote objects of the server.
+     *
+     * @return an integer indicating the timeout in milliseconds
+     */
+    public int getRmiConnectTimeout() {
+        return rmiConnectTimeout;
+    }
+
+    /**
+     * Return the timeout of the reads on the connections to and from the remote objects of the server.
+     *
+     * @return an integer indicating the timeout in milliseconds
+     */
+    public int getRmiReadTimeout() {
+        return rmiReadTimeout;
+    }
+
+    /**
+     * Return whether the Nagle algorithm is disabled on the connections to and from the remote objects of the server.
+     *
+     * @return true if TCP_NODELAY is set
+     */
+    public boolean isRmiTcpNoDelay() {
+        return rmiTcpNoDelay;
+    }
+
+    /**
+     * Return the size of the buffers of the streams of the connections to and from the remote objects of the server.
+     *
+     * @return an integer indicating the size in bytes
+     */
+    public int getRmiBufferSize() {
+        return rmiBufferSize;
+    }
+
+    /**
+     * Return whether the streams of the connections to and from the remote objects of the server are compressed.
+     *
+     * @return true if RMI compression is enabled
+     */
+    public boolean isRmiCompression() {
+        return rmiCompression;
+    }
+
+    /**
+     * Return the path of the Unix domain socket on which the server accepts the connections of the clients running on
+     * the same host.
+     *
+     * @return the path of the socket file, or an empty string if the Unix domain socket is disabled
+     */
+    public String getUnixSocketPath() {
+        return unixSocketPath;
+    }
+
+    /**
+     * Return whether the server measures the time spent by the messages in each stage of their processing.
+     *
+     * @return true if the latency metrics are enabled
+     */
+    public boolean isLatencyMetrics() {
+        return latencyMetrics;
+    }
+
+    /**
+     * Return whether the server registers its MBeans in the platform MBean server, to be monitored with JMX tools.
+     *
+     * @return true if the management beans are enabled
+     */
+    public boolean isManagementBeans() {
+        return managementBeans;
+    }
+
+    /**
+     * Return the port of the HTTP listener exposing the metrics of the server and its liveness and readiness.
+     *
+     * @return the port of the listener, or 0 if the listener is disabled
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+
+    /**
+     * Return the number of log events that can be waiting to be written by the background logging thread.
+     *
+     * @return the size of the buffer of the log events, or 0 if the logs are written synchronously
+     */
+    public int getAsyncLogBufferSize() {
+        return asyncLogBufferSize;
+    }
+
+    /**
+     * Return how many of the messages of the same type exchanged with the clients are logged.
+     *
+     * @return the rate of the logged messages, as in one every this many messages
+     */
+    public int getProtocolLogSampleRate() {
+        return protocolLogSampleRate;
+    }
+
+    /**
+     * Return the directory in which the logs of each game are written to a file of their own.
+     *
+     * @return the directory of the game logs, or an empty string if the logs of the games are not routed to files
+     */
+    public String getGameLogDirectory() {
+        return gameLogDirectory;
+    }
+
+    /**
+     * Return the maximum depth of the object graph of a message deserialized by the server.
+     *
+     * @return the maximum depth of a message
+     */
+    public int getSerialFilterMaxDepth() {
+        return serialFilterMaxDepth;
+    }
+
+    /**
+     * Return the maximum length of an array in a message deserialized by the server.
+     *
+     * @return the maximum length of an array
+     */
+    public int getSerialFilterMaxArrayLength() {
+        return serialFilterMaxArrayLength;
+    }
+
+    /**
+     * Return the maximum number of references in a message deserialized by the server.
+     *
+     * @return the maximum number of references of a message
+     */
+    public int getSerialFilterMaxReferences() {
+        return serialFilterMaxReferences;
+    }
+
+    /**
+     * Return the maximum number of bytes of a message deserialized by the server.
+     *
+     * @return the maximum size of a message, in bytes
+     */
+    public int getSerialFilterMaxBytes() {
+        return serialFilterMaxBytes;
+    }
+
+    /**
+     * Return the rate limit of each type of inbound message, in messages per second. The types without a rate of their
+     * own are limited by the rate under {@link InboundRateLimiter#DEFAULT_TYPE}; a rate of 0 means no limit.
+     *
+     * @return the rate limits, by type of message
+     */
+    public Map<String, Integer> getRateLimits() {
+        return Map.copyOf(rateLimits);
+    }
+
+    /**
+     * Return the number of seconds worth of messages that a client can send in a burst above the rate limits.
+     *
+     * @return the size of the bursts, in seconds
+     */
+    public int getRateLimitBurst() {
+        return rateLimitBurst;
+    }
+
+    /**
+     * Return the policy adopted when a client exceeds a rate limit.
+     *
+     * @return the {@link RateLimitPolicy} of the server nodes
+     */
+    public RateLimitPolicy getRateLimitPolicy() {
+        return rateLimitPolicy;
+    }
 }
@@ -2,25 +2,62 @@ package it.polimi.ingsw.am32.utilities;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.ThreadContext;
 import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.builder.api.ComponentBuilder;
 import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
 import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
 import org.apache.logging.log4j.core.config.builder.api.LayoutComponentBuilder;
 import org.apache.logging.log4j.core.config.builder.api.AppenderComponentBuilder;
 import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
 
+import java.nio.file.Path;
+
 /**
  * This class is a wrapper for configuring Log4J2.
  * It provides a method to set the log level and configure the logger.
+ * <br>
+ * The logs can be written by a background thread, through a bounded queue, so that the threads serving the clients
+ * don't wait for the console; when the queue is full, the events at INFO level and below are discarded instead of
+ * blocking. The logs of each game can also be routed to a file of their own: the events logged while the thread
+ * context holds the key {@value #GAMEIDKEY} are written to the file of that game.
  */
 public class Log4J2ConfiguratorWrapper {
 
+    /**
+     * Key of the thread context holding the id of the game whose logs are being written
+     */
+    public static final String GAMEIDKEY = "gameId";
+
+    /**
+     * Pattern of the logged lines
+     */
+    private static final String PATTERN = "%d{HH:mm:ss.SSS} [%t] %-5level %logger{36} %X{objectId} - %msg%n";
+
+    /**
+     * Minutes after which the file of a game that is no longer logging is closed
+     */
+    private static final int GAMELOGIDLEMINUTES = 10;
+
     /**
      * Sets the log level and configures the logger.
      *
      * @param level The log level to set.
      */
     public static void setLogLevelAndConfigure(Level level) {
+        setLogLevelAndConfigure(level, 0, "");
+    }
+
+    /**
+     * Sets the log level and configures the logger, writing the logs asynchronously and routing the logs of each game
+     * to a file of its own if requested.
+     *
+     * @param level The log level to set.
+     * @param asyncBufferSize The number of events that can be waiting to be written, or 0 to write them synchronously.
+     * @param gameLogDirectory The directory of the files of the games, or an empty string to log everything to the
+     *                         console.
+     */
+    public static void setLogLevelAndConfigure(Level level, int asyncBufferSize, String gameLogDirectory) {
         // Create a new configuration builder.
         ConfigurationBuilder<BuiltConfiguration> builder = ConfigurationBuilderFactory.newConfigurationBuilder();
 
@@ -28,15 +65,83 @@ public class Log4J2ConfiguratorWrapper {
         AppenderComponentBuilder appenderBuilder = builder.newAppender("Console", "CONSOLE")
                 .addAttribute("target", "SYSTEM_OUT");
         LayoutComponentBuilder layoutBuilder = builder.newLayout("PatternLayout")
-                .addAttribute("pattern", "%d{HH:mm:ss.SSS} [%t] %-5level %logger{36} %X{objectId} - %msg%n");
+                .addAttribute("pattern", PATTERN);
         appenderBuilder.add(layoutBuilder);
         builder.add(appenderBuilder);
+        String rootAppender = "Console";
+
+        // Route the events logged for a game to the file of the game, and the others to the console.
+        // The lookups are escaped so that they are resolved for each event, not when the configuration is built.
+        if (!gameLogDirectory.isEmpty()) {
+            ComponentBuilder<?> gameRoute = builder.newComponent("Route")
+                    .addComponent(builder.newAppender("Game-${ctx:" + GAMEIDKEY + "}", "File")
+                            .addAttribute("fileName", Path.of(gameLogDirectory, "game-${ctx:" + GAMEIDKEY + "}.log").toString())
+                            .add(builder.newLayout("PatternLayout").addAttribute("pattern", PATTERN)));
+            ComponentBuilder<?> defaultRoute = builder.newComponent("Route")
+                    .addAttribute("key", "$${ctx:" + GAMEIDKEY + "}")
+                    .addAttribute("ref", "Console");
+            builder.add(builder.newAppender("Routing", "Routing")
+                    .addComponent(builder.newComponent("Routes")
+                            .addAttribute("pattern", "$${ctx:" + GAMEIDKEY + "}")
+                            .addComponent(gameRoute)
+                            .addComponent(defaultRoute))
+                    .addComponent(builder.newComponent("IdlePurgePolicy")
+                            .addAttribute("timeToLive", GAMELOGIDLEMINUTES)
+                            .addAttribute("timeUnit", "minutes")));
+            rootAppender = "Routing";
+        }
+
+        // Hand the events to a background thread through a bounded queue.
+        if (asyncBufferSize > 0) {
+            System.setProperty("log4j2.asyncQueueFullPolicy", "Discard");
+            System.setProperty("log4j2.discardThreshold", "INFO");
+            builder.add(builder.newAppender("Async", "Async")
+                    .addAttribute("bufferSize", asyncBufferSize)
+                    .addAttribute("includeLocation", false)
+                    .addComponent(builder.newAppenderRef(rootAppender)));
+            rootAppender = "Async";
+        }
 
         // Create the root logger with the given log level.
-        builder.add(builder.newRootLogger(level).add(builder.newAppenderRef("Console")));
+        builder.add(builder.newRootLogger(level).add(builder.newAppenderRef(rootAppender)));
 
         // Build the configuration and start the logger context.
         LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
         ctx.start(builder.build());
     }
+
+    /**
+     * Routes the events logged by the current thread to the file of a game, until {@link #stopRoutingToGame()} is
+     * invoked.
+     *
+     * @param gameId The id of the game.
+     */
+    public static void routeToGame(int gameId) {
+        ThreadContext.put(GAMEIDKEY, String.valueOf(gameId));
+    }
+
+    /**
+     * Routes the events logged by the current thread back to the root logger, when the thread stops working for a game.
+     */
+    public static void stopRoutingToGame() {
+        ThreadContext.remove(GAMEIDKEY);
+    }
+
+    /**
+     * Returns a task that routes the events it logs to the file of a game.
+     *
+     * @param gameId The id of the game.
+     * @param task The task to run.
+     * @return The task routing its logs to the game.
+     */
+    public static Runnable routedToGame(int gameId, Runnable task) {
+        return () -> {
+            routeToGame(gameId);
+            try {
+                task.run();
+            } finally {
+                stopRoutingToGame();
+            }
+        };
+    }
 }
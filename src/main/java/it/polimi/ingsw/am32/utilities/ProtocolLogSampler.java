@@ -0,0 +1,53 @@
+package it.polimi.ingsw.am32.utilities;
+
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class decides which of the messages exchanged with the clients are logged. <br>
+ * Since the same types of message are exchanged over and over, logging each of them costs more than it tells. The
+ * messages are therefore sampled by type: the first message of each type is logged, then one in every
+ * {@link Configuration#getProtocolLogSampleRate()}, so that rare messages are never missed. <br>
+ * Nothing is counted when the logger would discard the event anyway.
+ */
+public class ProtocolLogSampler {
+
+    /**
+     * Messages seen so far, by type
+     */
+    private static final ConcurrentHashMap<String, AtomicLong> seenMessages = new ConcurrentHashMap<>();
+
+    /**
+     * The class only has static methods.
+     */
+    private ProtocolLogSampler() {}
+
+    /**
+     * Returns whether a message exchanged with a client should be logged at INFO level.
+     *
+     * @param logger The logger through which the message would be logged.
+     * @param message The message.
+     * @return True if the message should be logged.
+     */
+    public static boolean isSampled(Logger logger, Object message) {
+        if (!logger.isInfoEnabled())
+            return false;
+
+        int sampleRate = Configuration.getInstance().getProtocolLogSampleRate();
+        return sampleRate <= 1 || isSampled(LatencyMetrics.typeOf(message), sampleRate);
+    }
+
+    /**
+     * Counts a message of a type, and returns whether it is one of those to be logged.
+     *
+     * @param messageType The type of the message.
+     * @param sampleRate The rate of the logged messages, as in one every this many messages.
+     * @return True if the message should be logged.
+     */
+    protected static boolean isSampled(String messageType, int sampleRate) {
+        return seenMessages.computeIfAbsent(messageType, type -> new AtomicLong()).getAndIncrement() % sampleRate == 0;
+    }
+}
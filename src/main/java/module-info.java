@@ -9,6 +9,8 @@ module it.polimi.ingsw.am32 {
     requires com.fasterxml.jackson.databind;
     requires org.apache.logging.log4j;
     requires java.rmi;
+    requires java.management;
+    requires jdk.httpserver;
     requires org.jetbrains.annotations;
     requires org.apache.logging.log4j.core;
 
@@ -17,11 +19,13 @@ module it.polimi.ingsw.am32 {
     exports it.polimi.ingsw.am32.network.ClientAcceptor to java.rmi;
     exports it.polimi.ingsw.am32.model.exceptions to java.rmi;
     exports it.polimi.ingsw.am32.controller.exceptions.abstraction to java.rmi;
-    exports it.polimi.ingsw.am32.controller to java.rmi;
+    exports it.polimi.ingsw.am32.controller to java.rmi, java.management;
+    exports it.polimi.ingsw.am32.metrics to java.management;
     exports it.polimi.ingsw.am32.controller.exceptions to java.rmi;
     exports it.polimi.ingsw.am32.network.exceptions to java.rmi;
     exports it.polimi.ingsw.am32.network.ClientNode to java.rmi;
     exports it.polimi.ingsw.am32.network.ServerNode to java.rmi;
+    exports it.polimi.ingsw.am32.network.rmi to java.rmi;
     exports it.polimi.ingsw.am32.message.ClientToServer to java.rmi;
     exports it.polimi.ingsw.am32.message.ServerToClient to java.rmi;
     exports it.polimi.ingsw.am32.client.view.gui to javafx.graphics, javafx.fxml;
@@ -0,0 +1,65 @@
+package it.polimi.ingsw.am32.client.view.tui;
+
+import it.polimi.ingsw.am32.client.Event;
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.ClientToServer.AccessGameMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.NewGameMessage;
+import it.polimi.ingsw.am32.network.ClientNode.LoopbackClientNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class TextUIReconnectionTest {
+
+    private PrintStream stdout;
+
+    @BeforeEach
+    void setUp() {
+        stdout = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream())); // The TextUI prints to the standard output
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.setOut(stdout);
+    }
+
+    @DisplayName("After losing the connection in the middle of a game, the text UI should reconnect and leave RECONNECT_GAME")
+    @Test
+    public void textUIShouldResumeTheGameAfterReconnecting() throws Throwable {
+        TextUI bob = spy(new TextUI());
+        LoopbackClientNode bobClient = bob.setLoopbackClient(false);
+        View aliceView = mock(View.class);
+        when(aliceView.acknowledgeSequence(anyLong(), any(), anyLong(), anyBoolean())).thenReturn(true);
+        LoopbackClientNode alice = new LoopbackClientNode(aliceView, false);
+        alice.startConnection();
+
+        bob.notifyAskListener(new NewGameMessage("bob", 2));
+        ArgumentCaptor<Integer> gameId = ArgumentCaptor.forClass(Integer.class);
+        verify(bob, timeout(5000)).updateNewGameConfirm(gameId.capture(), eq("bob"));
+        alice.uploadToServer(new AccessGameMessage(gameId.getValue(), "alice"));
+        verify(bob, timeout(5000)).setStarterCard(anyInt());
+
+        bobClient.dropConnection();
+        verify(aliceView, timeout(5000)).handleEvent(eq(Event.PLAYER_DISCONNECTED), eq("bob"));
+        bob.askIfWantToReconnect();
+        assertEquals(Event.RECONNECT_GAME, bob.getEvent());
+
+        verify(bob, timeout(5000)).handleEvent(eq(Event.GAME_RECONNECTED), isNull());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bob.getEvent() == Event.RECONNECT_GAME && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(Event.SELECT_STARTER_CARD_SIDE, bob.getEvent()); // The starter card has not been placed yet
+
+        alice.close();
+    }
+}
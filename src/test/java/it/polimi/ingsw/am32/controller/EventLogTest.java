@@ -0,0 +1,70 @@
+package it.polimi.ingsw.am32.controller;
+
+import it.polimi.ingsw.am32.message.ServerToClient.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventLogTest {
+
+    @DisplayName("Sequence numbers should be assigned in increasing order")
+    @Test
+    void shouldAssignIncreasingSequenceNumbers() {
+        EventLog eventLog = new EventLog(10);
+        SequencedMessage first = eventLog.append(new PlayerTurnMessage("player1", "player1"));
+        SequencedMessage second = eventLog.append(new PlayerTurnMessage("player2", "player1"));
+
+        assertEquals(1, first.getSequence());
+        assertEquals(2, second.getSequence());
+        assertEquals(2, eventLog.getLastSequence());
+        assertEquals(eventLog.getEpoch(), first.getEpoch());
+    }
+
+    @DisplayName("Only the messages missed by the player should be returned, following the order of the log")
+    @Test
+    void shouldReturnOnlyMissedMessagesOfThePlayer() {
+        EventLog eventLog = new EventLog(10);
+        eventLog.append(new PlayerTurnMessage("player1", "player1")); // 1, applied
+        eventLog.append(new OutboundChatMessage("player1", "player2", "hello")); // 2, applied
+        SequencedMessage missedTurn = eventLog.append(new PlayerTurnMessage("player1", "player2")); // 3, missed
+        eventLog.append(new PlayerTurnMessage("player2", "player2")); // 4, other player
+        SequencedMessage missedChat = eventLog.append(new OutboundChatMessage("player1", "player2", "bye")); // 5, missed
+
+        long[] lastApplied = new long[MessagePriority.values().length];
+        lastApplied[MessagePriority.GAME_CRITICAL.ordinal()] = 1;
+        lastApplied[MessagePriority.CHAT.ordinal()] = 2;
+
+        Optional<List<SequencedMessage>> missed = eventLog.getMissedMessages("player1", eventLog.getEpoch(), lastApplied);
+        assertTrue(missed.isPresent());
+        assertEquals(List.of(missedTurn, missedChat), missed.get());
+    }
+
+    @DisplayName("The full status should be required if a missed message has been evicted")
+    @Test
+    void shouldRequireFullStatusWhenMissedMessagesWereEvicted() {
+        EventLog eventLog = new EventLog(2);
+        eventLog.append(new PlayerTurnMessage("player1", "player1")); // 1, evicted
+        eventLog.append(new PlayerTurnMessage("player1", "player2")); // 2
+        eventLog.append(new PlayerTurnMessage("player1", "player1")); // 3
+
+        long[] lastApplied = new long[MessagePriority.values().length];
+        assertTrue(eventLog.getMissedMessages("player1", eventLog.getEpoch(), lastApplied).isEmpty());
+
+        lastApplied[MessagePriority.GAME_CRITICAL.ordinal()] = 1; // The evicted message had already been applied
+        assertEquals(2, eventLog.getMissedMessages("player1", eventLog.getEpoch(), lastApplied).orElseThrow().size());
+    }
+
+    @DisplayName("The full status should be required if the player refers to another log or sent no sequence numbers")
+    @Test
+    void shouldRequireFullStatusForUnknownEpochOrMissingSequences() {
+        EventLog eventLog = new EventLog(10);
+        eventLog.append(new PlayerTurnMessage("player1", "player1"));
+
+        assertTrue(eventLog.getMissedMessages("player1", eventLog.getEpoch() + 1, new long[MessagePriority.values().length]).isEmpty());
+        assertTrue(eventLog.getMissedMessages("player1", eventLog.getEpoch(), null).isEmpty());
+    }
+}
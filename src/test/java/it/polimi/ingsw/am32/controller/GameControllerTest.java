@@ -4,6 +4,7 @@ import it.polimi.ingsw.am32.chat.ChatMessage;
 import it.polimi.ingsw.am32.controller.exceptions.CriticalFailureException;
 import it.polimi.ingsw.am32.controller.exceptions.FullLobbyException;
 import it.polimi.ingsw.am32.controller.exceptions.VirtualViewNotFoundException;
+import it.polimi.ingsw.am32.message.ClientToServer.*;
 import it.polimi.ingsw.am32.message.ServerToClient.*;
 import it.polimi.ingsw.am32.model.exceptions.DuplicateNicknameException;
 import it.polimi.ingsw.am32.model.exceptions.PlayerNotFoundException;
@@ -28,7 +29,9 @@ public class GameControllerTest {
             internalMessages = new ArrayList<>();
         }
         public synchronized void uploadToClient(StoCMessage message) {
-            internalMessages.add(message);
+            // Unwrap sequenced messages and broadcast envelopes as the client would do
+            StoCMessage unwrapped = message instanceof SequencedMessage sequenced ? sequenced.getMessage() : message;
+            internalMessages.add(unwrapped instanceof BroadcastEnvelopeMessage envelope ? envelope.getMessage() : unwrapped);
         }
         public void pingTimeOverdue() {
             // STUB
@@ -36,6 +39,9 @@ public class GameControllerTest {
         public void resetTimeCounter() {
             // STUB
         }
+        public void destroy() {
+            // STUB
+        }
         public synchronized ArrayList<StoCMessage> getInternalMessages() {
             return internalMessages;
         }
@@ -888,6 +894,57 @@ public class GameControllerTest {
         assertInstanceOf(ResponsePlayerFieldMessage.class, nodeInterfaceStub.getInternalMessages().getFirst());
     }
 
+    @DisplayName("The responses to the field and game status requests should be generated again only when the game changes")
+    @Test
+    void responsesShouldBeCachedUntilTheGameChanges() throws PlayerNotFoundException {
+        // Add 2 players to the game and bring it to the playing phase
+        try {
+            gameController.addPlayer("player1", new NodeInterfaceStub());
+            gameController.addPlayer("player2", new NodeInterfaceStub());
+        } catch (FullLobbyException | DuplicateNicknameException e) {
+            fail();
+        }
+        gameController.enterPreparationPhase();
+        gameController.chooseStarterCardSide("player1", true);
+        gameController.chooseStarterCardSide("player2", false);
+        gameController.chooseSecretObjectiveCard("player1", gameController.getModel().getSecretObjectiveCardsPlayer("player1").getFirst());
+        gameController.chooseSecretObjectiveCard("player2", gameController.getModel().getSecretObjectiveCardsPlayer("player2").getFirst());
+
+        // The game status is reused until a command is applied to the model or a chat message is sent
+        PlayerGameStatusMessage gameStatus = gameController.getResponseGameStatusMessage("player1");
+        assertSame(gameStatus, gameController.getResponseGameStatusMessage("player1"));
+        assertNotSame(gameStatus, gameController.getResponseGameStatusMessage("player2"));
+        gameController.submitChatMessage(new ChatMessage("player2", "player1", false, "Hello, player1!"));
+        PlayerGameStatusMessage afterChat = gameController.getResponseGameStatusMessage("player1");
+        assertNotSame(gameStatus, afterChat);
+        gameController.getModel().nextTurn();
+        assertNotSame(afterChat, gameController.getResponseGameStatusMessage("player1"));
+
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            fail();
+        }
+        NodeInterfaceStub nodeInterfaceStub = (NodeInterfaceStub) gameController.getNodeList().getFirst().getNode();
+        nodeInterfaceStub.clearInternalMessages();
+
+        // The field is reused until a card is placed on it, whatever happens to the rest of the game
+        long fieldVersion = gameController.getModel().getPlayerFieldVersion("player2");
+        gameController.sendPlayerField("player1", "player2");
+        gameController.getModel().nextTurn();
+        gameController.sendPlayerField("player1", "player2");
+        assertEquals(fieldVersion, gameController.getModel().getPlayerFieldVersion("player2"));
+
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            fail();
+        }
+        assertEquals(2, nodeInterfaceStub.getInternalMessages().size());
+        assertInstanceOf(ResponsePlayerFieldMessage.class, nodeInterfaceStub.getInternalMessages().getFirst());
+        assertSame(nodeInterfaceStub.getInternalMessages().get(0), nodeInterfaceStub.getInternalMessages().get(1));
+    }
+
     @DisplayName("sendPlayerField should throw a CriticalFailureException if the requester player does not exist")
     @Test
     void sendPlayerFieldRequesterDoesNotExist(){
@@ -1556,6 +1613,127 @@ public class GameControllerTest {
         assertInstanceOf(PlayerTurnMessage.class, nodeInterfaceStub.getInternalMessages().get(2));
     }
 
+    @DisplayName("placeAndDrawCard should roll back the placement if the draw fails, and deliver the whole turn as a single message otherwise")
+    @Test
+    public void placeAndDrawCardTest() throws PlayerNotFoundException {
+        NodeInterfaceStub node1 = new NodeInterfaceStub();
+        NodeInterfaceStub node2 = new NodeInterfaceStub();
+        try {
+            gameController.addPlayer("player1", node1);
+            gameController.addPlayer("player2", node2);
+        } catch (FullLobbyException | DuplicateNicknameException e) {
+            fail();
+        }
+        gameController.enterPreparationPhase();
+        gameController.chooseStarterCardSide("player1", false);
+        gameController.chooseStarterCardSide("player2", false);
+        gameController.chooseSecretObjectiveCard("player1", gameController.getModel().getSecretObjectiveCardsPlayer("player1").getFirst());
+        gameController.chooseSecretObjectiveCard("player2", gameController.getModel().getSecretObjectiveCardsPlayer("player2").getFirst());
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            fail();
+        }
+
+        String currentPlayer = gameController.getModel().getCurrentPlayerNickname();
+        NodeInterfaceStub currentNode = currentPlayer.equals("player1") ? node1 : node2;
+        NodeInterfaceStub otherNode = currentPlayer.equals("player1") ? node2 : node1;
+        ArrayList<Integer> handCards = new ArrayList<>(gameController.getModel().getPlayerHand(currentPlayer));
+        int fieldSize = gameController.getModel().getPlayerField(currentPlayer).size();
+        int[] position = gameController.getModel().getAvailableSpacesPlayer(currentPlayer).getFirst();
+        node1.clearInternalMessages();
+        node2.clearInternalMessages();
+
+        // The draw fails: the placement is rolled back and only the player is informed
+        gameController.placeAndDrawCard(currentPlayer, handCards.getFirst(), position[0], position[1], false, 2, -1);
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            fail();
+        }
+        assertEquals(1, currentNode.getInternalMessages().size());
+        assertInstanceOf(DrawCardFailedMessage.class, currentNode.getInternalMessages().getFirst());
+        assertTrue(otherNode.getInternalMessages().isEmpty());
+        assertEquals(GameControllerStatus.WAITING_CARD_PLACEMENT, gameController.getStatus());
+        assertEquals(currentPlayer, gameController.getModel().getCurrentPlayerNickname());
+        assertEquals(3, gameController.getModel().getPlayerHand(currentPlayer).size());
+        assertTrue(gameController.getModel().getPlayerHand(currentPlayer).containsAll(handCards));
+        assertEquals(fieldSize, gameController.getModel().getPlayerField(currentPlayer).size());
+        currentNode.clearInternalMessages();
+
+        // The turn succeeds: every player receives the updates of the turn in a single message
+        gameController.placeAndDrawCard(currentPlayer, handCards.getFirst(), position[0], position[1], false, 0, -1);
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            fail();
+        }
+        assertEquals(GameControllerStatus.WAITING_CARD_PLACEMENT, gameController.getStatus());
+        assertNotEquals(currentPlayer, gameController.getModel().getCurrentPlayerNickname());
+        assertEquals(fieldSize + 1, gameController.getModel().getPlayerField(currentPlayer).size());
+        assertEquals(3, gameController.getModel().getPlayerHand(currentPlayer).size());
+        assertFalse(gameController.getModel().getPlayerHand(currentPlayer).contains(handCards.getFirst()));
+
+        assertEquals(2, currentNode.getInternalMessages().size());
+        assertInstanceOf(DrawCardConfirmationMessage.class, currentNode.getInternalMessages().get(1));
+        assertEquals(1, otherNode.getInternalMessages().size());
+        for (NodeInterfaceStub node : new NodeInterfaceStub[]{currentNode, otherNode}) {
+            TurnCompletedMessage turn = assertInstanceOf(TurnCompletedMessage.class, node.getInternalMessages().getFirst());
+            assertEquals(3, turn.getMessages().size());
+            assertInstanceOf(PlaceCardConfirmationMessage.class, turn.getMessages().get(0));
+            assertInstanceOf(DeckSizeUpdateMessage.class, turn.getMessages().get(1));
+            assertInstanceOf(PlayerTurnMessage.class, turn.getMessages().get(2));
+            for (StoCMessage message : turn.getMessages()) {
+                assertEquals(turn.getRecipientNickname(), message.getRecipientNickname());
+            }
+        }
+    }
+
+    @DisplayName("Pipelined correlated requests should be elaborated in order, each receiving one response echoing its request id")
+    @Test
+    public void correlatedRequestsShouldEchoTheirId() {
+        NodeInterfaceStub node1 = new NodeInterfaceStub();
+        NodeInterfaceStub node2 = new NodeInterfaceStub();
+        try {
+            gameController.addPlayer("player1", node1);
+            gameController.addPlayer("player2", node2);
+        } catch (FullLobbyException | DuplicateNicknameException e) {
+            fail();
+        }
+        gameController.enterPreparationPhase();
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            fail();
+        }
+        node1.clearInternalMessages();
+        node2.clearInternalMessages();
+
+        // Three requests sent without waiting for the responses
+        new CorrelatedRequestMessage("player1", 1, new SelectedStarterCardSideMessage("player1", true)).elaborateMessage(gameController);
+        new CorrelatedRequestMessage("player1", 2, new InboundChatMessage("player1", null, true, "hello")).elaborateMessage(gameController);
+        new CorrelatedRequestMessage("player1", 3, new SelectedStarterCardSideMessage("player1", false)).elaborateMessage(gameController);
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            fail();
+        }
+
+        ArrayList<StoCMessage> responses = new ArrayList<>(node1.getInternalMessages());
+        assertEquals(3, responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals(i + 1, assertInstanceOf(CorrelatedResponseMessage.class, responses.get(i)).getRequestId());
+        }
+        assertInstanceOf(ConfirmStarterCardSideSelectionMessage.class, ((CorrelatedResponseMessage) responses.get(0)).getMessage());
+        assertNull(((CorrelatedResponseMessage) responses.get(1)).getMessage()); // The chat message has no reply for the sender
+        assertInstanceOf(InvalidStarterCardSideSelectionMessage.class, ((CorrelatedResponseMessage) responses.get(2)).getMessage());
+
+        // The other players receive the chat message as usual, without any request id
+        assertEquals(1, node2.getInternalMessages().size());
+        assertInstanceOf(OutboundChatMessage.class, node2.getInternalMessages().getFirst());
+        assertEquals(CtoSMessage.NO_REQUEST_ID, node2.getInternalMessages().getFirst().getRequestId());
+    }
+
     @DisplayName("pongPlayer should send a PongMessage to the player requesting it")
     @Test
     void pongPlayerTest() {
@@ -23,7 +23,9 @@ class GamesManagerTest {
             internalMessages = new ArrayList<>();
         }
         public synchronized void uploadToClient(StoCMessage message) {
-            internalMessages.add(message);
+            // Unwrap sequenced messages and broadcast envelopes as the client would do
+            StoCMessage unwrapped = message instanceof SequencedMessage sequenced ? sequenced.getMessage() : message;
+            internalMessages.add(unwrapped instanceof BroadcastEnvelopeMessage envelope ? envelope.getMessage() : unwrapped);
         }
         public void pingTimeOverdue() {
             // STUB
@@ -31,6 +33,9 @@ class GamesManagerTest {
         public void resetTimeCounter() {
             // STUB
         }
+        public void destroy() {
+            // STUB
+        }
         public synchronized ArrayList<StoCMessage> getInternalMessages() {
             return internalMessages;
         }
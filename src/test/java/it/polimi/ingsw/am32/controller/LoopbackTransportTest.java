@@ -0,0 +1,208 @@
+package it.polimi.ingsw.am32.controller;
+
+import it.polimi.ingsw.am32.client.Event;
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.ClientToServer.AccessGameMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.InboundChatMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.NewGameMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.ReconnectGameMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.RequestGameStatusMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.MessagePriority;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import it.polimi.ingsw.am32.metrics.LatencyStage;
+import it.polimi.ingsw.am32.network.ClientNode.LoopbackClientNode;
+import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class LoopbackTransportTest {
+
+    @BeforeEach
+    void setUp() {
+        GamesManager.getInstance().clearInstance();
+    }
+
+    @AfterEach
+    void clearSingleton() {
+        GamesManager.getInstance().clearInstance();
+    }
+
+    private static View mockView() {
+        View view = mock(View.class);
+        when(view.acknowledgeSequence(anyLong(), any(), anyLong(), anyBoolean())).thenReturn(true);
+        return view;
+    }
+
+    private static View sequenceTrackingView() {
+        View view = mock(View.class, withSettings().useConstructor().defaultAnswer(RETURNS_DEFAULTS));
+        doCallRealMethod().when(view).acknowledgeSequence(anyLong(), any(), anyLong(), anyBoolean());
+        doCallRealMethod().when(view).getSequenceEpoch();
+        doCallRealMethod().when(view).getLastAppliedSequences();
+        return view;
+    }
+
+    @DisplayName("Views and game controllers should be wired together in one JVM, with or without the codec")
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void playersShouldCreateAndJoinAGame(boolean useCodec) throws Throwable {
+        View aliceView = mockView();
+        View bobView = mockView();
+        LoopbackClientNode alice = new LoopbackClientNode(aliceView, useCodec);
+        LoopbackClientNode bob = new LoopbackClientNode(bobView, useCodec);
+        alice.startConnection();
+        bob.startConnection();
+
+        alice.uploadToServer(new NewGameMessage("alice", 2));
+        ArgumentCaptor<Integer> gameId = ArgumentCaptor.forClass(Integer.class);
+        verify(aliceView, timeout(5000)).updateNewGameConfirm(gameId.capture(), eq("alice"));
+
+        bob.uploadToServer(new AccessGameMessage(gameId.getValue(), "bob"));
+        verify(bobView, timeout(5000)).setUpPlayersData();
+        verify(aliceView, timeout(5000)).setUpPlayersData();
+
+        alice.close();
+        bob.close();
+    }
+
+    @DisplayName("The latency of the commands should be recorded for each stage of their processing")
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void latencyShouldBeRecordedPerStage(boolean useCodec) throws Throwable {
+        LatencyMetrics metrics = LatencyMetrics.getInstance();
+        metrics.reset();
+        View aliceView = mockView();
+        View bobView = mockView();
+        LoopbackClientNode alice = new LoopbackClientNode(aliceView, useCodec);
+        LoopbackClientNode bob = new LoopbackClientNode(bobView, useCodec);
+        alice.startConnection();
+        bob.startConnection();
+
+        alice.uploadToServer(new NewGameMessage("alice", 2));
+        ArgumentCaptor<Integer> gameId = ArgumentCaptor.forClass(Integer.class);
+        verify(aliceView, timeout(5000)).updateNewGameConfirm(gameId.capture(), eq("alice"));
+        bob.uploadToServer(new AccessGameMessage(gameId.getValue(), "bob"));
+        verify(bobView, timeout(5000)).setUpPlayersData();
+
+        // The view may be updated just before the delivery is recorded
+        long deadline = System.currentTimeMillis() + 5000;
+        while (metrics.getSnapshot(LatencyStage.END_TO_END, "AccessGameMessage") == null && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+
+        assertEquals(1, metrics.getSnapshot(LatencyStage.CONTROLLER, "NewGameMessage").getCount());
+        assertTrue(metrics.getSnapshot(LatencyStage.END_TO_END, "NewGameMessage").getCount() >= 1);
+        assertNotNull(metrics.getSnapshot(LatencyStage.END_TO_END, "AccessGameMessage"));
+        assertTrue(metrics.getSnapshot(LatencyStage.QUEUE_WAIT, "NewGameConfirmationMessage").getCount() >= 1);
+        assertTrue(metrics.getSnapshot(LatencyStage.WRITE, "NewGameConfirmationMessage").getCount() >= 1);
+        assertFalse(metrics.getSnapshots(LatencyStage.FAN_OUT).isEmpty());
+        assertEquals(useCodec, metrics.getSnapshot(LatencyStage.DECODE, "NewGameMessage") != null);
+        assertTrue(metrics.getReport().contains("NewGameMessage"));
+
+        alice.close();
+        bob.close();
+    }
+
+    @DisplayName("Lobby errors should be sent back to the client, and game messages should need a game")
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void errorsShouldReachTheClient(boolean useCodec) throws Throwable {
+        View view = mockView();
+        LoopbackClientNode client = new LoopbackClientNode(view, useCodec);
+        client.startConnection();
+
+        assertThrows(UploadFailureException.class, () -> client.uploadToServer(new RequestGameStatusMessage("alice")));
+
+        client.uploadToServer(new AccessGameMessage(12345, "alice"));
+        verify(view, timeout(5000)).handleFailureCase(any(), anyString());
+
+        client.close();
+        assertThrows(UploadFailureException.class, () -> client.uploadToServer(new NewGameMessage("alice", 2)));
+    }
+
+    @DisplayName("Closing a client should disconnect its player from the game")
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void closingTheClientShouldDisconnectThePlayer(boolean useCodec) throws Throwable {
+        View aliceView = mockView();
+        View bobView = mockView();
+        LoopbackClientNode alice = new LoopbackClientNode(aliceView, useCodec);
+        LoopbackClientNode bob = new LoopbackClientNode(bobView, useCodec);
+        alice.startConnection();
+        bob.startConnection();
+
+        alice.uploadToServer(new NewGameMessage("alice", 3));
+        ArgumentCaptor<Integer> gameId = ArgumentCaptor.forClass(Integer.class);
+        verify(aliceView, timeout(5000)).updateNewGameConfirm(gameId.capture(), eq("alice"));
+        bob.uploadToServer(new AccessGameMessage(gameId.getValue(), "bob"));
+        verify(aliceView, timeout(5000)).updatePlayerList(argThat(players -> players.contains("bob")));
+
+        bob.close();
+        verify(aliceView, timeout(5000)).handleEvent(eq(Event.PLAYER_DISCONNECTED), eq("bob"));
+
+        alice.close();
+    }
+
+    @DisplayName("A client reconnecting with its last applied sequence numbers should receive only the messages it missed")
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    public void reconnectingClientShouldReceiveOnlyMissedMessages(boolean useCodec) throws Throwable {
+        View aliceView = mockView();
+        View bobView = sequenceTrackingView();
+        View carolView = mockView();
+        LoopbackClientNode alice = new LoopbackClientNode(aliceView, useCodec);
+        LoopbackClientNode bob = new LoopbackClientNode(bobView, useCodec);
+        LoopbackClientNode carol = new LoopbackClientNode(carolView, useCodec);
+        alice.startConnection();
+        bob.startConnection();
+        carol.startConnection();
+
+        alice.uploadToServer(new NewGameMessage("alice", 3));
+        ArgumentCaptor<Integer> gameId = ArgumentCaptor.forClass(Integer.class);
+        verify(aliceView, timeout(5000)).updateNewGameConfirm(gameId.capture(), eq("alice"));
+        bob.uploadToServer(new AccessGameMessage(gameId.getValue(), "bob"));
+        carol.uploadToServer(new AccessGameMessage(gameId.getValue(), "carol"));
+        verify(bobView, timeout(5000)).setUpPlayersData();
+
+        alice.uploadToServer(new InboundChatMessage("alice", "ALL", true, "before"));
+        verify(bobView, timeout(5000)).updateChat(anyString(), eq("alice"), eq("before"));
+        verify(carolView, timeout(5000)).updateChat(anyString(), eq("alice"), eq("before"));
+
+        bob.close();
+        verify(aliceView, timeout(5000)).handleEvent(eq(Event.PLAYER_DISCONNECTED), eq("bob"));
+        alice.uploadToServer(new InboundChatMessage("alice", "ALL", true, "missed"));
+        verify(carolView, timeout(5000)).updateChat(anyString(), eq("alice"), eq("missed")); // Also recorded for bob by now
+
+        long[] lastApplied = bobView.getLastAppliedSequences();
+        assertNotEquals(0, bobView.getSequenceEpoch());
+        clearInvocations(bobView);
+
+        LoopbackClientNode reconnectedBob = new LoopbackClientNode(bobView, useCodec);
+        reconnectedBob.startConnection();
+        reconnectedBob.uploadToServer(new ReconnectGameMessage("bob", gameId.getValue(), bobView.getSequenceEpoch(), lastApplied));
+        verify(bobView, timeout(5000)).handleEvent(eq(Event.GAME_RECONNECTED), isNull());
+        verify(bobView, timeout(5000)).updateChat(anyString(), eq("alice"), eq("missed"));
+
+        // Only the messages sent after the last applied ones are replayed, instead of the full status of the game
+        ArgumentCaptor<MessagePriority> priorities = ArgumentCaptor.forClass(MessagePriority.class);
+        ArgumentCaptor<Long> sequences = ArgumentCaptor.forClass(Long.class);
+        verify(bobView, atLeastOnce()).acknowledgeSequence(anyLong(), priorities.capture(), sequences.capture(), eq(false));
+        List<MessagePriority> replayedPriorities = priorities.getAllValues();
+        for (int i = 0; i < replayedPriorities.size(); i++)
+            assertTrue(sequences.getAllValues().get(i) > lastApplied[replayedPriorities.get(i).ordinal()]);
+        verify(bobView, never()).acknowledgeSequence(anyLong(), any(), anyLong(), eq(true));
+        verify(bobView, never()).updateChat(anyString(), eq("alice"), eq("before"));
+
+        alice.close();
+        reconnectedBob.close();
+        carol.close();
+    }
+}
@@ -0,0 +1,128 @@
+package it.polimi.ingsw.am32.controller;
+
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.ClientToServer.NewGameMessage;
+import it.polimi.ingsw.am32.metrics.LatencyMetrics;
+import it.polimi.ingsw.am32.metrics.ManagementBeans;
+import it.polimi.ingsw.am32.metrics.TransportMXBean;
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
+import it.polimi.ingsw.am32.network.ClientNode.LoopbackClientNode;
+import it.polimi.ingsw.am32.network.ServerNode.ServerNodeInterface;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ManagementBeansTest {
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+    @BeforeEach
+    void setUp() {
+        GamesManager.getInstance().clearInstance();
+    }
+
+    @AfterEach
+    void clearSingleton() {
+        GamesManager.getInstance().clearInstance();
+    }
+
+    private GamesManagerMXBean gamesManagerBean() throws Exception {
+        return JMX.newMXBeanProxy(server, ManagementBeans.nameOf("GamesManager", null), GamesManagerMXBean.class);
+    }
+
+    private GameControllerMXBean gameBean(GameController game) throws Exception {
+        return JMX.newMXBeanProxy(server, ManagementBeans.nameOf("GameController", String.valueOf(game.getId())), GameControllerMXBean.class);
+    }
+
+    @DisplayName("The games should be monitored, dumped and ended through their MBeans")
+    @Test
+    public void gamesShouldBeMonitoredThroughTheirMBeans() throws Exception {
+        GamesManager gamesManager = GamesManager.getInstance();
+        GameController started = gamesManager.createGame("alice", 2, mock(ServerNodeInterface.class));
+        gamesManager.accessGame("bob", started.getId(), mock(ServerNodeInterface.class));
+        GameController lobby = gamesManager.createGame("carol", 3, mock(ServerNodeInterface.class));
+
+        GamesManagerMXBean gamesManagerBean = gamesManagerBean();
+        assertEquals(2, gamesManagerBean.getGameCount());
+        assertTrue(gamesManagerBean.getGameIds().containsAll(List.of(started.getId(), lobby.getId())));
+        assertEquals(1, gamesManagerBean.getGamesByStatus().get("LOBBY"));
+        assertEquals(1, gamesManagerBean.getGamesByStatus().get("WAITING_STARTER_CARD_CHOICE"));
+        assertEquals(3, gamesManagerBean.getConnectedPlayers());
+        assertEquals(0, gamesManagerBean.getDisconnectedPlayers());
+        assertTrue(gamesManagerBean.dumpGame(started.getId()).contains("Player bob: connected"));
+        assertEquals("No game found with code -1", gamesManagerBean.dumpGame(-1));
+
+        GameControllerMXBean gameBean = gameBean(started);
+        assertEquals("WAITING_STARTER_CARD_CHOICE", gameBean.getStatus());
+        assertEquals(List.of("alice", "bob"), gameBean.getPlayers());
+        assertEquals(2, gameBean.getConnectedPlayers());
+        assertEquals(2, gameBean.getOutboundQueueDepths().size());
+        assertTrue(gameBean.getIdleMillis() >= 0);
+
+        assertTrue(gamesManagerBean.forceEndGame(lobby.getId()));
+        assertEquals("GAME_ENDED", gameBean(lobby).getStatus());
+        assertFalse(gamesManagerBean.forceEndGame(lobby.getId()));
+        assertFalse(gamesManagerBean.forceEndGame(-1));
+        assertEquals(2, gamesManagerBean.getConnectedPlayers());
+    }
+
+    @DisplayName("A game ended by an operator while playing should declare its winners")
+    @Test
+    public void gameEndedWhilePlayingShouldDeclareWinners() throws Throwable {
+        GamesManager gamesManager = GamesManager.getInstance();
+        ServerNodeInterface aliceNode = mock(ServerNodeInterface.class);
+        GameController game = gamesManager.createGame("alice", 2, aliceNode);
+        gamesManager.accessGame("bob", game.getId(), mock(ServerNodeInterface.class));
+        for (String nickname : List.of("alice", "bob")) {
+            game.chooseStarterCardSide(nickname, true);
+        }
+        for (String nickname : List.of("alice", "bob")) {
+            game.chooseSecretObjectiveCard(nickname, game.getModel().getSecretObjectiveCardsPlayer(nickname).getFirst());
+        }
+        assertEquals("WAITING_CARD_PLACEMENT", gameBean(game).getStatus());
+        assertEquals(1, gameBean(game).getTurnNumber());
+
+        assertTrue(gameBean(game).forceEnd());
+        assertEquals(GameControllerStatus.GAME_ENDED, game.getStatus());
+        verify(aliceNode, timeout(5000)).uploadToClient(argThat(message -> LatencyMetrics.typeOf(message).equals("MatchWinnersMessage")));
+    }
+
+    @DisplayName("The connections and the bytes of the transports should be counted")
+    @Test
+    public void transportsShouldBeCounted() throws Throwable {
+        ManagementBeans.registerTransports();
+        TransportMXBean loopbackBean = JMX.newMXBeanProxy(server,
+                ManagementBeans.nameOf("Transport", TransportMetrics.Transport.LOOPBACK.name()), TransportMXBean.class);
+        long openNodes = loopbackBean.getOpenNodes();
+        long openedNodes = loopbackBean.getOpenedNodes();
+        long bytesIn = loopbackBean.getBytesIn();
+
+        View view = mock(View.class);
+        when(view.acknowledgeSequence(anyLong(), any(), anyLong(), anyBoolean())).thenReturn(true);
+        LoopbackClientNode client = new LoopbackClientNode(view, true);
+        client.startConnection();
+        client.uploadToServer(new NewGameMessage("alice", 2));
+        verify(view, timeout(5000)).updateNewGameConfirm(anyInt(), eq("alice"));
+
+        assertEquals(openNodes + 1, loopbackBean.getOpenNodes());
+        assertEquals(openedNodes + 1, loopbackBean.getOpenedNodes());
+        assertTrue(loopbackBean.getBytesIn() > bytesIn);
+        assertTrue(loopbackBean.getBytesOut() > 0);
+
+        client.close();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (loopbackBean.getOpenNodes() != openNodes && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(openNodes, loopbackBean.getOpenNodes());
+    }
+}
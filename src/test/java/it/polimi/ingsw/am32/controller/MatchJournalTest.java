@@ -0,0 +1,249 @@
+package it.polimi.ingsw.am32.controller;
+
+import it.polimi.ingsw.am32.chat.Chat;
+import it.polimi.ingsw.am32.model.ModelInterface;
+import it.polimi.ingsw.am32.model.match.Match;
+import it.polimi.ingsw.am32.model.match.MatchStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchJournalTest {
+
+    @TempDir
+    Path journalDirectory;
+
+    /**
+     * Plays a two players match until the first player of the playing phase has placed a card
+     */
+    private void playUntilFirstPlacement(ModelInterface model) throws Exception {
+        model.enterLobbyPhase();
+        model.addPlayer("alice");
+        model.addPlayer("bob");
+        model.enterPreparationPhase();
+        model.assignRandomColoursToPlayers();
+        model.assignRandomStartingInitialCardsToPlayers();
+        model.createFieldPlayer("alice", true);
+        model.createFieldPlayer("bob", false);
+        model.assignRandomStartingResourceCardsToPlayers();
+        model.assignRandomStartingGoldCardsToPlayers();
+        model.pickRandomCommonObjectives();
+        model.assignRandomStartingSecretObjectivesToPlayers();
+        model.receiveSecretObjectiveChoiceFromPlayer("alice", model.getSecretObjectiveCardsPlayer("alice").getFirst());
+        model.receiveSecretObjectiveChoiceFromPlayer("bob", model.getSecretObjectiveCardsPlayer("bob").getLast());
+        model.randomizePlayersOrder();
+        model.enterPlayingPhase();
+        model.startTurns();
+
+        String currentPlayer = model.getCurrentPlayerNickname();
+        int[] position = model.getAvailableSpacesPlayer(currentPlayer).getFirst();
+        model.placeCard(model.getPlayerHand(currentPlayer).getFirst(), position[0], position[1], false);
+    }
+
+    @DisplayName("Matches built with the same seed should evolve in the same way")
+    @Test
+    void matchesWithSameSeedShouldBeEqual() throws Exception {
+        Match first = new Match(42);
+        Match second = new Match(42);
+        playUntilFirstPlacement(first);
+        playUntilFirstPlacement(second);
+
+        assertEquals(first.getCurrentPlayerNickname(), second.getCurrentPlayerNickname());
+        assertEquals(first.getCommonObjectives(), second.getCommonObjectives());
+        assertEquals(first.getCurrentResourcesCards(), second.getCurrentResourcesCards());
+        assertEquals(first.getPlayerHand("alice"), second.getPlayerHand("alice"));
+        assertEquals(first.getPlayerColour("bob"), second.getPlayerColour("bob"));
+    }
+
+    @DisplayName("Replaying a journal on a match with the recorded seed should rebuild the same match")
+    @Test
+    void replayShouldRebuildTheSameMatch() throws Exception {
+        Match original = new Match(7);
+        MatchJournal journal = MatchJournal.create(journalDirectory, 12, 2, original.getSeed());
+        playUntilFirstPlacement(new JournalingModel(original, journal));
+        journal.record(MatchJournal.Command.CHAT_MESSAGE, "alice", null, true, "good luck");
+        journal.close();
+
+        MatchJournal reopened = MatchJournal.open(journal.getFile());
+        assertEquals(12, reopened.getGameId());
+        assertEquals(2, reopened.getGameSize());
+        assertEquals(7, reopened.getSeed());
+
+        Match rebuilt = new Match(reopened.getSeed());
+        Chat chat = new Chat();
+        reopened.replay(rebuilt, chat, 0);
+        reopened.close();
+
+        assertEquals(original.getMatchStatus(), rebuilt.getMatchStatus());
+        assertEquals(original.getCurrentPlayerNickname(), rebuilt.getCurrentPlayerNickname());
+        assertEquals(original.getCommonObjectives(), rebuilt.getCommonObjectives());
+        for (String nickname : List.of("alice", "bob")) {
+            assertEquals(original.getPlayerHand(nickname), rebuilt.getPlayerHand(nickname));
+            assertEquals(original.getPlayerSecretObjective(nickname), rebuilt.getPlayerSecretObjective(nickname));
+            assertEquals(original.getPlayerPoints(nickname), rebuilt.getPlayerPoints(nickname));
+            assertEquals(original.getPlayerField(nickname).size(), rebuilt.getPlayerField(nickname).size());
+        }
+        assertEquals(1, chat.getHistory().size());
+        assertNull(chat.getHistory().getFirst().getRecipientNickname());
+    }
+
+    @DisplayName("A record only partially written before a crash should be discarded")
+    @Test
+    void partiallyWrittenRecordShouldBeDiscarded() throws IOException {
+        MatchJournal journal = MatchJournal.create(journalDirectory, 3, 2, 1);
+        journal.record(MatchJournal.Command.ENTER_LOBBY_PHASE);
+        journal.record(MatchJournal.Command.ADD_PLAYER, "alice");
+        journal.close();
+        long committedLength = Files.size(journal.getFile());
+        Files.write(journal.getFile(), new byte[]{0, 0, 0, 40, 1}, StandardOpenOption.APPEND); // Torn record
+
+        MatchJournal reopened = MatchJournal.open(journal.getFile());
+        assertEquals(2, reopened.replay(new Match(1), new Chat(), 0));
+        reopened.close();
+        assertEquals(committedLength, Files.size(journal.getFile()));
+    }
+
+    @DisplayName("A corrupted record should be discarded like a torn one, together with the records after it")
+    @Test
+    void corruptedRecordShouldBeDiscarded() throws IOException {
+        byte[][] corruptions = {
+                {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xfe, 1, 2, 3}, // Negative length
+                {0x7f, (byte) 0xff, (byte) 0xff, (byte) 0xff, 1, 2, 3}, // Length larger than the file
+                {0, 0, 0, 0, 0, 0, 0, 2, 0, 0}, // Zeroed length
+                {0, 0, 0, 3, (byte) 250, 0, 0}, // Unknown command
+                {0, 0, 0, 4, 2, 1, 9, 0}, // Unknown argument tag
+                {0, 0, 0, 4, 1, 1, 'S', 0, 0, 0, 0, 2, 0, 0}, // Truncated string argument, followed by a valid record
+        };
+        for (int i = 0; i < corruptions.length; i++) {
+            MatchJournal journal = MatchJournal.create(journalDirectory, 20 + i, 2, 1);
+            journal.record(MatchJournal.Command.ENTER_LOBBY_PHASE);
+            journal.record(MatchJournal.Command.ADD_PLAYER, "alice");
+            journal.close();
+            long committedLength = Files.size(journal.getFile());
+            Files.write(journal.getFile(), corruptions[i], StandardOpenOption.APPEND);
+
+            MatchJournal reopened = MatchJournal.open(journal.getFile());
+            assertEquals(2, reopened.getRecordCount(), "Corruption " + i);
+            assertEquals(2, reopened.replay(new Match(1), new Chat(), 0), "Corruption " + i);
+            reopened.close();
+            assertEquals(committedLength, Files.size(journal.getFile()), "Corruption " + i);
+        }
+    }
+
+    @DisplayName("A recovered game should have all players disconnected and the last placement rolled back")
+    @Test
+    void recoveredGameShouldWaitForReconnections() throws Exception {
+        Match original = new Match(99);
+        MatchJournal journal = MatchJournal.create(journalDirectory, 5, 2, original.getSeed());
+        playUntilFirstPlacement(new JournalingModel(original, journal));
+        journal.close();
+
+        Optional<GameController> recovered = GameController.recover(MatchJournal.open(journal.getFile()), Optional.empty());
+        assertTrue(recovered.isPresent());
+        GameController game = recovered.get();
+        assertEquals(5, game.getId());
+        assertEquals(GameControllerStatus.WAITING_CARD_PLACEMENT, game.getStatus());
+        assertEquals(MatchStatus.PLAYING.getValue(), game.getModel().getMatchStatus());
+        assertEquals(2, game.getNodeList().size());
+        assertTrue(game.getNodeList().stream().noneMatch(PlayerQuadruple::isConnected));
+        String currentPlayer = game.getModel().getCurrentPlayerNickname();
+        assertEquals(3, game.getModel().getPlayerHand(currentPlayer).size());
+        game.getNodeList().forEach(playerQuadruple -> playerQuadruple.getVirtualView().setTerminating());
+        game.getTimer().cancel();
+    }
+
+    @DisplayName("A game that was still in the lobby should not be recovered, and its journal should be deleted")
+    @Test
+    void lobbyGameShouldNotBeRecovered() throws IOException {
+        MatchJournal journal = MatchJournal.create(journalDirectory, 8, 3, 5);
+        journal.record(MatchJournal.Command.ENTER_LOBBY_PHASE);
+        journal.record(MatchJournal.Command.ADD_PLAYER, "alice");
+        journal.close();
+
+        assertTrue(GameController.recover(MatchJournal.open(journal.getFile()), Optional.empty()).isEmpty());
+        assertFalse(Files.exists(journal.getFile()));
+        assertTrue(MatchJournal.listJournals(journalDirectory).isEmpty());
+    }
+
+    @DisplayName("A match restored from its snapshot should evolve as the original match")
+    @Test
+    void snapshotShouldRestoreTheSameMatch() throws Exception {
+        Match original = new Match(11);
+        playUntilFirstPlacement(original);
+        ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+        original.writeSnapshot(new DataOutputStream(snapshot));
+
+        Match restored = Match.readSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot.toByteArray())));
+        assertEquals(original.getSeed(), restored.getSeed());
+        assertEquals(original.getMatchStatus(), restored.getMatchStatus());
+        assertEquals(original.getCurrentPlayerNickname(), restored.getCurrentPlayerNickname());
+        assertEquals(original.getCurrentResourcesCards(), restored.getCurrentResourcesCards());
+        assertEquals(original.getCurrentGoldCards(), restored.getCurrentGoldCards());
+
+        // The placement can still be rolled back, and both matches draw the same cards afterwards
+        original.rollbackPlacement();
+        restored.rollbackPlacement();
+        String currentPlayer = original.getCurrentPlayerNickname();
+        assertEquals(original.getPlayerHand(currentPlayer), restored.getPlayerHand(currentPlayer));
+        assertEquals(original.getPlayerField(currentPlayer).size(), restored.getPlayerField(currentPlayer).size());
+        int[] position = original.getAvailableSpacesPlayer(currentPlayer).getFirst();
+        int card = original.getPlayerHand(currentPlayer).getFirst();
+        original.placeCard(card, position[0], position[1], true);
+        restored.placeCard(card, position[0], position[1], true);
+        original.drawCard(0, -1);
+        restored.drawCard(0, -1);
+        assertEquals(original.getPlayerHand(currentPlayer), restored.getPlayerHand(currentPlayer));
+        assertEquals(original.getPlayerPoints(currentPlayer), restored.getPlayerPoints(currentPlayer));
+    }
+
+    @DisplayName("A game should be recovered from its snapshot and the records appended after the journal was trimmed")
+    @Test
+    void recoveryShouldStartFromTheSnapshot() throws Exception {
+        Match original = new Match(23);
+        MatchJournal journal = MatchJournal.create(journalDirectory, 6, 2, original.getSeed());
+        JournalingModel model = new JournalingModel(original, journal);
+        playUntilFirstPlacement(model);
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(payload);
+        original.writeSnapshot(out);
+        out.writeInt(0); // No chat messages
+        SnapshotStore store = new SnapshotStore(journalDirectory.resolve("snapshots.segment"));
+        long coveredRecords = journal.getRecordCount();
+        store.write(6, original.getSeed(), coveredRecords, payload.toByteArray());
+        journal.compact(coveredRecords);
+
+        String currentPlayer = original.getCurrentPlayerNickname();
+        model.drawCard(0, -1);
+        model.nextTurn();
+        journal.close();
+
+        MatchJournal reopened = MatchJournal.open(journal.getFile());
+        assertEquals(coveredRecords, reopened.getBaseRecord());
+        assertEquals(coveredRecords + 2, reopened.getRecordCount());
+        assertThrows(IOException.class, () -> reopened.replay(new Match(23), new Chat(), 0));
+
+        Optional<GameController> recovered = GameController.recover(reopened, store.get(6));
+        assertTrue(recovered.isPresent());
+        GameController game = recovered.get();
+        assertEquals(original.getCurrentPlayerNickname(), game.getModel().getCurrentPlayerNickname());
+        assertEquals(original.getPlayerHand(currentPlayer), game.getModel().getPlayerHand(currentPlayer));
+        assertEquals(original.getCurrentResourcesCards(), game.getModel().getCurrentResourcesCards());
+        game.getNodeList().forEach(playerQuadruple -> playerQuadruple.getVirtualView().setTerminating());
+        game.getTimer().cancel();
+    }
+
+}
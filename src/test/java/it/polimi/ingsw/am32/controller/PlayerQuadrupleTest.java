@@ -15,6 +15,7 @@ class PlayerQuadrupleTest {
         public void uploadToClient(StoCMessage message) {}
         public void pingTimeOverdue() {}
         public void resetTimeCounter() {}
+        public void destroy() {}
 
         // Fake Constructor
         public NodeInterfaceStub() {}
@@ -0,0 +1,94 @@
+package it.polimi.ingsw.am32.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest {
+
+    @TempDir
+    Path snapshotDirectory;
+
+    private static byte[] payloadOf(int length, int value) {
+        byte[] payload = new byte[length];
+        Arrays.fill(payload, (byte) value);
+        return payload;
+    }
+
+    @DisplayName("The last snapshot of each game should be loaded when the segment is mapped again")
+    @Test
+    void lastSnapshotShouldSurviveReopening() throws IOException {
+        Path file = snapshotDirectory.resolve("snapshots.segment");
+        SnapshotStore store = new SnapshotStore(file);
+        store.write(1, 10, 5, payloadOf(16, 1));
+        store.write(2, 20, 7, payloadOf(32, 2));
+        store.write(1, 10, 9, payloadOf(8, 3));
+
+        SnapshotStore reopened = new SnapshotStore(file);
+        SnapshotStore.Snapshot first = reopened.get(1).orElseThrow();
+        assertEquals(10, first.getSeed());
+        assertEquals(9, first.getCoveredRecords());
+        try (DataInputStream in = first.open()) {
+            assertArrayEquals(payloadOf(8, 3), in.readAllBytes());
+        }
+        assertEquals(7, reopened.get(2).orElseThrow().getCoveredRecords());
+    }
+
+    @DisplayName("A removed snapshot should not be loaded again")
+    @Test
+    void removedSnapshotShouldNotBeLoaded() throws IOException {
+        Path file = snapshotDirectory.resolve("snapshots.segment");
+        SnapshotStore store = new SnapshotStore(file);
+        store.write(4, 1, 1, payloadOf(4, 4));
+        store.remove(4);
+        assertTrue(store.get(4).isEmpty());
+        assertTrue(new SnapshotStore(file).get(4).isEmpty());
+    }
+
+    @DisplayName("An entry with a wrong checksum should be ignored, together with the following ones")
+    @Test
+    void corruptedEntryShouldBeIgnored() throws IOException {
+        Path file = snapshotDirectory.resolve("snapshots.segment");
+        SnapshotStore store = new SnapshotStore(file);
+        store.write(1, 1, 1, payloadOf(4, 1));
+        store.write(2, 2, 2, payloadOf(4, 2));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 28 + 4 + 8 + 28); // Payload of the second entry
+        }
+
+        SnapshotStore reopened = new SnapshotStore(file);
+        assertTrue(reopened.get(1).isPresent());
+        assertTrue(reopened.get(2).isEmpty());
+    }
+
+    @DisplayName("A full segment should be compacted, keeping only the last snapshot of each game")
+    @Test
+    void fullSegmentShouldBeCompacted() throws IOException {
+        Path file = snapshotDirectory.resolve("snapshots.segment");
+        SnapshotStore store = new SnapshotStore(file);
+        long initialSize = Files.size(file);
+        for (int i = 0; i < 20; i++) {
+            store.write(i % 2, 3, i, payloadOf(512 * 1024, i));
+        }
+        assertEquals(initialSize, Files.size(file));
+        assertFalse(Files.exists(file.resolveSibling("snapshots.segment.tmp")));
+
+        SnapshotStore reopened = new SnapshotStore(file);
+        assertEquals(18, reopened.get(0).orElseThrow().getCoveredRecords());
+        try (DataInputStream in = reopened.get(1).orElseThrow().open()) {
+            assertArrayEquals(payloadOf(512 * 1024, 19), in.readAllBytes());
+        }
+    }
+}
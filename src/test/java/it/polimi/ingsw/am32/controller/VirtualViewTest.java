@@ -2,12 +2,15 @@ package it.polimi.ingsw.am32.controller;
 
 import it.polimi.ingsw.am32.client.View;
 import it.polimi.ingsw.am32.controller.exceptions.CriticalFailureException;
+import it.polimi.ingsw.am32.message.ServerToClient.MessagePriority;
 import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
 import it.polimi.ingsw.am32.network.ServerNode.ServerNodeInterface;
 import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -20,6 +23,7 @@ class VirtualViewTest {
         public void uploadToClient(StoCMessage message) throws UploadFailureException { messageCount++; }
         public void pingTimeOverdue() {}
         public void resetTimeCounter() {}
+        public void destroy() {}
         public int getMessageCount() { return messageCount; }
         public NodeInterfaceStub() {}
     }
@@ -32,6 +36,20 @@ class VirtualViewTest {
         }
     }
 
+    private static class CoalescableStoCMessageStub extends StoCMessageStub {
+        public String getCoalescingKey() { return "state"; }
+    }
+
+    private static class DiscardableStoCMessageStub extends StoCMessageStub {
+        public boolean isDiscardable() { return true; }
+    }
+
+    private static class PriorityStoCMessageStub extends StoCMessageStub {
+        private final MessagePriority priority;
+        public PriorityStoCMessageStub(MessagePriority priority) { this.priority = priority; }
+        public MessagePriority getPriority() { return priority; }
+    }
+
     @DisplayName("Should throw exception when VirtualView is created with a null connection node")
     @Test
     void shouldThrowExceptionWhenConnectionNodeIsNull() {
@@ -234,7 +252,7 @@ class VirtualViewTest {
     void shouldBeAbleToHandleMessagesBurst(){
         // Create a VirtualView with a ServerNodeInterface that throws UploadFailureException
         NodeInterfaceStub node = new NodeInterfaceStub();
-        VirtualView virtualView = new VirtualView(node);
+        VirtualView virtualView = new VirtualView(node, 1000, OverflowPolicy.DISCONNECT_SLOW_CONSUMER);
 
         // Create a ThreadPoolExecutor with a single thread: the VirtualView
         ExecutorService executorService = Executors.newSingleThreadExecutor();
@@ -270,4 +288,105 @@ class VirtualViewTest {
         assertTrue(future.isDone());
     }
 
-}
\ No newline at end of file
+    @DisplayName("Should replace queued messages with the same coalescing key when the queue is full")
+    @Test
+    void shouldCoalesceMessagesWhenQueueIsFull() {
+        VirtualView virtualView = new VirtualView(new NodeInterfaceStub(), 3, OverflowPolicy.COALESCE);
+        StoCMessage first = new StoCMessageStub();
+        StoCMessage oldState = new CoalescableStoCMessageStub();
+        StoCMessage other = new StoCMessageStub();
+        StoCMessage newState = new CoalescableStoCMessageStub();
+
+        virtualView.addMessage(first);
+        virtualView.addMessage(oldState);
+        virtualView.addMessage(other);
+        virtualView.addMessage(newState);
+
+        assertEquals(3, virtualView.getQueueDepth());
+        assertFalse(virtualView.getMessageQueue().contains(oldState));
+        assertEquals(newState, virtualView.getMessageQueue().getLast());
+        assertEquals(1, virtualView.getDroppedMessageCount());
+        assertEquals(3, virtualView.getPeakQueueDepth());
+    }
+
+    @DisplayName("Should drop chat messages first when the queue is full")
+    @Test
+    void shouldDropChatMessagesFirstWhenQueueIsFull() {
+        VirtualView virtualView = new VirtualView(new NodeInterfaceStub(), 2, OverflowPolicy.DROP_CHAT_FIRST);
+        StoCMessage first = new StoCMessageStub();
+        StoCMessage chat = new DiscardableStoCMessageStub();
+        StoCMessage game = new StoCMessageStub();
+        StoCMessage newChat = new DiscardableStoCMessageStub();
+
+        virtualView.addMessage(first);
+        virtualView.addMessage(chat);
+        virtualView.addMessage(game); // The queued chat message makes room for the game message
+        virtualView.addMessage(newChat); // The new chat message is dropped
+
+        assertEquals(2, virtualView.getQueueDepth());
+        assertTrue(virtualView.getMessageQueue().contains(first));
+        assertTrue(virtualView.getMessageQueue().contains(game));
+        assertEquals(2, virtualView.getDroppedMessageCount());
+    }
+
+    @DisplayName("Should disconnect the client when the queue is full and no room can be made")
+    @Test
+    void shouldDisconnectSlowConsumerWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch destroyed = new CountDownLatch(1);
+        ServerNodeInterface node = new NodeInterfaceStub() {
+            @Override
+            public void destroy() {
+                destroyed.countDown();
+            }
+        };
+        VirtualView virtualView = new VirtualView(node, 2, OverflowPolicy.DISCONNECT_SLOW_CONSUMER);
+        StoCMessage first = new StoCMessageStub();
+
+        virtualView.addMessage(first);
+        virtualView.addMessage(new StoCMessageStub());
+        virtualView.addMessage(new StoCMessageStub());
+
+        // No message is being delivered, so the whole queue is emptied
+        assertEquals(0, virtualView.getQueueDepth());
+        assertEquals(3, virtualView.getDroppedMessageCount());
+        assertTrue(destroyed.await(1, TimeUnit.SECONDS));
+    }
+
+    @DisplayName("Should deliver messages of different priority classes with weighted fairness, in order within each class")
+    @Test
+    void shouldDeliverMessagesWithWeightedFairness() {
+        List<StoCMessage> delivered = new ArrayList<>();
+        ServerNodeInterface node = new NodeInterfaceStub() {
+            @Override
+            public void uploadToClient(StoCMessage message) {
+                delivered.add(message);
+            }
+        };
+        VirtualView virtualView = new VirtualView(node, 100, OverflowPolicy.COALESCE);
+
+        // A burst of chat messages is queued before the game messages
+        List<StoCMessage> chat = new ArrayList<>();
+        List<StoCMessage> critical = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            chat.add(new PriorityStoCMessageStub(MessagePriority.CHAT));
+            virtualView.addMessage(chat.getLast());
+        }
+        for (int i = 0; i < 6; i++) {
+            critical.add(new PriorityStoCMessageStub(MessagePriority.GAME_CRITICAL));
+            virtualView.addMessage(critical.getLast());
+        }
+        StoCMessage stateUpdate = new PriorityStoCMessageStub(MessagePriority.STATE_UPDATE);
+        virtualView.addMessage(stateUpdate);
+
+        virtualView.processMessage();
+
+        List<StoCMessage> expected = new ArrayList<>();
+        expected.addAll(critical.subList(0, 4)); // Up to 4 game-critical messages per round
+        expected.add(stateUpdate); // Up to 2 state updates per round
+        expected.add(chat.getFirst()); // Up to 1 chat message per round
+        expected.addAll(critical.subList(4, 6));
+        expected.addAll(chat.subList(1, 6));
+        assertEquals(expected, delivered);
+        assertEquals(0, virtualView.getQueueDepth());
+    }
+}
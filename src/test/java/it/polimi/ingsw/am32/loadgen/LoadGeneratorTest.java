@@ -0,0 +1,48 @@
+package it.polimi.ingsw.am32.loadgen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadGeneratorTest {
+
+    @DisplayName("The percentiles should be computed with the nearest-rank method")
+    @Test
+    public void recorderShouldComputePercentiles() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 2000; i >= 1; i--)
+            recorder.record("PlaceCardMessage", i);
+
+        assertEquals(2000, recorder.getCount("PlaceCardMessage"));
+        assertEquals(1000, recorder.getPercentile("PlaceCardMessage", 50));
+        assertEquals(1980, recorder.getPercentile("PlaceCardMessage", 99));
+        assertEquals(1998, recorder.getPercentile("PlaceCardMessage", 99.9));
+        assertEquals(-1, recorder.getPercentile("DrawCardMessage", 50));
+    }
+
+    @DisplayName("Scripted clients should play whole matches with legal moves, and chat, measuring every request")
+    @Test
+    public void scriptedClientsShouldPlayWholeMatches() {
+        LoadGenerator loadGenerator = new LoadGenerator(new String[]{
+                "-t", "loopback", "-g", "3", "-ppg", "2", "-ci", "100", "-d", "60", "-si", "500"});
+        ByteArrayOutputStream report = new ByteArrayOutputStream();
+
+        assertEquals(3, loadGenerator.run(new PrintStream(report)));
+
+        LatencyRecorder recorder = loadGenerator.getRecorder();
+        assertEquals(3, recorder.getCount("NewGameMessage"));
+        assertEquals(3, recorder.getCount("AccessGameMessage"));
+        assertEquals(6, recorder.getCount("SelectedStarterCardSideMessage"));
+        assertEquals(6, recorder.getCount("SelectedSecretObjectiveCardMessage"));
+        assertTrue(recorder.getCount("PlaceCardMessage") > 0);
+        assertTrue(recorder.getCount("DrawCardMessage") > 0);
+        assertEquals(0, recorder.getFailureCount("NoLegalPlacement"));
+        assertEquals(0, recorder.getFailureCount("NoLegalDraw"));
+        assertTrue(report.toString().contains("PlaceCardMessage"));
+        assertTrue(report.toString().contains("server cpu"));
+    }
+}
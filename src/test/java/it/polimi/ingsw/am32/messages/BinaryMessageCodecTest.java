@@ -0,0 +1,162 @@
+package it.polimi.ingsw.am32.messages;
+
+import it.polimi.ingsw.am32.message.ClientToServer.*;
+import it.polimi.ingsw.am32.message.ServerToClient.*;
+import it.polimi.ingsw.am32.message.codec.BinaryMessageCodec;
+import it.polimi.ingsw.am32.message.codec.MessageType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static it.polimi.ingsw.am32.messages.SampleMessages.field;
+import static it.polimi.ingsw.am32.messages.SampleMessages.gameStatus;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryMessageCodecTest {
+
+    /**
+     * Returns one message for each message type supported by the codec
+     */
+    private static List<Object> sampleMessages() {
+        return List.of(
+                new PingMessage("alice"),
+                new PingMessage("alice", 123456789012L),
+                new NewGameMessage("alice", 4),
+                new AccessGameMessage(1234, "bob"),
+                new ReconnectGameMessage("bob", 1234, -8237461823746L, new long[]{12, 0, 7}),
+                new SelectedStarterCardSideMessage("alice", true),
+                new SelectedSecretObjectiveCardMessage("alice", 90),
+                new PlaceCardMessage("alice", 42, -3, 2, false),
+                new DrawCardMessage("alice", 1, -1),
+                new InboundChatMessage("alice", null, true, "hello everyone, ça va? 👋"),
+                new RequestGameStatusMessage("bob"),
+                new RequestPlayerFieldMessage("bob", "alice"),
+                new PlaceAndDrawCardMessage("alice", 42, -3, 2, false, 3, 61),
+                new CorrelatedRequestMessage("alice", 7, new SelectedStarterCardSideMessage("alice", true)),
+                new PongMessage("alice"),
+                new PongMessage("alice", 123456789012L),
+                new ErrorMessage("Invalid nickname", "PLAYER", 3),
+                new NewGameConfirmationMessage("alice", 1234),
+                new AccessGameConfirmMessage("bob"),
+                new ReconnectGameConfirmMessage("bob"),
+                new LobbyPlayerListMessage("alice", new ArrayList<>(List.of("alice", "bob"))),
+                new GameStartedMessage("alice"),
+                new MatchStatusMessage("alice", 2),
+                new AssignedStarterCardMessage("alice", 81),
+                new ConfirmStarterCardSideSelectionMessage("alice", 81, true, field(4), new int[]{1, 1, 0, 2, 0, 0, 0}, 2),
+                new InvalidStarterCardSideSelectionMessage("alice", "Not your turn"),
+                new AssignedSecretObjectiveCardMessage("alice", new ArrayList<>(List.of(87, 90)), new ArrayList<>(List.of(95, 101)), new ArrayList<>(List.of(11, 42, 67))),
+                new ConfirmSelectedSecretObjectiveCardMessage("alice", 87),
+                new InvalidSelectedSecretObjectiveCardMessage("alice", "Card not assigned"),
+                new PlayerTurnMessage("alice", "bob"),
+                new PlaceCardConfirmationMessage("alice", "bob", 42, new int[]{-3, 2}, false, 7, new int[]{1, 2, 3, 4, 0, 1, 0}, field(6)),
+                new PlaceCardFailedMessage("alice", "Position not available"),
+                new PlaceCardRollbackMessage("alice", "bob", 42, 5, new int[]{1, 2, 3, 4, 0, 1, 0}),
+                new DrawCardConfirmationMessage("alice", new ArrayList<>(List.of(11, 42, 67))),
+                new DrawCardFailedMessage("alice", "Deck empty"),
+                new DeckSizeUpdateMessage("alice", 30, 28, new int[]{5, 17}, new int[]{44, 61}, 2, 3),
+                new OutboundChatMessage("alice", "bob", "good luck"),
+                new InvalidInboundChatMessage("alice", "Recipient not found"),
+                new ResponsePlayerFieldMessage("alice", "bob", field(20), new int[]{1, 2, 3, 4, 0, 1, 0}),
+                new NegativeResponsePlayerFieldMessage("alice", "zoe"),
+                gameStatus(),
+                new PlayerConnectedMessage("alice", "bob"),
+                new PlayerDisconnectMessage("alice", "bob"),
+                new PlayerReconnectedMessage("alice", "bob"),
+                new MatchWinnersMessage("alice", new ArrayList<>(List.of("alice", "bob")), new ArrayList<>(List.of(22, 20)),
+                        new ArrayList<>(List.of(87, 88)), new ArrayList<>(List.of(4, 2)), new ArrayList<>(List.of("alice"))),
+                new SequencedMessage(8237461823746L, 57, false, new PlayerTurnMessage("alice", "bob")),
+                new SequencedMessage(1, 58, true, new MatchStatusMessage("alice", 3)),
+                new TurnCompletedMessage("alice", new ArrayList<>(List.of(
+                        new PlaceCardConfirmationMessage("alice", "bob", 42, new int[]{-3, 2}, false, 7, new int[]{1, 2, 3, 4, 0, 1, 0}, field(6)),
+                        new DeckSizeUpdateMessage("alice", 30, 28, new int[]{5, 17}, new int[]{44, 61}, 2, 3),
+                        new PlayerTurnMessage("alice", "carol")))),
+                new CorrelatedResponseMessage("alice", 7, new ConfirmSelectedSecretObjectiveCardMessage("alice", 87)),
+                new CorrelatedResponseMessage("alice", 8, null),
+                new LinkQualityMessage("alice", new ArrayList<>(List.of("alice", "bob")), new long[]{1250, -1}, new long[]{310, -1})
+        );
+    }
+
+    private static byte[] javaSerialize(Object message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(message);
+        }
+        return bytes.toByteArray();
+    }
+
+    @DisplayName("Every message type should be encoded and decoded without loss")
+    @Test
+    public void everyMessageShouldRoundTrip() throws IOException {
+        Set<MessageType> coveredTypes = EnumSet.noneOf(MessageType.class);
+
+        for (Object message : sampleMessages()) {
+            coveredTypes.add(MessageType.fromClass(message.getClass()));
+            byte[] encoded = BinaryMessageCodec.encode(message);
+            Object decoded = BinaryMessageCodec.decode(encoded);
+
+            assertEquals(message.getClass(), decoded.getClass());
+            assertEquals(message.toString(), decoded.toString());
+            assertArrayEquals(encoded, BinaryMessageCodec.encode(decoded));
+        }
+
+        coveredTypes.add(MessageType.BROADCAST_ENVELOPE); // Covered by broadcastEnvelopeShouldDecodeToTheResolvedMessage
+        assertEquals(EnumSet.allOf(MessageType.class), coveredTypes);
+    }
+
+    @DisplayName("A broadcast envelope should decode to the contained message, addressed to the recipient of the envelope")
+    @Test
+    public void broadcastEnvelopeShouldDecodeToTheResolvedMessage() throws IOException {
+        BroadcastEnvelopeMessage envelope = BroadcastEnvelopeMessage.encode(new OutboundChatMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, "player1", "Hello everyone!"));
+
+        Object decoded2 = BinaryMessageCodec.decode(BinaryMessageCodec.encode(envelope.addressedTo("player2")));
+        Object decoded3 = BinaryMessageCodec.decode(BinaryMessageCodec.encode(envelope.addressedTo("player3")));
+
+        assertInstanceOf(OutboundChatMessage.class, decoded2);
+        assertEquals("player2", ((StoCMessage) decoded2).getRecipientNickname());
+        assertEquals("player3", ((StoCMessage) decoded3).getRecipientNickname());
+        assertTrue(decoded2.toString().contains("Hello everyone!"));
+    }
+
+    @DisplayName("Messages written by an older version of the codec should still be decoded")
+    @Test
+    public void olderVersionsShouldBeDecoded() throws IOException {
+        // Version 1 pings and pongs do not carry the timestamp, written as a single zero byte by the current version
+        byte[] ping = BinaryMessageCodec.encode(new PingMessage("alice"));
+        byte[] olderPing = Arrays.copyOf(ping, ping.length - 1);
+        olderPing[0] = 1;
+
+        PingMessage decoded = assertInstanceOf(PingMessage.class, BinaryMessageCodec.decode(olderPing));
+        assertEquals(0, decoded.getEchoedTimestamp());
+        assertEquals(new PingMessage("alice").toString(), decoded.toString());
+    }
+
+    @DisplayName("Frames written by a newer codec, of unknown types, truncated or declaring oversized lengths should be rejected")
+    @Test
+    public void malformedFramesShouldBeRejected() {
+        byte[] encoded = BinaryMessageCodec.encode(new PlaceCardMessage("alice", 42, -3, 2, false));
+
+        byte[] newerVersion = encoded.clone();
+        newerVersion[0] = (byte) (BinaryMessageCodec.VERSION + 1);
+        assertThrows(StreamCorruptedException.class, () -> BinaryMessageCodec.decode(newerVersion));
+
+        assertThrows(StreamCorruptedException.class, () -> BinaryMessageCodec.decode(new byte[]{BinaryMessageCodec.VERSION, 127}));
+        assertThrows(EOFException.class, () -> BinaryMessageCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)));
+        assertThrows(StreamCorruptedException.class, () -> BinaryMessageCodec.decode(Arrays.copyOf(encoded, encoded.length + 1)));
+        // A string declaring a length of about 2^28 bytes in a frame of a few bytes
+        assertThrows(StreamCorruptedException.class, () -> BinaryMessageCodec.decode(new byte[]{BinaryMessageCodec.VERSION, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F}));
+        assertThrows(IllegalArgumentException.class, () -> BinaryMessageCodec.encode("not a message"));
+    }
+
+    @DisplayName("Every message should be smaller when encoded with the binary codec than with Java serialization")
+    @Test
+    public void binaryCodecShouldBeSmallerThanJavaSerialization() throws Exception {
+        for (Object message : sampleMessages()) {
+            int binarySize = BinaryMessageCodec.encode(message).length;
+            int javaSize = javaSerialize(message).length;
+            assertTrue(binarySize < javaSize, message.getClass().getSimpleName() + " is larger when binary encoded");
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package it.polimi.ingsw.am32.messages;
 
 import it.polimi.ingsw.am32.chat.ChatMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.BroadcastEnvelopeMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.OutboundChatMessage;
 import it.polimi.ingsw.am32.message.ServerToClient.PlayerGameStatusMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class MessagesTest {
     @DisplayName("Print a PlayerConnectedMessage")
@@ -58,4 +62,27 @@ public class MessagesTest {
         assertNotNull(playerGameStatusMessage);
         assertNotNull(playerGameStatusMessage.toString());
     }
+
+    @DisplayName("Broadcast envelopes sharing a payload should decode to messages addressed to their own recipient")
+    @Test
+    public void broadcastEnvelopeResolvesRecipient() throws IOException {
+        // Encode the template once
+        BroadcastEnvelopeMessage envelope = BroadcastEnvelopeMessage.encode(new OutboundChatMessage(BroadcastEnvelopeMessage.TEMPLATE_RECIPIENT, "player1", "Hello everyone!"));
+
+        // Address the same payload to two different recipients
+        BroadcastEnvelopeMessage envelope2 = envelope.addressedTo("player2");
+        BroadcastEnvelopeMessage envelope3 = envelope.addressedTo("player3");
+
+        StoCMessage message2 = envelope2.getMessage();
+        StoCMessage message3 = envelope3.getMessage();
+
+        assertInstanceOf(OutboundChatMessage.class, message2);
+        assertEquals("player2", message2.getRecipientNickname());
+        assertEquals("player3", message3.getRecipientNickname());
+        assertTrue(message2.toString().contains("Hello everyone!"));
+        assertTrue(message2.toString().contains("player1"));
+        assertSame(message2, envelope2.getMessage()); // The decoded message is cached
+        assertEquals(message2.toString(), envelope2.toString()); // Described from the template, with the actual recipient
+        assertEquals(message3.toString(), envelope3.toString());
+    }
 }
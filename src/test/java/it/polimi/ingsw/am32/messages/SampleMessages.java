@@ -0,0 +1,47 @@
+package it.polimi.ingsw.am32.messages;
+
+import it.polimi.ingsw.am32.message.ServerToClient.PlayerGameStatusMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Large messages shared by the tests of the codecs and of the framing
+ */
+public final class SampleMessages {
+
+    private SampleMessages() {}
+
+    /**
+     * Returns a field with the given number of placed cards, in the format of the messages
+     */
+    public static ArrayList<int[]> field(int cards) {
+        ArrayList<int[]> field = new ArrayList<>();
+        for (int i = 0; i < cards; i++) {
+            field.add(new int[]{i % 7 - 3, i / 7 - 2, 1 + i * 3 % 80, i % 2});
+        }
+        return field;
+    }
+
+    /**
+     * Returns the full status of a four players game, with 20 cards in each field and 20 chat messages
+     */
+    public static PlayerGameStatusMessage gameStatus() {
+        ArrayList<String> nicknames = new ArrayList<>(List.of("alice", "bob", "carol", "dave"));
+        ArrayList<int[]> resourcesSummary = new ArrayList<>();
+        ArrayList<ArrayList<int[]>> fields = new ArrayList<>();
+        for (int i = 0; i < nicknames.size(); i++) {
+            resourcesSummary.add(new int[]{i, 2, 3, 4, 1, 0, 2});
+            fields.add(field(20));
+        }
+        ArrayList<String[]> chatHistory = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            chatHistory.add(new String[]{nicknames.get(i % 4), i % 3 == 0 ? "bob" : null, String.valueOf(i % 3 != 0), "message number " + i});
+        }
+        return new PlayerGameStatusMessage("alice", nicknames, new ArrayList<>(List.of(true, true, false, true)),
+                new ArrayList<>(List.of(0, 1, 2, 3)), new ArrayList<>(List.of(11, 42, 67)), new ArrayList<>(List.of(87, 90)),
+                81, 90, new int[]{12, 9, 20, 3}, resourcesSummary, fields, new int[]{3, 1, 0, 4, 1, 2, 0},
+                new ArrayList<>(List.of(95, 101)), new ArrayList<>(List.of(5, 17)), new ArrayList<>(List.of(44, 61)),
+                23, 19, 3, chatHistory, "bob", field(8), 2, 1);
+    }
+}
@@ -0,0 +1,81 @@
+package it.polimi.ingsw.am32.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    @DisplayName("The percentiles should overestimate the exact ones by less than the width of a bucket")
+    @Test
+    public void percentilesShouldBeAccurate() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100000; i++)
+            histogram.record(i * 1000);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100000, snapshot.getCount());
+        assertEquals(100000000, snapshot.getMax());
+        assertEquals(50000500, snapshot.getMean(), 1);
+
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            long exact = (long) Math.ceil(percentile * 1000) * 1000;
+            long value = snapshot.getValueAtPercentile(percentile);
+            assertTrue(value >= exact, percentile + ": " + value + " < " + exact);
+            assertTrue(value <= exact + exact / 64, percentile + ": " + value + " > " + exact);
+        }
+        assertEquals(100000000, snapshot.getValueAtPercentile(100));
+    }
+
+    @DisplayName("Small values should be counted exactly, and values out of range should be clamped")
+    @Test
+    public void smallAndOutOfRangeValuesShouldBeCounted() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 128; i++)
+            histogram.record(i);
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(130, snapshot.getCount());
+        assertEquals(0, snapshot.getValueAtPercentile(1));
+        assertEquals(63, snapshot.getValueAtPercentile(50));
+        assertTrue(snapshot.getMax() > 1000L * 1000 * 1000 * 1000);
+    }
+
+    @DisplayName("An empty histogram should report zeros")
+    @Test
+    public void emptySnapshotShouldReportZeros() {
+        LatencyHistogram.Snapshot snapshot = new LatencyHistogram().snapshot();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getMean());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+    }
+
+    @DisplayName("Concurrent recordings should all be counted")
+    @Test
+    public void concurrentRecordingsShouldBeCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50000; i++)
+                    histogram.record(ThreadLocalRandom.current().nextLong(1, 10000000));
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(400000, snapshot.getCount());
+        assertTrue(snapshot.getMax() < 10000000);
+        assertTrue(snapshot.getValueAtPercentile(50) > 4500000 && snapshot.getValueAtPercentile(50) < 5500000);
+    }
+}
@@ -0,0 +1,98 @@
+package it.polimi.ingsw.am32.metrics;
+
+import it.polimi.ingsw.am32.controller.GamesManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsHttpServerTest {
+
+    private final AtomicBoolean socketAccepting = new AtomicBoolean(true);
+    private final AtomicBoolean rmiAccepting = new AtomicBoolean(false);
+    private ExecutorService executor;
+    private MetricsHttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Map<String, BooleanSupplier> readinessChecks = new LinkedHashMap<>();
+        readinessChecks.put("socket", socketAccepting::get);
+        readinessChecks.put("rmi", rmiAccepting::get);
+        executor = Executors.newCachedThreadPool();
+        server = new MetricsHttpServer(new InetSocketAddress("127.0.0.1", 0), GamesManager.getInstance().getMonitor(),
+                readinessChecks, executor);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    private HttpURLConnection request(String path, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) URI.create("http://127.0.0.1:" + server.getAddress().getPort() + path).toURL().openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    private static String body(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @DisplayName("The counters and the latency histograms should be exposed in the Prometheus text format")
+    @Test
+    public void metricsShouldBeExposed() throws IOException {
+        LatencyMetrics.getInstance().record(LatencyStage.CONTROLLER, "Metrics\"Test", 2_000_000);
+        TransportMetrics.getInstance().of(TransportMetrics.Transport.LOOPBACK).addBytesIn(10);
+
+        HttpURLConnection connection = request(MetricsHttpServer.METRICSPATH, "GET");
+        assertEquals(200, connection.getResponseCode());
+        assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+        String metrics = body(connection);
+
+        assertTrue(metrics.contains("# TYPE am32_transport_received_bytes_total counter\n"));
+        assertTrue(metrics.contains("am32_transport_open_nodes{transport=\"loopback\"} "));
+        assertTrue(metrics.contains("am32_players{state=\"connected\"} "));
+        assertTrue(metrics.contains("# TYPE am32_latency_seconds summary\n"));
+        assertTrue(metrics.contains("am32_latency_seconds_count{stage=\"controller\",type=\"Metrics\\\"Test\"} "));
+        assertTrue(metrics.contains("am32_latency_seconds{stage=\"controller\",type=\"Metrics\\\"Test\",quantile=\"0.99\"} 0.002"));
+        for (String line : metrics.split("\n"))
+            assertTrue(line.startsWith("# ") || line.matches("[a-z_0-9]+\\{.*} [0-9.E-]+"), line);
+    }
+
+    @DisplayName("The server should be ready only when all the readiness checks pass")
+    @Test
+    public void readinessShouldFollowTheChecks() throws IOException {
+        assertEquals(200, request(MetricsHttpServer.LIVENESSPATH, "GET").getResponseCode());
+
+        HttpURLConnection connection = request(MetricsHttpServer.READINESSPATH, "GET");
+        assertEquals(503, connection.getResponseCode());
+        assertEquals("socket: UP\nrmi: DOWN\n", body(connection));
+        assertFalse(server.isReady());
+
+        rmiAccepting.set(true);
+        connection = request(MetricsHttpServer.READINESSPATH, "GET");
+        assertEquals(200, connection.getResponseCode());
+        assertEquals("socket: UP\nrmi: UP\n", body(connection));
+
+        assertEquals(405, request(MetricsHttpServer.READINESSPATH, "POST").getResponseCode());
+    }
+}
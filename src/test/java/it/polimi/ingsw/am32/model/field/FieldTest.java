@@ -532,6 +532,7 @@ class FieldTest {
         assertEquals(expectedResources, field.getAllRes());
         assertEquals(1, field.getFieldCards().size());
         assertEquals(startingCard, field.getCardFromPosition(0,0));
+        assertEquals(0, field.getVersion());
 
         // Generate a new card
         NonObjectiveCard newCard = generateRandomNonObjectiveCard();
@@ -541,6 +542,7 @@ class FieldTest {
             // Check that the field has been updated
             assertEquals(2, field.getFieldCards().size());
             assertEquals(newCard, field.getCardFromPosition(1,1));
+            assertEquals(1, field.getVersion());
             // Rollback the last move. It should work as we can remove the last card placed.
             NonObjectiveCard removedCard = field.rollback();
             // Check the removed card
@@ -548,6 +550,7 @@ class FieldTest {
             // Check that the field has been updated
             assertEquals(1, field.getFieldCards().size());
             assertNull(field.getCardFromPosition(1,1));
+            assertEquals(2, field.getVersion());
             // Check that the resources are the same as before
             assertEquals(expectedResources, field.getAllRes());
         } catch (InvalidPositionException | MissingRequirementsException | RollbackException e) {
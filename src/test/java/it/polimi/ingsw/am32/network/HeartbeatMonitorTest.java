@@ -0,0 +1,69 @@
+package it.polimi.ingsw.am32.network;
+
+import it.polimi.ingsw.am32.network.heartbeat.HeartbeatMonitor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HeartbeatMonitorTest {
+
+    @DisplayName("A new link should be alive and busy, with an unknown round trip time")
+    @Test
+    public void newLinkShouldBeAliveWithUnknownRoundTrip() {
+        HeartbeatMonitor heartbeat = new HeartbeatMonitor(5000);
+
+        assertFalse(heartbeat.isExpired(3));
+        assertFalse(heartbeat.isIdle());
+        assertFalse(heartbeat.isSampleStale());
+        assertEquals(-1, heartbeat.getRoundTripMicros());
+        assertEquals(-1, heartbeat.getJitterMicros());
+        assertEquals(5_000_000_000L, heartbeat.getInterval());
+    }
+
+    @DisplayName("The round trip time should be smoothed, and its variation reported as jitter")
+    @Test
+    public void roundTripShouldBeSmoothed() {
+        HeartbeatMonitor heartbeat = new HeartbeatMonitor(5000);
+
+        heartbeat.recordRoundTrip(8_000_000); // 8 ms
+        assertEquals(8000, heartbeat.getRoundTripMicros());
+        assertEquals(4000, heartbeat.getJitterMicros());
+
+        heartbeat.recordRoundTrip(16_000_000); // 16 ms
+        assertEquals(9000, heartbeat.getRoundTripMicros()); // 7/8 * 8 + 1/8 * 16
+        assertEquals(5000, heartbeat.getJitterMicros()); // 3/4 * 4 + 1/4 * |8 - 16|
+
+        heartbeat.recordRoundTrip(-1); // Ignored
+        assertEquals(9000, heartbeat.getRoundTripMicros());
+    }
+
+    @DisplayName("The interval should be stretched on slow links, and never shortened on fast ones")
+    @Test
+    public void intervalShouldAdaptToRoundTrip() {
+        HeartbeatMonitor fast = new HeartbeatMonitor(100);
+        fast.recordRoundTrip(1_000_000); // 1 ms
+        assertEquals(100_000_000L, fast.getInterval());
+
+        HeartbeatMonitor slow = new HeartbeatMonitor(100);
+        slow.recordRoundTrip(20_000_000); // 20 ms: 4 * (20 + 4 * 10) ms
+        assertEquals(240_000_000L, slow.getInterval());
+    }
+
+    @DisplayName("Explicit pings should be needed only on idle links, and the link should expire without heartbeats")
+    @Test
+    public void idleAndExpiredLinksShouldBeDetected() throws InterruptedException {
+        HeartbeatMonitor heartbeat = new HeartbeatMonitor(20);
+
+        Thread.sleep(15);
+        assertTrue(heartbeat.isIdle());
+        heartbeat.frameSent();
+        assertFalse(heartbeat.isIdle());
+
+        Thread.sleep(90);
+        assertTrue(heartbeat.isExpired(2));
+        assertTrue(heartbeat.isSampleStale());
+        heartbeat.frameReceived();
+        assertFalse(heartbeat.isExpired(2));
+    }
+}
@@ -0,0 +1,73 @@
+package it.polimi.ingsw.am32.network;
+
+import it.polimi.ingsw.am32.message.ClientToServer.InboundChatMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.PingMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.PlaceCardMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.RequestGameStatusMessage;
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
+import it.polimi.ingsw.am32.network.ratelimit.InboundRateLimiter;
+import it.polimi.ingsw.am32.network.ratelimit.RateLimitPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InboundRateLimiterTest {
+
+    private final TransportMetrics.Counters counters = TransportMetrics.getInstance().of(TransportMetrics.Transport.LOOPBACK);
+
+    @DisplayName("Once the burst is spent, the messages exceeding the rate of their type should be dropped and counted")
+    @Test
+    public void messagesExceedingTheRateShouldBeDropped() {
+        InboundRateLimiter limiter = new InboundRateLimiter(Map.of("RequestGameStatusMessage", 1,
+                InboundRateLimiter.DEFAULT_TYPE, 2), 3, RateLimitPolicy.DROP, "test", counters);
+        long limitedMessages = counters.getLimitedMessages();
+        long limitedNodes = counters.getLimitedNodes();
+
+        for (int i = 0; i < 3; i++)
+            assertTrue(limiter.acquire(new RequestGameStatusMessage("alice")));
+        assertFalse(limiter.acquire(new RequestGameStatusMessage("alice")));
+        assertFalse(limiter.acquire(new RequestGameStatusMessage("alice")));
+
+        for (int i = 0; i < 6; i++) // The other types have their own buckets, at the default rate
+            assertTrue(limiter.acquire(new PlaceCardMessage("alice", 1, 1, 1, true)));
+        assertFalse(limiter.acquire(new PlaceCardMessage("alice", 1, 1, 1, true)));
+
+        for (int i = 0; i < 100; i++)
+            assertTrue(limiter.acquire(new PingMessage("alice", 0)));
+
+        assertEquals(Map.of("RequestGameStatusMessage", 2L, "PlaceCardMessage", 1L), limiter.getLimitedMessages());
+        assertEquals(limitedMessages + 3, counters.getLimitedMessages());
+        assertEquals(limitedNodes + 1, counters.getLimitedNodes());
+    }
+
+    @DisplayName("The types with a rate of 0 should never be limited")
+    @Test
+    public void typesWithoutRateShouldNotBeLimited() {
+        InboundRateLimiter limiter = new InboundRateLimiter(Map.of("RequestGameStatusMessage", 1),
+                1, RateLimitPolicy.DISCONNECT, "test", null);
+
+        for (int i = 0; i < 1000; i++)
+            assertTrue(limiter.acquire(new InboundChatMessage("alice", "ALL", true, "spam")));
+        assertTrue(limiter.acquire(new RequestGameStatusMessage("alice")));
+        assertFalse(limiter.acquire(new RequestGameStatusMessage("alice")));
+        assertEquals(RateLimitPolicy.DISCONNECT, limiter.getPolicy());
+    }
+
+    @DisplayName("With the throttle policy, the messages exceeding the rate should be delayed until the rate allows them")
+    @Test
+    public void messagesExceedingTheRateShouldBeThrottled() {
+        InboundRateLimiter limiter = new InboundRateLimiter(Map.of(InboundRateLimiter.DEFAULT_TYPE, 50),
+                1, RateLimitPolicy.THROTTLE, "test", null);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 60; i++)
+            assertTrue(limiter.acquire(new RequestGameStatusMessage("alice")));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis >= 150, "10 messages over the burst should take about 200 ms, took " + elapsedMillis);
+        assertTrue(limiter.getLimitedMessages().get("RequestGameStatusMessage") >= 9);
+    }
+}
@@ -0,0 +1,119 @@
+package it.polimi.ingsw.am32.network;
+
+import it.polimi.ingsw.am32.message.ClientToServer.NewGameMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.PlaceCardMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.PlaceCardConfirmationMessage;
+import it.polimi.ingsw.am32.metrics.TransportMetrics;
+import it.polimi.ingsw.am32.network.framing.FrameCodec;
+import it.polimi.ingsw.am32.network.framing.FrameReader;
+import it.polimi.ingsw.am32.network.framing.FrameWriter;
+import it.polimi.ingsw.am32.network.framing.MessageInputFilter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MessageInputFilterTest {
+
+    private final TransportMetrics.Counters counters = TransportMetrics.getInstance().of(TransportMetrics.Transport.LOOPBACK);
+
+    private MessageInputFilter filter(long maxDepth, long maxArrayLength, long maxReferences, long maxBytes) {
+        return new MessageInputFilter(maxDepth, maxArrayLength, maxReferences, maxBytes, false, counters);
+    }
+
+    private static byte[] serialize(Object... objects) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            for (Object object : objects) {
+                output.writeObject(object);
+                output.reset();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes, MessageInputFilter filter) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            input.setObjectInputFilter(filter);
+            return input.readObject();
+        }
+    }
+
+    private static PlaceCardConfirmationMessage placement(int cards) {
+        ArrayList<int[]> field = new ArrayList<>();
+        for (int i = 0; i < cards; i++)
+            field.add(new int[]{i, -i, i % 80, i % 2});
+        return new PlaceCardConfirmationMessage("alice", "bob", 42, new int[]{-3, 2}, false, 7, new int[]{1, 2, 3, 4, 0, 1, 0}, field);
+    }
+
+    @DisplayName("The messages should be accepted, and the other classes rejected and counted")
+    @Test
+    public void onlyMessageClassesShouldBeAccepted() throws Exception {
+        MessageInputFilter filter = MessageInputFilter.withDefaultLimits();
+        assertInstanceOf(NewGameMessage.class, deserialize(serialize(new NewGameMessage("alice", 3)), filter));
+        assertInstanceOf(PlaceCardConfirmationMessage.class, deserialize(serialize(placement(40)), filter));
+        assertEquals(List.of(1, 2), deserialize(serialize(new ArrayList<>(List.of(1, 2))), filter));
+
+        long rejected = counters.getRejectedMessages();
+        assertThrows(InvalidClassException.class, () -> deserialize(serialize(new HashMap<>()), filter(20, 100, 100, 10000)));
+        assertThrows(InvalidClassException.class, () -> deserialize(serialize(new java.util.Date()), filter(20, 100, 100, 10000)));
+        assertEquals(rejected + 2, counters.getRejectedMessages());
+    }
+
+    @DisplayName("The messages exceeding a limit should be rejected")
+    @Test
+    public void messagesExceedingLimitsShouldBeRejected() throws Exception {
+        byte[] message = serialize(placement(100));
+        assertNotNull(deserialize(message, filter(20, 1000, 1000, 100000)));
+
+        assertThrows(InvalidClassException.class, () -> deserialize(message, filter(2, 1000, 1000, 100000)));
+        assertThrows(InvalidClassException.class, () -> deserialize(message, filter(20, 50, 1000, 100000)));
+        assertThrows(InvalidClassException.class, () -> deserialize(message, filter(20, 1000, 50, 100000)));
+        assertThrows(InvalidClassException.class, () -> deserialize(message, filter(20, 1000, 1000, 500)));
+
+        ArrayList<Object> nested = new ArrayList<>();
+        ArrayList<Object> innermost = nested;
+        for (int i = 0; i < 100; i++) {
+            ArrayList<Object> next = new ArrayList<>();
+            innermost.add(next);
+            innermost = next;
+        }
+        assertThrows(InvalidClassException.class, () -> deserialize(serialize(nested), MessageInputFilter.withDefaultLimits()));
+    }
+
+    @DisplayName("In a stream carrying many messages, the limits should apply to each message")
+    @Test
+    public void limitsShouldApplyToEachMessageOfAStream() throws Exception {
+        Object[] messages = new Object[50];
+        for (int i = 0; i < messages.length; i++)
+            messages[i] = new PlaceCardMessage("alice", i, i, -i, true);
+        MessageInputFilter filter = filter(20, 100, 10, 400);
+
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(serialize(messages)))) {
+            input.setObjectInputFilter(filter);
+            for (int i = 0; i < messages.length; i++) {
+                filter.beginMessage();
+                assertEquals(messages[i].toString(), input.readObject().toString());
+            }
+        }
+    }
+
+    @DisplayName("The frames of the Java codec should be decoded through the filter")
+    @Test
+    public void framesShouldBeFiltered() throws Exception {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        FrameWriter writer = new FrameWriter(FrameCodec.JAVA);
+        writer.write(new NewGameMessage("alice", 3), wire);
+        writer.write(new HashMap<>(), wire);
+
+        FrameReader reader = new FrameReader(null, filter(20, 100, 100, 10000));
+        InputStream input = new ByteArrayInputStream(wire.toByteArray());
+        assertInstanceOf(NewGameMessage.class, reader.read(input));
+        assertThrows(InvalidClassException.class, () -> reader.read(input));
+    }
+}
@@ -0,0 +1,120 @@
+package it.polimi.ingsw.am32.network;
+
+import it.polimi.ingsw.am32.message.ServerToClient.PlayerTurnMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.network.ClientNode.RMIClientNodeInt;
+import it.polimi.ingsw.am32.network.ServerNode.RMIServerNode;
+import it.polimi.ingsw.am32.network.exceptions.NodeClosedException;
+import it.polimi.ingsw.am32.network.exceptions.UploadFailureException;
+import it.polimi.ingsw.am32.utilities.Configuration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RMIServerNodeTest {
+
+    /**
+     * A client that records the batches received, taking some time to process each of them.
+     */
+    private static class SlowClientNode implements RMIClientNodeInt {
+        private final TreeMap<Long, ArrayList<StoCMessage>> batches = new TreeMap<>();
+        private int inFlightCalls;
+        private int peakInFlightCalls;
+        private int receivedMessages;
+
+        @Override
+        public void uploadStoC(StoCMessage message) {}
+
+        @Override
+        public void uploadStoCBatch(long batchSequence, ArrayList<StoCMessage> messages) throws NodeClosedException {
+            synchronized (this) {
+                inFlightCalls++;
+                peakInFlightCalls = Math.max(peakInFlightCalls, inFlightCalls);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new NodeClosedException();
+            }
+            synchronized (this) {
+                inFlightCalls--;
+                batches.put(batchSequence, messages);
+                receivedMessages += messages.size();
+                notifyAll();
+            }
+        }
+
+        synchronized void awaitMessages(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 10000;
+            while (receivedMessages < count && System.currentTimeMillis() < deadline) {
+                wait(100);
+            }
+        }
+    }
+
+    @DisplayName("Messages should be sent in order, in batches, with a bounded number of concurrent invocations")
+    @Test
+    public void messagesShouldBeSentInOrderedBatches() throws Throwable {
+        SlowClientNode client = new SlowClientNode();
+        RMIServerNode node = new RMIServerNode(client);
+        int messageCount = 500;
+
+        for (int i = 0; i < messageCount; i++) {
+            node.uploadToClient(new PlayerTurnMessage("alice", "player" + i));
+        }
+        client.awaitMessages(messageCount);
+
+        List<String> received = new ArrayList<>();
+        synchronized (client) {
+            assertEquals(messageCount, client.receivedMessages);
+            assertEquals(client.batches.size() - 1, client.batches.lastKey()); // No batch is missing
+            client.batches.values().forEach(batch -> batch.forEach(message -> received.add(message.toString())));
+            assertTrue(client.peakInFlightCalls <= Configuration.getInstance().getRmiMaxInFlightCalls());
+            // One invocation per message would have taken at least 20 ms each
+            assertTrue(client.batches.size() < messageCount / 4);
+        }
+        for (int i = 0; i < messageCount; i++) {
+            assertEquals(new PlayerTurnMessage("alice", "player" + i).toString(), received.get(i));
+        }
+
+        node.destroy();
+        assertThrows(UploadFailureException.class, () -> node.uploadToClient(new PlayerTurnMessage("alice", "bob")));
+    }
+
+    @DisplayName("A client that cannot be reached should lead to the destruction of the node")
+    @Test
+    public void unreachableClientShouldDestroyTheNode() throws Throwable {
+        RMIClientNodeInt client = new RMIClientNodeInt() {
+            @Override
+            public void uploadStoC(StoCMessage message) throws RemoteException {
+                throw new RemoteException("unreachable");
+            }
+
+            @Override
+            public void uploadStoCBatch(long batchSequence, ArrayList<StoCMessage> messages) throws RemoteException {
+                throw new RemoteException("unreachable");
+            }
+        };
+        RMIServerNode node = new RMIServerNode(client);
+
+        node.uploadToClient(new PlayerTurnMessage("alice", "bob")); // Queued: the failure is detected asynchronously
+
+        long deadline = System.currentTimeMillis() + 5000;
+        boolean failed = false;
+        while (!failed && System.currentTimeMillis() < deadline) {
+            try {
+                node.uploadToClient(new PlayerTurnMessage("alice", "bob"));
+                Thread.sleep(10);
+            } catch (UploadFailureException e) {
+                failed = true;
+            }
+        }
+        assertTrue(failed);
+    }
+}
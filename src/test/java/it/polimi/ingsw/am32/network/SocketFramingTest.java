@@ -0,0 +1,241 @@
+package it.polimi.ingsw.am32.network;
+
+import it.polimi.ingsw.am32.message.ClientToServer.NewGameMessage;
+import it.polimi.ingsw.am32.message.ClientToServer.PlaceCardMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.PlaceCardConfirmationMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.PlayerTurnMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.ResponsePlayerFieldMessage;
+import it.polimi.ingsw.am32.network.framing.FrameCodec;
+import it.polimi.ingsw.am32.network.framing.FrameCompressor;
+import it.polimi.ingsw.am32.network.framing.FrameHandshake;
+import it.polimi.ingsw.am32.network.framing.FrameReader;
+import it.polimi.ingsw.am32.network.framing.FrameWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.lang.ref.WeakReference;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static it.polimi.ingsw.am32.messages.SampleMessages.field;
+import static it.polimi.ingsw.am32.messages.SampleMessages.gameStatus;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SocketFramingTest {
+
+    private static List<Object> sampleMessages() {
+        ArrayList<int[]> field = new ArrayList<>(List.of(new int[]{0, 0, 81, 1}, new int[]{1, 1, 12, 0}));
+        return List.of(
+                new NewGameMessage("alice", 3),
+                new PlaceCardMessage("alice", 42, -3, 2, false),
+                new PlayerTurnMessage("alice", "bob"),
+                new PlaceCardConfirmationMessage("alice", "bob", 42, new int[]{-3, 2}, false, 7, new int[]{1, 2, 3, 4, 0, 1, 0}, field),
+                new ArrayList<>(List.of("not", "a", "message")) // Not supported by the binary codec
+        );
+    }
+
+    private static byte[] writeFrames(FrameCodec codec, List<Object> messages) throws IOException {
+        return writeFrames(new FrameWriter(codec), messages);
+    }
+
+    private static byte[] writeFrames(FrameWriter writer, List<Object> messages) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (Object message : messages) {
+            writer.write(message, bytes);
+        }
+        return bytes.toByteArray();
+    }
+
+    @DisplayName("Frames should be decoded independently, each with the codec written in its header")
+    @Test
+    public void framesShouldRoundTrip() throws Exception {
+        for (FrameCodec codec : FrameCodec.values()) {
+            byte[] frames = writeFrames(codec, sampleMessages());
+            InputStream in = new ByteArrayInputStream(frames);
+            FrameReader reader = new FrameReader();
+
+            for (Object message : sampleMessages()) {
+                assertEquals(message.toString(), reader.read(in).toString());
+            }
+            assertThrows(EOFException.class, () -> reader.read(in));
+        }
+
+        // The message not supported by the binary codec is serialized even by a binary writer
+        byte[] frame = writeFrames(FrameCodec.BINARY, List.of(sampleMessages().getLast()));
+        assertEquals(FrameCodec.JAVA.getId(), frame[FrameWriter.HEADER_LENGTH - 1]);
+        frame = writeFrames(FrameCodec.BINARY, List.of(sampleMessages().getFirst()));
+        assertEquals(FrameCodec.BINARY.getId(), frame[FrameWriter.HEADER_LENGTH - 1]);
+    }
+
+    @DisplayName("A frame interrupted by a read timeout should be completed by the next read")
+    @Test
+    public void readShouldResumeAfterTimeout() throws Exception {
+        byte[] frames = writeFrames(FrameCodec.BINARY, sampleMessages());
+        InputStream in = new InputStream() { // Delivers 3 bytes at a time, timing out before each delivery
+            private int position = 0;
+            private boolean timeout = true;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (position == frames.length)
+                    return -1;
+                timeout = !timeout;
+                if (!timeout)
+                    throw new SocketTimeoutException();
+                int length = Math.min(Math.min(len, 3), frames.length - position);
+                System.arraycopy(frames, position, b, off, length);
+                position += length;
+                return length;
+            }
+        };
+
+        FrameReader reader = new FrameReader();
+        List<String> received = new ArrayList<>();
+        while (received.size() < sampleMessages().size()) {
+            try {
+                received.add(reader.read(in).toString());
+            } catch (SocketTimeoutException ignored) {}
+        }
+        assertEquals(sampleMessages().stream().map(Object::toString).toList(), received);
+    }
+
+    @DisplayName("Large frames should be compressed, and decoded by a reader sharing the compression")
+    @Test
+    public void largeFramesShouldBeCompressed() throws Exception {
+        List<Object> messages = new ArrayList<>(sampleMessages());
+        messages.add(gameStatus());
+        messages.add(new ResponsePlayerFieldMessage("alice", "bob", field(60), new int[]{1, 2, 3, 4, 0, 1, 0}));
+
+        for (FrameCodec codec : FrameCodec.values()) {
+            FrameCompressor compressor = new FrameCompressor(FrameCompressor.DEFAULT_THRESHOLD);
+            byte[] compressed = writeFrames(new FrameWriter(codec, compressor), messages);
+            byte[] uncompressed = writeFrames(codec, messages);
+            assertTrue(compressed.length < uncompressed.length);
+            assertTrue(compressor.getStatistics().getCompressedFrames() > 0);
+
+            InputStream in = new ByteArrayInputStream(compressed);
+            FrameReader reader = new FrameReader(compressor);
+            for (Object message : messages) {
+                assertEquals(message.toString(), reader.read(in).toString());
+            }
+            assertTrue(compressor.getStatistics().getDecompressedFrames() > 0);
+
+            // A reader without compression rejects compressed frames
+            byte[] firstCompressedFrame = writeFrames(new FrameWriter(codec, compressor), List.of(gameStatus()));
+            assertNotEquals(0, firstCompressedFrame[FrameWriter.HEADER_LENGTH - 1] & FrameWriter.COMPRESSED_FLAG);
+            assertThrows(StreamCorruptedException.class, () -> new FrameReader().read(new ByteArrayInputStream(firstCompressedFrame)));
+
+            // A compressed payload that doesn't match its declared length is rejected
+            firstCompressedFrame[FrameWriter.HEADER_LENGTH + 3]++;
+            assertThrows(StreamCorruptedException.class, () -> new FrameReader(compressor).read(new ByteArrayInputStream(firstCompressedFrame)));
+            compressor.end();
+        }
+
+        // Small messages are never compressed
+        byte[] small = writeFrames(new FrameWriter(FrameCodec.BINARY, new FrameCompressor(FrameCompressor.DEFAULT_THRESHOLD)), List.of(sampleMessages().getFirst()));
+        assertEquals(0, small[FrameWriter.HEADER_LENGTH - 1] & FrameWriter.COMPRESSED_FLAG);
+    }
+
+    @DisplayName("The largest state messages should be smaller once compressed, with both codecs")
+    @Test
+    public void largestStateMessagesShouldBeCompressed() throws Exception {
+        List<Object> messages = List.of(gameStatus(), new ResponsePlayerFieldMessage("alice", "bob", field(40), new int[]{1, 2, 3, 4, 0, 1, 0}));
+        int rounds = 3;
+
+        for (FrameCodec codec : FrameCodec.values()) {
+            for (Object message : messages) {
+                FrameCompressor compressor = new FrameCompressor(1); // Compress even the messages below the default threshold
+                FrameWriter writer = new FrameWriter(codec, compressor);
+                FrameReader reader = new FrameReader(compressor);
+                int uncompressedLength = writeFrames(codec, List.of(message)).length;
+                int compressedLength = 0;
+                for (int i = 0; i < rounds; i++) {
+                    byte[] frame = writeFrames(writer, List.of(message));
+                    compressedLength = frame.length;
+                    reader.read(new ByteArrayInputStream(frame));
+                }
+                assertTrue(compressedLength < uncompressedLength, codec + " " + message.getClass().getSimpleName());
+                compressor.end();
+            }
+        }
+    }
+
+    @DisplayName("Frames with invalid lengths or codecs, or truncated, should be rejected")
+    @Test
+    public void malformedFramesShouldBeRejected() throws IOException {
+        byte[] frame = writeFrames(FrameCodec.BINARY, List.of(sampleMessages().getFirst()));
+
+        byte[] oversized = frame.clone();
+        oversized[0] = 0x7F;
+        assertThrows(StreamCorruptedException.class, () -> new FrameReader().read(new ByteArrayInputStream(oversized)));
+
+        byte[] empty = {0, 0, 0, 0, 1};
+        assertThrows(StreamCorruptedException.class, () -> new FrameReader().read(new ByteArrayInputStream(empty)));
+
+        byte[] unknownCodec = frame.clone();
+        unknownCodec[FrameWriter.HEADER_LENGTH - 1] = 9;
+        assertThrows(StreamCorruptedException.class, () -> new FrameReader().read(new ByteArrayInputStream(unknownCodec)));
+
+        byte[] truncated = Arrays.copyOf(frame, frame.length - 1);
+        assertThrows(EOFException.class, () -> new FrameReader().read(new ByteArrayInputStream(truncated)));
+    }
+
+    @DisplayName("The handshake should be told apart from the header of an object stream, and negotiate compression")
+    @Test
+    public void handshakeShouldBeRecognized() throws IOException {
+        InputStream in = new ByteArrayInputStream(new FrameHandshake(FrameCodec.BINARY, true).encode());
+        byte[] preamble = in.readNBytes(FrameHandshake.PREAMBLE_LENGTH);
+        assertFalse(FrameHandshake.isStreamHeader(preamble));
+        FrameHandshake request = FrameHandshake.decode(preamble, in);
+        assertEquals(0, in.available());
+        assertEquals(FrameCodec.BINARY, request.getCodec());
+        assertTrue(request.isCompression());
+        assertTrue(request.answer(FrameCodec.BINARY, true).isCompression());
+        assertFalse(request.answer(FrameCodec.BINARY, false).isCompression());
+        assertFalse(new FrameHandshake(FrameCodec.JAVA, false).answer(FrameCodec.JAVA, true).isCompression());
+
+        // The answer is decoded by the client
+        in = new ByteArrayInputStream(request.answer(FrameCodec.JAVA, true).encode());
+        FrameHandshake answer = FrameHandshake.decode(in.readNBytes(FrameHandshake.PREAMBLE_LENGTH), in);
+        assertEquals(FrameCodec.JAVA, answer.getCodec());
+        assertTrue(answer.isCompression());
+
+        ByteArrayOutputStream streamHeader = new ByteArrayOutputStream();
+        new ObjectOutputStream(streamHeader).flush();
+        byte[] streamPreamble = Arrays.copyOf(streamHeader.toByteArray(), FrameHandshake.PREAMBLE_LENGTH);
+        assertTrue(FrameHandshake.isStreamHeader(streamPreamble));
+        assertThrows(StreamCorruptedException.class, () -> FrameHandshake.decode(streamPreamble, InputStream.nullInputStream()));
+    }
+
+    @DisplayName("Messages written as frames should not be retained, unlike the ones written on a long-lived object stream")
+    @Test
+    public void framesShouldNotRetainMessages() throws Exception {
+        ObjectOutputStream objectStream = new ObjectOutputStream(OutputStream.nullOutputStream());
+        FrameWriter writer = new FrameWriter(FrameCodec.JAVA);
+
+        Object streamMessage = new PlayerTurnMessage("alice", "bob");
+        Object framedMessage = new PlayerTurnMessage("alice", "bob");
+        objectStream.writeObject(streamMessage);
+        writer.write(framedMessage, OutputStream.nullOutputStream());
+        WeakReference<Object> streamReference = new WeakReference<>(streamMessage);
+        WeakReference<Object> framedReference = new WeakReference<>(framedMessage);
+        streamMessage = null;
+        framedMessage = null;
+
+        for (int i = 0; i < 10 && framedReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(framedReference.get());
+        assertNotNull(streamReference.get()); // Kept by the handle table of the stream
+        objectStream.close();
+    }
+}
@@ -0,0 +1,118 @@
+package it.polimi.ingsw.am32.network;
+
+import it.polimi.ingsw.am32.message.ServerToClient.PlayerTurnMessage;
+import it.polimi.ingsw.am32.message.ServerToClient.StoCMessage;
+import it.polimi.ingsw.am32.network.ClientNode.RMIClientNodeInt;
+import it.polimi.ingsw.am32.network.rmi.TunedClientSocketFactory;
+import it.polimi.ingsw.am32.network.rmi.TunedServerSocketFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.rmi.server.RMIClientSocketFactory;
+import java.rmi.server.RMIServerSocketFactory;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TunedSocketFactoryTest {
+
+    /**
+     * A client that counts the messages received with the callbacks of the server.
+     */
+    private static class CountingClientNode implements RMIClientNodeInt {
+        private int receivedMessages;
+
+        @Override
+        public void uploadStoC(StoCMessage message) {
+            receivedMessages++;
+        }
+
+        @Override
+        public void uploadStoCBatch(long batchSequence, ArrayList<StoCMessage> messages) {
+            receivedMessages += messages.size();
+        }
+    }
+
+    @DisplayName("A connection that stays silent should time out on the server instead of holding a thread")
+    @Test
+    public void silentConnectionShouldTimeOut() throws Exception {
+        TunedServerSocketFactory factory = new TunedServerSocketFactory(200, true, 8192, false);
+        try (ServerSocket serverSocket = factory.createServerSocket(0);
+             Socket client = new Socket("localhost", serverSocket.getLocalPort());
+             Socket accepted = serverSocket.accept()) {
+            assertTrue(accepted.getTcpNoDelay());
+            InputStream in = accepted.getInputStream();
+            long startTime = System.nanoTime();
+            assertThrows(SocketTimeoutException.class, in::read);
+            assertTrue(System.nanoTime() - startTime >= 150_000_000L);
+        }
+    }
+
+    @DisplayName("Compressed streams should deliver each flushed message as soon as it is written")
+    @Test
+    public void compressedStreamsShouldDeliverFlushedMessages() throws Exception {
+        TunedServerSocketFactory serverFactory = new TunedServerSocketFactory(5000, true, 8192, true);
+        TunedClientSocketFactory clientFactory = new TunedClientSocketFactory(5000, 5000, true, 8192, true);
+        try (ServerSocket serverSocket = serverFactory.createServerSocket(0);
+             Socket client = clientFactory.createSocket("localhost", serverSocket.getLocalPort());
+             Socket accepted = serverSocket.accept()) {
+            OutputStream out = client.getOutputStream();
+            InputStream in = accepted.getInputStream();
+            for (int i = 0; i < 3; i++) {
+                byte[] message = new byte[4096];
+                Arrays.fill(message, (byte) ('a' + i));
+                out.write(message);
+                out.flush();
+                assertArrayEquals(message, in.readNBytes(message.length));
+            }
+        }
+    }
+
+    @DisplayName("Factories with the same options should be equal, so that exported objects share the same port")
+    @Test
+    public void factoriesWithSameOptionsShouldBeEqual() {
+        assertEquals(new TunedClientSocketFactory(1, 2, true, 3, false), new TunedClientSocketFactory(1, 2, true, 3, false));
+        assertEquals(new TunedClientSocketFactory(1, 2, true, 3, false).hashCode(),
+                new TunedClientSocketFactory(1, 2, true, 3, false).hashCode());
+        assertNotEquals(new TunedClientSocketFactory(1, 2, true, 3, false), new TunedClientSocketFactory(1, 2, true, 3, true));
+        assertEquals(new TunedServerSocketFactory(2, true, 3, false), new TunedServerSocketFactory(2, true, 3, false));
+        assertNotEquals(new TunedServerSocketFactory(2, true, 3, false), new TunedServerSocketFactory(2, false, 3, false));
+    }
+
+    @DisplayName("Callbacks should work with the default and the tuned factories, with and without compression")
+    @Test
+    public void callbacksShouldWorkWithTunedFactories() throws Throwable {
+        ArrayList<StoCMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 16; i++)
+            batch.add(new PlayerTurnMessage("alice", "player" + i));
+
+        invokeCallbacks(null, null, batch);
+        invokeCallbacks(new TunedClientSocketFactory(5000, 30000, true, 8192, false),
+                new TunedServerSocketFactory(30000, true, 8192, false), batch);
+        invokeCallbacks(new TunedClientSocketFactory(5000, 30000, true, 8192, true),
+                new TunedServerSocketFactory(30000, true, 8192, true), batch);
+    }
+
+    private void invokeCallbacks(RMIClientSocketFactory clientFactory, RMIServerSocketFactory serverFactory,
+                                 ArrayList<StoCMessage> batch) throws Throwable {
+        CountingClientNode client = new CountingClientNode();
+        RMIClientNodeInt stub = clientFactory == null
+                ? (RMIClientNodeInt) UnicastRemoteObject.exportObject(client, 0)
+                : (RMIClientNodeInt) UnicastRemoteObject.exportObject(client, 0, clientFactory, serverFactory);
+        try {
+            int calls = 20;
+            for (int i = 0; i < calls; i++)
+                stub.uploadStoCBatch(i, batch);
+            assertEquals(calls * batch.size(), client.receivedMessages);
+        } finally {
+            UnicastRemoteObject.unexportObject(client, true);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package it.polimi.ingsw.am32.network;
+
+import it.polimi.ingsw.am32.client.View;
+import it.polimi.ingsw.am32.message.ClientToServer.NewGameMessage;
+import it.polimi.ingsw.am32.network.ClientNode.SKClientNode;
+import it.polimi.ingsw.am32.network.ServerNode.SKServerNode;
+import it.polimi.ingsw.am32.network.framing.SocketFraming;
+import it.polimi.ingsw.am32.network.unix.UnixDomainSocket;
+import it.polimi.ingsw.am32.utilities.Configuration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Path;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class UnixDomainSocketTest {
+
+    @TempDir
+    Path directory;
+
+    private ServerSocketChannel listen(Path path) throws Exception {
+        ServerSocketChannel serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        serverChannel.bind(UnixDomainSocketAddress.of(path));
+        return serverChannel;
+    }
+
+    @DisplayName("Bytes should flow in both directions, and reads should time out and then resume")
+    @Test
+    public void streamsShouldWorkAndReadsShouldTimeOut() throws Exception {
+        Path path = directory.resolve("server.sock");
+        try (ServerSocketChannel serverChannel = listen(path);
+             UnixDomainSocket client = UnixDomainSocket.connect(path);
+             UnixDomainSocket accepted = new UnixDomainSocket(serverChannel.accept())) {
+
+            accepted.setSoTimeout(100);
+            InputStream in = accepted.getInputStream();
+            long startTime = System.nanoTime();
+            assertThrows(SocketTimeoutException.class, in::read);
+            assertTrue(System.nanoTime() - startTime >= 80_000_000L);
+
+            byte[] message = new byte[200_000]; // Larger than the socket buffers
+            for (int i = 0; i < message.length; i++)
+                message[i] = (byte) i;
+            Thread writer = new Thread(() -> {
+                try {
+                    client.getOutputStream().write(message);
+                } catch (Exception ignored) {}
+            });
+            writer.start();
+            assertArrayEquals(message, in.readNBytes(message.length));
+            writer.join();
+
+            accepted.getOutputStream().write(42);
+            assertEquals(42, client.getInputStream().read());
+        }
+    }
+
+    @DisplayName("Closing the socket should release a thread blocked in a read")
+    @Test
+    public void closeShouldReleaseBlockedRead() throws Exception {
+        Path path = directory.resolve("server.sock");
+        try (ServerSocketChannel serverChannel = listen(path);
+             UnixDomainSocket client = UnixDomainSocket.connect(path);
+             UnixDomainSocket accepted = new UnixDomainSocket(serverChannel.accept())) {
+
+            Future<?> reader = Configuration.getInstance().getExecutorService().submit(() -> {
+                assertThrows(SocketException.class, () -> accepted.getInputStream().read());
+                return null;
+            });
+            Thread.sleep(100);
+            accepted.close();
+            reader.get();
+            assertTrue(accepted.isClosed());
+            assertEquals(-1, client.getInputStream().read()); // The other end sees the end of the stream
+        }
+    }
+
+    @DisplayName("A client should reach the server through the Unix domain socket, handled by a SKServerNode")
+    @Test
+    public void clientShouldReachTheServer() throws Throwable {
+        Path path = directory.resolve("server.sock");
+        try (ServerSocketChannel serverChannel = listen(path)) {
+            Configuration.getInstance().getExecutorService().submit(() -> {
+                try {
+                    new SKServerNode(new UnixDomainSocket(serverChannel.accept())).run();
+                } catch (Throwable ignored) {}
+            });
+
+            View view = mock(View.class);
+            when(view.acknowledgeSequence(anyLong(), any(), anyLong(), anyBoolean())).thenReturn(true);
+            SKClientNode client = new SKClientNode(view, path, SocketFraming.FRAMED, true);
+            client.startConnection();
+
+            client.uploadToServer(new NewGameMessage("unixPlayer", 2));
+            verify(view, timeout(5000)).updateNewGameConfirm(anyInt(), eq("unixPlayer"));
+        }
+    }
+
+    @DisplayName("Many small messages should be echoed back in order over a Unix domain socket")
+    @Test
+    public void smallMessagesShouldBeEchoedInOrder() throws Exception {
+        Path path = directory.resolve("server.sock");
+        try (ServerSocketChannel serverChannel = listen(path);
+             UnixDomainSocket client = UnixDomainSocket.connect(path);
+             UnixDomainSocket accepted = new UnixDomainSocket(serverChannel.accept())) {
+            int roundTrips = 200;
+            byte[] message = new byte[64];
+
+            Thread echo = new Thread(() -> {
+                try {
+                    InputStream in = accepted.getInputStream();
+                    OutputStream out = accepted.getOutputStream();
+                    byte[] buffer = new byte[message.length];
+                    for (int i = 0; i < roundTrips; i++) {
+                        in.readNBytes(buffer, 0, buffer.length);
+                        out.write(buffer);
+                    }
+                } catch (Exception ignored) {}
+            });
+            echo.start();
+
+            InputStream in = client.getInputStream();
+            OutputStream out = client.getOutputStream();
+            for (int i = 0; i < roundTrips; i++) {
+                message[0] = (byte) i;
+                out.write(message);
+                assertArrayEquals(message, in.readNBytes(message.length));
+            }
+            echo.join();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package it.polimi.ingsw.am32.utilities;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProtocolLoggingTest {
+
+    private static final Logger logger = LogManager.getLogger(ProtocolLoggingTest.class);
+
+    @AfterEach
+    void restoreLogging() {
+        ((LoggerContext) LogManager.getContext(false)).reconfigure();
+    }
+
+    @DisplayName("The first message of each type should be logged, then one in every sample rate")
+    @Test
+    public void messagesShouldBeSampledByType() {
+        int logged = 0;
+        for (int i = 0; i < 100; i++) {
+            if (ProtocolLogSampler.isSampled("SampledMessageA", 10))
+                logged++;
+        }
+        assertEquals(10, logged);
+        assertTrue(ProtocolLogSampler.isSampled("SampledMessageB", 10));
+        assertFalse(ProtocolLogSampler.isSampled("SampledMessageB", 10));
+    }
+
+    @DisplayName("The logs of a game should be routed to its file, through the asynchronous appender or not")
+    @ParameterizedTest
+    @ValueSource(ints = {0, 64})
+    public void gameLogsShouldBeRoutedToTheirFile(int asyncBufferSize, @TempDir Path directory) throws IOException {
+        Log4J2ConfiguratorWrapper.setLogLevelAndConfigure(Level.INFO, asyncBufferSize, directory.toString());
+        Log4J2ConfiguratorWrapper.routeToGame(42);
+        logger.info("Routed line");
+        Log4J2ConfiguratorWrapper.stopRoutingToGame();
+        Log4J2ConfiguratorWrapper.routedToGame(43, () -> logger.info("Routed task line")).run();
+        logger.info("Console line");
+        restoreLogging(); // Stopping the configuration flushes the asynchronous appender
+
+        String gameLog = Files.readString(directory.resolve("game-42.log"));
+        assertTrue(gameLog.contains("Routed line"));
+        assertFalse(gameLog.contains("Console line"));
+        assertTrue(Files.readString(directory.resolve("game-43.log")).contains("Routed task line"));
+    }
+}